@@ -57,7 +57,7 @@ public final class TerraDescribeViewportsDocumentationProvider implements Docume
     @Override
     public String generateDoc(PsiElement element, @Nullable PsiElement originalElement) {
         if (element != null
-            && isUsingTerra(element.getProject())
+            && isUsingTerra(element.getContainingFile())
             && isWdioSpecFile(element.getContainingFile())
             && isJSStringLiteral(element)
             && element.getParent() instanceof JSArrayLiteralExpression
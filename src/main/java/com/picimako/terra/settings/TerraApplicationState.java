@@ -9,6 +9,7 @@ import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.util.xmlb.XmlSerializerUtil;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -25,6 +26,8 @@ import com.picimako.terra.wdio.screenshot.inlayhint.InlayType;
     storages = {@Storage("TerraSupportSettings.xml")}
 )
 public class TerraApplicationState implements PersistentStateComponent<TerraApplicationState> {
+    public static final int DEFAULT_TOOL_WINDOW_UPDATE_DELAY_MILLIS = 300;
+    public static final int DEFAULT_IMAGE_EDITOR_CACHE_SIZE_MEGABYTES = 256;
 
     /**
      * The list of relative paths for the locations of wdio test folders to recognize.
@@ -56,12 +59,54 @@ public class TerraApplicationState implements PersistentStateComponent<TerraAppl
      */
     public String showCssSelector = InlayType.Disabled.name();
 
+    /**
+     * The delay in milliseconds to wait for further file system events before applying them to the Terra wdio tool window.
+     * <p>
+     * Bursts of file system events within this delay, e.g. when a test run saves many latest and diff screenshots,
+     * are merged into a single update.
+     *
+     * @see com.picimako.terra.wdio.toolwindow.TerraWdioTreeUpdater
+     * @since 1.13.0
+     */
+    public int toolWindowUpdateDelayMillis = DEFAULT_TOOL_WINDOW_UPDATE_DELAY_MILLIS;
+
+    /**
+     * Whether to prepare the Terra related data of projects in the background, after they are opened and indexed.
+     *
+     * @see com.picimako.terra.wdio.warmup.TerraWarmUpService
+     * @since 1.13.0
+     */
+    public boolean warmUpOnStartup = true;
+
+    /**
+     * The memory budget in megabytes for the image editors of the screenshot previews, based on the decoded sizes of their images.
+     * <p>
+     * When the budget is exceeded, the least recently used editors of closed previews are disposed.
+     *
+     * @see com.picimako.terra.wdio.imagepreview.ImageEditorCache
+     * @since 1.13.0
+     */
+    public int imageEditorCacheSizeMegabytes = DEFAULT_IMAGE_EDITOR_CACHE_SIZE_MEGABYTES;
+
     public TerraApplicationState() {
         wdioRootPaths = new ArrayList<>();
         wdioRootPaths.add(new RootPath("test/wdio"));
         wdioRootPaths.add(new RootPath("tests/wdio"));
     }
 
+    /**
+     * Returns a modification tracker whose modification count changes whenever the wdio root paths change,
+     * so that values derived from the wdio root paths can be cached and invalidated accordingly.
+     * <p>
+     * The modification count is based on the contents of {@link #wdioRootPaths}, so it reflects both the replacement
+     * of the list, and changes made to the list and the paths in it.
+     *
+     * @since 1.13.0
+     */
+    public ModificationTracker wdioRootPathsModificationTracker() {
+        return () -> wdioRootPaths.hashCode();
+    }
+
     public static TerraApplicationState getInstance() {
         return ApplicationManager.getApplication().getService(TerraApplicationState.class);
     }
@@ -8,6 +8,7 @@ import javax.swing.*;
 
 import com.intellij.icons.AllIcons;
 import com.intellij.ui.ContextHelpLabel;
+import com.intellij.ui.JBIntSpinner;
 import com.intellij.ui.TitledSeparator;
 import com.intellij.ui.ToolbarDecorator;
 import com.intellij.ui.table.TableView;
@@ -28,8 +29,12 @@ public class TerraSettingsComponent {
     private final JPanel settingsPanel;
     private final ListTableModel<RootPath> wdioRootPathsTableViewModel;
     private final JCheckBox screenshotDeletionConfirmationCheckbox;
+    private final JBIntSpinner toolWindowUpdateDelaySpinner;
+    private final JCheckBox warmUpOnStartupCheckbox;
+    private final JBIntSpinner imageEditorCacheSizeSpinner;
 
-    public TerraSettingsComponent(List<RootPath> wdioRootPaths, boolean isScreenshotDeletionConfirmationCheckboxSelected) {
+    public TerraSettingsComponent(List<RootPath> wdioRootPaths, boolean isScreenshotDeletionConfirmationCheckboxSelected, int toolWindowUpdateDelayMillis,
+                                  boolean isWarmUpOnStartupCheckboxSelected, int imageEditorCacheSizeMegabytes) {
         var wdioRootPathsTableView = new TableView<>(new WdioRootPathsTableModelCreator().create());
         wdioRootPathsTableViewModel = (ListTableModel<RootPath>) wdioRootPathsTableView.getTableViewModel();
         wdioRootPathsTableViewModel.setItems(wdioRootPaths);
@@ -44,6 +49,13 @@ public class TerraSettingsComponent {
         screenshotDeletionConfirmationCheckbox = new JCheckBox(TerraBundle.settings("confirm.screenshot.deletion"));
         screenshotDeletionConfirmationCheckbox.setSelected(isScreenshotDeletionConfirmationCheckboxSelected);
 
+        toolWindowUpdateDelaySpinner = new JBIntSpinner(toolWindowUpdateDelayMillis, 0, 10_000, 50);
+
+        warmUpOnStartupCheckbox = new JCheckBox(TerraBundle.settings("warm.up.on.startup"));
+        warmUpOnStartupCheckbox.setSelected(isWarmUpOnStartupCheckboxSelected);
+
+        imageEditorCacheSizeSpinner = new JBIntSpinner(imageEditorCacheSizeMegabytes, 16, 4096, 16);
+
         settingsPanel = FormBuilder.createFormBuilder()
             .addComponent(new TitledSeparator(TerraBundle.settings("wdio.paths.section.title")))
             .addComponent(createRootPathsHelpLabel())
@@ -51,6 +63,13 @@ public class TerraSettingsComponent {
             .addVerticalGap(10)
             .addComponent(new TitledSeparator(TerraBundle.settings("terra.wdio.tool.window.section.title")))
             .addComponent(screenshotDeletionConfirmationCheckbox)
+            .addLabeledComponent(TerraBundle.settings("tool.window.update.delay"), toolWindowUpdateDelaySpinner)
+            .addVerticalGap(10)
+            .addComponent(new TitledSeparator(TerraBundle.settings("startup.section.title")))
+            .addComponent(warmUpOnStartupCheckbox)
+            .addVerticalGap(10)
+            .addComponent(new TitledSeparator(TerraBundle.settings("screenshot.previews.section.title")))
+            .addLabeledComponent(TerraBundle.settings("image.editor.cache.size"), imageEditorCacheSizeSpinner)
             .addComponentFillVertically(new JPanel(), 0)
             .getPanel();
     }
@@ -80,4 +99,28 @@ public class TerraSettingsComponent {
     public boolean isScreenshotDeletionConfirmationCheckboxSelected() {
         return screenshotDeletionConfirmationCheckbox.isSelected();
     }
+
+    public void setToolWindowUpdateDelayMillis(int delayMillis) {
+        toolWindowUpdateDelaySpinner.setNumber(delayMillis);
+    }
+
+    public int getToolWindowUpdateDelayMillis() {
+        return toolWindowUpdateDelaySpinner.getNumber();
+    }
+
+    public void setWarmUpOnStartupCheckboxSelected(boolean selected) {
+        warmUpOnStartupCheckbox.setSelected(selected);
+    }
+
+    public boolean isWarmUpOnStartupCheckboxSelected() {
+        return warmUpOnStartupCheckbox.isSelected();
+    }
+
+    public void setImageEditorCacheSizeMegabytes(int megabytes) {
+        imageEditorCacheSizeSpinner.setNumber(megabytes);
+    }
+
+    public int getImageEditorCacheSizeMegabytes() {
+        return imageEditorCacheSizeSpinner.getNumber();
+    }
 }
@@ -27,7 +27,8 @@ public class TerraSettingsConfigurable implements Configurable {
     @Override
     public @Nullable JComponent createComponent() {
         var settings = TerraApplicationState.getInstance();
-        component = new TerraSettingsComponent(new ArrayList<>(settings.wdioRootPaths), settings.showConfirmationBeforeScreenshotDeletion);
+        component = new TerraSettingsComponent(new ArrayList<>(settings.wdioRootPaths), settings.showConfirmationBeforeScreenshotDeletion,
+            settings.toolWindowUpdateDelayMillis, settings.warmUpOnStartup, settings.imageEditorCacheSizeMegabytes);
         return component.getSettingsPanel();
     }
 
@@ -35,7 +36,10 @@ public class TerraSettingsConfigurable implements Configurable {
     public boolean isModified() {
         var settings = TerraApplicationState.getInstance();
         return !settings.wdioRootPaths.equals(component.getWdioRootPaths())
-            || !settings.showConfirmationBeforeScreenshotDeletion == component.isScreenshotDeletionConfirmationCheckboxSelected();
+            || !settings.showConfirmationBeforeScreenshotDeletion == component.isScreenshotDeletionConfirmationCheckboxSelected()
+            || settings.toolWindowUpdateDelayMillis != component.getToolWindowUpdateDelayMillis()
+            || settings.warmUpOnStartup != component.isWarmUpOnStartupCheckboxSelected()
+            || settings.imageEditorCacheSizeMegabytes != component.getImageEditorCacheSizeMegabytes();
     }
 
     @Override
@@ -43,6 +47,9 @@ public class TerraSettingsConfigurable implements Configurable {
         var settings = TerraApplicationState.getInstance();
         settings.wdioRootPaths = component.getWdioRootPaths();
         settings.showConfirmationBeforeScreenshotDeletion = component.isScreenshotDeletionConfirmationCheckboxSelected();
+        settings.toolWindowUpdateDelayMillis = component.getToolWindowUpdateDelayMillis();
+        settings.warmUpOnStartup = component.isWarmUpOnStartupCheckboxSelected();
+        settings.imageEditorCacheSizeMegabytes = component.getImageEditorCacheSizeMegabytes();
     }
 
     @Override
@@ -50,6 +57,9 @@ public class TerraSettingsConfigurable implements Configurable {
         var settings = TerraApplicationState.getInstance();
         component.setWdioRootPaths(new ArrayList<>(settings.wdioRootPaths));
         component.setScreenshotDeletionConfirmationCheckboxSelected(settings.showConfirmationBeforeScreenshotDeletion);
+        component.setToolWindowUpdateDelayMillis(settings.toolWindowUpdateDelayMillis);
+        component.setWarmUpOnStartupCheckboxSelected(settings.warmUpOnStartup);
+        component.setImageEditorCacheSizeMegabytes(settings.imageEditorCacheSizeMegabytes);
     }
 
     @Override
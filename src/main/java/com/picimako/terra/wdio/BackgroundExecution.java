@@ -0,0 +1,123 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio;
+
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.NonBlockingReadAction;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.impl.BackgroundableProcessIndicator;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Executes the background work of the plugin, e.g. building the model of the Terra wdio tool window, or scanning the screenshots.
+ * <p>
+ * The IDE uses {@link Asynchronous}, which runs the work in background tasks and on pooled threads, in non-blocking read actions.
+ * Tests use {@link Synchronous} by default, which runs the same work on the calling thread, in regular read actions, so that
+ * its results can be checked right away. Tests of the asynchronous behaviour can replace this service with {@link Asynchronous}.
+ *
+ * @since 1.13.0
+ */
+public interface BackgroundExecution extends Executor {
+
+    /**
+     * Runs the argument task, and then its {@code onSuccess()}, {@code onCancel()}, {@code onThrowable()} and {@code onFinished()} callbacks accordingly.
+     */
+    void run(@NotNull Task.Backgroundable task);
+
+    /**
+     * Computes the argument computation in a read action, and returns its result.
+     *
+     * @param computation the computation to perform
+     * @param constraints applies the constraints, e.g. smart mode, or expiration, to the non-blocking read action of the computation
+     * @param indicator   the progress indicator of the calling background task
+     */
+    <T> T computeInReadAction(@NotNull Supplier<T> computation,
+                              @NotNull UnaryOperator<NonBlockingReadAction<T>> constraints,
+                              @NotNull ProgressIndicator indicator);
+
+    /**
+     * Returns whether the work is executed on the calling thread.
+     */
+    boolean isSynchronous();
+
+    static BackgroundExecution getInstance() {
+        return ApplicationManager.getApplication().getService(BackgroundExecution.class);
+    }
+
+    /**
+     * Runs the tasks in the background with their progress displayed, the commands on pooled threads, and the computations
+     * in cancellable non-blocking read actions. Must not compute in read actions on the EDT.
+     */
+    final class Asynchronous implements BackgroundExecution {
+
+        @Override
+        public void run(@NotNull Task.Backgroundable task) {
+            //Unlike Task#queue(), this doesn't run the task synchronously in headless mode
+            ProgressManager.getInstance().runProcessWithProgressAsynchronously(task, new BackgroundableProcessIndicator(task));
+        }
+
+        @Override
+        public <T> T computeInReadAction(@NotNull Supplier<T> computation,
+                                         @NotNull UnaryOperator<NonBlockingReadAction<T>> constraints,
+                                         @NotNull ProgressIndicator indicator) {
+            return constraints.apply(ReadAction.nonBlocking(computation::get)).wrapProgress(indicator).executeSynchronously();
+        }
+
+        @Override
+        public void execute(@NotNull Runnable command) {
+            ApplicationManager.getApplication().executeOnPooledThread(command);
+        }
+
+        @Override
+        public boolean isSynchronous() {
+            return false;
+        }
+    }
+
+    /**
+     * Runs the tasks and the commands on the calling thread, and the computations in regular read actions, ignoring their constraints.
+     */
+    final class Synchronous implements BackgroundExecution {
+
+        @Override
+        public void run(@NotNull Task.Backgroundable task) {
+            var indicator = new EmptyProgressIndicator();
+            try {
+                ProgressManager.getInstance().runProcess(() -> task.run(indicator), indicator);
+                task.onSuccess();
+            } catch (ProcessCanceledException e) {
+                task.onCancel();
+            } catch (Throwable e) {
+                task.onThrowable(e);
+            } finally {
+                task.onFinished();
+            }
+        }
+
+        @Override
+        public <T> T computeInReadAction(@NotNull Supplier<T> computation,
+                                         @NotNull UnaryOperator<NonBlockingReadAction<T>> constraints,
+                                         @NotNull ProgressIndicator indicator) {
+            return ReadAction.compute(computation::get);
+        }
+
+        @Override
+        public void execute(@NotNull Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public boolean isSynchronous() {
+            return true;
+        }
+    }
+}
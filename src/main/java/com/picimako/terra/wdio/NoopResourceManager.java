@@ -22,7 +22,7 @@ import com.picimako.terra.wdio.screenshot.inspection.TerraPropertiesProvider;
 @Service(Service.Level.PROJECT)
 public final class NoopResourceManager extends TerraResourceManager {
 
-    private static final SpecFolderCollector NOOP = new SpecFolderCollector(null);
+    private static final SpecFolderCollector NOOP = new SpecFolderCollector(null, 0);
 
     //Required for project service creation
     public NoopResourceManager(Project project) {
@@ -45,6 +45,11 @@ public final class NoopResourceManager extends TerraResourceManager {
             public @Nullable String resolveWithFallback(@Nullable JSLiteralExpression firstNameArgument, JSExpression methodExpression) {
                 return null;
             }
+
+            @Override
+            public @Nullable String resolveWithFallbackUncached(@Nullable JSLiteralExpression firstNameArgument, JSExpression methodExpression) {
+                return null;
+            }
         };
     }
 
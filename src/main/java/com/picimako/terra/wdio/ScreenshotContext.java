@@ -0,0 +1,19 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The context a screenshot is created for.
+ *
+ * @param theme    the theme, or null if the screenshot paths don't contain the theme, e.g. in case of terra-toolkit
+ * @param locale   the locale, e.g. {@code en}
+ * @param browser  the browser, e.g. {@code chrome}
+ * @param viewport the viewport, e.g. {@code huge}
+ * @see ScreenshotContextParser#parseContext(String)
+ * @since 1.13.0
+ */
+public record ScreenshotContext(@Nullable String theme, @NotNull String locale, @NotNull String browser, @NotNull String viewport) {
+}
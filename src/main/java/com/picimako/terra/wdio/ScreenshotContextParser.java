@@ -2,7 +2,10 @@
 
 package com.picimako.terra.wdio;
 
+import java.util.regex.Pattern;
+
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Takes a screenshot file's path and retrieves the context information from it.
@@ -27,4 +30,24 @@ public abstract class ScreenshotContextParser {
      * @return the context information
      */
     public abstract String parse(@NotNull String filePath);
+
+    /**
+     * Parses the context information from the provided path into its separate parts.
+     *
+     * @param filePath the screenshot's file path to process
+     * @return the context information, or null if it cannot be parsed from the path
+     * @since 1.13.0
+     */
+    @Nullable
+    public ScreenshotContext parseContext(@NotNull String filePath) {
+        String context = parse(filePath);
+        if (context == null) return null;
+
+        String[] parts = context.split(Pattern.quote(contextSeparator));
+        return switch (parts.length) {
+            case 3 -> new ScreenshotContext(null, parts[0], parts[1], parts[2]);
+            case 4 -> new ScreenshotContext(parts[0], parts[1], parts[2], parts[3]);
+            default -> null;
+        };
+    }
 }
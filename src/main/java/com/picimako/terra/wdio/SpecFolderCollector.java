@@ -2,20 +2,36 @@
 
 package com.picimako.terra.wdio;
 
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.WDIO_SPEC_FILE_NAME_PATTERN;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
  * Collects spec folders based on image type.
  *
- * @param folderType Returns in which image type the argument folder is located: diff, latest, reference.
+ * @param folderType      Returns in which image type the argument folder is located: diff, latest, reference.
+ * @param specFolderDepth The number of folder levels between an image type folder and the spec folders in it,
+ *                        e.g. 3 for the {@code [type]/locale/browser_viewport/spec} folder structure.
  */
-public record SpecFolderCollector(@Nullable("Only by the no-op collector.") Function<VirtualFile, String> folderType) {
+public record SpecFolderCollector(@Nullable("Only by the no-op collector.") Function<VirtualFile, String> folderType, int specFolderDepth) {
+    private static final List<String> IMAGE_TYPES = List.of(TerraWdioFolders.REFERENCE, TerraWdioFolders.DIFF, TerraWdioFolders.LATEST);
+    /**
+     * Folders that are not supposed to contain wdio specs or screenshots, thus their contents are not visited.
+     */
+    private static final Set<String> PRUNED_FOLDER_NAMES = Set.of("node_modules", "fixtures");
+    private static final Pattern SPEC_FILE_NAME = Pattern.compile(WDIO_SPEC_FILE_NAME_PATTERN);
 
     /**
      * Collect spec folders from within the provided set of files and folders (effectively everything from) the wdio
@@ -33,4 +49,131 @@ public record SpecFolderCollector(@Nullable("Only by the no-op collector.") Func
             .filter(dir -> dir.getName().endsWith("-spec"))
             .filter(dir -> imageType.equals(folderType.apply(dir)));
     }
+
+    /**
+     * Collect spec folders of the provided {@code imageType} (diff, latest or reference) from within the wdio test root.
+     * <p>
+     * Unlike {@link #collectSpecFoldersForTypeInside(String, List)}, this doesn't require all files and folders in the
+     * wdio root to be collected beforehand, only the relevant folders are visited. See {@link #visitWdioRoot(VirtualFile, Visitor)}.
+     *
+     * @param imageType the image type folder to collect the spec folders from
+     * @param wdioRoot  the wdio test root folder
+     * @return the stream of matching spec folders
+     * @since 1.13.0
+     */
+    @NotNull
+    public Stream<VirtualFile> collectSpecFoldersForTypeInside(@NotNull String imageType, @NotNull VirtualFile wdioRoot) {
+        final var specFolders = new ArrayList<VirtualFile>();
+        visitWdioRoot(wdioRoot, (type, specFolder) -> {
+            if (imageType.equals(type)) specFolders.add(specFolder);
+        });
+        return specFolders.stream();
+    }
+
+    /**
+     * Collect spec folders of the provided {@code imageType} (diff, latest or reference) from within a single {@code __snapshots__} folder.
+     * <p>
+     * Unlike {@link #collectSpecFoldersForTypeInside(String, VirtualFile)}, this visits only the argument folder, and not the
+     * {@code __snapshots__} folders of nested specs.
+     *
+     * @param imageType       the image type folder to collect the spec folders from
+     * @param snapshotsFolder the {@code __snapshots__} folder
+     * @return the stream of matching spec folders
+     * @since 1.13.0
+     */
+    @NotNull
+    public Stream<VirtualFile> collectSpecFoldersForTypeInSnapshotsFolder(@NotNull String imageType, @NotNull VirtualFile snapshotsFolder) {
+        var imageTypeFolder = snapshotsFolder.findChild(imageType);
+        if (folderType == null || imageTypeFolder == null || !imageTypeFolder.isDirectory()) return Stream.empty();
+
+        final var specFolders = new ArrayList<VirtualFile>();
+        visitSpecFolders(imageType, imageTypeFolder, 1, (type, specFolder) -> specFolders.add(specFolder));
+        return specFolders.stream();
+    }
+
+    /**
+     * Walks through the provided wdio test root in a single pass, and reports the spec files, the {@code __snapshots__}
+     * folders, and the spec folders of all image types to the argument visitor.
+     * <p>
+     * The traversal relies on the known structure of the {@code __snapshots__} folders
+     * ({@code __snapshots__/<type>/[theme/]locale/browser_viewport/<spec>}), so
+     * <ul>
+     *     <li>within {@code __snapshots__} folders only the image type folders are visited, and only down to the level of spec folders,
+     *     the screenshots within spec folders are not visited,</li>
+     *     <li>folders that are not supposed to contain wdio resources, like {@code node_modules} and {@code fixtures}, are skipped altogether.</li>
+     * </ul>
+     * This way the time and memory needed for the traversal depends on the number of spec folders, and not on the number
+     * of all files in the wdio root.
+     *
+     * @param wdioRoot the wdio test root folder
+     * @param visitor  the visitor to report the found files and folders to
+     * @since 1.13.0
+     */
+    public void visitWdioRoot(@NotNull VirtualFile wdioRoot, @NotNull Visitor visitor) {
+        if (folderType == null) return;
+
+        VfsUtilCore.visitChildrenRecursively(wdioRoot, new VirtualFileVisitor<Void>() {
+            @Override
+            public boolean visitFile(@NotNull VirtualFile file) {
+                ProgressManager.checkCanceled();
+                if (!file.isDirectory()) {
+                    if (SPEC_FILE_NAME.matcher(file.getName()).matches()) {
+                        visitor.visitSpecFile(file);
+                    }
+                    return false;
+                }
+                if (file.equals(wdioRoot)) return true;
+                if (PRUNED_FOLDER_NAMES.contains(file.getName())) return false;
+
+                if (TerraWdioFolders.SNAPSHOTS.equals(file.getName())) {
+                    visitor.visitSnapshotsFolder(file);
+                    for (String imageType : IMAGE_TYPES) {
+                        var imageTypeFolder = file.findChild(imageType);
+                        if (imageTypeFolder != null && imageTypeFolder.isDirectory()) {
+                            visitSpecFolders(imageType, imageTypeFolder, 1, visitor);
+                        }
+                    }
+                    return false;
+                }
+                return true;
+            }
+        });
+    }
+
+    private void visitSpecFolders(String imageType, VirtualFile folder, int depth, Visitor visitor) {
+        for (var child : folder.getChildren()) {
+            if (child.isDirectory()) {
+                if (depth < specFolderDepth) {
+                    visitSpecFolders(imageType, child, depth + 1, visitor);
+                } else if (child.getName().endsWith("-spec")) {
+                    visitor.visitSpecFolder(imageType, child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Receives the files and folders found by {@link #visitWdioRoot(VirtualFile, Visitor)}.
+     *
+     * @since 1.13.0
+     */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * Called for each spec folder found in the image type folder {@code imageType}.
+         */
+        void visitSpecFolder(@NotNull String imageType, @NotNull VirtualFile specFolder);
+
+        /**
+         * Called for each spec file found outside the {@code __snapshots__} folders.
+         */
+        default void visitSpecFile(@NotNull VirtualFile specFile) {
+        }
+
+        /**
+         * Called for each {@code __snapshots__} folder, before its spec folders are visited.
+         */
+        default void visitSnapshotsFolder(@NotNull VirtualFile snapshotsFolder) {
+        }
+    }
 }
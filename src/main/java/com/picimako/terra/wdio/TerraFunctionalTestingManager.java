@@ -22,7 +22,7 @@ public final class TerraFunctionalTestingManager extends TerraResourceManager {
      * Retrieves the folder type based on the {@code [type]/theme/locale/browser_viewport/spec} folder structure.
      */
     private static final SpecFolderCollector TERRA_FUNCTIONAL_TESTING_SPEC_COLLECTOR =
-        new SpecFolderCollector(dir -> dir.getParent().getParent().getParent().getParent().getName());
+        new SpecFolderCollector(dir -> dir.getParent().getParent().getParent().getParent().getName(), 4);
     private ScreenshotContextParser contextParserWithSeparator;
 
     //Required for project service creation
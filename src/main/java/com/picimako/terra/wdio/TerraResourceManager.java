@@ -2,18 +2,27 @@
 
 package com.picimako.terra.wdio;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.intellij.javascript.nodejs.PackageJsonData;
 import com.intellij.javascript.nodejs.packageJson.PackageJsonFileManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.ModificationTracker;
 import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.util.UserDataHolderEx;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
 import com.intellij.psi.util.CachedValueProvider;
 import com.intellij.psi.util.CachedValuesManager;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Base manager for Terra resource handlers.
@@ -22,6 +31,9 @@ public abstract class TerraResourceManager implements TerraResourceHandlerProvid
 
     private static final String CERNER_TERRA_FUNCTIONAL_TESTING = "@cerner/terra-functional-testing";
     private static final String CERNER_TERRA_TOOLKIT = "terra-toolkit";
+    private static final String PACKAGE_JSON = "package.json";
+    private static final Key<CachedValue<Map<VirtualFile, PackageManagerType>>> PACKAGE_MANAGER_TYPES_KEY = Key.create("terra.package.manager.types");
+    private static final Key<ManagerTracker> MANAGER_TRACKER_KEY = Key.create("terra.resource.manager.tracker");
 
     /**
      * Creates a resource manager based on the Terra test library used in the project.
@@ -48,7 +60,8 @@ public abstract class TerraResourceManager implements TerraResourceHandlerProvid
     public static TerraResourceManager getInstance(Project project, Class<? extends TerraResourceManager>... managerType) {
         return CachedValuesManager.getManager(project).getCachedValue(project, () -> {
             if (managerType != null && managerType.length == 1) {
-                return CachedValueProvider.Result.create(project.getService(managerType[0]), ModificationTracker.NEVER_CHANGED);
+                return CachedValueProvider.Result.create(managerTrackerOf(project).track(project.getService(managerType[0])),
+                    ModificationTracker.NEVER_CHANGED);
             }
             var dependency = new Ref<>();
             Optional<PackageJsonData> rootPackageJson = PackageJsonFileManager.getInstance(project).getValidPackageJsonFiles().stream()
@@ -64,18 +77,124 @@ public abstract class TerraResourceManager implements TerraResourceHandlerProvid
                 .findFirst();
 
             if (rootPackageJson.isPresent()) { //dependencies[0] is implicitly not null when rootPackageJson.isPresent()
-                if (rootPackageJson.get().containsOneOfDependencyOfAnyType(CERNER_TERRA_FUNCTIONAL_TESTING)) {
-                    return CachedValueProvider.Result.create(project.getService(TerraFunctionalTestingManager.class), dependency.get());
-                } else if (rootPackageJson.get().containsOneOfDependencyOfAnyType(CERNER_TERRA_TOOLKIT)) {
-                    return CachedValueProvider.Result.create(project.getService(TerraToolkitManager.class), dependency.get());
+                var managerClass = terraManagerType(rootPackageJson.get());
+                if (managerClass != null) {
+                    return CachedValueProvider.Result.create(managerTrackerOf(project).track(project.getService(managerClass)), dependency.get());
                 }
             }
             //This will happen when there is a root package.json containing none of the Terra related dependencies,            
             // or when there is no package.json in the project root.
-            return CachedValueProvider.Result.create(project.getService(NoopResourceManager.class), ModificationTracker.NEVER_CHANGED);
+            return CachedValueProvider.Result.create(managerTrackerOf(project).track(project.getService(NoopResourceManager.class)),
+                ModificationTracker.NEVER_CHANGED);
         });
     }
 
+    /**
+     * Returns a modification tracker whose modification count changes whenever the resource manager returned by
+     * {@link #getInstance(Project, Class[])} is replaced by a different one, e.g. due to switching between terra-toolkit
+     * and terra-functional-testing in the root package.json.
+     * <p>
+     * Querying the modification count brings the resource manager up-to-date first, so that values cached with this tracker
+     * are invalidated even if the resource manager hasn't been requested since the root package.json changed.
+     *
+     * @param project the current project
+     * @since 1.13.0
+     */
+    public static ModificationTracker getManagerModificationTracker(@NotNull Project project) {
+        var tracker = managerTrackerOf(project);
+        return () -> {
+            getInstance(project);
+            return tracker.getModificationCount();
+        };
+    }
+
+    private static ManagerTracker managerTrackerOf(Project project) {
+        var tracker = project.getUserData(MANAGER_TRACKER_KEY);
+        return tracker != null ? tracker : ((UserDataHolderEx) project).putUserDataIfAbsent(MANAGER_TRACKER_KEY, new ManagerTracker());
+    }
+
+    /**
+     * Returns the resource manager for the package the argument file belongs to.
+     * <p>
+     * In a monorepo, each package may depend on a different Terra test library. The package of a file is determined by the
+     * {@code package.json} nearest to it within the project, and the resource manager is created based on the dependencies
+     * in that package.json, the same way as {@link #getInstance(Project, Class[])} does for the root package.json.
+     * <p>
+     * The project level resource manager is returned when the nearest package.json is the one in the project root,
+     * or there is no package.json between the file and the project root, or the nearest package.json doesn't include
+     * any of the Terra test libraries, e.g. because the dependency is declared only in the root package.json of a monorepo.
+     * <p>
+     * The detected test library is cached per package.json, and is detected again when that package.json is modified.
+     *
+     * @param project the current project
+     * @param file    the file or folder to get the resource manager for
+     * @since 1.13.0
+     */
+    public static TerraResourceManager forFile(@NotNull Project project, @Nullable VirtualFile file) {
+        var packageJson = findNearestPackageJson(file, project);
+        if (packageJson == null) return getInstance(project);
+
+        var managerTypes = CachedValuesManager.getManager(project).getCachedValue(project, PACKAGE_MANAGER_TYPES_KEY,
+            () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS), false);
+        long stamp = packageJson.getModificationStamp();
+        var managerType = managerTypes.get(packageJson);
+        if (managerType == null || managerType.stamp() != stamp) {
+            var data = PackageJsonData.getOrCreate(packageJson);
+            managerType = new PackageManagerType(stamp, terraManagerType(data));
+            managerTypes.put(packageJson, managerType);
+        }
+        return managerType.managerClass() != null ? project.getService(managerType.managerClass()) : getInstance(project);
+    }
+
+    /**
+     * Returns the resource manager for the package the argument PSI file belongs to.
+     * <p>
+     * Files without a backing virtual file, e.g. in-memory copies, get the resource manager of their original file.
+     *
+     * @param file the file to get the resource manager for
+     * @see #forFile(Project, VirtualFile)
+     * @since 1.13.0
+     */
+    public static TerraResourceManager forFile(@NotNull PsiFile file) {
+        return forFile(file.getProject(), file.getOriginalFile().getVirtualFile());
+    }
+
+    /**
+     * Returns the {@code package.json} nearest to the argument file, searching in the file's folder and its parent folders
+     * up until the project root, exclusive.
+     *
+     * @param file    the file or folder to find the package.json for
+     * @param project the current project
+     * @return the nearest package.json, or null if there is none other than the one in the project root
+     * @since 1.13.0
+     */
+    @Nullable
+    public static VirtualFile findNearestPackageJson(@Nullable VirtualFile file, @NotNull Project project) {
+        var projectDir = ProjectUtil.guessProjectDir(project);
+        if (file == null || projectDir == null) return null;
+
+        for (var folder = file.isDirectory() ? file : file.getParent(); folder != null && !folder.equals(projectDir); folder = folder.getParent()) {
+            var packageJson = folder.findChild(PACKAGE_JSON);
+            if (packageJson != null && !packageJson.isDirectory()) return packageJson;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the type of resource manager for the Terra test library included in the argument package.json data,
+     * or null if none of them is included. If both are included, terra-functional-testing takes precedence.
+     */
+    @Nullable
+    private static Class<? extends TerraResourceManager> terraManagerType(@NotNull PackageJsonData packageJson) {
+        if (packageJson.containsOneOfDependencyOfAnyType(CERNER_TERRA_FUNCTIONAL_TESTING)) {
+            return TerraFunctionalTestingManager.class;
+        }
+        if (packageJson.containsOneOfDependencyOfAnyType(CERNER_TERRA_TOOLKIT)) {
+            return TerraToolkitManager.class;
+        }
+        return null;
+    }
+
     /**
      * Returns whether any of the terra testing packages are used in the project.
      */
@@ -97,9 +216,65 @@ public abstract class TerraResourceManager implements TerraResourceHandlerProvid
         return getInstance(project) instanceof TerraFunctionalTestingManager;
     }
 
+    /**
+     * Returns whether any of the terra testing packages are used in the package the argument file belongs to.
+     *
+     * @since 1.13.0
+     */
+    public static boolean isUsingTerra(@NotNull PsiFile file) {
+        return !(forFile(file) instanceof NoopResourceManager);
+    }
+
+    /**
+     * Returns whether terra-toolkit is used in the package the argument file belongs to, and not terra-functional-testing.
+     *
+     * @since 1.13.0
+     */
+    public static boolean isUsingTerraToolkit(@NotNull PsiFile file) {
+        return forFile(file) instanceof TerraToolkitManager;
+    }
+
+    /**
+     * Returns whether terra-functional-testing is used in the package the argument file belongs to, and not terra-toolkit.
+     *
+     * @since 1.13.0
+     */
+    public static boolean isUsingTerraFunctionalTesting(@NotNull PsiFile file) {
+        return forFile(file) instanceof TerraFunctionalTestingManager;
+    }
+
     private static PackageJsonData getOrCreateData(@NotNull VirtualFile packageJson) {
         return Optional.ofNullable(packageJson)
             .map(PackageJsonData::getOrCreate)
             .orElseThrow(() -> new IllegalArgumentException("No json data found."));
     }
+
+    /**
+     * Counts the replacements of the project level resource manager.
+     */
+    private static final class ManagerTracker extends SimpleModificationTracker {
+        @Nullable
+        private TerraResourceManager manager;
+
+        /**
+         * Stores the argument resource manager as the current one, and increments the modification count if it differs
+         * from the previous one.
+         */
+        synchronized TerraResourceManager track(TerraResourceManager manager) {
+            if (this.manager != manager) {
+                this.manager = manager;
+                incModificationCount();
+            }
+            return manager;
+        }
+    }
+
+    /**
+     * The type of resource manager detected for a package.json.
+     *
+     * @param stamp        the modification stamp of the package.json at the time of detection
+     * @param managerClass the type of resource manager, or null if the package.json doesn't include any of the Terra test libraries
+     */
+    private record PackageManagerType(long stamp, @Nullable Class<? extends TerraResourceManager> managerClass) {
+    }
 }
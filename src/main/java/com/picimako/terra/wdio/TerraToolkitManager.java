@@ -21,7 +21,7 @@ public final class TerraToolkitManager extends TerraResourceManager {
     /**
      * Retrieves the folder type based on the {@code [type]/locale/browser_viewport/spec} folder structure.
      */
-    private static final SpecFolderCollector TERRA_TOOLKIT_SPEC_COLLECTOR = new SpecFolderCollector(dir -> dir.getParent().getParent().getParent().getName());
+    private static final SpecFolderCollector TERRA_TOOLKIT_SPEC_COLLECTOR = new SpecFolderCollector(dir -> dir.getParent().getParent().getParent().getName(), 3);
     private ScreenshotContextParser contextParserWithSeparator;
 
     //Required for project service creation
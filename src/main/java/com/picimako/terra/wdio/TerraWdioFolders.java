@@ -5,25 +5,38 @@ package com.picimako.terra.wdio;
 import static com.picimako.terra.wdio.TerraWdioPsiUtil.WDIO_SPEC_FILE_NAME_PATTERN;
 import static java.util.stream.Collectors.toSet;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import com.intellij.concurrency.ConcurrentCollectionFactory;
+import com.intellij.javascript.nodejs.packageJson.PackageJsonFileManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectUtil;
-import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.VirtualFileWithId;
 import com.intellij.psi.PsiDirectory;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.search.FilenameIndex;
 import com.intellij.psi.search.GlobalSearchScope;
-import lombok.Setter;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.util.PathUtil;
+import com.intellij.util.containers.ConcurrentIntObjectMap;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.jetbrains.annotations.TestOnly;
 
-import com.picimako.terra.DirectoryPsiUtil;
+import com.picimako.terra.settings.RootPath;
 import com.picimako.terra.settings.TerraApplicationState;
 
 /**
@@ -44,30 +57,137 @@ public final class TerraWdioFolders {
     public static final String DIFF = "diff";
     public static final String REFERENCE_RELATIVE_PATH = "/" + SNAPSHOTS + "/" + REFERENCE;
     public static final String DIFF_RELATIVE_PATH = "/" + SNAPSHOTS + "/" + DIFF;
-    private static final String LATEST_RELATIVE_PATH = "/" + SNAPSHOTS + "/" + LATEST;
+    /**
+     * @since 1.13.0
+     */
+    public static final String LATEST_RELATIVE_PATH = "/" + SNAPSHOTS + "/" + LATEST;
+    private static final String[] SPEC_FILE_EXTENSIONS = {"js", "jsx", "ts"};
 
-    //TODO: this might be problematic with multiple projects having different wdio paths
-    @Setter
-    private static String wdioTestRootPath;
+    private static final Key<CachedValue<WdioRoots>> WDIO_ROOTS_KEY = Key.create("terra.wdio.roots");
+    private static final Key<CachedValue<ConcurrentIntObjectMap<String>>> SPEC_IDENTIFIERS_KEY = Key.create("terra.wdio.spec.identifiers");
 
     /**
      * Gets the VirtualFile representing the wdio tests root folder in the project, or null if there is no recognizable
      * tests root.
      * <p>
-     * This value is also cached to improve performance.
+     * If there are multiple wdio roots in the project (see {@link #projectWdioRoots(Project)}), this is the one in the project root,
+     * or if there is no such one, the first one among the wdio roots of the packages.
      *
      * @param project the current project
      * @return the virtual file for the wdio root folder, or null if none is recognized
      */
     @Nullable
     public static VirtualFile projectWdioRoot(Project project) {
-        return TerraApplicationState.getInstance().wdioRootPaths
-            .stream()
-            .map(path -> DirectoryPsiUtil.findDirectory(project, path.getPath()))
+        var wdioRoots = projectWdioRoots(project);
+        return wdioRoots.isEmpty() ? null : wdioRoots.getFirst();
+    }
+
+    /**
+     * Gets all wdio root folders in the project.
+     * <p>
+     * Besides the wdio root in the project root, in monorepos, each package may have its own wdio root. A package is a folder
+     * containing a {@code package.json} file (outside {@code node_modules} folders), and its wdio root is looked up the same way
+     * as the one in the project root, using the wdio root paths defined in the plugin settings, relative to the package folder.
+     * <p>
+     * The wdio root in the project root, if there is one, is the first one in the list, followed by the wdio roots of the packages,
+     * ordered by their paths.
+     * <p>
+     * This value is cached per project, and it is recalculated when the structure of the file system changes (files and
+     * folders are created, deleted, moved or renamed), or when the wdio root paths are changed in the plugin settings.
+     *
+     * @param project the current project
+     * @return the wdio root folders, or an empty list if none is recognized
+     * @since 1.13.0
+     */
+    @NotNull
+    public static List<VirtualFile> projectWdioRoots(Project project) {
+        return wdioRoots(project).roots();
+    }
+
+    /**
+     * Gets the wdio root that the argument file or folder is located in (directly or indirectly), or the folder itself
+     * if it is a wdio root. If wdio roots are nested in each other, the innermost one is returned.
+     *
+     * @param file    the file or folder to find the wdio root of
+     * @param project the current project
+     * @return the wdio root, or null if the file is not located in any of them
+     * @since 1.13.0
+     */
+    @Nullable
+    public static VirtualFile wdioRootOf(@Nullable VirtualFile file, Project project) {
+        if (file == null) return null;
+
+        var wdioRoots = wdioRoots(project);
+        if (wdioRoots.roots().isEmpty()) return null;
+        for (var folder = file; folder != null; folder = folder.getParent()) {
+            if (wdioRoots.rootSet().contains(folder)) return folder;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the wdio root that the file or folder at the argument path is located in (directly or indirectly).
+     * <p>
+     * This is useful when the file is no longer available at the given path, e.g. it has been moved or deleted.
+     *
+     * @param path    the path of the file or folder to find the wdio root of
+     * @param project the current project
+     * @return the wdio root, or null if the path is not located in any of them
+     * @since 1.13.0
+     */
+    @Nullable
+    public static VirtualFile wdioRootOfPath(@NotNull String path, Project project) {
+        VirtualFile wdioRootOfPath = null;
+        for (var wdioRoot : projectWdioRoots(project)) {
+            if (FileUtil.isAncestor(wdioRoot.getPath(), path, false)
+                && (wdioRootOfPath == null || wdioRoot.getPath().length() > wdioRootOfPath.getPath().length())) {
+                wdioRootOfPath = wdioRoot;
+            }
+        }
+        return wdioRootOfPath;
+    }
+
+    private static WdioRoots wdioRoots(Project project) {
+        return CachedValuesManager.getManager(project).getCachedValue(project, WDIO_ROOTS_KEY,
+            () -> CachedValueProvider.Result.create(findProjectWdioRoots(project), wdioRootDependencies()), false);
+    }
+
+    private static WdioRoots findProjectWdioRoots(Project project) {
+        var projectDir = ProjectUtil.guessProjectDir(project);
+        if (projectDir == null || !projectDir.exists()) return WdioRoots.EMPTY;
+
+        var rootPaths = TerraApplicationState.getInstance().wdioRootPaths;
+        var roots = new ArrayList<VirtualFile>();
+        var projectLevelRoot = findWdioRootIn(projectDir, rootPaths);
+        if (projectLevelRoot != null) roots.add(projectLevelRoot);
+
+        PackageJsonFileManager.getInstance(project).getValidPackageJsonFiles().stream()
+            .map(VirtualFile::getParent)
+            .filter(packageDir -> packageDir != null && !packageDir.equals(projectDir)
+                && VfsUtilCore.isAncestor(projectDir, packageDir, true) && !packageDir.getPath().contains("/node_modules/"))
+            .sorted(Comparator.comparing(VirtualFile::getPath))
+            .map(packageDir -> findWdioRootIn(packageDir, rootPaths))
             .filter(Objects::nonNull)
-            .findFirst()
-            .map(PsiDirectory::getVirtualFile)
-            .orElse(null);
+            .distinct()
+            .filter(wdioRoot -> !wdioRoot.equals(projectLevelRoot))
+            .forEach(roots::add);
+        return new WdioRoots(List.copyOf(roots), new HashSet<>(roots));
+    }
+
+    /**
+     * Returns the first existing folder among the argument wdio root paths, relative to the argument base folder.
+     */
+    @Nullable
+    private static VirtualFile findWdioRootIn(VirtualFile baseFolder, List<RootPath> rootPaths) {
+        for (var rootPath : rootPaths) {
+            var wdioRoot = rootPath.getPath() != null ? baseFolder.findFileByRelativePath(rootPath.getPath()) : null;
+            if (wdioRoot != null && wdioRoot.isDirectory()) return wdioRoot;
+        }
+        return null;
+    }
+
+    private static Object[] wdioRootDependencies() {
+        return new Object[]{VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS, TerraApplicationState.getInstance().wdioRootPathsModificationTracker()};
     }
 
     /**
@@ -146,9 +266,30 @@ public final class TerraWdioFolders {
      */
     @NotNull
     public static String specFolderIdentifier(VirtualFile folder, Project project) {
-        String wdioRootPath = wdioRootRelativePath(project);
-        String path = folder.getPath();
-        return path.substring(path.indexOf(wdioRootPath) + wdioRootPath.length() + 1, path.indexOf("/" + SNAPSHOTS) + 1) + folder.getName();
+        return cachedIdentifier(folder, project, wdioRoot -> {
+            var snapshotsFolder = folder.getParent();
+            while (snapshotsFolder != null && !SNAPSHOTS.equals(snapshotsFolder.getName())) {
+                snapshotsFolder = snapshotsFolder.getParent();
+            }
+            return snapshotsFolder != null ? identifierRelativeToWdioRoot(snapshotsFolder.getParent(), folder.getName(), wdioRoot) : null;
+        }, () -> specFolderIdentifier(folder.getPath(), project));
+    }
+
+    /**
+     * Gets the value that identifies a spec folder within a {@code __snapshots__} folder, based on the path of the spec folder.
+     * <p>
+     * This is useful when the spec folder is no longer available at the given path, e.g. it has been moved or deleted.
+     *
+     * @param folderPath the path of the spec folder to get the identifier of
+     * @param project    the current project
+     * @return the value identifying the folder
+     * @see #specFolderIdentifier(VirtualFile, Project)
+     * @since 1.13.0
+     */
+    @NotNull
+    public static String specFolderIdentifier(String folderPath, Project project) {
+        return folderPath.substring(identifierStartIndex(folderPath, project), folderPath.indexOf("/" + SNAPSHOTS) + 1)
+            + PathUtil.getFileName(folderPath);
     }
 
     /**
@@ -183,21 +324,79 @@ public final class TerraWdioFolders {
      */
     @NotNull
     public static String specFileIdentifier(VirtualFile specFile, Project project) {
+        return cachedIdentifier(specFile, project,
+            wdioRoot -> identifierRelativeToWdioRoot(specFile.getParent(), specFile.getNameWithoutExtension(), wdioRoot),
+            () -> {
+                String path = specFile.getPath();
+                return path.substring(identifierStartIndex(path, project), path.length() - specFile.getExtension().length() - 1);
+            });
+    }
+
+    /**
+     * Returns the index in the argument path, where the path relative to its wdio root starts.
+     */
+    private static int identifierStartIndex(String path, Project project) {
+        var wdioRoot = wdioRootOfPath(path, project);
+        if (wdioRoot != null) return wdioRoot.getPath().length() + 1;
+
         String wdioRootPath = wdioRootRelativePath(project);
-        String path = specFile.getPath();
-        return path.substring(path.indexOf(wdioRootPath) + wdioRootPath.length() + 1, path.length() - specFile.getExtension().length() - 1);
+        return path.indexOf(wdioRootPath) + wdioRootPath.length() + 1;
     }
 
     /**
-     * Gets whether the argument file is under the wdio test root (directly or indirectly) in the provided project.
+     * Returns the spec identifier of the argument file from the cache, or computes and caches it if it is not cached yet.
+     * <p>
+     * The identifiers are mapped to the ids of the files, and the cache is invalidated along with the wdio roots
+     * (see {@link #projectWdioRoots(Project)}), so renaming or moving a file, or changing the wdio roots, doesn't leave
+     * outdated identifiers in the cache.
+     *
+     * @param file                        the spec file or folder to get the identifier of
+     * @param project                     the current project
+     * @param identifierCalculator        calculates the identifier based on the file's location relative to its wdio root.
+     *                                    It returns null when the file is not located in the wdio root.
+     * @param pathBasedIdentifierSupplier calculates the identifier based on the file's path, when it cannot be calculated
+     *                                    by {@code identifierCalculator}
+     */
+    private static String cachedIdentifier(VirtualFile file, Project project, Function<VirtualFile, String> identifierCalculator,
+                                           Supplier<String> pathBasedIdentifierSupplier) {
+        var wdioRoot = wdioRootOf(file, project);
+        if (wdioRoot == null) return pathBasedIdentifierSupplier.get();
+
+        if (!(file instanceof VirtualFileWithId fileWithId)) {
+            return Objects.requireNonNullElseGet(identifierCalculator.apply(wdioRoot), pathBasedIdentifierSupplier);
+        }
+        var identifiers = CachedValuesManager.getManager(project).getCachedValue(project, SPEC_IDENTIFIERS_KEY,
+            () -> CachedValueProvider.Result.create(ConcurrentCollectionFactory.<String>createConcurrentIntObjectMap(), wdioRootDependencies()), false);
+        String identifier = identifiers.get(fileWithId.getId());
+        if (identifier == null) {
+            identifier = Objects.requireNonNullElseGet(identifierCalculator.apply(wdioRoot), pathBasedIdentifierSupplier);
+            identifiers.put(fileWithId.getId(), identifier);
+        }
+        return identifier;
+    }
+
+    /**
+     * Returns the relative path of {@code parent} from the wdio root, concatenated with the provided name,
+     * or null if {@code parent} is not located in the wdio root.
+     */
+    @Nullable
+    private static String identifierRelativeToWdioRoot(@Nullable VirtualFile parent, String name, VirtualFile wdioRoot) {
+        if (parent == null) return null;
+        if (parent.equals(wdioRoot)) return name;
+
+        String relativePath = VfsUtilCore.getRelativePath(parent, wdioRoot);
+        return relativePath != null ? relativePath + "/" + name : null;
+    }
+
+    /**
+     * Gets whether the argument file is under any of the wdio test roots (directly or indirectly) in the provided project.
      *
      * @param file    the file to check the location of
      * @param project the current project
-     * @return true if the file is under wdio root, false otherwise
+     * @return true if the file is under a wdio root, false otherwise
      */
-    public static boolean isInWdioFiles(VirtualFile file, Project project) {
-        final var wdioRoot = projectWdioRoot(project);
-        return wdioRoot != null && wdioRoot.equals(VfsUtil.getCommonAncestor(Set.of(wdioRoot, file)));
+    public static boolean isInWdioFiles(@Nullable VirtualFile file, Project project) {
+        return wdioRootOf(file, project) != null;
     }
 
     /**
@@ -321,7 +520,27 @@ public final class TerraWdioFolders {
     }
 
     private static String getDiffPathForLatestPath(String latestPath) {
-        return latestPath.replace(latestPath(), diffPath());
+        return replaceImageType(latestPath, LATEST_RELATIVE_PATH, DIFF_RELATIVE_PATH);
+    }
+
+    /**
+     * Gets the reference screenshot file that is located at the same relative path as the argument latest image path.
+     * <p>
+     * Unlike {@link #latestImageForReference(Project, VirtualFile)}, the file is looked up directly by its path in the file system
+     * of the latest image, instead of querying all files with the same name in the project, since it is called for each latest image
+     * when checking their verdicts.
+     *
+     * @param latest the latest version of an image
+     * @return the virtual file containing the reference image
+     * @since 1.13.0
+     */
+    @Nullable
+    public static VirtualFile referenceImageForLatest(VirtualFile latest) {
+        String referencePath = replaceImageType(latest.getPath(), LATEST_RELATIVE_PATH, REFERENCE_RELATIVE_PATH);
+        if (referencePath.equals(latest.getPath())) return null;
+
+        var reference = latest.getFileSystem().findFileByPath(referencePath);
+        return reference != null && !reference.isDirectory() ? reference : null;
     }
 
     /**
@@ -337,7 +556,19 @@ public final class TerraWdioFolders {
     }
 
     private static String getLatestPathForReferencePath(String referencePath) {
-        return referencePath.replace(referencePath(), latestPath());
+        return replaceImageType(referencePath, REFERENCE_RELATIVE_PATH, LATEST_RELATIVE_PATH);
+    }
+
+    /**
+     * Replaces the image type folder, e.g. {@code /__snapshots__/latest}, in the argument screenshot path with another one.
+     * Only the last occurrence is replaced, since that is the one belonging to the screenshot, in case e.g. a parent folder
+     * of the wdio root has the same name.
+     */
+    private static String replaceImageType(String path, String imageTypeRelativePath, String replacementRelativePath) {
+        int index = path.lastIndexOf(imageTypeRelativePath + "/");
+        return index >= 0
+            ? path.substring(0, index) + replacementRelativePath + path.substring(index + imageTypeRelativePath.length())
+            : path;
     }
 
     private static VirtualFile getMatchingImageForName(String name, String desiredPath, Project project) {
@@ -348,21 +579,21 @@ public final class TerraWdioFolders {
             .orElse(null);
     }
 
-    public static String referencePath() {
-        return wdioTestRootPath + REFERENCE_RELATIVE_PATH;
-    }
-
-    public static String latestPath() {
-        return wdioTestRootPath + LATEST_RELATIVE_PATH;
-    }
-
-    public static String diffPath() {
-        return wdioTestRootPath + DIFF_RELATIVE_PATH;
-    }
-
-    @TestOnly
-    public static String getWdioTestRootPath() {
-        return wdioTestRootPath;
+    /**
+     * Finds the spec file for the argument spec folder identifier in the given wdio root, with one of the supported extensions.
+     *
+     * @param wdioRoot             the wdio root the spec folder belongs to
+     * @param specFolderIdentifier the identifier of the spec folder, see {@link #specFolderIdentifier(VirtualFile, Project)}
+     * @return the spec file, or null if there is no spec file for the spec folder
+     * @since 1.13.0
+     */
+    @Nullable
+    public static VirtualFile findSpecFile(@NotNull VirtualFile wdioRoot, @NotNull String specFolderIdentifier) {
+        for (String extension : SPEC_FILE_EXTENSIONS) {
+            var specFile = wdioRoot.findFileByRelativePath(specFolderIdentifier + "." + extension);
+            if (specFile != null) return specFile;
+        }
+        return null;
     }
 
     /**
@@ -376,6 +607,16 @@ public final class TerraWdioFolders {
         return false;
     }
 
+    /**
+     * The wdio roots of a project.
+     *
+     * @param roots   the wdio roots in the order described at {@link #projectWdioRoots(Project)}
+     * @param rootSet the same wdio roots for fast lookup
+     */
+    private record WdioRoots(List<VirtualFile> roots, Set<VirtualFile> rootSet) {
+        private static final WdioRoots EMPTY = new WdioRoots(List.of(), Set.of());
+    }
+
     private TerraWdioFolders() {
         //Utility class
     }
@@ -2,16 +2,11 @@
 
 package com.picimako.terra.wdio;
 
-import static com.intellij.lang.javascript.buildTools.JSPsiUtil.getFirstArgumentAsStringLiteral;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.isScreenshotValidationCall;
-
-import com.intellij.lang.javascript.psi.JSCallExpression;
-import com.intellij.lang.javascript.psi.JSLiteralExpression;
+import com.intellij.openapi.fileEditor.OpenFileDescriptor;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.util.PsiTreeUtil;
 
-import com.picimako.terra.wdio.screenshot.ScreenshotNameResolver;
+import com.picimako.terra.wdio.screenshot.index.TerraScreenshotUsageIndex;
 
 /**
  * Provides functionality to navigate from a screenshot, or a UI item representing a screenshot, to the usage of
@@ -19,14 +14,16 @@ import com.picimako.terra.wdio.screenshot.ScreenshotNameResolver;
  * <p>
  * When the navigation happens, the caret is positioned either on the Terra calls line (default screenshot), or the
  * validation's name parameter (non-default screenshot).
+ * <p>
+ * The location of the usage is retrieved from {@link TerraScreenshotUsageIndex}, so the spec file doesn't need to be
+ * parsed and traversed for the navigation.
  */
 public class ToScreenshotUsageNavigator {
 
-    private final ScreenshotNameResolver resolver;
-    private boolean hasNavigated;
+    private final Project project;
 
     public ToScreenshotUsageNavigator(Project project) {
-        resolver = TerraResourceManager.getInstance(project).screenshotNameResolver();
+        this.project = project;
     }
 
     /**
@@ -37,27 +34,14 @@ public class ToScreenshotUsageNavigator {
      * @return true if navigation to the Terra validation was successful, false otherwise
      */
     public boolean navigateToUsage(PsiFile specFile, String screenshotName) {
-        PsiTreeUtil.processElements(specFile, JSCallExpression.class, element -> !hasNavigatedToUsage(screenshotName, element));
-        return hasNavigated;
-    }
+        var specVirtualFile = specFile.getVirtualFile();
+        if (specVirtualFile == null) return false;
 
-    private boolean hasNavigatedToUsage(String selectedScreenshotName, JSCallExpression callExpression) {
-        hasNavigated = false;
-        if (isScreenshotValidationCall(callExpression)) {
-            JSLiteralExpression nameExpr = getFirstArgumentAsStringLiteral(callExpression.getArgumentList());
-            String resolvedScreenshotName = resolver.resolveWithFallback(nameExpr, callExpression.getMethodExpression());
-
-            if (selectedScreenshotName.equals(resolvedScreenshotName)) {
-                if (nameExpr != null) {
-                    nameExpr.navigate(true);
-                } else {
-                    //If the method expression was null, the execution wouldn't reach this point. That null value is
-                    // handled by the IntelliJ platform via the resolver.resolveWithFallback() call.
-                    callExpression.getMethodExpression().navigate(true);
-                }
-                hasNavigated = true;
-            }
+        Integer usageOffset = TerraScreenshotUsageIndex.findUsageOffset(project, specVirtualFile, screenshotName);
+        if (usageOffset != null) {
+            new OpenFileDescriptor(project, specVirtualFile, usageOffset).navigate(true);
+            return true;
         }
-        return hasNavigated;
+        return false;
     }
 }
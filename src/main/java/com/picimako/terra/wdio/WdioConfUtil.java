@@ -2,12 +2,24 @@
 
 package com.picimako.terra.wdio;
 
+import java.util.List;
+
 /**
  * Provides constants related to {@code wdio.conf.js}.
  */
 public final class WdioConfUtil {
 
     public static final String WDIO_CONF_JS_FILE_NAME = "wdio.conf.js";
+    /**
+     * @since 1.13.0
+     */
+    public static final String WDIO_CONF_TS_FILE_NAME = "wdio.conf.ts";
+    /**
+     * The supported wdio config file names, in the order of precedence when a folder contains more than one of them.
+     *
+     * @since 1.13.0
+     */
+    public static final List<String> WDIO_CONF_FILE_NAMES = List.of(WDIO_CONF_JS_FILE_NAME, WDIO_CONF_TS_FILE_NAME);
     public static final String TERRA_PROPERTY_NAME = "terra";
     public static final String SELECTOR_PROPERTY_NAME = "selector";
 
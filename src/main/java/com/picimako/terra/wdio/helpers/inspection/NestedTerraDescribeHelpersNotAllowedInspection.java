@@ -25,7 +25,7 @@ public class NestedTerraDescribeHelpersNotAllowedInspection extends TerraWdioIns
 
     @Override
     public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly, @NotNull LocalInspectionToolSession session) {
-        if (!isUsingTerra(holder.getProject()) || !isWdioSpecFile(session.getFile())) {
+        if (!isUsingTerra(session.getFile()) || !isWdioSpecFile(session.getFile())) {
             return PsiElementVisitor.EMPTY_VISITOR;
         }
 
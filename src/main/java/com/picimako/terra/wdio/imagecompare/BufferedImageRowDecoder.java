@@ -0,0 +1,53 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.imageio.ImageIO;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Decodes an image as a whole via {@link ImageIO}, and provides its rows from the decoded image.
+ * <p>
+ * It is used for the images that {@link PngRowDecoder} doesn't support.
+ *
+ * @since 1.13.0
+ */
+final class BufferedImageRowDecoder implements RowDecoder {
+    private BufferedImage image;
+    private int nextRow;
+
+    BufferedImageRowDecoder(@NotNull InputStream in) throws IOException {
+        try (in) {
+            image = ImageIO.read(in);
+        }
+        if (image == null) {
+            throw new IOException("The image format is not supported.");
+        }
+    }
+
+    @Override
+    public int width() {
+        return image.getWidth();
+    }
+
+    @Override
+    public int height() {
+        return image.getHeight();
+    }
+
+    @Override
+    public void readRow(int @NotNull [] argb, int offset) throws IOException {
+        if (image == null || nextRow >= image.getHeight()) throw new IOException("There are no more rows in the image.");
+
+        image.getRGB(0, nextRow++, image.getWidth(), 1, argb, offset, image.getWidth());
+    }
+
+    @Override
+    public void close() {
+        image = null;
+    }
+}
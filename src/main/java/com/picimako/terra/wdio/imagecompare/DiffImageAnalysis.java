@@ -0,0 +1,44 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import java.awt.*;
+import java.util.List;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The result of scanning a diff image for the pixels that Terra highlighted as changed.
+ *
+ * @param width                 the width of the diff image
+ * @param height                the height of the diff image
+ * @param highlightedPixelCount the number of highlighted pixels
+ * @param regions               the bounding boxes of the changed regions, ordered from top to bottom, then from left to right
+ * @see DiffImageAnalyzer
+ * @see DiffImageAnalysisService
+ * @since 1.13.0
+ */
+public record DiffImageAnalysis(int width, int height, long highlightedPixelCount, @NotNull List<Region> regions) {
+
+    /**
+     * Returns the percentage of highlighted pixels in the diff image.
+     */
+    public double mismatchPercentage() {
+        long totalPixelCount = (long) width * height;
+        return totalPixelCount == 0 ? 0 : highlightedPixelCount * 100.0 / totalPixelCount;
+    }
+
+    public RegressionSeverity severity() {
+        return RegressionSeverity.of(mismatchPercentage());
+    }
+
+    /**
+     * The bounding box of a changed region in a diff image, in image pixel coordinates.
+     */
+    public record Region(int x, int y, int width, int height) {
+
+        public Rectangle toRectangle() {
+            return new Rectangle(x, y, width, height);
+        }
+    }
+}
@@ -0,0 +1,399 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import static com.picimako.terra.wdio.TerraWdioFolders.projectWdioRoots;
+import static java.util.stream.Collectors.toSet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.intellij.ide.PowerSaveMode;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.io.DataInputOutputUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import com.picimako.terra.resources.TerraBundle;
+import com.picimako.terra.wdio.BackgroundExecution;
+import com.picimako.terra.wdio.TerraResourceManager;
+import com.picimako.terra.wdio.TerraWdioFolders;
+
+/**
+ * Scans the diff images of the project for their changed regions (see {@link DiffImageAnalyzer}), so that the visual regressions
+ * can be ranked by severity, and the changed regions can be navigated to in the diff previews.
+ * <p>
+ * <b>Scanning</b>
+ * <p>
+ * The diff images are collected, and scanned, in a cancellable background task (see {@link #scanInBackground(Runnable)}).
+ * At most {@link #MAX_CONCURRENT_ANALYSES} diff images are scanned at a time. If a scan is requested while another one is running,
+ * a single new scan is started after the current one. Scans are not started in power save mode.
+ * <p>
+ * <b>Caching</b>
+ * <p>
+ * The analyses are cached by the SHA-256 hashes of the contents of the diff images, so a diff image is not scanned again when it is
+ * recreated with the same content, e.g. by a new test run, or when it is moved or renamed. At most {@link #MAX_CACHED_ANALYSES}
+ * analyses are cached, the least recently used ones are evicted above that.
+ * <p>
+ * The cache is persisted to the project's system directory after each scan, and when the project is closed, so that the diff images
+ * don't have to be scanned again after an IDE restart, only hashed. The content hashes of the diff images are remembered by their paths
+ * and modification stamps within the session, so that the analyses can be queried without reading the diff images.
+ *
+ * @since 1.13.0
+ */
+@Service(Service.Level.PROJECT)
+public final class DiffImageAnalysisService implements Disposable {
+    private static final Logger LOG = Logger.getInstance(DiffImageAnalysisService.class);
+    private static final int VERSION = 1;
+    static final int MAX_CONCURRENT_ANALYSES = Math.clamp(Runtime.getRuntime().availableProcessors() - 1, 1, 8);
+    static final int MAX_CACHED_ANALYSES = 10_000;
+
+    private final Project project;
+    private final Executor executor;
+    /**
+     * The analyses by the content hashes of the diff images, in least recently used order. Guarded by itself.
+     */
+    private final Map<String, DiffImageAnalysis> analyses = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, DiffImageAnalysis> eldest) {
+            return size() > MAX_CACHED_ANALYSES;
+        }
+    };
+    private final Map<String, ContentHash> contentHashes = new ConcurrentHashMap<>();
+    private final Path cacheFile;
+    private final AtomicBoolean isLoaded = new AtomicBoolean();
+    private volatile boolean isChanged;
+    private final AtomicBoolean isScanning = new AtomicBoolean();
+    private volatile boolean isRescanRequested;
+    private volatile ProgressIndicator indicator;
+
+    public DiffImageAnalysisService(Project project) {
+        this(project, ProjectUtil.getProjectCachePath(project, "terra-wdio").resolve("diff-image-analyses.dat"));
+    }
+
+    DiffImageAnalysisService(Project project, Path cacheFile) {
+        this.project = project;
+        this.cacheFile = cacheFile;
+        executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Terra Diff Image Analysis", MAX_CONCURRENT_ANALYSES);
+    }
+
+    /**
+     * Starts scanning the diff images of the project in the background, unless in power save mode.
+     * <p>
+     * If a scan is already running, a new scan is started when it finishes.
+     *
+     * @param onFinished called on the EDT when the scan has finished or has been cancelled
+     */
+    public void scanInBackground(@NotNull Runnable onFinished) {
+        if (PowerSaveMode.isEnabled() || project.isDisposed()) return;
+        if (!isScanning.compareAndSet(false, true)) {
+            isRescanRequested = true;
+            return;
+        }
+
+        BackgroundExecution.getInstance().run(new Task.Backgroundable(project, TerraBundle.toolWindow("analyzing.diff.screenshots"), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                scan(indicator);
+            }
+
+            @Override
+            public void onFinished() {
+                isScanning.set(false);
+                onFinished.run();
+                if (isRescanRequested) {
+                    isRescanRequested = false;
+                    scanInBackground(onFinished);
+                }
+            }
+        });
+    }
+
+    /**
+     * Scans the diff images of the project that have no up-to-date cached analysis, and saves the cache if it has changed.
+     * The diff images are collected in a read action via {@link BackgroundExecution}.
+     *
+     * @param indicator the progress indicator of the scan
+     */
+    void scan(@NotNull ProgressIndicator indicator) {
+        this.indicator = indicator;
+        try {
+            loadCache();
+            List<VirtualFile> diffs = BackgroundExecution.getInstance()
+                .computeInReadAction(this::collectDiffs, action -> action.inSmartMode(project).expireWith(this), indicator);
+            //Content hashes of diff images that have been deleted are not needed anymore
+            contentHashes.keySet().retainAll(diffs.stream().map(VirtualFile::getPath).collect(toSet()));
+
+            var outdatedDiffs = diffs.stream().filter(diff -> getAnalysis(diff) == null).toList();
+            analyzeAll(outdatedDiffs, indicator);
+            if (isChanged) saveCache();
+        } finally {
+            this.indicator = null;
+        }
+    }
+
+    private List<VirtualFile> collectDiffs() {
+        final var diffs = new ArrayList<VirtualFile>();
+        for (var wdioRoot : projectWdioRoots(project)) {
+            var specFolderCollector = TerraResourceManager.forFile(project, wdioRoot).specFolderCollector();
+            specFolderCollector.collectSpecFoldersForTypeInside(TerraWdioFolders.DIFF, wdioRoot).forEach(specFolder -> {
+                ProgressManager.checkCanceled();
+                for (var diff : specFolder.getChildren()) {
+                    if (!diff.isDirectory()) diffs.add(diff);
+                }
+            });
+        }
+        return diffs;
+    }
+
+    private void analyzeAll(List<VirtualFile> diffs, ProgressIndicator indicator) {
+        indicator.setIndeterminate(false);
+        final var completedCount = new AtomicInteger();
+        var analyses = diffs.stream()
+            .map(diff -> ProgressAwareFutures.runUnderProgress(() -> {
+                if (project.isDisposed()) return;
+                analyze(diff);
+                indicator.setFraction((double) completedCount.incrementAndGet() / diffs.size());
+            }, indicator, executor))
+            .toList();
+
+        for (var analysis : analyses) {
+            try {
+                ProgressAwareFutures.awaitCompletion(analysis, indicator);
+            } catch (ExecutionException e) {
+                indicator.checkCanceled();
+                LOG.warn("Could not analyze diff image.", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Returns the analysis of the argument diff image, scanning it only if there is no cached analysis for its content.
+     *
+     * @param diff the diff image
+     * @return the analysis, or null if the image cannot be read
+     */
+    @Nullable
+    DiffImageAnalysis analyze(@NotNull VirtualFile diff) {
+        //The stamp is queried before reading the content, so that changes during the analysis make the content hash outdated
+        long stamp = diff.getModificationStamp();
+        try {
+            byte[] content = diff.contentsToByteArray();
+            String contentHash = contentHashOf(content);
+            contentHashes.put(diff.getPath(), new ContentHash(stamp, contentHash));
+
+            var analysis = getCachedAnalysis(contentHash);
+            if (analysis == null) {
+                analysis = DiffImageAnalyzer.analyze(new ByteArrayInputStream(content));
+                synchronized (analyses) {
+                    analyses.put(contentHash, analysis);
+                }
+                isChanged = true;
+            }
+            return analysis;
+        } catch (IOException e) {
+            LOG.debug("Could not analyze the diff image " + diff.getPath(), e);
+            contentHashes.remove(diff.getPath());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the analysis of the argument diff image, or analyzes it on a pooled thread if it has no up-to-date cached analysis,
+     * e.g. when it is opened before the scan of the project has finished.
+     *
+     * @param diff the diff image
+     * @return the future analysis, completed with null if the image cannot be read
+     */
+    public CompletableFuture<DiffImageAnalysis> getOrAnalyzeAsync(@NotNull VirtualFile diff) {
+        var analysis = getAnalysis(diff);
+        if (analysis != null) return CompletableFuture.completedFuture(analysis);
+
+        return CompletableFuture.supplyAsync(() -> {
+            loadCache();
+            return analyze(diff);
+        }, executor);
+    }
+
+    /**
+     * Returns the cached analysis of the argument diff image, or null if it hasn't been analyzed yet, or it has changed since then.
+     *
+     * @param diff the diff image
+     */
+    @Nullable
+    public DiffImageAnalysis getAnalysis(@NotNull VirtualFile diff) {
+        var contentHash = contentHashes.get(diff.getPath());
+        return contentHash != null && diff.isValid() && contentHash.stamp() == diff.getModificationStamp()
+            ? getCachedAnalysis(contentHash.hash())
+            : null;
+    }
+
+    /**
+     * Returns the analysis of the most severe one of the argument diff images, ignoring the ones that have no cached analysis.
+     *
+     * @param diffs the diff images of the same name, e.g. of different locales, browsers and viewports
+     * @return the analysis with the highest mismatch percentage, or null if none of the diff images has a cached analysis
+     */
+    @Nullable
+    public DiffImageAnalysis mostSevereOf(@NotNull List<VirtualFile> diffs) {
+        DiffImageAnalysis mostSevere = null;
+        for (var diff : diffs) {
+            var analysis = diff != null ? getAnalysis(diff) : null;
+            if (analysis != null && (mostSevere == null || analysis.mismatchPercentage() > mostSevere.mismatchPercentage())) {
+                mostSevere = analysis;
+            }
+        }
+        return mostSevere;
+    }
+
+    @Nullable
+    private DiffImageAnalysis getCachedAnalysis(String contentHash) {
+        synchronized (analyses) {
+            return analyses.get(contentHash);
+        }
+    }
+
+    private static String contentHashOf(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            //SHA-256 is supported by every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //Persistence
+
+    /**
+     * Loads the persisted analyses, unless they have already been loaded.
+     */
+    private void loadCache() {
+        if (!isLoaded.compareAndSet(false, true)) return;
+
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile)))) {
+            if (in.readInt() != VERSION) return;
+
+            int count = DataInputOutputUtil.readINT(in);
+            var loaded = new LinkedHashMap<String, DiffImageAnalysis>();
+            for (int i = 0; i < count; i++) {
+                String contentHash = in.readUTF();
+                int width = DataInputOutputUtil.readINT(in);
+                int height = DataInputOutputUtil.readINT(in);
+                long highlightedPixelCount = DataInputOutputUtil.readLONG(in);
+                int regionCount = DataInputOutputUtil.readINT(in);
+                var regions = new ArrayList<DiffImageAnalysis.Region>(regionCount);
+                for (int j = 0; j < regionCount; j++) {
+                    regions.add(new DiffImageAnalysis.Region(DataInputOutputUtil.readINT(in), DataInputOutputUtil.readINT(in),
+                        DataInputOutputUtil.readINT(in), DataInputOutputUtil.readINT(in)));
+                }
+                loaded.put(contentHash, new DiffImageAnalysis(width, height, highlightedPixelCount, List.copyOf(regions)));
+            }
+            synchronized (analyses) {
+                //Analyses made before loading are more recent than the loaded ones
+                var current = new LinkedHashMap<>(analyses);
+                analyses.clear();
+                analyses.putAll(loaded);
+                analyses.putAll(current);
+            }
+        } catch (NoSuchFileException e) {
+            //There is nothing to load
+        } catch (IOException e) {
+            LOG.info("Could not read the diff image analyses from " + cacheFile, e);
+        }
+    }
+
+    /**
+     * Writes the cached analyses to the cache file, from the least recently used one to the most recently used one,
+     * so that the order is restored on load.
+     */
+    synchronized void saveCache() {
+        List<Map.Entry<String, DiffImageAnalysis>> entries;
+        synchronized (analyses) {
+            entries = List.copyOf(analyses.entrySet());
+            isChanged = false;
+        }
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            var tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(VERSION);
+                DataInputOutputUtil.writeINT(out, entries.size());
+                for (var entry : entries) {
+                    var analysis = entry.getValue();
+                    out.writeUTF(entry.getKey());
+                    DataInputOutputUtil.writeINT(out, analysis.width());
+                    DataInputOutputUtil.writeINT(out, analysis.height());
+                    DataInputOutputUtil.writeLONG(out, analysis.highlightedPixelCount());
+                    DataInputOutputUtil.writeINT(out, analysis.regions().size());
+                    for (var region : analysis.regions()) {
+                        DataInputOutputUtil.writeINT(out, region.x());
+                        DataInputOutputUtil.writeINT(out, region.y());
+                        DataInputOutputUtil.writeINT(out, region.width());
+                        DataInputOutputUtil.writeINT(out, region.height());
+                    }
+                }
+            }
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.warn("Could not write the diff image analyses to " + cacheFile, e);
+        }
+    }
+
+    @TestOnly
+    int cachedAnalysisCount() {
+        synchronized (analyses) {
+            return analyses.size();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        var currentIndicator = indicator;
+        if (currentIndicator != null) {
+            currentIndicator.cancel();
+        }
+        if (isChanged) saveCache();
+        contentHashes.clear();
+    }
+
+    /**
+     * The content hash of a diff image, along with the modification stamp of the image at the time of hashing.
+     */
+    private record ContentHash(long stamp, String hash) {
+    }
+
+    public static DiffImageAnalysisService getInstance(Project project) {
+        return project.getService(DiffImageAnalysisService.class);
+    }
+}
@@ -0,0 +1,198 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.intellij.openapi.progress.ProgressManager;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Scans a diff image, saved by Terra, for the pixels highlighted as changed, and groups them into changed regions.
+ * <p>
+ * <b>Highlighted pixels</b>
+ * <p>
+ * Terra creates the diff images via Resemble.js, which highlights the changed pixels with its error color, magenta by default.
+ * Depending on the error type, the highlighted pixels are either flat magenta, or magenta blended with the changed pixel,
+ * so a pixel is considered highlighted when it is opaque enough, its red and blue channels are strong, and its green channel is weak.
+ * The unchanged pixels are either copied from the original screenshot, or they are faded, so they are highlighted only
+ * if the screenshot itself has magenta content.
+ * <p>
+ * <b>Regions</b>
+ * <p>
+ * The image is divided into cells of {@link #CELL_SIZE} pixels, and for each cell the bounding box of its highlighted pixels is recorded.
+ * Adjacent cells (including diagonal ones) with highlighted pixels are merged into the same region, so highlighted pixels closer
+ * to each other than the size of a cell always end up in the same region. The bounding box of a region is the union of the bounding
+ * boxes of its cells, thus it is tight around the highlighted pixels.
+ * <p>
+ * At most {@link #MAX_REGIONS} regions are returned, the largest ones, so that scattered changes, e.g. anti-aliasing differences
+ * all over the image, don't result in an unusable amount of regions.
+ * <p>
+ * The image is decoded row by row via {@link RowDecoder}, so only the per-cell bounding boxes are held in memory, not the image.
+ *
+ * @since 1.13.0
+ */
+final class DiffImageAnalyzer {
+    static final int CELL_SIZE = 16;
+    static final int MAX_REGIONS = 256;
+    /**
+     * The number of rows after which cancellation is checked.
+     */
+    private static final int CANCELLATION_CHECK_ROWS = 64;
+
+    private DiffImageAnalyzer() {
+        //Utility class
+    }
+
+    /**
+     * Scans the diff image in the argument stream, and closes the stream.
+     *
+     * @param diffImage the stream of the diff image
+     * @return the highlighted pixel count and changed regions of the diff image
+     * @throws IOException if the image cannot be read
+     */
+    static DiffImageAnalysis analyze(@NotNull InputStream diffImage) throws IOException {
+        try (var decoder = RowDecoder.open(diffImage)) {
+            int width = decoder.width();
+            int height = decoder.height();
+            var cells = new Cells(width, height);
+            int[] row = new int[width];
+            long highlightedPixelCount = 0;
+            for (int y = 0; y < height; y++) {
+                if (y % CANCELLATION_CHECK_ROWS == 0) ProgressManager.checkCanceled();
+
+                decoder.readRow(row, 0);
+                for (int x = 0; x < width; x++) {
+                    if (isHighlighted(row[x])) {
+                        highlightedPixelCount++;
+                        cells.mark(x, y);
+                    }
+                }
+            }
+            return new DiffImageAnalysis(width, height, highlightedPixelCount, cells.regions());
+        }
+    }
+
+    /**
+     * Returns whether the argument ARGB pixel is highlighted as changed. See the class documentation.
+     */
+    static boolean isHighlighted(int argb) {
+        int alpha = argb >>> 24;
+        int red = (argb >> 16) & 0xFF;
+        int green = (argb >> 8) & 0xFF;
+        int blue = argb & 0xFF;
+        return alpha >= 0x80 && red >= 0x80 && blue >= 0x80 && green <= 0x40;
+    }
+
+    /**
+     * The grid of cells of an image, with the bounding boxes of the highlighted pixels in each cell.
+     */
+    private static final class Cells {
+        private static final int EMPTY = -1;
+        private final int columnCount;
+        //The bounding boxes of the cells. A cell is empty if its minX is EMPTY.
+        private final int[] minX;
+        private final int[] minY;
+        private final int[] maxX;
+        private final int[] maxY;
+
+        Cells(int width, int height) {
+            columnCount = Math.ceilDiv(width, CELL_SIZE);
+            int cellCount = columnCount * Math.ceilDiv(height, CELL_SIZE);
+            minX = new int[cellCount];
+            minY = new int[cellCount];
+            maxX = new int[cellCount];
+            maxY = new int[cellCount];
+            Arrays.fill(minX, EMPTY);
+        }
+
+        void mark(int x, int y) {
+            int cell = (y / CELL_SIZE) * columnCount + x / CELL_SIZE;
+            if (minX[cell] == EMPTY) {
+                minX[cell] = maxX[cell] = x;
+                minY[cell] = maxY[cell] = y;
+            } else {
+                //Rows are scanned from top to bottom, so minY never changes after the first pixel
+                minX[cell] = Math.min(minX[cell], x);
+                maxX[cell] = Math.max(maxX[cell], x);
+                maxY[cell] = y;
+            }
+        }
+
+        /**
+         * Merges the adjacent non-empty cells into regions via union-find, and returns the bounding boxes of the regions.
+         */
+        List<DiffImageAnalysis.Region> regions() {
+            int[] parents = new int[minX.length];
+            for (int cell = 0; cell < minX.length; cell++) {
+                if (minX[cell] == EMPTY) continue;
+
+                parents[cell] = cell;
+                int column = cell % columnCount;
+                int row = cell / columnCount;
+                //Only the neighbours already visited are merged: the left one, and the three ones above
+                if (column > 0) union(parents, cell, cell - 1);
+                if (row > 0) {
+                    for (int neighbourColumn = Math.max(0, column - 1); neighbourColumn <= Math.min(columnCount - 1, column + 1); neighbourColumn++) {
+                        union(parents, cell, cell - columnCount - column + neighbourColumn);
+                    }
+                }
+            }
+
+            //The bounding boxes of the cells are merged into the bounding boxes of their root cells
+            var roots = new ArrayList<Integer>();
+            for (int cell = 0; cell < minX.length; cell++) {
+                if (minX[cell] == EMPTY) continue;
+
+                int root = find(parents, cell);
+                if (root == cell) {
+                    roots.add(cell);
+                } else {
+                    minX[root] = Math.min(minX[root], minX[cell]);
+                    minY[root] = Math.min(minY[root], minY[cell]);
+                    maxX[root] = Math.max(maxX[root], maxX[cell]);
+                    maxY[root] = Math.max(maxY[root], maxY[cell]);
+                }
+            }
+
+            var regions = roots.stream()
+                .map(root -> new DiffImageAnalysis.Region(minX[root], minY[root], maxX[root] - minX[root] + 1, maxY[root] - minY[root] + 1))
+                .toList();
+            if (regions.size() > MAX_REGIONS) {
+                regions = regions.stream()
+                    .sorted(Comparator.comparingLong((DiffImageAnalysis.Region region) -> (long) region.width() * region.height()).reversed())
+                    .limit(MAX_REGIONS)
+                    .toList();
+            }
+            return regions.stream()
+                .sorted(Comparator.comparingInt(DiffImageAnalysis.Region::y).thenComparingInt(DiffImageAnalysis.Region::x))
+                .toList();
+        }
+
+        private void union(int[] parents, int cell, int neighbour) {
+            if (minX[neighbour] == EMPTY) return;
+
+            int cellRoot = find(parents, cell);
+            int neighbourRoot = find(parents, neighbour);
+            if (cellRoot < neighbourRoot) {
+                parents[neighbourRoot] = cellRoot;
+            } else if (neighbourRoot < cellRoot) {
+                parents[cellRoot] = neighbourRoot;
+            }
+        }
+
+        private static int find(int[] parents, int cell) {
+            while (parents[cell] != cell) {
+                //Path halving
+                parents[cell] = parents[parents[cell]];
+                cell = parents[cell];
+            }
+            return cell;
+        }
+    }
+}
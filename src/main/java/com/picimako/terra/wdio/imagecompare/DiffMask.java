@@ -0,0 +1,77 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Marks the mismatching pixels of two compared images, using a single bit per pixel.
+ * <p>
+ * The bits of each row start at a new byte, so that different rows can be marked concurrently without synchronization.
+ *
+ * @since 1.13.0
+ */
+public final class DiffMask {
+    private final int width;
+    private final int height;
+    private final int stride;
+    private final byte[] bits;
+
+    DiffMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        stride = (width + 7) >>> 3;
+        bits = new byte[Math.multiplyExact(stride, height)];
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Marks the pixel at the argument coordinates as mismatching.
+     */
+    void set(int x, int y) {
+        bits[y * stride + (x >>> 3)] |= (byte) (0x80 >>> (x & 7));
+    }
+
+    /**
+     * Marks the pixels of the argument row between the two x coordinates (the latter exclusive) as mismatching.
+     */
+    void setRange(int y, int fromX, int toX) {
+        for (int x = fromX; x < toX; x++) {
+            set(x, y);
+        }
+    }
+
+    /**
+     * Returns whether the pixel at the argument coordinates is mismatching.
+     */
+    public boolean isSet(int x, int y) {
+        return (bits[y * stride + (x >>> 3)] & (0x80 >>> (x & 7))) != 0;
+    }
+
+    /**
+     * Creates an image from this mask, in which the mismatching pixels have the argument color, and the other pixels are transparent.
+     * <p>
+     * The image uses one bit per pixel, and it doesn't share its data with this mask.
+     *
+     * @param color the color of the mismatching pixels
+     */
+    public BufferedImage toImage(@NotNull Color color) {
+        var colorModel = new IndexColorModel(1, 2,
+            new byte[]{0, (byte) color.getRed()}, new byte[]{0, (byte) color.getGreen()}, new byte[]{0, (byte) color.getBlue()}, 0);
+        var raster = Raster.createPackedRaster(new DataBufferByte(bits.clone(), bits.length), width, height, 1, null);
+        return new BufferedImage(colorModel, raster, false, null);
+    }
+}
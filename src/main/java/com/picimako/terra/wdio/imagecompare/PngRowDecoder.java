@@ -0,0 +1,360 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Decodes non-interlaced PNG images row by row, inflating and unfiltering only as much of the image data as the requested rows need.
+ * <p>
+ * Only two rows of raw image data are kept in memory at a time: the current one, and the previous one that the PNG filters refer to.
+ * All color types and bit depths of the PNG specification are supported, with 16-bit samples reduced to 8 bits, and with
+ * the transparency defined in {@code tRNS} chunks applied. Ancillary chunks other than {@code tRNS} are ignored, and CRCs
+ * are not verified.
+ *
+ * @see <a href="https://www.w3.org/TR/png/">Portable Network Graphics (PNG) Specification</a>
+ * @since 1.13.0
+ */
+final class PngRowDecoder implements RowDecoder {
+    /**
+     * The length of the PNG signature and the {@code IHDR} chunk, without its CRC.
+     */
+    static final int HEADER_LENGTH = 33;
+    private static final long SIGNATURE = 0x89504E470D0A1A0AL;
+    private static final int IHDR = 0x49484452;
+    private static final int PLTE = 0x504C5445;
+    private static final int TRNS = 0x74524E53;
+    private static final int IDAT = 0x49444154;
+    private static final int IEND = 0x49454E44;
+    private static final int GRAYSCALE = 0;
+    private static final int TRUECOLOR = 2;
+    private static final int INDEXED = 3;
+    private static final int GRAYSCALE_ALPHA = 4;
+    private static final int TRUECOLOR_ALPHA = 6;
+
+    private final DataInputStream in;
+    private final int width;
+    private final int height;
+    private final int bitDepth;
+    private final int colorType;
+    private final int bytesPerPixel;
+    private int[] palette;
+    /**
+     * The samples of the transparent gray or RGB color from the {@code tRNS} chunk, at the bit depth of the image.
+     */
+    private int[] transparentColor;
+    private final Inflater inflater = new Inflater();
+    private final InputStream imageData;
+    private byte[] currentRow;
+    private byte[] previousRow;
+    private int nextRow;
+
+    PngRowDecoder(@NotNull InputStream imageStream) throws IOException {
+        in = new DataInputStream(imageStream);
+        in.readLong();
+        in.readInt();
+        in.readInt();
+        width = in.readInt();
+        height = in.readInt();
+        bitDepth = in.readUnsignedByte();
+        colorType = in.readUnsignedByte();
+        in.skipNBytes(3);
+        in.readInt();
+
+        int channels = switch (colorType) {
+            case TRUECOLOR -> 3;
+            case GRAYSCALE_ALPHA -> 2;
+            case TRUECOLOR_ALPHA -> 4;
+            default -> 1;
+        };
+        bytesPerPixel = Math.max(1, channels * bitDepth / 8);
+        int rowLength = (int) (((long) width * channels * bitDepth + 7) / 8);
+        currentRow = new byte[rowLength];
+        previousRow = new byte[rowLength];
+
+        int firstImageDataLength = readChunksUntilImageData();
+        imageData = new InflaterInputStream(new ImageDataInputStream(firstImageDataLength), inflater, 16 * 1024);
+    }
+
+    /**
+     * Returns whether the image in the argument stream is a PNG image that this decoder supports, reading its first
+     * {@link #HEADER_LENGTH} bytes.
+     */
+    static boolean isSupported(@NotNull InputStream imageStream) throws IOException {
+        var header = imageStream.readNBytes(HEADER_LENGTH);
+        if (header.length < HEADER_LENGTH) return false;
+
+        var data = new DataInputStream(new ByteArrayInputStream(header));
+        if (data.readLong() != SIGNATURE || data.readInt() != 13 || data.readInt() != IHDR) return false;
+        int width = data.readInt();
+        int height = data.readInt();
+        int bitDepth = data.readUnsignedByte();
+        int colorType = data.readUnsignedByte();
+        int compressionMethod = data.readUnsignedByte();
+        int filterMethod = data.readUnsignedByte();
+        int interlaceMethod = data.readUnsignedByte();
+        return width > 0 && height > 0 && compressionMethod == 0 && filterMethod == 0 && interlaceMethod == 0
+            && isValidBitDepth(colorType, bitDepth);
+    }
+
+    private static boolean isValidBitDepth(int colorType, int bitDepth) {
+        return switch (colorType) {
+            case GRAYSCALE -> bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8 || bitDepth == 16;
+            case INDEXED -> bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8;
+            case TRUECOLOR, GRAYSCALE_ALPHA, TRUECOLOR_ALPHA -> bitDepth == 8 || bitDepth == 16;
+            default -> false;
+        };
+    }
+
+    /**
+     * Reads the chunks preceding the image data, and returns the length of the first {@code IDAT} chunk.
+     */
+    private int readChunksUntilImageData() throws IOException {
+        while (true) {
+            int length = in.readInt();
+            int type = in.readInt();
+            switch (type) {
+                case IDAT -> {
+                    return length;
+                }
+                case PLTE -> readPalette(length);
+                case TRNS -> readTransparency(length);
+                case IEND -> throw new IOException("The PNG image contains no image data.");
+                default -> in.skipNBytes(length);
+            }
+            in.readInt();
+        }
+    }
+
+    private void readPalette(int length) throws IOException {
+        int entryCount = Math.min(length / 3, 256);
+        int[] entries = palette != null ? palette : new int[256];
+        for (int i = 0; i < entryCount; i++) {
+            entries[i] = 0xFF000000 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+        }
+        in.skipNBytes(length - entryCount * 3L);
+        palette = entries;
+    }
+
+    private void readTransparency(int length) throws IOException {
+        switch (colorType) {
+            case INDEXED -> {
+                if (palette == null) palette = new int[256];
+                int entryCount = Math.min(length, palette.length);
+                for (int i = 0; i < entryCount; i++) {
+                    palette[i] = (palette[i] & 0x00FFFFFF) | in.readUnsignedByte() << 24;
+                }
+                in.skipNBytes(length - entryCount);
+            }
+            case GRAYSCALE, TRUECOLOR -> {
+                transparentColor = new int[length / 2];
+                for (int i = 0; i < transparentColor.length; i++) {
+                    transparentColor[i] = in.readUnsignedShort();
+                }
+                in.skipNBytes(length - transparentColor.length * 2L);
+            }
+            default -> in.skipNBytes(length);
+        }
+    }
+
+    @Override
+    public int width() {
+        return width;
+    }
+
+    @Override
+    public int height() {
+        return height;
+    }
+
+    @Override
+    public void readRow(int @NotNull [] argb, int offset) throws IOException {
+        if (nextRow >= height) throw new IOException("There are no more rows in the image.");
+
+        var row = previousRow;
+        previousRow = currentRow;
+        currentRow = row;
+        int filterType = imageData.read();
+        if (filterType < 0) throw new EOFException("The PNG image data ended unexpectedly.");
+        readFully(currentRow);
+        //The first row is filtered as if it was preceded by a row of zeros, which is what the initial previous row contains
+        unfilter(filterType, currentRow, previousRow);
+        toArgb(currentRow, argb, offset);
+        nextRow++;
+    }
+
+    private void readFully(byte[] row) throws IOException {
+        int read = 0;
+        while (read < row.length) {
+            int count = imageData.read(row, read, row.length - read);
+            if (count < 0) throw new EOFException("The PNG image data ended unexpectedly.");
+            read += count;
+        }
+    }
+
+    private void unfilter(int filterType, byte[] row, byte[] previous) throws IOException {
+        int bpp = bytesPerPixel;
+        switch (filterType) {
+            case 0 -> {
+                //None
+            }
+            case 1 -> {
+                for (int i = bpp; i < row.length; i++) {
+                    row[i] += row[i - bpp];
+                }
+            }
+            case 2 -> {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] += previous[i];
+                }
+            }
+            case 3 -> {
+                for (int i = 0; i < row.length; i++) {
+                    int left = i >= bpp ? row[i - bpp] & 0xFF : 0;
+                    row[i] += (byte) ((left + (previous[i] & 0xFF)) >>> 1);
+                }
+            }
+            case 4 -> {
+                for (int i = 0; i < row.length; i++) {
+                    int left = i >= bpp ? row[i - bpp] & 0xFF : 0;
+                    int upperLeft = i >= bpp ? previous[i - bpp] & 0xFF : 0;
+                    row[i] += (byte) paeth(left, previous[i] & 0xFF, upperLeft);
+                }
+            }
+            default -> throw new IOException("Invalid PNG filter type: " + filterType);
+        }
+    }
+
+    private static int paeth(int left, int up, int upperLeft) {
+        int estimate = left + up - upperLeft;
+        int leftDistance = Math.abs(estimate - left);
+        int upDistance = Math.abs(estimate - up);
+        int upperLeftDistance = Math.abs(estimate - upperLeft);
+        if (leftDistance <= upDistance && leftDistance <= upperLeftDistance) return left;
+        return upDistance <= upperLeftDistance ? up : upperLeft;
+    }
+
+    private void toArgb(byte[] row, int[] argb, int offset) {
+        switch (colorType) {
+            case GRAYSCALE -> {
+                for (int x = 0; x < width; x++) {
+                    int sample = sample(row, x);
+                    int gray = to8Bits(sample);
+                    int alpha = transparentColor != null && transparentColor.length == 1 && sample == transparentColor[0] ? 0 : 0xFF;
+                    argb[offset + x] = alpha << 24 | gray << 16 | gray << 8 | gray;
+                }
+            }
+            case TRUECOLOR -> {
+                for (int x = 0; x < width; x++) {
+                    int red = sample(row, x * 3);
+                    int green = sample(row, x * 3 + 1);
+                    int blue = sample(row, x * 3 + 2);
+                    boolean isTransparent = transparentColor != null && transparentColor.length == 3
+                        && red == transparentColor[0] && green == transparentColor[1] && blue == transparentColor[2];
+                    argb[offset + x] = (isTransparent ? 0 : 0xFF000000) | to8Bits(red) << 16 | to8Bits(green) << 8 | to8Bits(blue);
+                }
+            }
+            case INDEXED -> {
+                for (int x = 0; x < width; x++) {
+                    argb[offset + x] = palette != null ? palette[sample(row, x)] : 0xFF000000;
+                }
+            }
+            case GRAYSCALE_ALPHA -> {
+                for (int x = 0; x < width; x++) {
+                    int gray = to8Bits(sample(row, x * 2));
+                    argb[offset + x] = to8Bits(sample(row, x * 2 + 1)) << 24 | gray << 16 | gray << 8 | gray;
+                }
+            }
+            default -> {
+                for (int x = 0; x < width; x++) {
+                    argb[offset + x] = to8Bits(sample(row, x * 4 + 3)) << 24 | to8Bits(sample(row, x * 4)) << 16
+                        | to8Bits(sample(row, x * 4 + 1)) << 8 | to8Bits(sample(row, x * 4 + 2));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the sample at the argument index of the row, at the bit depth of the image.
+     */
+    private int sample(byte[] row, int index) {
+        return switch (bitDepth) {
+            case 8 -> row[index] & 0xFF;
+            case 16 -> (row[index * 2] & 0xFF) << 8 | row[index * 2 + 1] & 0xFF;
+            default -> {
+                int bitOffset = index * bitDepth;
+                int shift = 8 - bitDepth - (bitOffset & 7);
+                yield (row[bitOffset >>> 3] >>> shift) & ((1 << bitDepth) - 1);
+            }
+        };
+    }
+
+    /**
+     * Scales the argument sample from the bit depth of the image to 8 bits. Indexes of palettes are not scaled.
+     */
+    private int to8Bits(int sample) {
+        return switch (bitDepth) {
+            case 1 -> sample * 0xFF;
+            case 2 -> sample * 0x55;
+            case 4 -> sample * 0x11;
+            case 16 -> sample >>> 8;
+            default -> sample;
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    /**
+     * Provides the contents of the consecutive {@code IDAT} chunks of the image as a single stream.
+     */
+    private final class ImageDataInputStream extends InputStream {
+        private int remaining;
+        private boolean isEnded;
+
+        ImageDataInputStream(int firstChunkLength) {
+            remaining = firstChunkLength;
+        }
+
+        @Override
+        public int read() throws IOException {
+            var single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte @NotNull [] buffer, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            while (remaining == 0) {
+                if (isEnded) return -1;
+                nextChunk();
+            }
+            int count = in.read(buffer, offset, Math.min(length, remaining));
+            if (count < 0) throw new EOFException("The PNG image data ended unexpectedly.");
+            remaining -= count;
+            return count;
+        }
+
+        private void nextChunk() throws IOException {
+            //The CRC of the previous chunk
+            in.readInt();
+            int length = in.readInt();
+            if (in.readInt() == IDAT) {
+                remaining = length;
+            } else {
+                isEnded = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Utilities for running the individual steps of a background scan on an executor, and waiting for them,
+ * while keeping them cancellable via the progress indicator of the scan.
+ *
+ * @since 1.13.0
+ */
+final class ProgressAwareFutures {
+    private static final long CANCELLATION_CHECK_MILLIS = 50;
+
+    private ProgressAwareFutures() {
+        //Utility class
+    }
+
+    /**
+     * Runs the argument task on the given executor under the argument progress indicator, so that the task is cancelled
+     * along with the scan. The task is skipped if the scan has been cancelled before it is started.
+     */
+    static CompletableFuture<Void> runUnderProgress(@NotNull Runnable task, @NotNull ProgressIndicator indicator, @NotNull Executor executor) {
+        return CompletableFuture.runAsync(() -> {
+            if (!indicator.isCanceled()) {
+                ProgressManager.getInstance().executeProcessUnderProgress(task, indicator);
+            }
+        }, executor);
+    }
+
+    /**
+     * Waits for the argument future to complete, while checking whether the argument progress indicator has been cancelled.
+     *
+     * @throws ExecutionException       if the future has completed exceptionally
+     * @throws ProcessCanceledException if the indicator has been cancelled, or the current thread has been interrupted
+     */
+    static void awaitCompletion(@NotNull CompletableFuture<Void> future, @NotNull ProgressIndicator indicator) throws ExecutionException {
+        while (true) {
+            indicator.checkCanceled();
+            try {
+                future.get(CANCELLATION_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                //Checking for cancellation again
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ProcessCanceledException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.picimako.terra.resources.TerraBundle;
+
+/**
+ * The severity of a visual regression, based on the percentage of pixels highlighted in its diff image.
+ * <p>
+ * The constants are ordered by increasing severity.
+ *
+ * @see DiffImageAnalysis#severity()
+ * @since 1.13.0
+ */
+public enum RegressionSeverity {
+    /**
+     * No pixel is highlighted.
+     */
+    NONE(0),
+    /**
+     * At most 0.1% of the pixels are highlighted.
+     */
+    MINOR(0),
+    /**
+     * More than 0.1%, and at most 1% of the pixels are highlighted.
+     */
+    MODERATE(0.1),
+    /**
+     * More than 1%, and at most 10% of the pixels are highlighted.
+     */
+    MAJOR(1),
+    /**
+     * More than 10% of the pixels are highlighted.
+     */
+    SEVERE(10);
+
+    /**
+     * The mismatch percentage above which a regression is at least of this severity.
+     */
+    private final double minMismatchPercentage;
+
+    RegressionSeverity(double minMismatchPercentage) {
+        this.minMismatchPercentage = minMismatchPercentage;
+    }
+
+    /**
+     * Returns the severity of a regression with the argument mismatch percentage.
+     *
+     * @param mismatchPercentage the percentage of highlighted pixels
+     */
+    @NotNull
+    public static RegressionSeverity of(double mismatchPercentage) {
+        if (mismatchPercentage <= 0) return NONE;
+
+        var values = values();
+        for (int i = values.length - 1; i > MINOR.ordinal(); i--) {
+            if (mismatchPercentage > values[i].minMismatchPercentage) return values[i];
+        }
+        return MINOR;
+    }
+
+    /**
+     * Returns the name of this severity to display in the UI.
+     */
+    public String getDisplayName() {
+        return TerraBundle.toolWindow("severity." + name().toLowerCase());
+    }
+}
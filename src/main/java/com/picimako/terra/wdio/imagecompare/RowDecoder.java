@@ -0,0 +1,59 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Decodes an image row by row, from top to bottom, into ARGB pixel values.
+ * <p>
+ * This way images can be processed without holding all of their pixels in memory at once.
+ *
+ * @since 1.13.0
+ */
+interface RowDecoder extends Closeable {
+
+    int width();
+
+    int height();
+
+    /**
+     * Decodes the next row of the image into the argument array, starting at the given offset.
+     *
+     * @param argb   the array to decode the row into
+     * @param offset the index in the array to put the first pixel of the row at
+     * @throws IOException if the row cannot be decoded, or there are no more rows
+     */
+    void readRow(int @NotNull [] argb, int offset) throws IOException;
+
+    /**
+     * Creates a decoder for the image in the argument stream, and takes ownership of the stream.
+     * <p>
+     * Non-interlaced PNG images, the format of the screenshots saved by Terra, are decoded in a streaming manner via {@link PngRowDecoder}.
+     * Other images are decoded as a whole via {@link BufferedImageRowDecoder}.
+     *
+     * @param imageStream the stream to read the image from
+     * @return the decoder for the image
+     * @throws IOException if the image cannot be read
+     */
+    static RowDecoder open(@NotNull InputStream imageStream) throws IOException {
+        var in = new BufferedInputStream(imageStream);
+        try {
+            in.mark(PngRowDecoder.HEADER_LENGTH);
+            if (PngRowDecoder.isSupported(in)) {
+                in.reset();
+                return new PngRowDecoder(in);
+            }
+            in.reset();
+            return new BufferedImageRowDecoder(in);
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+}
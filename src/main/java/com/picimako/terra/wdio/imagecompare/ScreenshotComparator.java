@@ -0,0 +1,265 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Compares reference and latest screenshots pixel by pixel, and calculates the percentage of mismatching pixels,
+ * optionally along with a mask of the mismatching pixels.
+ * <p>
+ * This is useful when there is no diff image for a latest screenshot, e.g. in terra-toolkit projects, or when the diff image
+ * is outdated.
+ * <p>
+ * <b>Memory usage</b>
+ * <p>
+ * The images are not decoded as a whole, but row by row (see {@link RowDecoder}), and only a limited number of bands of rows are
+ * kept in memory at a time. This way full-page screenshots, that may be many thousands of pixels tall, can be compared without
+ * having two full images on the heap.
+ * <p>
+ * <b>Concurrency</b>
+ * <p>
+ * The rows are decoded sequentially on the calling thread, while the decoded bands of {@link #BAND_HEIGHT} rows are compared
+ * concurrently on a bounded executor, with as many threads as there are processor cores.
+ * <p>
+ * <b>Early exit</b>
+ * <p>
+ * The comparison can be stopped as soon as the mismatch exceeds a threshold (see {@link Options#stopAbovePercentage()}),
+ * e.g. when only a pass/fail verdict is needed, and not the exact mismatch percentage.
+ *
+ * @since 1.13.0
+ */
+@Service(Service.Level.APP)
+public final class ScreenshotComparator {
+    /**
+     * The number of rows compared together in a single task.
+     */
+    static final int BAND_HEIGHT = 32;
+
+    private final Executor executor;
+    private final int parallelism;
+
+    /**
+     * The options of a comparison.
+     *
+     * @param colorTolerance      the maximum difference of each color and alpha component of two pixels that are still considered matching
+     * @param stopAbovePercentage the mismatch percentage above which the comparison stops, or 100 for never stopping early
+     * @param isCreateDiffMask    whether to create a mask of the mismatching pixels
+     */
+    public record Options(int colorTolerance, double stopAbovePercentage, boolean isCreateDiffMask) {
+        /**
+         * Compares the images exactly and completely, and creates a diff mask.
+         */
+        public static final Options DEFAULT = new Options(0, 100, true);
+    }
+
+    public ScreenshotComparator() {
+        this(AppExecutorUtil.createBoundedApplicationPoolExecutor("Terra Screenshot Comparison", Runtime.getRuntime().availableProcessors()),
+            Runtime.getRuntime().availableProcessors());
+    }
+
+    ScreenshotComparator(@NotNull Executor executor, int parallelism) {
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Compares the argument reference and latest screenshot files.
+     *
+     * @param reference the reference screenshot
+     * @param latest    the latest screenshot
+     * @param options   the options of the comparison
+     * @return the result of the comparison
+     * @throws IOException if any of the images cannot be read
+     */
+    public ScreenshotComparison compare(@NotNull VirtualFile reference, @NotNull VirtualFile latest, @NotNull Options options) throws IOException {
+        var referenceStream = reference.getInputStream();
+        InputStream latestStream;
+        try {
+            latestStream = latest.getInputStream();
+        } catch (IOException e) {
+            referenceStream.close();
+            throw e;
+        }
+        return compare(referenceStream, latestStream, options);
+    }
+
+    /**
+     * Compares the images in the argument streams, and closes the streams.
+     *
+     * @param reference the stream of the reference image
+     * @param latest    the stream of the latest image
+     * @param options   the options of the comparison
+     * @return the result of the comparison
+     * @throws IOException if any of the images cannot be read
+     */
+    public ScreenshotComparison compare(@NotNull InputStream reference, @NotNull InputStream latest, @NotNull Options options) throws IOException {
+        try (latest; var referenceDecoder = RowDecoder.open(reference); var latestDecoder = RowDecoder.open(latest)) {
+            return compare(referenceDecoder, latestDecoder, options);
+        }
+    }
+
+    private ScreenshotComparison compare(RowDecoder reference, RowDecoder latest, Options options) throws IOException {
+        var comparison = new Comparison(reference.width(), reference.height(), latest.width(), latest.height(), options);
+        if (comparison.width == 0 || comparison.height == 0) return comparison.result();
+
+        int bandCount = (comparison.height + BAND_HEIGHT - 1) / BAND_HEIGHT;
+        int bandsInMemory = Math.min(bandCount, parallelism * 2);
+        BlockingQueue<Band> freeBands = new ArrayBlockingQueue<>(bandsInMemory);
+        for (int i = 0; i < bandsInMemory; i++) {
+            freeBands.add(new Band(reference.width(), latest.width()));
+        }
+
+        List<CompletableFuture<Void>> bandComparisons = new ArrayList<>(bandCount);
+        try {
+            for (int y = 0; y < comparison.height && !comparison.isStopped.get(); y += BAND_HEIGHT) {
+                var band = takeFreeBand(freeBands);
+                band.y = y;
+                band.rowCount = Math.min(BAND_HEIGHT, comparison.height - y);
+                for (int row = 0; row < band.rowCount; row++) {
+                    if (y + row < comparison.referenceHeight) reference.readRow(band.referencePixels, row * comparison.referenceWidth);
+                    if (y + row < comparison.latestHeight) latest.readRow(band.latestPixels, row * comparison.latestWidth);
+                }
+                bandComparisons.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        comparison.compare(band);
+                    } finally {
+                        freeBands.add(band);
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(bandComparisons.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+        } finally {
+            //In case of an error or cancellation, the remaining band comparisons are not needed anymore
+            comparison.isStopped.set(true);
+        }
+        return comparison.result();
+    }
+
+    private static Band takeFreeBand(BlockingQueue<Band> freeBands) throws InterruptedIOException {
+        try {
+            while (true) {
+                ProgressManager.checkCanceled();
+                var band = freeBands.poll(10, TimeUnit.MILLISECONDS);
+                if (band != null) return band;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("The screenshot comparison has been interrupted.");
+        }
+    }
+
+    /**
+     * The pixels of a band of rows of both images. Bands are reused once their comparison has finished.
+     */
+    private static final class Band {
+        private final int[] referencePixels;
+        private final int[] latestPixels;
+        private int y;
+        private int rowCount;
+
+        Band(int referenceWidth, int latestWidth) {
+            referencePixels = new int[referenceWidth * BAND_HEIGHT];
+            latestPixels = new int[latestWidth * BAND_HEIGHT];
+        }
+    }
+
+    /**
+     * The state of a single comparison, shared by the comparisons of its bands.
+     */
+    private static final class Comparison {
+        private final int referenceWidth;
+        private final int referenceHeight;
+        private final int latestWidth;
+        private final int latestHeight;
+        private final int width;
+        private final int height;
+        private final int colorTolerance;
+        private final long maxMismatchedPixelCount;
+        private final DiffMask diffMask;
+        private final AtomicLong mismatchedPixelCount = new AtomicLong();
+        private final AtomicBoolean isStoppedEarly = new AtomicBoolean();
+        private final AtomicBoolean isStopped = new AtomicBoolean();
+
+        Comparison(int referenceWidth, int referenceHeight, int latestWidth, int latestHeight, Options options) {
+            this.referenceWidth = referenceWidth;
+            this.referenceHeight = referenceHeight;
+            this.latestWidth = latestWidth;
+            this.latestHeight = latestHeight;
+            width = Math.max(referenceWidth, latestWidth);
+            height = Math.max(referenceHeight, latestHeight);
+            colorTolerance = options.colorTolerance();
+            maxMismatchedPixelCount = options.stopAbovePercentage() < 100
+                ? (long) Math.floor((double) width * height * Math.max(0, options.stopAbovePercentage()) / 100)
+                : Long.MAX_VALUE;
+            diffMask = options.isCreateDiffMask() ? new DiffMask(width, height) : null;
+        }
+
+        void compare(Band band) {
+            for (int row = 0; row < band.rowCount; row++) {
+                if (isStopped.get()) return;
+
+                int y = band.y + row;
+                //Only the area covered by both images is compared, the rest of the row is mismatching
+                int overlapWidth = y < referenceHeight && y < latestHeight ? Math.min(referenceWidth, latestWidth) : 0;
+                int referenceOffset = row * referenceWidth;
+                int latestOffset = row * latestWidth;
+                long rowMismatchCount = width - overlapWidth;
+                for (int x = 0; x < overlapWidth; x++) {
+                    if (!isMatching(band.referencePixels[referenceOffset + x], band.latestPixels[latestOffset + x])) {
+                        rowMismatchCount++;
+                        if (diffMask != null) diffMask.set(x, y);
+                    }
+                }
+                if (diffMask != null) diffMask.setRange(y, overlapWidth, width);
+
+                if (rowMismatchCount > 0 && mismatchedPixelCount.addAndGet(rowMismatchCount) > maxMismatchedPixelCount) {
+                    isStoppedEarly.set(true);
+                    isStopped.set(true);
+                    return;
+                }
+            }
+        }
+
+        private boolean isMatching(int reference, int latest) {
+            if (reference == latest) return true;
+            //Fully transparent pixels look the same regardless of their colors
+            if ((reference >>> 24) == 0 && (latest >>> 24) == 0) return true;
+            if (colorTolerance == 0) return false;
+
+            for (int shift = 0; shift < 32; shift += 8) {
+                if (Math.abs(((reference >>> shift) & 0xFF) - ((latest >>> shift) & 0xFF)) > colorTolerance) return false;
+            }
+            return true;
+        }
+
+        ScreenshotComparison result() {
+            return new ScreenshotComparison(width, height, mismatchedPixelCount.get(), isStoppedEarly.get(), diffMask);
+        }
+    }
+
+    public static ScreenshotComparator getInstance() {
+        return ApplicationManager.getApplication().getService(ScreenshotComparator.class);
+    }
+}
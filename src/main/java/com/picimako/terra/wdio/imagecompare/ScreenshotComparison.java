@@ -0,0 +1,37 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The result of comparing two images via {@link ScreenshotComparator}.
+ * <p>
+ * Images of different sizes are compared on the area of the larger width and larger height, with the pixels outside
+ * either of the images counted as mismatching.
+ *
+ * @param width                  the width of the compared area
+ * @param height                 the height of the compared area
+ * @param mismatchedPixelCount   the number of mismatching pixels. If the comparison stopped early, it is only a lower bound.
+ * @param isStoppedEarly         whether the comparison stopped early because the mismatch exceeded the configured threshold
+ * @param diffMask               the mask of mismatching pixels, or null if it was not requested. If the comparison stopped early,
+ *                               it may be incomplete.
+ * @since 1.13.0
+ */
+public record ScreenshotComparison(int width, int height, long mismatchedPixelCount, boolean isStoppedEarly, @Nullable DiffMask diffMask) {
+
+    /**
+     * Returns the percentage of mismatching pixels within the compared area, between 0 and 100.
+     */
+    public double mismatchPercentage() {
+        long pixelCount = (long) width * height;
+        return pixelCount > 0 ? mismatchedPixelCount * 100.0 / pixelCount : 0;
+    }
+
+    /**
+     * Returns whether the compared images are identical.
+     */
+    public boolean isMatching() {
+        return mismatchedPixelCount == 0;
+    }
+}
@@ -0,0 +1,37 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+/**
+ * Whether a latest screenshot would pass the validation against its reference screenshot, with the mismatch tolerance
+ * configured in the corresponding screenshot validation call.
+ *
+ * @param isPassed             whether the mismatch percentage is within the mismatch tolerance
+ * @param mismatchPercentage   the percentage of mismatching pixels. If it is a lower bound, the exact value is higher.
+ * @param isMismatchLowerBound whether the comparison stopped as soon as the mismatch exceeded the tolerance,
+ *                             so the mismatch percentage is only a lower bound
+ * @param mismatchTolerance    the mismatch tolerance the verdict is based on
+ * @see ScreenshotVerdictService
+ * @since 1.13.0
+ */
+public record ScreenshotVerdict(boolean isPassed, double mismatchPercentage, boolean isMismatchLowerBound, double mismatchTolerance) {
+
+    /**
+     * The aggregated verdicts of the latest screenshots of the same name, e.g. of different locales, browsers and viewports.
+     *
+     * @param passedCount           the number of passed latest screenshots
+     * @param failedCount           the number of failed latest screenshots
+     * @param maxMismatchPercentage the highest mismatch percentage among the failed latest screenshots, or 0 if none failed
+     * @param isMismatchLowerBound  whether the highest mismatch percentage is only a lower bound
+     */
+    public record Summary(int passedCount, int failedCount, double maxMismatchPercentage, boolean isMismatchLowerBound) {
+
+        public boolean isPassed() {
+            return failedCount == 0;
+        }
+
+        public int totalCount() {
+            return passedCount + failedCount;
+        }
+    }
+}
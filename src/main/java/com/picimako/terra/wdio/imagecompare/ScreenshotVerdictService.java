@@ -0,0 +1,493 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import static com.picimako.terra.psi.js.JSArgumentUtil.getNumericValueOf;
+import static com.picimako.terra.wdio.TerraWdioFolders.findSpecFile;
+import static com.picimako.terra.wdio.TerraWdioFolders.projectWdioRoots;
+import static com.picimako.terra.wdio.TerraWdioFolders.referenceImageForLatest;
+import static com.picimako.terra.wdio.TerraWdioFolders.specFolderIdentifier;
+import static com.picimako.terra.wdio.TerraWdioFolders.wdioRootOfPath;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.WDIO_SPEC_FILE_NAME_PATTERN;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.MISMATCH_TOLERANCE;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.MIS_MATCH_TOLERANCE;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.getScreenshotValidationProperty;
+import static java.util.stream.Collectors.toSet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import com.intellij.ide.PowerSaveMode;
+import com.intellij.lang.javascript.psi.JSCallExpression;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.io.FileUtilRt;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.PathUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.picimako.terra.resources.TerraBundle;
+import com.picimako.terra.wdio.BackgroundExecution;
+import com.picimako.terra.wdio.TerraResourceManager;
+import com.picimako.terra.wdio.TerraWdioFolders;
+import com.picimako.terra.wdio.screenshot.index.TerraScreenshotUsageIndex;
+
+/**
+ * Decides for each latest screenshot in the project whether it passes the validation against its reference screenshot,
+ * using the mismatch tolerance ({@code misMatchTolerance} or {@code mismatchTolerance}) of the screenshot validation call
+ * the screenshot belongs to, or {@link #DEFAULT_MISMATCH_TOLERANCE} if there is no such call, or it doesn't specify a tolerance.
+ * <p>
+ * The screenshots are compared via {@link ScreenshotComparator}, which stops as soon as the mismatch exceeds the tolerance,
+ * since only the verdict is needed.
+ * <p>
+ * <b>Scanning</b>
+ * <p>
+ * The latest screenshots are collected, and compared, in a cancellable background task (see {@link #scanInBackground(Runnable)}).
+ * At most {@link #MAX_CONCURRENT_COMPARISONS} pairs of screenshots are compared at a time, since each comparison is parallelized
+ * on its own as well. If a scan is requested while another one is running, a single new scan is started after the current one.
+ * Scans are not started in power save mode.
+ * <p>
+ * A scan covers either the whole project, e.g. after the tool window model has been built, or only the specs affected by
+ * a set of changed files (see {@link #scanInBackground(Collection, Runnable)}), so that a batch of file changes doesn't require
+ * collecting all latest screenshots of the project. Scopes requested while a scan is running are merged, and are covered by
+ * the next scan.
+ * <p>
+ * <b>Caching</b>
+ * <p>
+ * The verdicts are cached by the paths of the latest screenshots, along with the modification stamps of the latest and reference
+ * files, so only the screenshots that have changed since the previous scan are compared again. A cached comparison is reused even if
+ * the mismatch tolerance has changed, unless it stopped early, and the tolerance has been increased.
+ * <p>
+ * Changes of the mismatch tolerances in spec files are reflected by the next scan.
+ *
+ * @since 1.13.0
+ */
+@Service(Service.Level.PROJECT)
+public final class ScreenshotVerdictService implements Disposable {
+    private static final Logger LOG = Logger.getInstance(ScreenshotVerdictService.class);
+    /**
+     * The mismatch tolerance that both terra-toolkit and terra-functional-testing use when a screenshot validation call doesn't specify one.
+     */
+    static final double DEFAULT_MISMATCH_TOLERANCE = 0.01;
+    static final int MAX_CONCURRENT_COMPARISONS = Math.clamp(Runtime.getRuntime().availableProcessors() / 2, 1, 4);
+
+    private final Project project;
+    private final Executor executor;
+    private final Map<String, CachedVerdict> verdicts = new ConcurrentHashMap<>();
+    private final AtomicBoolean isScanning = new AtomicBoolean();
+    //The scope of the next scan, or null if the whole project has to be scanned. Guarded by this service.
+    @Nullable
+    private ScanScope requestedScope = new ScanScope();
+    private volatile boolean isRescanRequested;
+    private volatile ProgressIndicator indicator;
+
+    public ScreenshotVerdictService(Project project) {
+        this.project = project;
+        executor = AppExecutorUtil.createBoundedApplicationPoolExecutor("Terra Screenshot Verdicts", MAX_CONCURRENT_COMPARISONS);
+    }
+
+    /**
+     * Starts scanning the latest screenshots of the project in the background, unless in power save mode.
+     * <p>
+     * If a scan is already running, a new scan is started when it finishes.
+     *
+     * @param onFinished called on the EDT when the scan has finished or has been cancelled
+     */
+    public void scanInBackground(@NotNull Runnable onFinished) {
+        scanInBackground(null, onFinished);
+    }
+
+    /**
+     * Starts scanning the latest screenshots affected by the argument changed files in the background, unless in power save mode.
+     * <p>
+     * A changed file in a {@code __snapshots__} folder affects the latest screenshots of its spec, while a changed spec file
+     * affects the latest screenshots of its spec folders, since their mismatch tolerances may have changed. Changes of other files
+     * don't affect any verdict. If the scan is not started, e.g. in power save mode, the changes are covered by the next scan.
+     * <p>
+     * If a scan is already running, a new scan is started when it finishes.
+     *
+     * @param changedPaths the paths of the changed files and folders, or null to scan the whole project
+     * @param onFinished   called on the EDT when the scan has finished or has been cancelled
+     * @since 1.13.0
+     */
+    public void scanInBackground(@Nullable Collection<String> changedPaths, @NotNull Runnable onFinished) {
+        requestScan(changedPaths);
+        if (PowerSaveMode.isEnabled() || project.isDisposed()) return;
+        if (!isScanning.compareAndSet(false, true)) {
+            isRescanRequested = true;
+            return;
+        }
+
+        BackgroundExecution.getInstance().run(new Task.Backgroundable(project, TerraBundle.toolWindow("checking.latest.screenshots"), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                scan(takeRequestedScope(), indicator);
+            }
+
+            @Override
+            public void onFinished() {
+                isScanning.set(false);
+                onFinished.run();
+                if (isRescanRequested) {
+                    isRescanRequested = false;
+                    scanInBackground(List.of(), onFinished);
+                }
+            }
+        });
+    }
+
+    private synchronized void requestScan(@Nullable Collection<String> changedPaths) {
+        if (changedPaths == null) {
+            requestedScope = null;
+        } else if (requestedScope != null) {
+            changedPaths.forEach(requestedScope::add);
+        }
+    }
+
+    @Nullable
+    private synchronized ScanScope takeRequestedScope() {
+        var scope = requestedScope;
+        requestedScope = new ScanScope();
+        return scope;
+    }
+
+    /**
+     * Compares the latest screenshots of the project with their reference screenshots, whose verdicts are not cached yet,
+     * or are outdated. The screenshots are collected in a read action via {@link BackgroundExecution}, so it may be called on the EDT
+     * only if the background work is executed synchronously.
+     *
+     * @param indicator the progress indicator of the scan
+     */
+    void scan(@NotNull ProgressIndicator indicator) {
+        scan(null, indicator);
+    }
+
+    /**
+     * Compares the latest screenshots in the argument scope with their reference screenshots, whose verdicts are not cached yet,
+     * or are outdated.
+     *
+     * @param scope     the specs to scan, or null to scan the whole project
+     * @param indicator the progress indicator of the scan
+     */
+    void scan(@Nullable ScanScope scope, @NotNull ProgressIndicator indicator) {
+        if (scope != null && scope.isEmpty()) return;
+
+        this.indicator = indicator;
+        try {
+            List<Check> checks = inReadAction(indicator, () -> scope != null ? collectChecks(scope) : collectChecks());
+            //Verdicts of latest screenshots that have been deleted are not needed anymore
+            var checkedPaths = checks.stream().map(check -> check.latest().getPath()).collect(toSet());
+            if (scope != null) {
+                verdicts.keySet().removeIf(path -> scope.containsLatest(path) && !checkedPaths.contains(path));
+            } else {
+                verdicts.keySet().retainAll(checkedPaths);
+            }
+
+            var outdatedChecks = checks.stream().filter(check -> getVerdict(check) == null).toList();
+            compareAll(outdatedChecks, indicator);
+        } finally {
+            this.indicator = null;
+        }
+    }
+
+    private <T> T inReadAction(ProgressIndicator indicator, Supplier<T> computation) {
+        return BackgroundExecution.getInstance().computeInReadAction(computation, action -> action.inSmartMode(project).expireWith(this), indicator);
+    }
+
+    /**
+     * Collects the latest screenshots of the project that have reference screenshots, along with their mismatch tolerances.
+     */
+    private List<Check> collectChecks() {
+        final var checks = new ArrayList<Check>();
+        for (var wdioRoot : projectWdioRoots(project)) {
+            var specFolderCollector = TerraResourceManager.forFile(project, wdioRoot).specFolderCollector();
+            specFolderCollector.collectSpecFoldersForTypeInside(TerraWdioFolders.LATEST, wdioRoot)
+                .forEach(specFolder -> collectChecks(wdioRoot, specFolder, checks));
+        }
+        return checks;
+    }
+
+    /**
+     * Collects the latest screenshots of the specs in the argument scope that have reference screenshots, along with their mismatch tolerances.
+     */
+    private List<Check> collectChecks(ScanScope scope) {
+        final var checks = new ArrayList<Check>();
+        scope.specFolderNamesBySnapshotsFolder.forEach((snapshotsFolderPath, specFolderNames) -> {
+            var wdioRoot = wdioRootOfPath(snapshotsFolderPath, project);
+            if (wdioRoot == null) return;
+
+            String relativePath = FileUtil.getRelativePath(wdioRoot.getPath(), snapshotsFolderPath, '/');
+            var snapshotsFolder = relativePath != null ? wdioRoot.findFileByRelativePath(relativePath) : null;
+            if (snapshotsFolder == null || !snapshotsFolder.isDirectory()) return;
+
+            TerraResourceManager.forFile(project, wdioRoot).specFolderCollector()
+                .collectSpecFoldersForTypeInSnapshotsFolder(TerraWdioFolders.LATEST, snapshotsFolder)
+                .filter(specFolder -> specFolderNames == null || specFolderNames.contains(specFolder.getName()))
+                .forEach(specFolder -> collectChecks(wdioRoot, specFolder, checks));
+        });
+        return checks;
+    }
+
+    private void collectChecks(VirtualFile wdioRoot, VirtualFile specFolder, List<Check> checks) {
+        ProgressManager.checkCanceled();
+        var specFile = findSpecFile(wdioRoot, specFolderIdentifier(specFolder, project));
+        var specPsiFile = specFile != null ? PsiManager.getInstance(project).findFile(specFile) : null;
+        for (var latest : specFolder.getChildren()) {
+            if (latest.isDirectory()) continue;
+
+            var reference = referenceImageForLatest(latest);
+            if (reference != null) {
+                checks.add(new Check(latest, reference, mismatchToleranceOf(specPsiFile, latest.getName())));
+            }
+        }
+    }
+
+    /**
+     * Returns the mismatch tolerance specified in the screenshot validation call that the argument screenshot belongs to.
+     * The call is located via {@link TerraScreenshotUsageIndex}.
+     */
+    private double mismatchToleranceOf(@Nullable PsiFile specFile, String screenshotName) {
+        if (specFile == null) return DEFAULT_MISMATCH_TOLERANCE;
+
+        Integer usageOffset = TerraScreenshotUsageIndex.findUsageOffset(project, specFile.getVirtualFile(), screenshotName);
+        if (usageOffset == null) return DEFAULT_MISMATCH_TOLERANCE;
+
+        var call = PsiTreeUtil.getParentOfType(specFile.findElementAt(usageOffset), JSCallExpression.class);
+        var mismatchTolerance = call != null ? getScreenshotValidationProperty(call, MIS_MATCH_TOLERANCE, MISMATCH_TOLERANCE) : null;
+        return mismatchTolerance != null && getNumericValueOf(mismatchTolerance) instanceof Number tolerance
+            ? tolerance.doubleValue()
+            : DEFAULT_MISMATCH_TOLERANCE;
+    }
+
+    private void compareAll(List<Check> checks, ProgressIndicator indicator) {
+        indicator.setIndeterminate(false);
+        final var completedCount = new AtomicInteger();
+        var comparisons = checks.stream()
+            .map(check -> ProgressAwareFutures.runUnderProgress(() -> {
+                if (project.isDisposed()) return;
+                compare(check);
+                indicator.setFraction((double) completedCount.incrementAndGet() / checks.size());
+            }, indicator, executor))
+            .toList();
+
+        for (var comparison : comparisons) {
+            try {
+                ProgressAwareFutures.awaitCompletion(comparison, indicator);
+            } catch (ExecutionException e) {
+                indicator.checkCanceled();
+                LOG.warn("Could not compare screenshots.", e.getCause());
+            }
+        }
+    }
+
+    private void compare(Check check) {
+        //The stamps are queried before the comparison, so that changes during the comparison make the verdict outdated
+        long referenceStamp = check.reference().getModificationStamp();
+        long latestStamp = check.latest().getModificationStamp();
+        try {
+            var comparison = ScreenshotComparator.getInstance().compare(check.reference(), check.latest(),
+                new ScreenshotComparator.Options(0, check.mismatchTolerance(), false));
+            verdicts.put(check.latest().getPath(), new CachedVerdict(check.reference(), referenceStamp, latestStamp,
+                comparison.mismatchPercentage(), comparison.isStoppedEarly(), check.mismatchTolerance(), check.mismatchTolerance()));
+        } catch (IOException e) {
+            LOG.debug("Could not compare the screenshot " + check.latest().getPath() + " with its reference.", e);
+            verdicts.remove(check.latest().getPath());
+        }
+    }
+
+    /**
+     * Returns the cached verdict for the argument check, or null if there is no up-to-date cached comparison for its tolerance.
+     */
+    @Nullable
+    private ScreenshotVerdict getVerdict(Check check) {
+        var cached = verdicts.get(check.latest().getPath());
+        if (cached == null || !cached.isUpToDate(check.latest(), check.reference())) return null;
+
+        var verdict = cached.verdictFor(check.mismatchTolerance());
+        if (verdict != null && cached.mismatchTolerance() != check.mismatchTolerance()) {
+            verdicts.put(check.latest().getPath(), cached.withMismatchTolerance(check.mismatchTolerance()));
+        }
+        return verdict;
+    }
+
+    /**
+     * Returns the verdict of the argument latest screenshot from the last scan, or null if it hasn't been compared yet,
+     * or it has changed since then.
+     *
+     * @param latest the latest screenshot
+     */
+    @Nullable
+    public ScreenshotVerdict getVerdict(@NotNull VirtualFile latest) {
+        var cached = verdicts.get(latest.getPath());
+        return cached != null && cached.isUpToDate(latest, cached.reference()) ? cached.verdictFor(cached.mismatchTolerance()) : null;
+    }
+
+    /**
+     * Aggregates the verdicts of the argument latest screenshots, ignoring the ones that have no verdict.
+     *
+     * @param latests the latest screenshots of the same name
+     * @return the summary of the verdicts, or null if none of the screenshots has a verdict
+     */
+    @Nullable
+    public ScreenshotVerdict.Summary summarize(@NotNull List<VirtualFile> latests) {
+        int passedCount = 0;
+        int failedCount = 0;
+        double maxMismatchPercentage = 0;
+        boolean isMismatchLowerBound = false;
+        for (var latest : latests) {
+            var verdict = latest != null ? getVerdict(latest) : null;
+            if (verdict == null) continue;
+
+            if (verdict.isPassed()) {
+                passedCount++;
+            } else {
+                failedCount++;
+                if (verdict.mismatchPercentage() > maxMismatchPercentage) {
+                    maxMismatchPercentage = verdict.mismatchPercentage();
+                    isMismatchLowerBound = verdict.isMismatchLowerBound();
+                }
+            }
+        }
+        return passedCount + failedCount > 0 ? new ScreenshotVerdict.Summary(passedCount, failedCount, maxMismatchPercentage, isMismatchLowerBound) : null;
+    }
+
+    @Override
+    public void dispose() {
+        var currentIndicator = indicator;
+        if (currentIndicator != null) {
+            currentIndicator.cancel();
+        }
+        verdicts.clear();
+    }
+
+    /**
+     * The specs whose latest screenshots have to be scanned, grouped by the paths of their {@code __snapshots__} folders.
+     * <p>
+     * The specs are identified by the names of their spec folders. A null set of names stands for all specs of a {@code __snapshots__}
+     * folder, e.g. when one of its image type or locale folders has changed.
+     */
+    static final class ScanScope {
+        private static final String SNAPSHOTS_SEGMENT = "/" + TerraWdioFolders.SNAPSHOTS;
+        private static final String LATEST_SEGMENT = SNAPSHOTS_SEGMENT + "/" + TerraWdioFolders.LATEST + "/";
+        private static final Pattern SPEC_FILE_NAME = Pattern.compile(WDIO_SPEC_FILE_NAME_PATTERN);
+        private final Map<String, Set<String>> specFolderNamesBySnapshotsFolder = new HashMap<>();
+
+        /**
+         * Adds the spec affected by the file or folder at the argument path to this scope, if there is one.
+         */
+        void add(@NotNull String changedPath) {
+            int snapshotsIndex = changedPath.lastIndexOf(SNAPSHOTS_SEGMENT);
+            int snapshotsEnd = snapshotsIndex + SNAPSHOTS_SEGMENT.length();
+            if (snapshotsIndex >= 0 && (changedPath.length() == snapshotsEnd || changedPath.charAt(snapshotsEnd) == '/')) {
+                String specFolderName = null;
+                for (String segment : StringUtil.split(changedPath.substring(snapshotsEnd), "/")) {
+                    if (segment.endsWith("-spec")) {
+                        specFolderName = segment;
+                        break;
+                    }
+                }
+                addSpec(changedPath.substring(0, snapshotsEnd), specFolderName);
+            } else {
+                String fileName = PathUtil.getFileName(changedPath);
+                if (SPEC_FILE_NAME.matcher(fileName).matches()) {
+                    //The mismatch tolerances in the spec file may have changed
+                    addSpec(PathUtil.getParentPath(changedPath) + SNAPSHOTS_SEGMENT, FileUtilRt.getNameWithoutExtension(fileName));
+                }
+            }
+        }
+
+        private void addSpec(String snapshotsFolderPath, @Nullable String specFolderName) {
+            if (specFolderName == null) {
+                specFolderNamesBySnapshotsFolder.put(snapshotsFolderPath, null);
+            } else if (!specFolderNamesBySnapshotsFolder.containsKey(snapshotsFolderPath)) {
+                specFolderNamesBySnapshotsFolder.put(snapshotsFolderPath, new HashSet<>(Set.of(specFolderName)));
+            } else {
+                var specFolderNames = specFolderNamesBySnapshotsFolder.get(snapshotsFolderPath);
+                if (specFolderNames != null) specFolderNames.add(specFolderName);
+            }
+        }
+
+        /**
+         * Returns whether the latest screenshot at the argument path belongs to a spec in this scope.
+         */
+        boolean containsLatest(@NotNull String latestPath) {
+            int latestIndex = latestPath.lastIndexOf(LATEST_SEGMENT);
+            if (latestIndex < 0) return false;
+
+            String snapshotsFolderPath = latestPath.substring(0, latestIndex + SNAPSHOTS_SEGMENT.length());
+            if (!specFolderNamesBySnapshotsFolder.containsKey(snapshotsFolderPath)) return false;
+
+            var specFolderNames = specFolderNamesBySnapshotsFolder.get(snapshotsFolderPath);
+            return specFolderNames == null || specFolderNames.contains(PathUtil.getFileName(PathUtil.getParentPath(latestPath)));
+        }
+
+        boolean isEmpty() {
+            return specFolderNamesBySnapshotsFolder.isEmpty();
+        }
+    }
+
+    /**
+     * A latest screenshot to compare with its reference screenshot.
+     */
+    private record Check(VirtualFile latest, VirtualFile reference, double mismatchTolerance) {
+    }
+
+    /**
+     * The result of comparing a latest screenshot with its reference screenshot.
+     *
+     * @param stopAbovePercentage the mismatch percentage above which the comparison stopped early
+     * @param mismatchTolerance   the mismatch tolerance of the latest screenshot as of the last scan
+     */
+    private record CachedVerdict(VirtualFile reference, long referenceStamp, long latestStamp, double mismatchPercentage,
+                                 boolean isStoppedEarly, double stopAbovePercentage, double mismatchTolerance) {
+
+        boolean isUpToDate(VirtualFile latest, VirtualFile currentReference) {
+            return reference.equals(currentReference) && reference.isValid() && latest.isValid()
+                && reference.getModificationStamp() == referenceStamp && latest.getModificationStamp() == latestStamp;
+        }
+
+        /**
+         * Returns the verdict for the argument mismatch tolerance, or null if it cannot be decided without comparing the screenshots again.
+         */
+        @Nullable
+        ScreenshotVerdict verdictFor(double tolerance) {
+            if (!isStoppedEarly) return new ScreenshotVerdict(mismatchPercentage <= tolerance, mismatchPercentage, false, tolerance);
+
+            //The exact mismatch is unknown, it is only known to be above the tolerance it was compared with
+            return tolerance <= stopAbovePercentage ? new ScreenshotVerdict(false, mismatchPercentage, true, tolerance) : null;
+        }
+
+        CachedVerdict withMismatchTolerance(double tolerance) {
+            return new CachedVerdict(reference, referenceStamp, latestStamp, mismatchPercentage, isStoppedEarly, stopAbovePercentage, tolerance);
+        }
+    }
+
+    public static ScreenshotVerdictService getInstance(Project project) {
+        return project.getService(ScreenshotVerdictService.class);
+    }
+}
@@ -2,10 +2,11 @@
 
 package com.picimako.terra.wdio.imagepreview;
 
+import java.util.ArrayList;
+import java.util.List;
 import javax.swing.*;
 
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.vfs.VirtualFile;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
@@ -14,17 +15,51 @@ import org.jetbrains.annotations.NotNull;
 
 /**
  * Abstract UI content provider implementation for providing common methods for UI component creation.
+ * <p>
+ * The image editors are acquired from {@link ImageEditorCache}, and are released back to it when the content of their diff is released,
+ * or when this provider is disposed.
  */
 @RequiredArgsConstructor(access = AccessLevel.PROTECTED)
 public abstract class AbstractScreenshotDiffUIContentProvider implements ScreenshotDiffUIContentProvider {
 
     @NotNull
     private final Project project;
+    private final List<ImageEditorImpl> acquiredEditors = new ArrayList<>();
 
     protected JPanel createImageEditorFor(@NotNull VirtualFile file) {
-        var imageEditor = new ImageEditorImpl(project, file);
-        Disposer.register(ImageEditorCache.getInstance(project), imageEditor);
-        ImageEditorCache.getInstance(project).cacheImageEditorFor(file, imageEditor);
-        return imageEditor.getComponent();
+        return createCachedImageEditor(file).getComponent();
+    }
+
+    /**
+     * Acquires an image editor for the argument file from {@link ImageEditorCache}. The editor is released when the content of its diff
+     * is released, or when this provider is disposed.
+     *
+     * @since 1.13.0
+     */
+    protected ImageEditorImpl createCachedImageEditor(@NotNull VirtualFile file) {
+        var imageEditor = ImageEditorCache.getInstance(project).acquireEditorFor(file);
+        acquiredEditors.add(imageEditor);
+        return imageEditor;
+    }
+
+    @Override
+    public void releaseContentOf(@NotNull ScreenshotDiff screenshotDiff) {
+        var imageEditorCache = ImageEditorCache.getInstance(project);
+        for (var iterator = acquiredEditors.iterator(); iterator.hasNext(); ) {
+            var imageEditor = iterator.next();
+            if (imageEditor.getFile().equals(screenshotDiff.getOriginal()) || imageEditor.getFile().equals(screenshotDiff.getLatest())) {
+                iterator.remove();
+                imageEditorCache.releaseEditor(imageEditor);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (acquiredEditors.isEmpty()) return;
+
+        var imageEditorCache = ImageEditorCache.getInstance(project);
+        acquiredEditors.forEach(imageEditorCache::releaseEditor);
+        acquiredEditors.clear();
     }
 }
@@ -13,9 +13,9 @@ import com.intellij.openapi.fileEditor.FileEditorState;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.util.Key;
-import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.util.SmartList;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -36,17 +36,22 @@ public abstract class AbstractScreenshotsPreview implements FileEditor {
 
     protected final List<ScreenshotDiff> screenshotDiffs = new SmartList<>();
     protected final Project project;
+    /**
+     * The component of this preview, created once, so that the image editors are not acquired again each time the component is requested.
+     */
+    @Getter(AccessLevel.NONE)
+    private JComponent component;
 
     protected AbstractScreenshotsPreview(@NotNull Project project, @NotNull VirtualFile file, @NotNull String sourceFolderName,
                                          @NotNull Function<VirtualFile, ScreenshotDiff> screenshotToDiffMapper) {
-        var wdioFolder = TerraWdioFolders.projectWdioRoot(project);
+        var wdioFolder = TerraWdioFolders.wdioRootOf(file, project);
         //There should never be a case when the wdio root is null here. Since previews can only be initiated
         // from/via screenshots. Having at least one screenshot means that there is a wdio root.
         if (wdioFolder != null) {
             wdioFolder.refresh(false, true);
-            var specFolderCollector = TerraResourceManager.getInstance(project).specFolderCollector();
-            this.screenshotDiffs.addAll(specFolderCollector.collectSpecFoldersForTypeInside(sourceFolderName, VfsUtil.collectChildrenRecursively(wdioFolder))
-                .flatMap(spec -> Arrays.stream(VfsUtil.getChildren(spec))) //individual screenshot files
+            var specFolderCollector = TerraResourceManager.forFile(project, wdioFolder).specFolderCollector();
+            this.screenshotDiffs.addAll(specFolderCollector.collectSpecFoldersForTypeInside(sourceFolderName, wdioFolder)
+                .flatMap(spec -> Arrays.stream(spec.getChildren())) //individual screenshot files
                 .filter(screenshot -> file.getName().equals(screenshot.getName()))
                 .map(screenshotToDiffMapper)
                 .toList());
@@ -74,13 +79,21 @@ public abstract class AbstractScreenshotsPreview implements FileEditor {
 
     @Override
     public @NotNull JComponent getComponent() {
-        return screenshotDiffs.isEmpty()
-            ? TerraScreenshotsDiffViewContainer.noScreenshotAvailable()
-            : new TerraScreenshotsDiffViewContainer(screenshotDiffs, uiContentProvider(), project);
+        if (component == null) {
+            if (screenshotDiffs.isEmpty()) {
+                component = TerraScreenshotsDiffViewContainer.noScreenshotAvailable();
+            } else {
+                var uiProvider = uiContentProvider();
+                //Releases the image editors of the preview when the preview is closed
+                Disposer.register(this, uiProvider);
+                component = new TerraScreenshotsDiffViewContainer(screenshotDiffs, uiProvider, project);
+            }
+        }
+        return component;
     }
 
     /**
-     * Gets the UI content provider implementation associated with this object.
+     * Gets the UI content provider implementation associated with this object. A new provider is expected to be returned on each call.
      */
     @NotNull
     protected abstract ScreenshotDiffUIContentProvider uiContentProvider();
@@ -114,13 +127,6 @@ public abstract class AbstractScreenshotsPreview implements FileEditor {
 
     @Override
     public void dispose() {
-        var imageEditorCache = ImageEditorCache.getInstance(project);
-        imageEditorCache.disposeEditorFor(getFile());
-        for (var screenshotDiff : screenshotDiffs) {
-            imageEditorCache.disposeEditorFor(screenshotDiff.getOriginal());
-            if (screenshotDiff.getLatest() != null)
-                imageEditorCache.disposeEditorFor(screenshotDiff.getLatest());
-        }
         Disposer.dispose(this);
     }
 
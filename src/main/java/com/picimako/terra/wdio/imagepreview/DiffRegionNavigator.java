@@ -0,0 +1,111 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagepreview;
+
+import java.awt.*;
+import java.util.List;
+import javax.swing.*;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.util.ui.JBUI;
+import org.intellij.images.editor.ImageEditor;
+import org.jetbrains.annotations.NotNull;
+
+import com.picimako.terra.resources.TerraBundle;
+import com.picimako.terra.wdio.imagecompare.DiffImageAnalysis;
+
+/**
+ * A bar above a diff image for stepping through the changed regions of the image, and for zooming into them.
+ * <p>
+ * The regions come from the cached {@link DiffImageAnalysis} of the image, so the image is not scanned again for navigation.
+ * Jumping to a region scrolls it into view at the current zoom level, while zooming to a region changes the zoom level so that
+ * the region, along with some of its surroundings, fills the visible area.
+ *
+ * @since 1.13.0
+ */
+final class DiffRegionNavigator extends JPanel {
+    /**
+     * How much larger the visible area is than the region when zooming to it, so that the surroundings of the region are visible too.
+     */
+    private static final double ZOOM_MARGIN = 1.5;
+    private static final double MIN_ZOOM_FACTOR = 0.1;
+    private static final double MAX_ZOOM_FACTOR = 8;
+
+    private final ImageEditor imageEditor;
+    private final JBLabel regionLabel = new JBLabel();
+    private List<DiffImageAnalysis.Region> regions = List.of();
+    private int currentIndex;
+
+    DiffRegionNavigator(@NotNull ImageEditor imageEditor) {
+        super(new FlowLayout(FlowLayout.LEFT, JBUI.scale(4), 0));
+        this.imageEditor = imageEditor;
+        add(button(AllIcons.Actions.PreviousOccurence, TerraBundle.message("terra.wdio.diff.preview.previous.region"), () -> jumpTo(currentIndex - 1)));
+        add(button(AllIcons.Actions.NextOccurence, TerraBundle.message("terra.wdio.diff.preview.next.region"), () -> jumpTo(currentIndex + 1)));
+        add(button(AllIcons.General.ZoomIn, TerraBundle.message("terra.wdio.diff.preview.zoom.to.region"), this::zoomToCurrentRegion));
+        add(regionLabel);
+        setVisible(false);
+    }
+
+    private static JButton button(Icon icon, String tooltip, Runnable action) {
+        var button = new JButton(icon);
+        button.setToolTipText(tooltip);
+        button.addActionListener(e -> action.run());
+        return button;
+    }
+
+    /**
+     * Sets the changed regions to navigate between. The navigator is displayed only if there is at least one region.
+     */
+    void setRegions(@NotNull List<DiffImageAnalysis.Region> regions) {
+        this.regions = regions;
+        currentIndex = 0;
+        updateLabel();
+        setVisible(!regions.isEmpty());
+    }
+
+    /**
+     * Scrolls the region at the argument index into view, wrapping around at both ends of the region list.
+     */
+    private void jumpTo(int index) {
+        if (regions.isEmpty()) return;
+
+        currentIndex = Math.floorMod(index, regions.size());
+        updateLabel();
+        scrollToCurrentRegion();
+    }
+
+    private void zoomToCurrentRegion() {
+        if (regions.isEmpty()) return;
+
+        var viewport = (JViewport) SwingUtilities.getAncestorOfClass(JViewport.class, imageEditor.getContentComponent());
+        if (viewport != null) {
+            var region = regions.get(currentIndex);
+            double zoomFactor = Math.min(viewport.getWidth() / (region.width() * ZOOM_MARGIN), viewport.getHeight() / (region.height() * ZOOM_MARGIN));
+            var zoomModel = imageEditor.getZoomModel();
+            zoomModel.setZoomFactor(Math.clamp(zoomFactor, MIN_ZOOM_FACTOR, MAX_ZOOM_FACTOR));
+            //So that the zoom level is not reset when the editor is resized
+            zoomModel.setZoomLevelChanged(true);
+        }
+        //The image component is resized by the new zoom level in a subsequent layout pass
+        SwingUtilities.invokeLater(this::scrollToCurrentRegion);
+    }
+
+    private void scrollToCurrentRegion() {
+        if (regions.isEmpty()) return;
+
+        double zoomFactor = imageEditor.getZoomModel().getZoomFactor();
+        var region = regions.get(currentIndex).toRectangle();
+        imageEditor.getContentComponent().scrollRectToVisible(new Rectangle(
+            (int) (region.x * zoomFactor), (int) (region.y * zoomFactor),
+            (int) Math.ceil(region.width * zoomFactor), (int) Math.ceil(region.height * zoomFactor)));
+    }
+
+    private void updateLabel() {
+        if (regions.isEmpty()) return;
+
+        var region = regions.get(currentIndex);
+        regionLabel.setText(TerraBundle.message("terra.wdio.diff.preview.region", currentIndex + 1, regions.size(),
+            region.x(), region.y(), region.width(), region.height()));
+    }
+}
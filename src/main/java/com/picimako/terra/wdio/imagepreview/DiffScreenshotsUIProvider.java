@@ -3,26 +3,49 @@
 package com.picimako.terra.wdio.imagepreview;
 
 import java.awt.*;
+import javax.swing.*;
 
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
 import com.intellij.openapi.project.Project;
 import org.intellij.images.editor.impl.ImageEditorImpl;
 import org.jetbrains.annotations.NotNull;
 
+import com.picimako.terra.wdio.imagecompare.DiffImageAnalysisService;
+
 /**
  * Provides a Swing component for displaying a single Terra wdio diff image (as in from a diff folder).
  * <p>
- * The returned component is an {@link ImageEditorImpl} displaying its original toolbar as well.
+ * The returned component is an {@link ImageEditorImpl} displaying its original toolbar as well, and above it a {@link DiffRegionNavigator}
+ * for stepping through, and zooming into, the changed regions of the diff image. The regions are taken from the cached analysis
+ * of the diff image, or if it hasn't been analyzed yet, the image is analyzed in the background, and the navigator is displayed afterwards.
  *
  * @see DiffScreenshotsPreview
+ * @see DiffImageAnalysisService
  */
 public final class DiffScreenshotsUIProvider extends AbstractScreenshotDiffUIContentProvider {
 
+    private final Project project;
+
     public DiffScreenshotsUIProvider(@NotNull Project project) {
         super(project);
+        this.project = project;
     }
 
     @Override
     public Component getContent(@NotNull ScreenshotDiff screenshotDiff) {
-        return createImageEditorFor(screenshotDiff.getOriginal());
+        var imageEditor = createCachedImageEditor(screenshotDiff.getOriginal());
+        var regionNavigator = new DiffRegionNavigator(imageEditor);
+        DiffImageAnalysisService.getInstance(project).getOrAnalyzeAsync(screenshotDiff.getOriginal()).thenAccept(analysis -> {
+            if (analysis != null) {
+                ApplicationManager.getApplication().invokeLater(() -> regionNavigator.setRegions(analysis.regions()),
+                    ModalityState.any(), ignored -> imageEditor.isDisposed());
+            }
+        });
+
+        var content = new JPanel(new BorderLayout());
+        content.add(regionNavigator, BorderLayout.NORTH);
+        content.add(imageEditor.getComponent(), BorderLayout.CENTER);
+        return content;
     }
 }
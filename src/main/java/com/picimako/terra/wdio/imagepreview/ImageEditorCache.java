@@ -2,55 +2,212 @@
 
 package com.picimako.terra.wdio.imagepreview;
 
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.intellij.images.editor.impl.ImageEditorImpl;
+import org.jetbrains.annotations.NotNull;
+
+import com.picimako.terra.settings.TerraApplicationState;
 
 /**
- * Caches {@link ImageEditorImpl} instances per image/screenshot file to be able to provide better disposal
- * logic for them.
+ * Manages the {@link ImageEditorImpl} instances of the screenshot previews, so that they are reused, and are disposed properly.
+ * <p>
+ * <b>Reuse</b>
+ * <p>
+ * Editors are acquired via {@link #acquireEditorFor(VirtualFile)}, and are released via {@link #releaseEditor(ImageEditorImpl)}
+ * when the preview displaying them is closed. A released editor is kept idle, and it is handed out again when an editor is acquired
+ * for the same file, e.g. when the same preview is opened again. An editor is used by at most one preview at a time,
+ * since a Swing component can be displayed at only one place, so if an editor is acquired for a file whose editor is in use,
+ * a new editor is created.
+ * <p>
+ * <b>Memory budget</b>
+ * <p>
+ * The memory used by an editor is estimated as the size of its decoded image, 4 bytes per pixel, based on the dimensions in the image's
+ * header. When the total size of the editors, both idle and in use, exceeds the configured budget
+ * (see {@link TerraApplicationState#imageEditorCacheSizeMegabytes}), the least recently released idle editors are disposed.
+ * Editors in use are never disposed, they count towards the budget only.
+ * <p>
+ * The numbers of hits, misses and evictions are available via {@link #getStatistics()}.
+ * <p>
+ * All methods must be called on the EDT.
  *
  * @since 1.3.0
  */
 @Service(Service.Level.PROJECT)
 public final class ImageEditorCache implements Disposable {
+    private static final Logger LOG = Logger.getInstance(ImageEditorCache.class);
+    private static final int BYTES_PER_PIXEL = 4;
 
-    private final Map<VirtualFile, ImageEditorImpl> imageEditorCache;
+    private final Project project;
+    private final LongSupplier budgetBytes;
+    /**
+     * The released editors by their files, in least recently released order.
+     */
+    private final Map<VirtualFile, CachedEditor> idleEditors = new LinkedHashMap<>();
+    /**
+     * The sizes of the editors in use.
+     */
+    private final Map<ImageEditorImpl, Long> editorsInUse = new IdentityHashMap<>();
+    private long usedBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
 
     public ImageEditorCache(Project project) {
-        this.imageEditorCache = new ConcurrentHashMap<>();
+        this(project, () -> TerraApplicationState.getInstance().imageEditorCacheSizeMegabytes * 1024L * 1024L);
+    }
+
+    ImageEditorCache(Project project, LongSupplier budgetBytes) {
+        this.project = project;
+        this.budgetBytes = budgetBytes;
+    }
+
+    /**
+     * Returns the idle editor of the argument file, or creates a new editor for it if there is no idle one.
+     * The returned editor is in use until it is released.
+     *
+     * @param file the image file
+     * @return the image editor of the file
+     * @since 1.13.0
+     */
+    public ImageEditorImpl acquireEditorFor(@NotNull VirtualFile file) {
+        var idle = idleEditors.remove(file);
+        if (idle != null) {
+            if (!idle.editor().isDisposed()) {
+                hitCount++;
+                editorsInUse.put(idle.editor(), idle.size());
+                return idle.editor();
+            }
+            usedBytes -= idle.size();
+        }
+
+        missCount++;
+        var imageEditor = new ImageEditorImpl(project, file);
+        Disposer.register(this, imageEditor);
+        long size = decodedSizeOf(file);
+        editorsInUse.put(imageEditor, size);
+        usedBytes += size;
+        evictIdleEditorsAboveBudget();
+        return imageEditor;
     }
 
     /**
-     * Caches the provided image editor for the given image file.
+     * Releases the argument editor, so that it can be reused for the same file. It is disposed instead, if its file has been deleted,
+     * or there is an idle editor for the file already.
      *
-     * @param file        the image file
-     * @param imageEditor the image editor
+     * @param imageEditor the editor acquired via {@link #acquireEditorFor(VirtualFile)}
+     * @since 1.13.0
      */
-    public void cacheImageEditorFor(VirtualFile file, ImageEditorImpl imageEditor) {
-        imageEditorCache.put(file, imageEditor);
+    public void releaseEditor(@NotNull ImageEditorImpl imageEditor) {
+        Long size = editorsInUse.remove(imageEditor);
+        if (size == null) return;
+
+        var file = imageEditor.getFile();
+        if (imageEditor.isDisposed() || !file.isValid() || idleEditors.containsKey(file)) {
+            usedBytes -= size;
+            dispose(imageEditor);
+            return;
+        }
+
+        //Detached from the released preview, so that it can be added to another one
+        var component = imageEditor.getComponent();
+        if (component.getParent() != null) component.getParent().remove(component);
+        idleEditors.put(file, new CachedEditor(imageEditor, size));
+        evictIdleEditorsAboveBudget();
     }
 
     /**
-     * Disposes the editor for the given image file.
+     * Disposes the least recently released idle editors while the total size of the editors exceeds the budget.
      */
-    public void disposeEditorFor(VirtualFile file) {
-        var imageEditor = imageEditorCache.get(file);
-        if (imageEditor != null) {
-            ((Disposable) imageEditor.getComponent()).dispose();
-            imageEditor.dispose();
-            imageEditorCache.remove(file);
+    private void evictIdleEditorsAboveBudget() {
+        long budget = budgetBytes.getAsLong();
+        var iterator = idleEditors.values().iterator();
+        while (usedBytes > budget && iterator.hasNext()) {
+            var eldest = iterator.next();
+            iterator.remove();
+            usedBytes -= eldest.size();
+            evictionCount++;
+            dispose(eldest.editor());
         }
     }
 
+    private static void dispose(ImageEditorImpl imageEditor) {
+        if (imageEditor.isDisposed()) return;
+
+        ((Disposable) imageEditor.getComponent()).dispose();
+        Disposer.dispose(imageEditor);
+    }
+
+    /**
+     * Returns the size of the decoded image of the argument file, based on the dimensions in its header,
+     * or the size of the file itself if the dimensions cannot be read.
+     */
+    static long decodedSizeOf(@NotNull VirtualFile file) {
+        try (var fileStream = file.getInputStream(); var imageStream = new MemoryCacheImageInputStream(fileStream)) {
+            var readers = ImageIO.getImageReaders(imageStream);
+            if (readers.hasNext()) {
+                var reader = readers.next();
+                try {
+                    reader.setInput(imageStream, true, true);
+                    return (long) reader.getWidth(0) * reader.getHeight(0) * BYTES_PER_PIXEL;
+                } finally {
+                    reader.dispose();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.debug("Could not read the dimensions of the image " + file.getPath(), e);
+        }
+        return file.getLength();
+    }
+
+    /**
+     * Returns the current statistics of this cache.
+     *
+     * @since 1.13.0
+     */
+    public Statistics getStatistics() {
+        return new Statistics(hitCount, missCount, evictionCount, idleEditors.size(), editorsInUse.size(), usedBytes);
+    }
+
     @Override
     public void dispose() {
-        imageEditorCache.clear();
+        LOG.debug("Disposing image editor cache: " + getStatistics());
+        //The editors themselves have already been disposed as children of this cache
+        idleEditors.clear();
+        editorsInUse.clear();
+        usedBytes = 0;
+    }
+
+    /**
+     * The statistics of an {@link ImageEditorCache}.
+     *
+     * @param hitCount        the number of times an idle editor was reused
+     * @param missCount       the number of times a new editor had to be created
+     * @param evictionCount   the number of idle editors disposed because of the memory budget
+     * @param idleEditorCount the number of idle editors
+     * @param inUseCount      the number of editors in use
+     * @param usedBytes       the estimated total size of the idle editors and the editors in use
+     * @since 1.13.0
+     */
+    public record Statistics(long hitCount, long missCount, long evictionCount, int idleEditorCount, int inUseCount, long usedBytes) {
+    }
+
+    /**
+     * An idle editor along with its estimated size.
+     */
+    private record CachedEditor(ImageEditorImpl editor, long size) {
     }
 
     public static ImageEditorCache getInstance(Project project) {
@@ -33,7 +33,7 @@ public final class ReferenceToLatestScreenshotsUIProvider extends AbstractScreen
     @Override
     public Component getContent(@NotNull ScreenshotDiff screenshotDiff) {
         Splitter referenceToLatestSplitView = null;
-        if (screenshotDiff.hasLatest()) {
+        if (hasContentFor(screenshotDiff)) {
             referenceToLatestSplitView = new Splitter();
             referenceToLatestSplitView.setFirstComponent(createImageEditorFor(screenshotDiff.getOriginal()));
             //At this point screenshotDiff.getLatest() should not evaluate to null
@@ -41,4 +41,9 @@ public final class ReferenceToLatestScreenshotsUIProvider extends AbstractScreen
         }
         return referenceToLatestSplitView;
     }
+
+    @Override
+    public boolean hasContentFor(@NotNull ScreenshotDiff screenshotDiff) {
+        return screenshotDiff.hasLatest();
+    }
 }
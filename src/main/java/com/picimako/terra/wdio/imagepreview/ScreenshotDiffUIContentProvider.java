@@ -4,16 +4,20 @@ package com.picimako.terra.wdio.imagepreview;
 
 import java.awt.*;
 
+import com.intellij.openapi.Disposable;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
  * Provides a Swing UI component for displaying screenshot diffs.
+ * <p>
+ * The image editors used by the provided components are released when the provider is disposed, so the provider must be disposed
+ * along with the preview displaying its components.
  *
  * @see DiffScreenshotsUIProvider
  * @see ReferenceToLatestScreenshotsUIProvider
  */
-public interface ScreenshotDiffUIContentProvider {
+public interface ScreenshotDiffUIContentProvider extends Disposable {
 
     /**
      * Assembles a Swing component, preferably an {@link org.intellij.images.editor.impl.ImageEditorImpl} for displaying
@@ -24,4 +28,23 @@ public interface ScreenshotDiffUIContentProvider {
      */
     @Nullable
     Component getContent(@NotNull ScreenshotDiff screenshotDiff);
+
+    /**
+     * Returns whether {@link #getContent(ScreenshotDiff)} would return a component for the argument diff, without creating the component.
+     *
+     * @param screenshotDiff stores the original and latest screenshots for diffing
+     * @since 1.13.0
+     */
+    default boolean hasContentFor(@NotNull ScreenshotDiff screenshotDiff) {
+        return true;
+    }
+
+    /**
+     * Releases the image editors of the component provided for the argument diff, e.g. when the component is scrolled out of view.
+     * The component must not be displayed afterwards.
+     *
+     * @param screenshotDiff the diff whose component to release
+     * @since 1.13.0
+     */
+    void releaseContentOf(@NotNull ScreenshotDiff screenshotDiff);
 }
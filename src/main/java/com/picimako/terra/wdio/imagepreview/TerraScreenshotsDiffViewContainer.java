@@ -6,23 +6,60 @@ import static javax.swing.ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER;
 import static javax.swing.ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED;
 
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import javax.swing.*;
 
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.ui.SimpleListCellRenderer;
+import com.intellij.ui.components.JBLabel;
 import com.intellij.ui.components.JBScrollPane;
+import com.intellij.util.ui.JBUI;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import com.picimako.terra.resources.TerraBundle;
+import com.picimako.terra.wdio.ScreenshotContext;
 import com.picimako.terra.wdio.TerraResourceManager;
 
 /**
  * A container panel for storing the different screenshot diff view components in a vertically scrollable view.
  * <p>
  * Each diff image view is extended with screenshot context information containing the locale, browser and viewport.
+ * <p>
+ * <b>Virtualization</b>
+ * <p>
+ * The diff views are not created up front. Each diff gets a row as tall as the visible area, and the diff views are created,
+ * thus their images are decoded, only for the rows in the visible area, and for {@link #OFFSCREEN_ROW_COUNT} rows above and below it.
+ * When a row gets farther from the visible area, its diff view is removed, and its image editors are released via
+ * {@link ScreenshotDiffUIContentProvider#releaseContentOf(ScreenshotDiff)}, so that they can be reused by {@link ImageEditorCache}.
+ * This way opening a preview takes the same time regardless of the number of diffs.
+ * <p>
+ * <b>Filtering</b>
+ * <p>
+ * Above the diffs there is a filter for each part of the screenshot context (theme, locale, viewport and browser) that has
+ * more than one value among the diffs, to display only the diffs with the selected values.
  */
 public class TerraScreenshotsDiffViewContainer extends JPanel {
+    /**
+     * The number of rows above and below the visible area whose diff views are created as well, so that they are ready to be displayed
+     * when scrolled into view.
+     */
+    private static final int OFFSCREEN_ROW_COUNT = 1;
+    private static final int MIN_ROW_HEIGHT = 300;
 
     private Project project;
+    private ScreenshotDiffUIContentProvider uiProvider;
+    private List<DiffRow> rows;
+    private RowsPanel rowsPanel;
+    private JBScrollPane scrollPane;
+    private final List<ContextFilter> filters = new ArrayList<>();
+    private final Set<DiffRow> realizedRows = new LinkedHashSet<>();
 
     private TerraScreenshotsDiffViewContainer() {
         add(new JLabel("There is no screenshot available to display."));
@@ -30,37 +67,244 @@ public class TerraScreenshotsDiffViewContainer extends JPanel {
 
     public TerraScreenshotsDiffViewContainer(@NotNull List<ScreenshotDiff> screenshotDiffs, @NotNull ScreenshotDiffUIContentProvider uiProvider, Project project) {
         this.project = project;
+        this.uiProvider = uiProvider;
         setLayout(new BorderLayout());
-        JPanel previewContent = new JPanel();
-        previewContent.setLayout(new BoxLayout(previewContent, BoxLayout.Y_AXIS));
-
-        for (ScreenshotDiff diff : screenshotDiffs) {
-            Component diffView = uiProvider.getContent(diff);
-            if (diffView != null) {
-                previewContent.add(screenshotContextLabelFor(diff));
-                previewContent.add(diffView);
-            }
-        }
+        rows = screenshotDiffs.stream().filter(uiProvider::hasContentFor).map(this::rowFor).toList();
+        rowsPanel = new RowsPanel();
+        rowsPanel.setRows(rows);
 
         //HORIZONTAL_SCROLLBAR_NEVER makes sure that the images stay within the viewport and don't slip out
-        JBScrollPane scrollPane = new JBScrollPane(previewContent, VERTICAL_SCROLLBAR_AS_NEEDED, HORIZONTAL_SCROLLBAR_NEVER);
+        scrollPane = new JBScrollPane(rowsPanel, VERTICAL_SCROLLBAR_AS_NEEDED, HORIZONTAL_SCROLLBAR_NEVER);
+        //Notified when the view is scrolled, and when the viewport is resized
+        scrollPane.getViewport().addChangeListener(e -> updateRealizedRows());
+
+        var filterBar = createFilterBar();
+        if (filterBar != null) add(filterBar, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
     }
 
     @NotNull
-    private JLabel screenshotContextLabelFor(ScreenshotDiff screenshotDiff) {
-        JLabel contextLabel = new JLabel(TerraResourceManager.getInstance(project)
-            .screenshotContextParser()
-            .parse(screenshotDiff.getOriginal().getPath()));
+    private DiffRow rowFor(ScreenshotDiff screenshotDiff) {
+        var contextParser = TerraResourceManager.forFile(project, screenshotDiff.getOriginal()).screenshotContextParser();
+        String path = screenshotDiff.getOriginal().getPath();
+        return new DiffRow(screenshotDiff, contextParser.parseContext(path), screenshotContextLabelFor(contextParser.parse(path)));
+    }
+
+    @NotNull
+    private JLabel screenshotContextLabelFor(String screenshotContext) {
+        JLabel contextLabel = new JLabel(screenshotContext, SwingConstants.CENTER);
         contextLabel.setFont(getFont().deriveFont(16f));
-        contextLabel.setAlignmentX(Component.CENTER_ALIGNMENT); //https://stackoverflow.com/questions/2560784/how-to-center-elements-in-the-boxlayout-using-center-of-the-element
         return contextLabel;
     }
 
+    //Filtering
+
+    /**
+     * Creates the filters for the parts of the screenshot context, or returns null if there is nothing to filter by.
+     */
+    @Nullable
+    private JComponent createFilterBar() {
+        var filterBar = new JPanel(new FlowLayout(FlowLayout.LEFT, JBUI.scale(8), JBUI.scale(4)));
+        addFilter(filterBar, "theme", ScreenshotContext::theme);
+        addFilter(filterBar, "locale", ScreenshotContext::locale);
+        addFilter(filterBar, "viewport", ScreenshotContext::viewport);
+        addFilter(filterBar, "browser", ScreenshotContext::browser);
+        return filters.isEmpty() ? null : filterBar;
+    }
+
+    private void addFilter(JPanel filterBar, String contextPart, Function<ScreenshotContext, String> valueOf) {
+        var values = rows.stream()
+            .map(DiffRow::getContext)
+            .filter(Objects::nonNull)
+            .map(valueOf)
+            .filter(Objects::nonNull)
+            .distinct()
+            .sorted()
+            .toList();
+        if (values.size() < 2) return;
+
+        var comboBox = new ComboBox<String>();
+        //The null item stands for all values
+        comboBox.addItem(null);
+        values.forEach(comboBox::addItem);
+        comboBox.setRenderer(SimpleListCellRenderer.create(TerraBundle.message("terra.wdio.diff.preview.filter.all"), value -> value));
+        comboBox.addActionListener(e -> applyFilters());
+        filters.add(new ContextFilter(valueOf, comboBox));
+
+        filterBar.add(new JBLabel(TerraBundle.message("terra.wdio.diff.preview.filter." + contextPart)));
+        filterBar.add(comboBox);
+    }
+
+    private void applyFilters() {
+        rowsPanel.setRows(rows.stream().filter(row -> filters.stream().allMatch(filter -> filter.matches(row.getContext()))).toList());
+        scrollPane.getViewport().setViewPosition(new Point(0, 0));
+        updateRealizedRows();
+    }
+
+    //Virtualization
+
+    /**
+     * Creates the diff views of the rows in and near the visible area, and releases the diff views of all other rows.
+     * <p>
+     * The rows to realize are calculated from the scroll position and the row height, so this doesn't depend on the rows
+     * being laid out already.
+     */
+    private void updateRealizedRows() {
+        var viewport = scrollPane.getViewport();
+        var displayedRows = rowsPanel.getRows();
+        int rowHeight = rowsPanel.getRowHeight();
+        int top = viewport.getViewPosition().y;
+        int firstIndex = Math.max(0, top / rowHeight - OFFSCREEN_ROW_COUNT);
+        int lastIndex = Math.min(displayedRows.size() - 1, (top + viewport.getExtentSize().height) / rowHeight + OFFSCREEN_ROW_COUNT);
+        var rowsToRealize = firstIndex <= lastIndex ? displayedRows.subList(firstIndex, lastIndex + 1) : List.<DiffRow>of();
+
+        for (var iterator = realizedRows.iterator(); iterator.hasNext(); ) {
+            var row = iterator.next();
+            if (!rowsToRealize.contains(row)) {
+                iterator.remove();
+                row.release(uiProvider);
+            }
+        }
+        for (var row : rowsToRealize) {
+            if (realizedRows.add(row)) row.realize(uiProvider);
+        }
+    }
+
     /**
      * Provides an empty panel with a message saying no screenshots are available.
      */
     public static TerraScreenshotsDiffViewContainer noScreenshotAvailable() {
         return new TerraScreenshotsDiffViewContainer();
     }
+
+    /**
+     * A filter for a part of the screenshot context.
+     *
+     * @param valueOf  returns the value of the filtered part from a screenshot context
+     * @param comboBox the combo box for selecting the value to filter by
+     */
+    private record ContextFilter(Function<ScreenshotContext, String> valueOf, ComboBox<String> comboBox) {
+
+        boolean matches(@Nullable ScreenshotContext context) {
+            var selectedValue = (String) comboBox.getSelectedItem();
+            return selectedValue == null || (context != null && selectedValue.equals(valueOf.apply(context)));
+        }
+    }
+
+    /**
+     * Displays the context label of a diff, and the diff view itself while the row is realized.
+     */
+    private static final class DiffRow extends JPanel {
+        private final ScreenshotDiff screenshotDiff;
+        @Nullable
+        private final ScreenshotContext context;
+        @Nullable
+        private Component content;
+
+        DiffRow(@NotNull ScreenshotDiff screenshotDiff, @Nullable ScreenshotContext context, @NotNull JLabel contextLabel) {
+            super(new BorderLayout());
+            this.screenshotDiff = screenshotDiff;
+            this.context = context;
+            add(contextLabel, BorderLayout.NORTH);
+        }
+
+        @Nullable
+        ScreenshotContext getContext() {
+            return context;
+        }
+
+        void realize(ScreenshotDiffUIContentProvider uiProvider) {
+            content = uiProvider.getContent(screenshotDiff);
+            if (content != null) {
+                add(content, BorderLayout.CENTER);
+                revalidate();
+                repaint();
+            }
+        }
+
+        void release(ScreenshotDiffUIContentProvider uiProvider) {
+            if (content != null) {
+                remove(content);
+                content = null;
+                revalidate();
+                repaint();
+            }
+            uiProvider.releaseContentOf(screenshotDiff);
+        }
+    }
+
+    /**
+     * Lays out the displayed rows below each other, each row as tall as the visible area, but at least {@link #MIN_ROW_HEIGHT}.
+     */
+    private static final class RowsPanel extends JPanel implements Scrollable {
+        private final JBLabel noMatchLabel = new JBLabel(TerraBundle.message("terra.wdio.diff.preview.filter.no.match"), SwingConstants.CENTER);
+        private List<DiffRow> rows = List.of();
+
+        RowsPanel() {
+            super(null);
+        }
+
+        List<DiffRow> getRows() {
+            return rows;
+        }
+
+        void setRows(List<DiffRow> rows) {
+            this.rows = rows;
+            removeAll();
+            if (rows.isEmpty()) add(noMatchLabel);
+            else rows.forEach(this::add);
+            revalidate();
+            repaint();
+        }
+
+        int getRowHeight() {
+            int visibleHeight = getParent() instanceof JViewport viewport ? viewport.getExtentSize().height : 0;
+            return Math.max(visibleHeight, JBUI.scale(MIN_ROW_HEIGHT));
+        }
+
+        @Override
+        public Dimension getPreferredSize() {
+            int width = getParent() != null ? getParent().getWidth() : 0;
+            return rows.isEmpty()
+                ? new Dimension(width, noMatchLabel.getPreferredSize().height)
+                : new Dimension(width, rows.size() * getRowHeight());
+        }
+
+        @Override
+        public void doLayout() {
+            if (rows.isEmpty()) {
+                noMatchLabel.setBounds(0, 0, getWidth(), noMatchLabel.getPreferredSize().height);
+                return;
+            }
+            int rowHeight = getRowHeight();
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).setBounds(0, i * rowHeight, getWidth(), rowHeight);
+            }
+        }
+
+        @Override
+        public Dimension getPreferredScrollableViewportSize() {
+            return getPreferredSize();
+        }
+
+        @Override
+        public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+            return JBUI.scale(20);
+        }
+
+        @Override
+        public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+            return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportWidth() {
+            return true;
+        }
+
+        @Override
+        public boolean getScrollableTracksViewportHeight() {
+            return false;
+        }
+    }
 }
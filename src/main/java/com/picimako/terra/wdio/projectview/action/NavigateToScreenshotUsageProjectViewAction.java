@@ -33,9 +33,8 @@ import com.picimako.terra.wdio.ToScreenshotUsageNavigator;
  * The option is enabled only if the selected file is within a __snapshots__ directory, and that file is a binary file.
  * <p>
  * <b>Technical note</b>
- * Setting the wdio root path via TerraWdioFolders#setWdioTestRootPath is not necessary because this class doesn't use
- * any logic that requires it, since lookup of the spec file happens from the screenshot's direction instead of the wdio
- * root's direction.
+ * The lookup of the spec file happens from the screenshot's direction instead of the wdio root's direction, so this action
+ * works the same way regardless of which wdio root of the project the screenshot is located in.
  *
  * @see com.picimako.terra.wdio.toolwindow.action.NavigateToScreenshotUsageAction
  * @since 0.5.0
@@ -71,9 +70,9 @@ public class NavigateToScreenshotUsageProjectViewAction extends AnAction {
 
     @Override
     public void update(@NotNull AnActionEvent e) {
-        e.getPresentation().setEnabled(isUsingTerra(e.getProject())
-            && isInSnapshotsDirectory(e.getData(CommonDataKeys.VIRTUAL_FILE))
-            && e.getData(CommonDataKeys.PSI_FILE) instanceof PsiBinaryFile);
+        e.getPresentation().setEnabled(isInSnapshotsDirectory(e.getData(CommonDataKeys.VIRTUAL_FILE))
+            && e.getData(CommonDataKeys.PSI_FILE) instanceof PsiBinaryFile screenshot
+            && isUsingTerra(screenshot));
     }
 
     @Override
@@ -2,7 +2,6 @@
 
 package com.picimako.terra.wdio.screenshot;
 
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 /**
@@ -17,24 +16,88 @@ public abstract class AbstractScreenshotNameResolver implements ScreenshotNameRe
      * <a href="https://github.com/cerner/terra-toolkit-boneyard/blob/main/config/wdio/visualRegressionConf.js">terra-toolkit-boneyard//visualRegressionConf.js</a>
      * and
      * <a href="https://github.com/cerner/terra-toolkit/blob/main/packages/terra-functional-testing/src/services/wdio-visual-regression-service/methods/BaseCompare.js</a>
+     * <p>
+     * These patterns are not applied as regular expressions, {@link #normalize(String)} implements the same replacement in a single pass.
      */
     protected static final String DELIMITERS_TO_REPLACE = "\\s+|\\.|\\+";
     protected static final String CHARACTERS_TO_REPLACE = "[?<>/|*:+\"]";
 
+    /**
+     * The pattern for test ids. It is not applied as a regular expression, {@link #parseTestId(String)} implements the same matching.
+     */
     protected static final Pattern TEST_ID_PATTERN = Pattern.compile("\\[(?<testId>[^)]+)]");
 
+    /**
+     * The characters from {@link #CHARACTERS_TO_REPLACE} that are replaced with a dash. {@code +} is replaced with an underscore
+     * as part of {@link #DELIMITERS_TO_REPLACE} before these characters would be replaced.
+     */
+    private static final String CHARACTERS_TO_REPLACE_WITH_DASH = "?<>/|*:\"";
+
     /**
      * Removes and replaces necessary characters in the argument text, so that the screenshot file name can be built properly.
+     * <p>
+     * Produces the same result as replacing {@link #DELIMITERS_TO_REPLACE} with underscores, then {@link #CHARACTERS_TO_REPLACE}
+     * with dashes, but in a single pass, and without creating a new string if there is nothing to replace.
      *
      * @param text the text to normalize
      * @return the normalized text
      */
     protected String normalize(String text) {
-        return text.replaceAll(DELIMITERS_TO_REPLACE, "_").replaceAll(CHARACTERS_TO_REPLACE, "-");
+        StringBuilder normalized = null;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            char replacement;
+            int start = i;
+            if (isWhitespace(c)) {
+                //A run of whitespace characters is replaced by a single underscore
+                while (i + 1 < length && isWhitespace(text.charAt(i + 1))) i++;
+                replacement = '_';
+            } else if (c == '.' || c == '+') {
+                replacement = '_';
+            } else if (CHARACTERS_TO_REPLACE_WITH_DASH.indexOf(c) >= 0) {
+                replacement = '-';
+            } else {
+                if (normalized != null) normalized.append(c);
+                continue;
+            }
+
+            if (normalized == null) normalized = new StringBuilder(length).append(text, 0, start);
+            normalized.append(replacement);
+        }
+        return normalized != null ? normalized.toString() : text;
     }
 
+    /**
+     * Whether the argument character is matched by {@code \s} in Java regular expressions.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Returns the test id from the argument partial name, or the partial name itself if it has no test id.
+     * <p>
+     * Produces the same result as the first match of {@link #TEST_ID_PATTERN}: the test id starts after the first {@code [}
+     * that has a matching {@code ]} with at least one character between them, and no {@code )} between them,
+     * and it ends before the last such {@code ]}.
+     *
+     * @param partialName the name argument of a screenshot validation call
+     * @return the test id, or the partial name itself
+     */
     protected String parseTestId(String partialName) {
-        Matcher testIdMatcher = TEST_ID_PATTERN.matcher(partialName);
-        return testIdMatcher.find() ? testIdMatcher.group("testId") : partialName;
+        int openingBracket = partialName.indexOf('[');
+        while (openingBracket >= 0) {
+            int closingParenthesis = partialName.indexOf(')', openingBracket + 1);
+            int end = closingParenthesis >= 0 ? closingParenthesis : partialName.length();
+            int closingBracket = partialName.lastIndexOf(']', end - 1);
+            if (closingBracket > openingBracket + 1) {
+                return partialName.substring(openingBracket + 1, closingBracket);
+            }
+            //Any other [ before the ) would fail to match as well
+            if (closingParenthesis < 0) break;
+            openingBracket = partialName.indexOf('[', closingParenthesis + 1);
+        }
+        return partialName;
     }
 }
@@ -55,4 +55,17 @@ public interface ScreenshotNameResolver {
      * @return the resolved name
      */
     String resolveWithFallback(@Nullable JSLiteralExpression firstNameArgument, JSExpression methodExpression);
+
+    /**
+     * Same as {@link #resolveWithFallback(JSLiteralExpression, JSExpression)}, but it doesn't cache the resolved name on the argument elements.
+     * <p>
+     * This is for resolving names on PSI that is discarded right afterwards, e.g. the PSI built for indexing a file,
+     * on which caching the names would only waste memory.
+     *
+     * @param firstNameArgument the first, name parameter of a validation call
+     * @param methodExpression  the method expression of the validation call
+     * @return the resolved name
+     * @since 1.13.0
+     */
+    String resolveWithFallbackUncached(@Nullable JSLiteralExpression firstNameArgument, JSExpression methodExpression);
 }
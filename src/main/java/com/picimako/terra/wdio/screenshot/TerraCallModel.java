@@ -0,0 +1,222 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.screenshot;
+
+import static com.intellij.lang.javascript.buildTools.JSPsiUtil.getFirstArgumentAsStringLiteral;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.TERRA_IT;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.TERRA_IT_IS_ACCESSIBLE;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.TERRA_IT_MATCHES_SCREENSHOT;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.TERRA_IT_VALIDATES_ELEMENT;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.TERRA_VALIDATES_ACCESSIBILITY;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.TERRA_VALIDATES_ELEMENT;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.TERRA_VALIDATES_SCREENSHOT;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.getTerraValidationProperties;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.lang.javascript.psi.JSCallExpression;
+import com.intellij.lang.javascript.psi.JSExpression;
+import com.intellij.lang.javascript.psi.JSExpressionStatement;
+import com.intellij.lang.javascript.psi.JSLiteralExpression;
+import com.intellij.lang.javascript.psi.JSProperty;
+import com.intellij.lang.javascript.psi.JSReferenceExpression;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.picimako.terra.wdio.TerraResourceManager;
+
+/**
+ * A model of the Terra validation calls ({@code Terra.it} and {@code Terra.validates} helpers) in a wdio spec file.
+ * <p>
+ * Each call is identified, and its screenshot name is resolved, only once per file modification, and the model is shared by
+ * the inspections, line markers and inlay hints working with these calls, so that a single highlighting pass of a spec file
+ * doesn't identify the calls and resolve the screenshot names separately for each of them.
+ * <p>
+ * The model is cached on the file, and it is recalculated when the file is modified, or when the Terra library used in the package
+ * of the file changes.
+ *
+ * @since 1.13.0
+ */
+public final class TerraCallModel {
+    private static final Key<CachedValue<TerraCallModel>> MODEL_KEY = Key.create("terra.wdio.call.model");
+    private static final Map<String, Kind> KINDS_BY_METHOD = Map.of(
+        TERRA_IT_MATCHES_SCREENSHOT, Kind.SCREENSHOT,
+        TERRA_VALIDATES_SCREENSHOT, Kind.SCREENSHOT,
+        TERRA_IT_VALIDATES_ELEMENT, Kind.ELEMENT,
+        TERRA_VALIDATES_ELEMENT, Kind.ELEMENT,
+        TERRA_IT_IS_ACCESSIBLE, Kind.ACCESSIBILITY,
+        TERRA_VALIDATES_ACCESSIBILITY, Kind.ACCESSIBILITY);
+    /**
+     * The last parts of the method names in {@link #KINDS_BY_METHOD}. Calls are filtered by these first, so that the text
+     * of the method expression is built only for calls that are likely Terra validations.
+     */
+    private static final Set<String> VALIDATION_REFERENCE_NAMES = Set.of(
+        "matchesScreenshot", "screenshot", "validatesElement", "element", "isAccessible", "accessibility");
+
+    private final List<TerraCall> calls;
+    private final Map<JSCallExpression, TerraCall> callsByExpression;
+
+    private TerraCallModel(List<TerraCall> calls) {
+        this.calls = Collections.unmodifiableList(calls);
+        callsByExpression = new HashMap<>(calls.size());
+        for (var call : calls) {
+            callsByExpression.put(call.expression(), call);
+        }
+    }
+
+    /**
+     * Returns the model of the Terra validation calls in the argument file.
+     *
+     * @param file the wdio spec file
+     * @return the cached model, or a newly built one if the file has been modified since the model was last built
+     */
+    @NotNull
+    public static TerraCallModel getInstance(@NotNull PsiFile file) {
+        return CachedValuesManager.getCachedValue(file, MODEL_KEY, () -> {
+            var project = file.getProject();
+            var model = build(file, TerraResourceManager.forFile(file).screenshotNameResolver());
+            var projectManagerTracker = TerraResourceManager.getManagerModificationTracker(project);
+            //The library is detected from the nearest package.json, and falls back to the project level one
+            var packageJson = TerraResourceManager.findNearestPackageJson(file.getOriginalFile().getVirtualFile(), project);
+            return packageJson != null
+                ? CachedValueProvider.Result.create(model, file, packageJson, projectManagerTracker)
+                : CachedValueProvider.Result.create(model, file, projectManagerTracker);
+        });
+    }
+
+    /**
+     * Returns all Terra validation calls in the file, in the order they occur in the file.
+     */
+    @NotNull
+    public List<TerraCall> getCalls() {
+        return calls;
+    }
+
+    /**
+     * Returns the Terra validation call for the argument call expression, or null if it is not a Terra validation call.
+     */
+    @Nullable
+    public TerraCall findCall(@NotNull JSCallExpression expression) {
+        return callsByExpression.get(expression);
+    }
+
+    /**
+     * Returns the Terra validation call wrapped by the argument expression statement, or null if it doesn't wrap one.
+     */
+    @Nullable
+    public TerraCall findCall(@NotNull JSExpressionStatement statement) {
+        return statement.getExpression() instanceof JSCallExpression expression ? findCall(expression) : null;
+    }
+
+    private static TerraCallModel build(PsiFile file, @Nullable ScreenshotNameResolver nameResolver) {
+        final var calls = new ArrayList<TerraCall>();
+        PsiTreeUtil.processElements(file, JSCallExpression.class, expression -> {
+            var methodExpression = expression.getMethodExpression();
+            if (methodExpression instanceof JSReferenceExpression reference && VALIDATION_REFERENCE_NAMES.contains(reference.getReferenceName())) {
+                String methodName = methodExpression.getText();
+                var kind = KINDS_BY_METHOD.get(methodName);
+                if (kind != null) {
+                    calls.add(createCall(expression, methodExpression, methodName, kind, nameResolver));
+                }
+            }
+            return true;
+        });
+        return new TerraCallModel(calls);
+    }
+
+    private static TerraCall createCall(JSCallExpression expression, JSExpression methodExpression, String methodName, Kind kind,
+                                        @Nullable ScreenshotNameResolver nameResolver) {
+        var nameArgument = getFirstArgumentAsStringLiteral(expression.getArgumentList());
+        String screenshotName = kind != Kind.ACCESSIBILITY && nameResolver != null
+            ? StringUtil.notNullize(nameResolver.resolveWithFallback(nameArgument, methodExpression))
+            : "";
+        boolean isTopLevel = expression.getParent() instanceof JSExpressionStatement statement && statement.getParent() instanceof PsiFile;
+        return new TerraCall(expression, methodExpression, methodName, kind, isTopLevel, nameArgument, screenshotName,
+            getTerraValidationProperties(expression), TerraToolkitScreenshotNameResolver.findParentDescribeOrViewportsBlock(expression.getParent()));
+    }
+
+    /**
+     * The kinds of Terra validation calls.
+     */
+    public enum Kind {
+        /**
+         * {@code Terra.it.matchesScreenshot} and {@code Terra.validates.screenshot}.
+         */
+        SCREENSHOT,
+        /**
+         * {@code Terra.it.validatesElement} and {@code Terra.validates.element}.
+         */
+        ELEMENT,
+        /**
+         * {@code Terra.it.isAccessible} and {@code Terra.validates.accessibility}.
+         */
+        ACCESSIBILITY
+    }
+
+    /**
+     * A Terra validation call in a wdio spec file.
+     *
+     * @param expression       the call expression
+     * @param methodExpression the method expression of the call, e.g. {@code Terra.validates.element}
+     * @param methodName       the text of the method expression
+     * @param kind             the kind of validation
+     * @param isTopLevel       whether the call is a top level expression statement in the file
+     * @param nameArgument     the name argument of the call, or null if it is not specified
+     * @param screenshotName   the name of the screenshot the call references, or an empty string if it couldn't be resolved,
+     *                         or the call is an accessibility validation
+     * @param properties       the properties in the options argument of the call
+     * @param describeBlock    the closest {@code describe} or {@code Terra.describeViewports} block enclosing the call
+     */
+    public record TerraCall(@NotNull JSCallExpression expression,
+                            @NotNull JSExpression methodExpression,
+                            @NotNull String methodName,
+                            @NotNull Kind kind,
+                            boolean isTopLevel,
+                            @Nullable JSLiteralExpression nameArgument,
+                            @NotNull String screenshotName,
+                            @NotNull JSProperty[] properties,
+                            @Nullable JSCallExpression describeBlock) {
+
+        /**
+         * Returns whether this is a {@code Terra.it} helper call.
+         */
+        public boolean isTerraIt() {
+            return methodName.startsWith(TERRA_IT + ".");
+        }
+
+        /**
+         * Returns whether this call validates a screenshot, either of the whole viewport or of an element.
+         */
+        public boolean isScreenshotValidation() {
+            return kind != Kind.ACCESSIBILITY;
+        }
+
+        /**
+         * Returns the first property in the options argument of the call that has any of the argument names, in the order of the names.
+         *
+         * @param propertyNameVariants variants of a property name to retrieve any of them if found
+         * @return the property, or null if there is no such property
+         */
+        @Nullable
+        public JSProperty findProperty(String... propertyNameVariants) {
+            for (String propertyName : propertyNameVariants) {
+                for (var property : properties) {
+                    if (propertyName.equals(property.getName())) return property;
+                }
+            }
+            return null;
+        }
+    }
+}
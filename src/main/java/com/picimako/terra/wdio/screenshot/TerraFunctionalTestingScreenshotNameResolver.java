@@ -4,7 +4,11 @@ package com.picimako.terra.wdio.screenshot;
 
 import com.intellij.lang.javascript.psi.JSExpression;
 import com.intellij.lang.javascript.psi.JSLiteralExpression;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -49,6 +53,7 @@ import org.jetbrains.annotations.Nullable;
  */
 public class TerraFunctionalTestingScreenshotNameResolver extends AbstractScreenshotNameResolver {
     public static final TerraFunctionalTestingScreenshotNameResolver INSTANCE = new TerraFunctionalTestingScreenshotNameResolver();
+    private static final Key<CachedValue<String>> RESOLVED_NAME_KEY = Key.create("terra.functional.testing.resolved.screenshot.name");
 
     /**
      * {@inheritDoc}
@@ -59,14 +64,15 @@ public class TerraFunctionalTestingScreenshotNameResolver extends AbstractScreen
     @Override
     @NotNull
     public String resolveName(JSLiteralExpression element) {
-        if (element != null) {
-            String resolved = normalize(parseTestId(StringUtil.unquoteString(element.getText())));
-            if (!resolved.isEmpty()) {
-                return resolved + ".png";
-            }
-        }
-        return "";
+        return element != null
+            ? CachedValuesManager.getCachedValue(element, RESOLVED_NAME_KEY,
+            () -> CachedValueProvider.Result.create(resolve(element), element.getContainingFile()))
+            : "";
+    }
 
+    private String resolve(JSLiteralExpression element) {
+        String resolved = normalize(parseTestId(StringUtil.unquoteString(element.getText())));
+        return !resolved.isEmpty() ? resolved + ".png" : "";
     }
 
     @Override
@@ -80,4 +86,10 @@ public class TerraFunctionalTestingScreenshotNameResolver extends AbstractScreen
     public String resolveWithFallback(@Nullable JSLiteralExpression firstNameArgument, JSExpression methodExpression) {
         return resolveName(firstNameArgument);
     }
+
+    @Override
+    @NotNull
+    public String resolveWithFallbackUncached(@Nullable JSLiteralExpression firstNameArgument, JSExpression methodExpression) {
+        return firstNameArgument != null ? resolve(firstNameArgument) : "";
+    }
 }
@@ -2,25 +2,24 @@
 
 package com.picimako.terra.wdio.screenshot;
 
-import static com.picimako.terra.wdio.TerraWdioFolders.isReferenceScreenshot;
-import static com.picimako.terra.wdio.TerraWdioFolders.specFileIdentifier;
-import static com.picimako.terra.wdio.TerraWdioFolders.specFolderIdentifier;
+import static com.picimako.terra.wdio.TerraWdioFolders.REFERENCE;
 
 import java.util.Arrays;
+import java.util.Objects;
 import java.util.function.Supplier;
 
 import com.intellij.lang.javascript.psi.JSExpression;
 import com.intellij.lang.javascript.psi.JSLiteralExpression;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.PsiBinaryFile;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
-import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.PsiManager;
 import org.jetbrains.annotations.NotNull;
 
 import com.picimako.terra.wdio.TerraResourceManager;
 import com.picimako.terra.wdio.TerraWdioFolders;
+import com.picimako.terra.wdio.screenshot.index.TerraScreenshotIndex;
 
 /**
  * Collects screenshots based on various expressions.
@@ -42,15 +41,16 @@ import com.picimako.terra.wdio.TerraWdioFolders;
  * Screenshots are collected based on the referenced screenshots' names and also based on which spec file a
  * screenshot validation call is implemented in. The latter one makes sure that related screenshots are returned only
  * for the current spec file, and not for other specs, if there happens to be a screenshot with the same name for that too.
+ * <p>
+ * The lookup itself is performed via {@link TerraScreenshotIndex}, so the {@code __snapshots__} folders are not traversed
+ * on every call.
  */
 @Service(Service.Level.PROJECT)
 public final class TerraScreenshotCollector {
-    private final ScreenshotNameResolver screenshotNameResolver;
     private final Project project;
 
     public TerraScreenshotCollector(Project project) {
         this.project = project;
-        screenshotNameResolver = TerraResourceManager.getInstance(project).screenshotNameResolver();
     }
 
     /**
@@ -61,7 +61,7 @@ public final class TerraScreenshotCollector {
      */
     @NotNull
     public PsiElement[] collectFor(JSLiteralExpression element) {
-        return collect(element, () -> screenshotNameResolver.resolveName(element));
+        return collect(element, () -> nameResolverFor(element).resolveName(element));
     }
 
     /**
@@ -72,7 +72,7 @@ public final class TerraScreenshotCollector {
      */
     @NotNull
     public PsiFile[] collectAsPsiFilesFor(JSLiteralExpression element) {
-        return Arrays.stream(collect(element, () -> screenshotNameResolver.resolveName(element)))
+        return Arrays.stream(collect(element, () -> nameResolverFor(element).resolveName(element)))
             .map(PsiFile.class::cast)
             .toArray(PsiFile[]::new);
     }
@@ -88,7 +88,21 @@ public final class TerraScreenshotCollector {
      */
     @NotNull
     public PsiElement[] collectForDefault(JSExpression methodExpression) {
-        return collect(methodExpression, () -> screenshotNameResolver.resolveDefaultName(methodExpression));
+        return collect(methodExpression, () -> nameResolverFor(methodExpression).resolveDefaultName(methodExpression));
+    }
+
+    /**
+     * Collects screenshots from the current project based on the screenshot name already resolved for the argument Terra call.
+     * <p>
+     * This is the preferred way of collecting screenshots for Terra calls, since it doesn't resolve the screenshot name again.
+     *
+     * @param call the Terra validation call from {@link TerraCallModel}
+     * @return the array of screenshots found as PsiElements
+     * @since 1.13.0
+     */
+    @NotNull
+    public PsiElement[] collectFor(@NotNull TerraCallModel.TerraCall call) {
+        return !call.screenshotName().isEmpty() ? collect(call.expression(), call::screenshotName) : PsiElement.EMPTY_ARRAY;
     }
 
     /**
@@ -104,32 +118,39 @@ public final class TerraScreenshotCollector {
      * @return the array of screenshots found
      */
     private PsiElement[] collect(PsiElement element, Supplier<String> nameSupplier) {
-        if (element == null || nameSupplier.get() == null) {
+        if (element == null) {
+            return PsiElement.EMPTY_ARRAY;
+        }
+        String screenshotName = nameSupplier.get();
+        if (screenshotName == null) {
             return PsiElement.EMPTY_ARRAY;
         }
 
+        var specFile = element.getContainingFile().getVirtualFile();
         var specFileDirectory = element.getContainingFile().getParent();
-        if (specFileDirectory != null) {
+        if (specFile != null && specFileDirectory != null) {
             var snapshotsDirectory = specFileDirectory.findSubdirectory(TerraWdioFolders.SNAPSHOTS);
             if (snapshotsDirectory != null) {
-                String specFileId = specFileIdentifier(element.getContainingFile().getVirtualFile(), project);
-                return PsiTreeUtil.collectElements(snapshotsDirectory,
-                    e -> {
-                        if (e instanceof PsiBinaryFile) {
-                            var screenshotFile = ((PsiBinaryFile) e).getVirtualFile();
-                            return isReferenceScreenshot(screenshotFile)
-                                && ((PsiBinaryFile) e).getName().equals(nameSupplier.get()) //matching based on expected screenshot name
-                                && specFolderIdentifier(screenshotFile.getParent(), project).equals(specFileId); //matching based on the containing spec file
-
-                        }
-                        return false;
-                    }
-                );
+                //Matching based on the containing spec file is ensured by looking up screenshots only in the spec file's
+                // own __snapshots__ folder, in spec folders named after the spec file.
+                var psiManager = PsiManager.getInstance(project);
+                return TerraScreenshotIndex.findScreenshots(project, snapshotsDirectory.getVirtualFile(), specFile.getNameWithoutExtension(), screenshotName, REFERENCE)
+                    .stream()
+                    .map(psiManager::findFile)
+                    .filter(Objects::nonNull)
+                    .toArray(PsiElement[]::new);
             }
         }
         return PsiElement.EMPTY_ARRAY;
     }
 
+    /**
+     * Returns the screenshot name resolver of the Terra library used in the package of the argument element's spec file.
+     */
+    private static ScreenshotNameResolver nameResolverFor(PsiElement element) {
+        return TerraResourceManager.forFile(element.getContainingFile()).screenshotNameResolver();
+    }
+
     public static TerraScreenshotCollector getInstance(Project project) {
         return project.getService(TerraScreenshotCollector.class);
     }
@@ -4,14 +4,20 @@ package com.picimako.terra.wdio.screenshot;
 
 import static com.picimako.terra.wdio.TerraWdioPsiUtil.TERRA_DESCRIBE_VIEWPORTS;
 
+import java.util.Set;
+
 import com.intellij.lang.javascript.buildTools.JSPsiUtil;
 import com.intellij.lang.javascript.psi.JSCallExpression;
 import com.intellij.lang.javascript.psi.JSExpression;
 import com.intellij.lang.javascript.psi.JSLiteralExpression;
-import com.intellij.openapi.util.Condition;
+import com.intellij.lang.javascript.psi.JSReferenceExpression;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.psi.PsiElement;
-import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -58,14 +64,26 @@ import org.jetbrains.annotations.Nullable;
  * });
  * </pre>
  * the final screenshot name will be {@code terra_screenshot_[this_is_the_[test_)_id]].png}.
+ * <p>
+ * Resolved names are cached on the name argument and method expression elements they are resolved for,
+ * until the containing file is modified.
  *
  * @see com.picimako.terra.wdio.TerraToolkitManager
  */
 public class TerraToolkitScreenshotNameResolver extends AbstractScreenshotNameResolver {
     public static final TerraToolkitScreenshotNameResolver INSTANCE = new TerraToolkitScreenshotNameResolver();
 
-    private static final DescribeOrViewportsBlockCondition DESCRIBE_OR_VIEWPORTS_BLOCK_CONDITION = new DescribeOrViewportsBlockCondition();
     public static final String DESCRIBE_BLOCK_PATTERN = "describe|describe\\.only|describe\\.skip";
+    /**
+     * The method names matched by {@link #DESCRIBE_BLOCK_PATTERN}, and {@code Terra.describeViewports}.
+     */
+    private static final Set<String> DESCRIBE_OR_VIEWPORTS_BLOCK_NAMES = Set.of("describe", "describe.only", "describe.skip", TERRA_DESCRIBE_VIEWPORTS);
+    /**
+     * The last parts of the method names in {@link #DESCRIBE_OR_VIEWPORTS_BLOCK_NAMES}, so that the texts of method expressions
+     * are built only for calls that are likely describe blocks.
+     */
+    private static final Set<String> DESCRIBE_OR_VIEWPORTS_REFERENCE_NAMES = Set.of("describe", "only", "skip", "describeViewports");
+    private static final Key<CachedValue<String>> RESOLVED_NAME_KEY = Key.create("terra.toolkit.resolved.screenshot.name");
 
     /**
      * {@inheritDoc}
@@ -81,7 +99,8 @@ public class TerraToolkitScreenshotNameResolver extends AbstractScreenshotNameRe
     @NotNull
     @Override
     public String resolveName(JSLiteralExpression element) {
-        return resolve(element, StringUtil.unquoteString(element.getText()));
+        return CachedValuesManager.getCachedValue(element, RESOLVED_NAME_KEY,
+            () -> CachedValueProvider.Result.create(resolve(element, StringUtil.unquoteString(element.getText())), element.getContainingFile()));
     }
 
     /**
@@ -97,7 +116,8 @@ public class TerraToolkitScreenshotNameResolver extends AbstractScreenshotNameRe
     @NotNull
     @Override
     public String resolveDefaultName(JSExpression methodExpression) {
-        return resolve(methodExpression, "default");
+        return CachedValuesManager.getCachedValue(methodExpression, RESOLVED_NAME_KEY,
+            () -> CachedValueProvider.Result.create(resolve(methodExpression, "default"), methodExpression.getContainingFile()));
     }
 
     /**
@@ -114,10 +134,18 @@ public class TerraToolkitScreenshotNameResolver extends AbstractScreenshotNameRe
         return firstNameArgument != null ? resolveName(firstNameArgument) : resolveDefaultName(methodExpression);
     }
 
+    @NotNull
+    @Override
+    public String resolveWithFallbackUncached(@Nullable JSLiteralExpression firstNameArgument, JSExpression methodExpression) {
+        return firstNameArgument != null
+            ? resolve(firstNameArgument, StringUtil.unquoteString(firstNameArgument.getText()))
+            : resolve(methodExpression, "default");
+    }
+
     private String resolve(PsiElement element, String partialName) {
-        PsiElement parentDescribeCall = PsiTreeUtil.findFirstParent(element, DESCRIBE_OR_VIEWPORTS_BLOCK_CONDITION);
+        JSCallExpression parentDescribeCall = findParentDescribeOrViewportsBlock(element);
         if (parentDescribeCall != null) {
-            String describeBlockName = JSPsiUtil.getFirstArgumentAsString(((JSCallExpression) parentDescribeCall).getArgumentList());
+            String describeBlockName = JSPsiUtil.getFirstArgumentAsString(parentDescribeCall.getArgumentList());
             if (describeBlockName != null) {
                 return normalize(describeBlockName.trim() + "[" + parseTestId(partialName).trim() + "]") + ".png";
             }
@@ -126,18 +154,25 @@ public class TerraToolkitScreenshotNameResolver extends AbstractScreenshotNameRe
     }
 
     /**
-     * Describes the condition to find the closest {@code describe} or {@code Terra.describeViewports} parent element
-     * for a Psi element.
+     * Finds the closest {@code describe} or {@code Terra.describeViewports} parent element for a Psi element.
+     *
+     * @param element the element to find the parent block of
+     * @return the parent block call, or null if there is no such parent
+     * @since 1.13.0
      */
-    private static final class DescribeOrViewportsBlockCondition implements Condition<PsiElement> {
-        @Override
-        public boolean value(PsiElement psiElement) {
-            if (psiElement instanceof JSCallExpression) {
-                JSExpression methodExpression = ((JSCallExpression) psiElement).getMethodExpression();
-                return methodExpression != null
-                    && (methodExpression.getText().matches(DESCRIBE_BLOCK_PATTERN) || TERRA_DESCRIBE_VIEWPORTS.equals(methodExpression.getText()));
+    @Nullable
+    public static JSCallExpression findParentDescribeOrViewportsBlock(@NotNull PsiElement element) {
+        for (PsiElement parent = element; parent != null && !(parent instanceof PsiFile); parent = parent.getParent()) {
+            if (parent instanceof JSCallExpression call && isDescribeOrViewportsBlock(call)) {
+                return call;
             }
-            return false;
         }
+        return null;
+    }
+
+    private static boolean isDescribeOrViewportsBlock(JSCallExpression call) {
+        return call.getMethodExpression() instanceof JSReferenceExpression methodExpression
+            && DESCRIBE_OR_VIEWPORTS_REFERENCE_NAMES.contains(methodExpression.getReferenceName())
+            && DESCRIBE_OR_VIEWPORTS_BLOCK_NAMES.contains(methodExpression.getText());
     }
 }
@@ -2,10 +2,8 @@
 
 package com.picimako.terra.wdio.screenshot.gutter;
 
-import static com.intellij.lang.javascript.buildTools.JSPsiUtil.getFirstArgumentAsStringLiteral;
 import static com.picimako.terra.wdio.TerraResourceManager.isUsingTerra;
 import static com.picimako.terra.wdio.TerraResourceManager.isUsingTerraToolkit;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.isScreenshotValidationCall;
 
 import java.util.Collection;
 import javax.swing.*;
@@ -23,6 +21,7 @@ import org.jetbrains.annotations.Nullable;
 
 import com.picimako.terra.resources.TerraBundle;
 import com.picimako.terra.wdio.TerraWdioPsiUtil;
+import com.picimako.terra.wdio.screenshot.TerraCallModel;
 import com.picimako.terra.wdio.screenshot.TerraScreenshotCollector;
 
 /**
@@ -34,6 +33,8 @@ import com.picimako.terra.wdio.screenshot.TerraScreenshotCollector;
  * <p>
  * In case the call references a non-existent screenshot, the line marker is not added.
  * Instead they will be marked by the {@link com.picimako.terra.wdio.screenshot.inspection.MissingScreenshotInspection}.
+ * <p>
+ * The calls and their screenshot names are taken from {@link TerraCallModel}.
  *
  * @since 0.4.0
  */
@@ -41,21 +42,21 @@ public class TerraScreenshotValidationLineMarkerProvider extends RelatedItemLine
 
     @Override
     protected void collectNavigationMarkers(@NotNull PsiElement element, @NotNull Collection<? super RelatedItemLineMarkerInfo<?>> result) {
-        if (isUsingTerra(element.getProject()) && element instanceof JSCallExpression terraCallExpr && isScreenshotValidationCall(terraCallExpr)) {
-            var nameArgument = getFirstArgumentAsStringLiteral(terraCallExpr.getArgumentList());
-            if (isUsingTerraToolkit(element.getProject()) && nameArgument == null) {
-                var methodExpression = terraCallExpr.getMethodExpression();
-                if (methodExpression != null) {
-                    var screenshots = TerraScreenshotCollector.getInstance(element.getProject()).collectForDefault(methodExpression);
-                    if (screenshots.length > 0) {
-                        var leafElement = findLeafElement(terraCallExpr);
-                        if (leafElement != null) {
-                            //Icon is retrieved via ImageFileType because to prevent at least package changes of ImagesIcons.ImagesFileType
-                            result.add(NavigationGutterIconBuilder.create(ImageFileType.INSTANCE.getIcon())
-                                .setTargets(screenshots)
-                                .setTooltipText(TerraBundle.message("terra.wdio.screenshot.gutter.navigate.to.related"))
-                                .createLineMarkerInfo(leafElement.getFirstChild()));
-                        }
+        if (element instanceof JSCallExpression terraCallExpr && isUsingTerra(element.getContainingFile())) {
+            var call = TerraCallModel.getInstance(element.getContainingFile()).findCall(terraCallExpr);
+            if (call == null || !call.isScreenshotValidation()) return;
+
+            var nameArgument = call.nameArgument();
+            if (isUsingTerraToolkit(element.getContainingFile()) && nameArgument == null) {
+                var screenshots = TerraScreenshotCollector.getInstance(element.getProject()).collectFor(call);
+                if (screenshots.length > 0) {
+                    var leafElement = findLeafElement(terraCallExpr);
+                    if (leafElement != null) {
+                        //Icon is retrieved via ImageFileType because to prevent at least package changes of ImagesIcons.ImagesFileType
+                        result.add(NavigationGutterIconBuilder.create(ImageFileType.INSTANCE.getIcon())
+                            .setTargets(screenshots)
+                            .setTooltipText(TerraBundle.message("terra.wdio.screenshot.gutter.navigate.to.related"))
+                            .createLineMarkerInfo(leafElement.getFirstChild()));
                     }
                 }
             } else if (nameArgument != null) {
@@ -0,0 +1,145 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.screenshot.index;
+
+import static com.picimako.terra.wdio.TerraWdioFolders.DIFF;
+import static com.picimako.terra.wdio.TerraWdioFolders.LATEST;
+import static com.picimako.terra.wdio.TerraWdioFolders.REFERENCE;
+import static com.picimako.terra.wdio.TerraWdioFolders.SNAPSHOTS;
+import static com.picimako.terra.wdio.TerraWdioFolders.isInSnapshotsDirectory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScopesCore;
+import com.intellij.util.SmartList;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Indexes the screenshot files located in {@code __snapshots__} folders, so that looking up the screenshots for a given
+ * spec and screenshot name doesn't require walking the whole {@code __snapshots__} directory.
+ * <p>
+ * The key is built from the spec folder's name and the screenshot's name (see {@link #key(String, String)}), while
+ * the value is the image type (reference, latest or diff) the screenshot belongs to.
+ * <p>
+ * The spec folder's path relative to the wdio root is not part of the key, because it depends on the wdio root configured
+ * in the Terra Support settings, and index data must not depend on settings. Instead, lookups are restricted to the
+ * {@code __snapshots__} directory that belongs to a spec file, which yields the same result as matching
+ * on the full spec identifier (see {@link com.picimako.terra.wdio.TerraWdioFolders#specFolderIdentifier}).
+ * <p>
+ * Since the indexed data is derived solely from the path of a file, the index doesn't depend on file contents,
+ * thus the screenshot images are never loaded during indexing.
+ *
+ * @since 1.13.0
+ */
+public final class TerraScreenshotIndex extends FileBasedIndexExtension<String, String> {
+    public static final ID<String, String> NAME = ID.create("terra.wdio.screenshot.index");
+    private static final Set<String> IMAGE_TYPES = Set.of(REFERENCE, LATEST, DIFF);
+    private static final String SNAPSHOTS_PATH_SEGMENT = "/" + SNAPSHOTS + "/";
+
+    @Override
+    public @NotNull ID<String, String> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, String, FileContent> getIndexer() {
+        return inputData -> {
+            var screenshot = inputData.getFile();
+            var specFolder = screenshot.getParent();
+            String imageType = imageTypeOf(screenshot);
+            return specFolder != null && imageType != null
+                ? Map.of(key(specFolder.getName(), screenshot.getName()), imageType)
+                : Map.of();
+        };
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<String> getValueExternalizer() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return file -> !file.isDirectory() && isInSnapshotsDirectory(file);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return false;
+    }
+
+    //Lookup
+
+    /**
+     * Finds the screenshots of the provided image type, for the given spec folder and screenshot names, within the provided
+     * {@code __snapshots__} directory (and its subdirectories).
+     *
+     * @param project            the current project
+     * @param snapshotsDirectory the {@code __snapshots__} directory to look up the screenshots in
+     * @param specName           the name of the spec folder, which is the same as the spec file's name without its extension
+     * @param screenshotName     the name of the screenshot including its extension
+     * @param imageType          the type of the image: reference, latest or diff
+     * @return the list of matching screenshot files
+     */
+    @NotNull
+    public static List<VirtualFile> findScreenshots(@NotNull Project project, @NotNull VirtualFile snapshotsDirectory,
+                                                    @NotNull String specName, @NotNull String screenshotName, @NotNull String imageType) {
+        final var screenshots = new SmartList<VirtualFile>();
+        FileBasedIndex.getInstance().processValues(NAME, key(specName, screenshotName), null,
+            (file, type) -> {
+                if (imageType.equals(type)) screenshots.add(file);
+                return true;
+            },
+            GlobalSearchScopesCore.directoryScope(project, snapshotsDirectory, true));
+        return screenshots;
+    }
+
+    /**
+     * Creates the index key for the provided spec folder and screenshot names.
+     */
+    @NotNull
+    public static String key(@NotNull String specName, @NotNull String screenshotName) {
+        return specName + "/" + screenshotName;
+    }
+
+    /**
+     * Returns the image type (reference, latest or diff) of the argument screenshot based on the folder right below the
+     * last {@code __snapshots__} folder in its path, or null if it is not one of the image types.
+     */
+    @Nullable
+    static String imageTypeOf(@NotNull VirtualFile screenshot) {
+        String path = screenshot.getPath();
+        int snapshotsIndex = path.lastIndexOf(SNAPSHOTS_PATH_SEGMENT);
+        if (snapshotsIndex == -1) return null;
+
+        int typeStart = snapshotsIndex + SNAPSHOTS_PATH_SEGMENT.length();
+        int typeEnd = path.indexOf('/', typeStart);
+        if (typeEnd == -1) return null;
+
+        String imageType = path.substring(typeStart, typeEnd);
+        return IMAGE_TYPES.contains(imageType) ? imageType : null;
+    }
+}
@@ -0,0 +1,166 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.screenshot.index;
+
+import static com.intellij.lang.javascript.buildTools.JSPsiUtil.getFirstArgumentAsStringLiteral;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.WDIO_SPEC_FILE_NAME_PATTERN;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.isScreenshotValidationCall;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.intellij.lang.javascript.psi.JSCallExpression;
+import com.intellij.lang.javascript.psi.JSLiteralExpression;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.picimako.terra.wdio.TerraFunctionalTestingManager;
+import com.picimako.terra.wdio.TerraResourceManager;
+import com.picimako.terra.wdio.TerraToolkitManager;
+import com.picimako.terra.wdio.screenshot.ScreenshotNameResolver;
+import com.picimako.terra.wdio.screenshot.TerraFunctionalTestingScreenshotNameResolver;
+import com.picimako.terra.wdio.screenshot.TerraToolkitScreenshotNameResolver;
+
+/**
+ * Indexes the Terra screenshot validation calls (e.g. {@code Terra.validates.screenshot()} or {@code Terra.it.matchesScreenshot()})
+ * in wdio spec files, by the names of the screenshots they reference.
+ * <p>
+ * The key is the resolved screenshot name (with extension), while the value is the start offset of the first call
+ * referencing that screenshot in the spec file. The offset points to the name argument of the call if it is specified,
+ * otherwise to the call's method expression. This lets navigation to the usage of a screenshot happen without
+ * parsing the spec file.
+ * <p>
+ * Since screenshot names are resolved differently by terra-toolkit and terra-functional-testing, and which one is used
+ * is a project-level property, thus it cannot be taken into account during indexing, names are resolved and stored by
+ * both libraries' resolvers, with a prefix identifying the library. Lookups then filter for the library used by the package
+ * the spec file belongs to, see {@link TerraResourceManager#forFile(Project, VirtualFile)}.
+ *
+ * @see TerraScreenshotIndex
+ * @since 1.13.0
+ */
+public final class TerraScreenshotUsageIndex extends FileBasedIndexExtension<String, Integer> {
+    public static final ID<String, Integer> NAME = ID.create("terra.wdio.screenshot.usage.index");
+    private static final Pattern SPEC_FILE_NAME = Pattern.compile(WDIO_SPEC_FILE_NAME_PATTERN);
+    private static final String TOOLKIT_PREFIX = "toolkit:";
+    private static final String FUNCTIONAL_TESTING_PREFIX = "ft:";
+
+    @Override
+    public @NotNull ID<String, Integer> getName() {
+        return NAME;
+    }
+
+    @Override
+    public @NotNull DataIndexer<String, Integer, FileContent> getIndexer() {
+        return inputData -> {
+            final var usages = new HashMap<String, Integer>();
+            PsiTreeUtil.processElements(inputData.getPsiFile(), JSCallExpression.class, call -> {
+                if (isScreenshotValidationCall(call)) {
+                    var nameExpr = getFirstArgumentAsStringLiteral(call.getArgumentList());
+                    PsiElement target = nameExpr != null ? nameExpr : call.getMethodExpression();
+                    if (target != null) {
+                        int offset = target.getTextRange().getStartOffset();
+                        addUsage(usages, TOOLKIT_PREFIX, TerraToolkitScreenshotNameResolver.INSTANCE, nameExpr, call, offset);
+                        addUsage(usages, FUNCTIONAL_TESTING_PREFIX, TerraFunctionalTestingScreenshotNameResolver.INSTANCE, nameExpr, call, offset);
+                    }
+                }
+                return true;
+            });
+            return usages;
+        };
+    }
+
+    private static void addUsage(Map<String, Integer> usages, String prefix, ScreenshotNameResolver resolver,
+                                 @Nullable JSLiteralExpression nameExpr, JSCallExpression call, int offset) {
+        //The PSI of the indexed file is discarded after indexing, so the resolved names are not cached on it
+        String screenshotName = resolver.resolveWithFallbackUncached(nameExpr, call.getMethodExpression());
+        if (!StringUtil.isEmpty(screenshotName)) {
+            //Only the first usage is stored, this is where navigation should go
+            usages.putIfAbsent(prefix + screenshotName, offset);
+        }
+    }
+
+    @Override
+    public @NotNull KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @Override
+    public @NotNull DataExternalizer<Integer> getValueExternalizer() {
+        return EnumeratorIntegerDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @Override
+    public FileBasedIndex.@NotNull InputFilter getInputFilter() {
+        return file -> !file.isDirectory() && SPEC_FILE_NAME.matcher(file.getName()).matches();
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    //Lookup
+
+    /**
+     * Returns the screenshot names referenced in the argument spec file, mapped to the offsets of their first usages,
+     * according to the Terra library used in the package of the spec file.
+     *
+     * @param project  the current project
+     * @param specFile the wdio spec file to get the screenshot usages of
+     * @return the screenshot names with their usage offsets, or an empty map if there is no usage,
+     * or Terra is not used in the package of the spec file
+     */
+    @NotNull
+    public static Map<String, Integer> getScreenshotUsages(@NotNull Project project, @NotNull VirtualFile specFile) {
+        String prefix = libraryPrefix(project, specFile);
+        if (prefix == null) return Map.of();
+
+        final var usages = new HashMap<String, Integer>();
+        FileBasedIndex.getInstance().getFileData(NAME, specFile, project).forEach((key, offset) -> {
+            if (key.startsWith(prefix)) usages.put(key.substring(prefix.length()), offset);
+        });
+        return usages;
+    }
+
+    /**
+     * Returns the offset of the first usage of the argument screenshot in the given spec file.
+     *
+     * @param project        the current project
+     * @param specFile       the wdio spec file to look up the screenshot usage in
+     * @param screenshotName the screenshot name with extension
+     * @return the offset of the usage, or null if the screenshot is not referenced in the spec file
+     */
+    @Nullable
+    public static Integer findUsageOffset(@NotNull Project project, @NotNull VirtualFile specFile, @NotNull String screenshotName) {
+        String prefix = libraryPrefix(project, specFile);
+        return prefix != null ? FileBasedIndex.getInstance().getFileData(NAME, specFile, project).get(prefix + screenshotName) : null;
+    }
+
+    @Nullable
+    private static String libraryPrefix(Project project, VirtualFile specFile) {
+        var resourceManager = TerraResourceManager.forFile(project, specFile);
+        if (resourceManager instanceof TerraToolkitManager) return TOOLKIT_PREFIX;
+        if (resourceManager instanceof TerraFunctionalTestingManager) return FUNCTIONAL_TESTING_PREFIX;
+        return null;
+    }
+}
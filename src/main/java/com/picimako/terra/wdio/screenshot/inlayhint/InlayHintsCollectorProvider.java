@@ -2,10 +2,7 @@
 
 package com.picimako.terra.wdio.screenshot.inlayhint;
 
-import static com.intellij.lang.javascript.buildTools.JSPsiUtil.getFirstArgumentAsStringLiteral;
 import static com.picimako.terra.wdio.TerraWdioPsiUtil.SELECTOR;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.getScreenshotValidationProperty;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.isScreenshotValidationCall;
 
 import com.intellij.codeInsight.hints.FactoryInlayHintsCollector;
 import com.intellij.codeInsight.hints.InlayHintsCollector;
@@ -22,12 +19,15 @@ import org.jetbrains.annotations.NotNull;
 
 import com.picimako.terra.settings.TerraApplicationState;
 import com.picimako.terra.wdio.TerraResourceManager;
+import com.picimako.terra.wdio.screenshot.TerraCallModel;
 import com.picimako.terra.wdio.screenshot.inspection.GlobalTerraSelectorRetriever;
 
 /**
  * Provides the functionality for {@code com.intellij.codeInsight.hints.InlayHintsProvider#getCollectorFor()}.
  * <p>
  * It is implemented in Java, because the Kotlin implementation had some issues during compilation.
+ * <p>
+ * The calls, their screenshot names and selectors are taken from {@link TerraCallModel}.
  */
 @SuppressWarnings("UnstableApiUsage")
 public final class InlayHintsCollectorProvider {
@@ -39,25 +39,26 @@ public final class InlayHintsCollectorProvider {
         return new FactoryInlayHintsCollector(editor) {
             @Override
             public boolean collect(@NotNull PsiElement element, @NotNull Editor editor, @NotNull InlayHintsSink sink) {
-                if (TerraResourceManager.isUsingTerra(element.getProject()) && !file.getProject().getService(DumbService.class).isDumb()
-                    && element instanceof JSCallExpression
-                    && isScreenshotValidationCall((JSCallExpression) element)) {
-                    var addedInlineScreenshot = false;
-                    if (!TerraApplicationState.getInstance().showScreenshotName.equals(InlayType.Disabled.name())) {
-                        addedInlineScreenshot = addScreenshotHint((JSCallExpression) element, addedInlineScreenshot);
-                    }
-                    if (!TerraApplicationState.getInstance().showCssSelector.equals(InlayType.Disabled.name())) {
-                        addCSSSelectorHint((JSCallExpression) element, addedInlineScreenshot);
+                if (element instanceof JSCallExpression callExpression && TerraResourceManager.isUsingTerra(file)
+                    && !file.getProject().getService(DumbService.class).isDumb()) {
+                    var call = TerraCallModel.getInstance(file).findCall(callExpression);
+                    if (call != null && call.isScreenshotValidation()) {
+                        var addedInlineScreenshot = false;
+                        if (!TerraApplicationState.getInstance().showScreenshotName.equals(InlayType.Disabled.name())) {
+                            addedInlineScreenshot = addScreenshotHint(call, addedInlineScreenshot);
+                        }
+                        if (!TerraApplicationState.getInstance().showCssSelector.equals(InlayType.Disabled.name())) {
+                            addCSSSelectorHint(call, addedInlineScreenshot);
+                        }
                     }
                 }
                 return true;
             }
 
-            private boolean addScreenshotHint(JSCallExpression element, boolean addedInlineScreenshot) {
+            private boolean addScreenshotHint(TerraCallModel.TerraCall call, boolean addedInlineScreenshot) {
                 var isAddedInlineScreenshot = addedInlineScreenshot;
-                final var nameExpr = getFirstArgumentAsStringLiteral(element.getArgumentList());
-                final var nameResolver = TerraResourceManager.getInstance(element.getProject()).screenshotNameResolver();
-                final var screenshotName = nameResolver.resolveWithFallback(nameExpr, element.getMethodExpression());
+                final var element = call.expression();
+                final var screenshotName = call.screenshotName();
                 switch (TerraApplicationState.getInstance().showScreenshotName) {
                     case "Inline":
                         addInlineHint(element, SCREENSHOT_HINT_LABEL, screenshotName);
@@ -71,10 +72,11 @@ public final class InlayHintsCollectorProvider {
                 return isAddedInlineScreenshot;
             }
 
-            private void addCSSSelectorHint(JSCallExpression element, boolean addedInlineScreenshot) {
-                final var selectorProperty = getScreenshotValidationProperty(element, SELECTOR);
+            private void addCSSSelectorHint(TerraCallModel.TerraCall call, boolean addedInlineScreenshot) {
+                final var element = call.expression();
+                final var selectorProperty = call.findProperty(SELECTOR);
                 if (selectorProperty == null) {
-                    String selector = GlobalTerraSelectorRetriever.getInstance(element.getProject()).getSelector();
+                    String selector = GlobalTerraSelectorRetriever.getInstance(element.getProject()).getSelector(element);
                     final var cssSelector = selector != null ? selector : "";
                     if (!cssSelector.isEmpty()) {
                         switch (TerraApplicationState.getInstance().showCssSelector) {
@@ -4,7 +4,6 @@ package com.picimako.terra.wdio.screenshot.inspection;
 
 import static com.picimako.terra.FileTypePreconditions.isWdioSpecFile;
 import static com.picimako.terra.wdio.TerraResourceManager.isUsingTerraFunctionalTesting;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.isInContextOfNonTerraItElementOrScreenshotValidation;
 
 import java.util.HashMap;
 
@@ -13,13 +12,12 @@ import com.intellij.codeInspection.ProblemsHolder;
 import com.intellij.lang.javascript.psi.JSElementVisitor;
 import com.intellij.lang.javascript.psi.JSExpression;
 import com.intellij.lang.javascript.psi.JSFile;
-import com.intellij.lang.javascript.psi.JSLiteralExpression;
 import com.intellij.psi.PsiElementVisitor;
-import com.intellij.psi.util.PsiTreeUtil;
 import org.jetbrains.annotations.NotNull;
 
 import com.picimako.terra.resources.TerraBundle;
 import com.picimako.terra.wdio.TerraWdioInspectionBase;
+import com.picimako.terra.wdio.screenshot.TerraCallModel;
 
 /**
  * Reports duplicate screenshot names when using terra-functional-testing since more than the same screenshot
@@ -34,15 +32,14 @@ import com.picimako.terra.wdio.TerraWdioInspectionBase;
 public class DuplicateScreenshotNameInspection extends TerraWdioInspectionBase {
 
     /**
-     * The inspection logic approaches the checks from the literal expressions' direction: instead of going through each JSExpressionStatement in the file,
-     * it iterates through the literal expressions, based on the presumption that there are probably less literal expressions in a spec file than expression statements,
-     * thus executing less precondition checks.
+     * The inspection logic goes through the Terra validation calls collected in {@link TerraCallModel}, instead of checking each
+     * literal expression in the file, so no precondition checks are executed for non-Terra code.
      * <p>
      * Only the first two matches are registered to make the inspection a bit more performant. Also I don't anticipate it is often to have more than two validations referencing the same screenshot.
      */
     @Override
     public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly, @NotNull LocalInspectionToolSession session) {
-        if (!isUsingTerraFunctionalTesting(holder.getProject()) || !isWdioSpecFile(session.getFile())) {
+        if (!isUsingTerraFunctionalTesting(session.getFile()) || !isWdioSpecFile(session.getFile())) {
             return PsiElementVisitor.EMPTY_VISITOR;
         }
 
@@ -50,19 +47,20 @@ public class DuplicateScreenshotNameInspection extends TerraWdioInspectionBase {
             @Override
             public void visitJSFile(@NotNull JSFile file) {
                 final var duplicateNames = new HashMap<String, JSExpression>();
-                PsiTreeUtil.processElements(session.getFile(), JSLiteralExpression.class, element -> {
+                for (var call : TerraCallModel.getInstance(file).getCalls()) {
                     //The check and reporting is applied only to Terra.validates.element and Terra.validates.screenshot calls,
                     //so there is no unnecessary execution for Terra.it calls which are removed from terra-functional-testing anyway.
-                    if (element.isStringLiteral() && isInContextOfNonTerraItElementOrScreenshotValidation(element)) {
-                        if (duplicateNames.containsKey(element.getStringValue())) {
-                            holder.registerProblem(duplicateNames.get(element.getStringValue()), TerraBundle.inspection("duplicate.screenshot.name"));
-                            holder.registerProblem(element, TerraBundle.inspection("duplicate.screenshot.name"));
-                            return false;
-                        }
-                        duplicateNames.put(element.getStringValue(), element);
+                    if (call.isTerraIt() || !call.isScreenshotValidation() || call.nameArgument() == null) continue;
+
+                    String name = call.nameArgument().getStringValue();
+                    if (name == null) continue;
+                    var duplicate = duplicateNames.putIfAbsent(name, call.nameArgument());
+                    if (duplicate != null) {
+                        holder.registerProblem(duplicate, TerraBundle.inspection("duplicate.screenshot.name"));
+                        holder.registerProblem(call.nameArgument(), TerraBundle.inspection("duplicate.screenshot.name"));
+                        break;
                     }
-                    return true;
-                });
+                }
             }
         };
     }
@@ -6,8 +6,6 @@ import static com.intellij.lang.javascript.buildTools.JSPsiUtil.getStringLiteral
 import static com.picimako.terra.FileTypePreconditions.isWdioSpecFile;
 import static com.picimako.terra.wdio.TerraResourceManager.isUsingTerra;
 import static com.picimako.terra.wdio.TerraWdioPsiUtil.SELECTOR;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.getScreenshotValidationProperty;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.isTerraElementOrScreenshotValidation;
 
 import java.util.Objects;
 
@@ -20,10 +18,11 @@ import org.jetbrains.annotations.NotNull;
 
 import com.picimako.terra.resources.TerraBundle;
 import com.picimako.terra.wdio.TerraWdioInspectionBase;
+import com.picimako.terra.wdio.screenshot.TerraCallModel;
 
 /**
  * Validates whether a CSS selector defined in {@code Terra.validates} and {@code Terra.it} calls match the global selector
- * defined in the {@code wdio.conf.js} located in the project root directory.
+ * defined in the wdio config file ({@code wdio.conf.js} or {@code wdio.conf.ts}) nearest to the spec file.
  * <p>
  * If they match, the selector property can be removed from the tests, and can rely on the global selector value.
  * <p>
@@ -37,20 +36,22 @@ public class GlobalTerraSelectorInspection extends TerraWdioInspectionBase {
 
     @Override
     public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly, @NotNull LocalInspectionToolSession session) {
-        if (!isUsingTerra(holder.getProject()) || !isWdioSpecFile(session.getFile())) {
+        if (!isUsingTerra(session.getFile()) || !isWdioSpecFile(session.getFile())) {
             return PsiElementVisitor.EMPTY_VISITOR;
         }
 
+        final var callModel = TerraCallModel.getInstance(session.getFile());
         return new JSElementVisitor() {
             @Override
             public void visitJSExpressionStatement(@NotNull JSExpressionStatement node) {
                 super.visitJSExpressionStatement(node);
 
-                if (isTerraElementOrScreenshotValidation(node)) {
-                    var selectorProperty = getScreenshotValidationProperty(node, SELECTOR);
+                var call = callModel.findCall(node);
+                if (call != null && !call.isTopLevel() && call.isScreenshotValidation()) {
+                    var selectorProperty = call.findProperty(SELECTOR);
                     if (selectorProperty != null) {
                         String localScreenshotSelector = getStringLiteralValue(selectorProperty.getValue());
-                        String globalSelector = GlobalTerraSelectorRetriever.getInstance(holder.getProject()).getSelector();
+                        String globalSelector = GlobalTerraSelectorRetriever.getInstance(holder.getProject()).getSelector(node);
                         if (Objects.equals(localScreenshotSelector, globalSelector)) {
                             //At this point selectorProperty.getValue() has already been validated for null value
                             holder.registerProblem(selectorProperty.getValue(), TerraBundle.inspection("matches.global.selector"));
@@ -4,26 +4,45 @@ package com.picimako.terra.wdio.screenshot.inspection;
 
 import static com.picimako.terra.wdio.WdioConfUtil.SELECTOR_PROPERTY_NAME;
 import static com.picimako.terra.wdio.WdioConfUtil.TERRA_PROPERTY_NAME;
-import static com.picimako.terra.wdio.WdioConfUtil.WDIO_CONF_JS_FILE_NAME;
+import static com.picimako.terra.wdio.WdioConfUtil.WDIO_CONF_FILE_NAMES;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.intellij.lang.javascript.psi.JSDefinitionExpression;
 import com.intellij.lang.javascript.psi.JSProperty;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import com.intellij.psi.util.PsiTreeUtil;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 /**
- * Retrieves the global CSS selector define in the {@code wdio.conf.js} in the project's root directory.
+ * Retrieves the global CSS selector defined in the wdio config file ({@code wdio.conf.js} or {@code wdio.conf.ts}) nearest to a spec file.
+ * <p>
+ * The nearest config file is the first one found in the folder of the spec file, or in one of its parent folders up until
+ * the project's root directory. This way, in projects with multiple packages, each with its own wdio config, spec files
+ * are bound to the config of their own package. The binding is cached, and is recalculated only when files or folders
+ * are created, deleted, moved or renamed.
+ * <p>
+ * The selector is cached for each config file, and is recalculated only when that config file is modified.
  */
 @Service(Service.Level.PROJECT)
 public final class GlobalTerraSelectorRetriever {
+    private static final Key<CachedValue<String>> SELECTOR_KEY = Key.create("terra.wdio.conf.global.selector");
+    private static final Key<CachedValue<Map<VirtualFile, Optional<VirtualFile>>>> NEAREST_CONFIGS_KEY = Key.create("terra.wdio.conf.nearest.configs");
 
     private final Project project;
 
@@ -32,17 +51,78 @@ public final class GlobalTerraSelectorRetriever {
     }
 
     /**
-     * Gets the global CSS selector value from the {@code terra.selector} property in wdio.conf.js. The wdio.conf.js
-     * file checked is the one present in the project's root directory. It returns null if that wdio.conf.js doesn't exist.
+     * Gets the global CSS selector value from the {@code terra.selector} property in the wdio config file nearest to
+     * the file containing the argument element. If that file is not a physical one, e.g. in case of previews,
+     * the config in the project's root directory is used.
+     * <p>
+     * It returns null if there is no such config file, or there is no global selector defined in it.
      *
+     * @param context an element in the spec file to get the global selector for
      * @return the global CSS selector, or null
      */
     @Nullable
-    public String getSelector() {
-        PsiFile wdioConf = PsiManager.getInstance(project)
-            .findDirectory(ProjectUtil.guessProjectDir(project))
-            .findFile(WDIO_CONF_JS_FILE_NAME);
-        return findTerraSelectorValue(wdioConf);
+    public String getSelector(@NotNull PsiElement context) {
+        return getSelectorFrom(findNearestConfig(context));
+    }
+
+    /**
+     * Gets the global CSS selector value from the {@code terra.selector} property in the wdio config file nearest to
+     * the argument directory.
+     * <p>
+     * It returns null if there is no such config file, or there is no global selector defined in it.
+     *
+     * @param directory the directory to get the global selector for
+     * @return the global CSS selector, or null
+     * @since 1.13.0
+     */
+    @Nullable
+    public String getSelector(@NotNull VirtualFile directory) {
+        return getSelectorFrom(findNearestConfig(directory));
+    }
+
+    @Nullable
+    private String getSelectorFrom(@Nullable VirtualFile config) {
+        if (config == null) return null;
+
+        var configPsiFile = PsiManager.getInstance(project).findFile(config);
+        return configPsiFile != null
+            ? CachedValuesManager.getCachedValue(configPsiFile, SELECTOR_KEY,
+            () -> CachedValueProvider.Result.create(findTerraSelectorValue(configPsiFile), configPsiFile))
+            : null;
+    }
+
+    /**
+     * Finds the wdio config file nearest to the file containing the argument element.
+     *
+     * @param context an element in the spec file to find the config for
+     * @return the config file, or null if there is none
+     * @since 1.13.0
+     */
+    @Nullable
+    public VirtualFile findNearestConfig(@NotNull PsiElement context) {
+        var containingFile = context.getContainingFile();
+        var virtualFile = containingFile != null ? containingFile.getOriginalFile().getVirtualFile() : null;
+        var directory = virtualFile != null ? virtualFile.getParent() : ProjectUtil.guessProjectDir(project);
+        return directory != null ? findNearestConfig(directory) : null;
+    }
+
+    @Nullable
+    private VirtualFile findNearestConfig(@NotNull VirtualFile directory) {
+        var nearestConfigs = CachedValuesManager.getManager(project).getCachedValue(project, NEAREST_CONFIGS_KEY,
+            () -> CachedValueProvider.Result.create(new ConcurrentHashMap<>(), VirtualFileManager.VFS_STRUCTURE_MODIFICATIONS), false);
+        return nearestConfigs.computeIfAbsent(directory, this::lookUpNearestConfig).orElse(null);
+    }
+
+    private Optional<VirtualFile> lookUpNearestConfig(VirtualFile directory) {
+        var projectDir = ProjectUtil.guessProjectDir(project);
+        for (var folder = directory; folder != null; folder = folder.getParent()) {
+            for (String configFileName : WDIO_CONF_FILE_NAMES) {
+                var config = folder.findChild(configFileName);
+                if (config != null && !config.isDirectory()) return Optional.of(config);
+            }
+            if (folder.equals(projectDir)) break;
+        }
+        return Optional.empty();
     }
 
     /**
@@ -52,11 +132,11 @@ public final class GlobalTerraSelectorRetriever {
      * ones, e.g. in different config objects, then the last one's value is returned, because perhaps it is that last assignment
      * that will take effect.
      *
-     * @param wdioConfJsFile the wdio.conf.js file to search in
+     * @param wdioConfJsFile the wdio config file to search in
      * @return the CSS selector defined in the terra.selector property, or null if not present
      */
     @Nullable
-    private String findTerraSelectorValue(@Nullable PsiFile wdioConfJsFile) {
+    private static String findTerraSelectorValue(@Nullable PsiFile wdioConfJsFile) {
         var terraSelectors = PsiTreeUtil.collectElementsOfType(wdioConfJsFile, JSProperty.class).stream()
             .filter(prop -> {
                 if (SELECTOR_PROPERTY_NAME.equals(prop.getName())) {
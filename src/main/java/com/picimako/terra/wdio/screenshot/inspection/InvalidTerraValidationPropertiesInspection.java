@@ -4,10 +4,6 @@ package com.picimako.terra.wdio.screenshot.inspection;
 
 import static com.picimako.terra.FileTypePreconditions.isWdioSpecFile;
 import static com.picimako.terra.wdio.TerraResourceManager.isUsingTerra;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.getTerraValidationProperties;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.isAccessibilityValidation;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.isElementValidation;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.isScreenshotValidation;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,6 +18,7 @@ import org.jetbrains.annotations.NotNull;
 import com.picimako.terra.resources.TerraBundle;
 import com.picimako.terra.wdio.TerraResourceManager;
 import com.picimako.terra.wdio.TerraWdioInspectionBase;
+import com.picimako.terra.wdio.screenshot.TerraCallModel;
 
 /**
  * This inspection reports JS properties of {@code Terra.it} and {@code Terra.validates} helpers,
@@ -37,23 +34,28 @@ public class InvalidTerraValidationPropertiesInspection extends TerraWdioInspect
 
     @Override
     public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly, @NotNull LocalInspectionToolSession session) {
-        if (!isUsingTerra(holder.getProject()) || !isWdioSpecFile(session.getFile())) {
+        if (!isUsingTerra(session.getFile()) || !isWdioSpecFile(session.getFile())) {
             return PsiElementVisitor.EMPTY_VISITOR;
         }
 
+        final var callModel = TerraCallModel.getInstance(session.getFile());
+        final TerraPropertiesProvider properties = TerraResourceManager.forFile(session.getFile()).screenshotValidationProperties();
         return new JSElementVisitor() {
             @Override
             public void visitJSExpressionStatement(@NotNull JSExpressionStatement node) {
                 super.visitJSExpressionStatement(node);
+                var call = callModel.findCall(node);
+                if (call == null || call.isTopLevel()) return;
 
-                TerraPropertiesProvider properties = TerraResourceManager.getInstance(node.getProject()).screenshotValidationProperties();
-                if (isScreenshotValidation(node)) checkIncorrectPropertyName(node, properties.screenshotProperties());
-                else if (isElementValidation(node)) checkIncorrectPropertyName(node, properties.elementProperties());
-                else if (isAccessibilityValidation(node)) checkIncorrectPropertyName(node, properties.accessibilityProperties());
+                checkIncorrectPropertyName(call, switch (call.kind()) {
+                    case SCREENSHOT -> properties.screenshotProperties();
+                    case ELEMENT -> properties.elementProperties();
+                    case ACCESSIBILITY -> properties.accessibilityProperties();
+                });
             }
 
-            private void checkIncorrectPropertyName(JSExpressionStatement node, List<String> validPropertyNames) {
-                for (var property : getTerraValidationProperties(node)) {
+            private void checkIncorrectPropertyName(TerraCallModel.TerraCall call, List<String> validPropertyNames) {
+                for (var property : call.properties()) {
                     if (!validPropertyNames.contains(property.getName())) {
                         holder.registerProblem(Optional.ofNullable(property.getIdentifyingElement()).orElse(property),
                             TerraBundle.inspection("invalid.terra.validation.property", validPropertyNames));
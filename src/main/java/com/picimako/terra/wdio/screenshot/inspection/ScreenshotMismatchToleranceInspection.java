@@ -6,8 +6,6 @@ import static com.picimako.terra.FileTypePreconditions.isWdioSpecFile;
 import static com.picimako.terra.wdio.TerraResourceManager.isUsingTerra;
 import static com.picimako.terra.wdio.TerraWdioPsiUtil.MISMATCH_TOLERANCE;
 import static com.picimako.terra.wdio.TerraWdioPsiUtil.MIS_MATCH_TOLERANCE;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.getScreenshotValidationProperty;
-import static com.picimako.terra.wdio.TerraWdioPsiUtil.isTerraElementOrScreenshotValidation;
 
 import java.awt.*;
 import java.awt.event.KeyAdapter;
@@ -32,6 +30,7 @@ import org.jetbrains.annotations.TestOnly;
 
 import com.picimako.terra.resources.TerraBundle;
 import com.picimako.terra.wdio.TerraWdioInspectionBase;
+import com.picimako.terra.wdio.screenshot.TerraCallModel;
 
 /**
  * Reports problems regarding the {@code misMatchTolerance} property of screenshot validation function parameters.
@@ -78,17 +77,19 @@ public class ScreenshotMismatchToleranceInspection extends TerraWdioInspectionBa
 
     @Override
     public @NotNull PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly, @NotNull LocalInspectionToolSession session) {
-        if (!isUsingTerra(holder.getProject()) || !isWdioSpecFile(session.getFile())) {
+        if (!isUsingTerra(session.getFile()) || !isWdioSpecFile(session.getFile())) {
             return PsiElementVisitor.EMPTY_VISITOR;
         }
 
+        final var callModel = TerraCallModel.getInstance(session.getFile());
         return new JSElementVisitor() {
             @Override
             public void visitJSExpressionStatement(@NotNull JSExpressionStatement node) {
                 super.visitJSExpressionStatement(node);
-                if (!isTerraElementOrScreenshotValidation(node)) return;
+                var call = callModel.findCall(node);
+                if (call == null || call.isTopLevel() || !call.isScreenshotValidation()) return;
 
-                JSProperty misMatchToleranceProperty = getScreenshotValidationProperty(node, MIS_MATCH_TOLERANCE, MISMATCH_TOLERANCE);
+                JSProperty misMatchToleranceProperty = call.findProperty(MIS_MATCH_TOLERANCE, MISMATCH_TOLERANCE);
                 if (misMatchToleranceProperty != null) {
                     checkForMismatchToleranceOutsideOfBoundaries(misMatchToleranceProperty, reportMismatchToleranceOutsideOfBoundaries, holder);
                     if (misMatchToleranceProperty.getValue() instanceof JSLiteralExpression literal) {
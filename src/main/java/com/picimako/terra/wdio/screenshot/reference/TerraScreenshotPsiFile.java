@@ -28,7 +28,7 @@ final class TerraScreenshotPsiFile extends PsiBinaryFileImpl {
 
     TerraScreenshotPsiFile(PsiFile originalElement) {
         super((PsiManagerImpl) originalElement.getManager(), originalElement.getViewProvider());
-        contextParser = TerraResourceManager.getInstance(getProject()).screenshotContextParser("/");
+        contextParser = TerraResourceManager.forFile(originalElement).screenshotContextParser("/");
         this.originalElement = originalElement;
     }
 
@@ -2,30 +2,67 @@
 
 package com.picimako.terra.wdio.toolwindow;
 
-import static com.picimako.terra.wdio.TerraWdioFolders.collectSpecFiles;
-import static com.picimako.terra.wdio.TerraWdioFolders.existsAfterRefresh;
-import static com.picimako.terra.wdio.TerraWdioFolders.projectWdioRoot;
+import static com.picimako.terra.wdio.TerraWdioFolders.findSpecFile;
+import static com.picimako.terra.wdio.TerraWdioFolders.isInSnapshotsDirectory;
+import static com.picimako.terra.wdio.TerraWdioFolders.projectWdioRoots;
+import static com.picimako.terra.wdio.TerraWdioFolders.specFolderIdentifier;
+import static com.picimako.terra.wdio.TerraWdioFolders.wdioRootOf;
+import static com.picimako.terra.wdio.TerraWdioFolders.wdioRootOfPath;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.WDIO_SPEC_FILE_NAME_PATTERN;
 import static com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode.asScreenshot;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
 import javax.swing.event.TreeModelListener;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreePath;
 
+import com.intellij.concurrency.JobLauncher;
 import com.intellij.openapi.Disposable;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.io.FileUtil;
 import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
 import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.PathUtil;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.picimako.terra.resources.TerraBundle;
+import com.picimako.terra.wdio.BackgroundExecution;
+import com.picimako.terra.wdio.SpecFolderCollector;
+import com.picimako.terra.wdio.TerraResourceManager;
 import com.picimako.terra.wdio.TerraWdioFolders;
 import com.picimako.terra.wdio.toolwindow.node.AbstractTerraWdioTreeNode;
+import com.picimako.terra.wdio.toolwindow.node.SpecNodeContainer;
 import com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode;
 import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.TreePackageNode;
+import com.picimako.terra.wdio.toolwindow.node.TreeScreenshotNode;
 import com.picimako.terra.wdio.toolwindow.node.TreeSpecNode;
 
 /**
@@ -38,16 +75,37 @@ public abstract class AbstractTerraWdioTreeModel implements TreeModel {
     private Disposable rootDisposable;
     protected TreeModelDataRoot data;
     protected final Project project;
+    private volatile ProgressIndicator buildIndicator;
+    private final TreeSpecNode.ScreenshotLoader screenshotLoader = this::loadScreenshots;
+    private final EventListenerList listeners = new EventListenerList();
+    /**
+     * The {@code __snapshots__} directories of the wdio roots the current contents of the model have been collected from.
+     */
+    private List<VirtualFile> snapshotsDirectories = List.of();
 
+    /**
+     * Creates the model.
+     * <p>
+     * If the background work is executed synchronously (see {@link BackgroundExecution#isSynchronous()}), the tree is built right away,
+     * otherwise the model contains only a loading placeholder root node until {@link #buildTreeInBackground(Runnable)} is called,
+     * so that building the tree doesn't block the UI.
+     */
     protected AbstractTerraWdioTreeModel(Project project) {
         this.project = project;
-        buildTree();
+        if (BackgroundExecution.getInstance().isSynchronous()) {
+            buildTree();
+        } else {
+            var loadingRoot = new TreeModelDataRoot(TerraBundle.toolWindow("root.node.name"), project);
+            loadingRoot.setLoading(true);
+            replaceData(loadingRoot, List.of());
+        }
     }
 
     /**
      * Builds the contents of the tree model that is shown in the tool window.
      * <p>
-     * It uses only a single wdio root path among the ones defined in the Terra Support Settings, first found in the project.
+     * It uses all wdio roots in the project (see {@link TerraWdioFolders#projectWdioRoots(Project)}). If there are multiple ones,
+     * e.g. in a monorepo, the specs of each wdio root are collected concurrently, and are grouped under a node for each package.
      * <p>
      * <b>Disposer logic</b>
      * <p>
@@ -56,53 +114,551 @@ public abstract class AbstractTerraWdioTreeModel implements TreeModel {
      * Since changes can and do occur in the project, that are not initiated from the Terra wdio tool window, these external
      * changes, depending on their nature, might have to be reflected on the tool window UI, and the tree model behind it.
      * <p>
-     * The current approach is to rebuild the tree model within the same root node object, instead of finding the proper object
-     * in the model, corresponding to the actual change in the file system (rename, delete, create, etc.), and modify the same
-     * model to reflect the change.
+     * Changes that affect only individual screenshots are applied directly to the affected nodes (see {@link #applyEvents(List)}),
+     * while for other changes the model is rebuilt. In that case the new contents are collected into a new root node,
+     * which then replaces the previous one.
+     * <p>
+     * <b>Lazy loading</b>
+     * <p>
+     * Building the model creates only the spec nodes, with their spec folders and the counts calculated from the names of the files
+     * in those folders. The screenshot nodes of a spec node are created on first access, e.g. when the spec node is expanded,
+     * and they may be released under memory pressure. See {@link TreeSpecNode}.
      * <p>
-     * This approach also means that with each file system change/event, and model rebuild, there are many objects left behind
-     * that will require garbage collection short and long-term, but with each such event, the number of such objects may
-     * rise significantly.
+     * This approach also means that with each model rebuild, there are many objects left behind that will require garbage
+     * collection short and long-term.
      * <p>
      * To help mitigate this problem, and signal to the garbage collector that these objects can be cleaned up, each collection
-     * within the model and its nodes are cleared (set to null).
+     * within the previous root and its nodes are cleared.
      * <p>
-     * The current approach is simpler, requires less code and complexity to maintain, compared to the other approach.
+     * Only the root node is registered in {@link Disposer}, as the single disposable of the model. The package, spec and screenshot
+     * nodes are disposed by their parent nodes, so that a model with many screenshots doesn't register an entry in the Disposer tree
+     * for each of its nodes.
      * <p>
      * In case of any memory leak, or if significant memory consumption is experienced by users, this approach may need to be re-considered
      * for alteration.
+     *
+     * @see #buildTreeInBackground(Runnable)
      */
     public void buildTree() {
-        var wdioFolder = projectWdioRoot(project);
-        if (wdioFolder != null) {
-            if (data == null) {
-                data = new TreeModelDataRoot(TerraBundle.toolWindow("root.node.name"), project);
-            } else {
-                Disposer.dispose(rootDisposable);
+        var collectedData = collectData();
+        if (collectedData != null) {
+            replaceData(collectedData.root(), collectedData.snapshotsDirectories());
+        }
+    }
+
+    /**
+     * Builds the contents of the tree model in a background task, in a non-blocking read action, that can be cancelled
+     * by the user, and is restarted when a write action would be blocked by it.
+     * <p>
+     * The current contents of the model remain visible until the new contents are collected. Then the root node is replaced
+     * in one step on the EDT, and the {@code __snapshots__} directories are refreshed asynchronously, so that the changes
+     * not yet known by the IDE are applied to the model as file system events.
+     * <p>
+     * If a build is already in progress, it is cancelled in favor of the new one.
+     * <p>
+     * The build is executed via {@link BackgroundExecution}.
+     *
+     * @param onReplaced callback executed on the EDT after the contents of the model have been replaced
+     * @since 1.13.0
+     */
+    public void buildTreeInBackground(@NotNull Runnable onReplaced) {
+        var previousIndicator = buildIndicator;
+        if (previousIndicator != null) {
+            previousIndicator.cancel();
+        }
+
+        var execution = BackgroundExecution.getInstance();
+        execution.run(new Task.Backgroundable(project, TerraBundle.toolWindow("building.tree"), true) {
+            private CollectedData collectedData;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                buildIndicator = indicator;
+                collectedData = execution.computeInReadAction(AbstractTerraWdioTreeModel.this::collectData,
+                    action -> action.expireWhen(project::isDisposed), indicator);
             }
-            rootDisposable = Disposer.newDisposable();
-            Disposer.register(rootDisposable, data);
 
-            wdioFolder.refresh(false, true);
-            var filesAndFoldersAnywhereInWdioRoot = VfsUtil.collectChildrenRecursively(wdioFolder);
-            var specFiles = collectSpecFiles(filesAndFoldersAnywhereInWdioRoot);
-            collectSpecsAndScreenshots(filesAndFoldersAnywhereInWdioRoot, specFiles, TerraWdioFolders.REFERENCE, AbstractTerraWdioTreeNode::addReference);
-            collectSpecsAndScreenshots(filesAndFoldersAnywhereInWdioRoot, specFiles, TerraWdioFolders.DIFF, (node, vf) -> asScreenshot(node).addDiff(vf));
-            collectSpecsAndScreenshots(filesAndFoldersAnywhereInWdioRoot, specFiles, TerraWdioFolders.LATEST, (node, vf) -> asScreenshot(node).addLatest(vf));
+            @Override
+            public void onSuccess() {
+                if (collectedData != null) {
+                    replaceData(collectedData.root(), collectedData.snapshotsDirectories());
+                    onReplaced.run();
+                    refreshAsync(collectedData.snapshotsDirectories());
+                } else if (data != null && data.isLoading()) {
+                    //There is no wdio root in the project, so the loading placeholder is not kept displayed
+                    data.setLoading(false);
+                    nodeAndAncestorsChanged(data);
+                    onReplaced.run();
+                }
+            }
+        });
+    }
 
-            data.getSpecs().forEach(TreeSpecNode::reorderScreenshotsAlphabeticallyByDisplayName);
+    /**
+     * Restores the contents of the tree model from the argument snapshot file (see {@link TerraWdioModelSnapshot}) in a background task,
+     * or if that is not possible, builds the contents via {@link #buildTreeInBackground(Runnable)}.
+     * <p>
+     * The restored contents are displayed right away. If the snapshot is up-to-date, the {@code __snapshots__} directories are refreshed
+     * asynchronously, so that the changes not yet known by the IDE are applied to the model as file system events, otherwise the model
+     * is rebuilt in the background, while the restored contents remain visible.
+     * <p>
+     * If the contents have already been built, e.g. when the model was created (see {@link BackgroundExecution#isSynchronous()}),
+     * there is nothing to restore, and the model is just rebuilt.
+     *
+     * @param snapshotFile the snapshot file to restore the contents from
+     * @param onReplaced   callback executed on the EDT after the contents of the model have been replaced
+     * @since 1.13.0
+     */
+    public void restoreSnapshotOrBuildInBackground(@NotNull Path snapshotFile, @NotNull Runnable onReplaced) {
+        if (data != null && !data.isLoading()) {
+            buildTreeInBackground(onReplaced);
+            return;
         }
+
+        var execution = BackgroundExecution.getInstance();
+        execution.run(new Task.Backgroundable(project, TerraBundle.toolWindow("restoring.tree"), true) {
+            private TerraWdioModelSnapshot.Restored restored;
+
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                restored = execution.computeInReadAction(() -> TerraWdioModelSnapshot.read(project, snapshotFile, AbstractTerraWdioTreeModel.this::createSpecNode),
+                    action -> action.expireWhen(project::isDisposed), indicator);
+            }
+
+            @Override
+            public void onSuccess() {
+                applyRestored(restored, onReplaced);
+            }
+
+            @Override
+            public void onCancel() {
+                applyRestored(null, onReplaced);
+            }
+        });
     }
 
-    protected void populateSpecNodeWithFolderAndScreenshots(VirtualFile folder, @NotNull VirtualFile[] screenshots,
-                                                            TreeSpecNode specNode, VirtualFileToNodeAdder virtualFileToNodeAdder,
-                                                            @NotNull String imageType) {
-        //Save folder virtual files only when they belong to the reference version, and not to the latest or diff
-        if (TerraWdioFolders.REFERENCE.equals(imageType)) {
-            virtualFileToNodeAdder.accept(specNode, folder);
+    private void applyRestored(@Nullable TerraWdioModelSnapshot.Restored restored, Runnable onReplaced) {
+        //The model may have been built meanwhile, e.g. due to file system events, in which case the built contents are more recent
+        if (data != null && !data.isLoading()) {
+            if (restored != null) restored.root().dispose();
+            return;
         }
+        if (restored == null) {
+            buildTreeInBackground(onReplaced);
+            return;
+        }
+
+        replaceData(restored.root(), restored.snapshotsDirectories());
+        onReplaced.run();
+        if (restored.result() == TerraWdioModelSnapshot.RestoreResult.UP_TO_DATE) {
+            refreshAsync(restored.snapshotsDirectories());
+        } else {
+            buildTreeInBackground(onReplaced);
+        }
+    }
+
+    /**
+     * Serializes the current contents of this model into a snapshot (see {@link TerraWdioModelSnapshot}). Must be called on the EDT.
+     *
+     * @return the serialized snapshot, or null if the model is still loading, or its contents cannot be serialized
+     * @since 1.13.0
+     */
+    public byte @Nullable [] serializeSnapshot() {
+        if (data == null || data.isLoading()) return null;
+
+        try {
+            return TerraWdioModelSnapshot.serialize(data, snapshotsDirectories);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Collects the contents of the tree model, and saves them as a snapshot (see {@link TerraWdioModelSnapshot}) for the tool window
+     * to restore when it is opened, unless the current snapshot is up-to-date. The contents of this model are not replaced.
+     * <p>
+     * The contents are collected in a read action via {@link BackgroundExecution}, but the snapshot is written outside of it.
+     * Must be called on a background thread, unless the background work is executed synchronously.
+     *
+     * @param indicator the progress indicator of the calling background task
+     * @since 1.13.0
+     */
+    public void prepareSnapshot(@NotNull ProgressIndicator indicator) {
+        var snapshotFile = TerraWdioModelSnapshot.snapshotFile(project);
+        byte[] snapshot = BackgroundExecution.getInstance().computeInReadAction(() -> collectSnapshotIfOutdated(snapshotFile),
+            action -> action.expireWhen(project::isDisposed), indicator);
+        if (snapshot != null) {
+            TerraWdioModelSnapshot.write(snapshot, snapshotFile);
+        }
+    }
+
+    private byte @Nullable [] collectSnapshotIfOutdated(Path snapshotFile) {
+        var restored = TerraWdioModelSnapshot.read(project, snapshotFile, this::createSpecNode);
+        if (restored != null) {
+            restored.root().dispose();
+            if (restored.result() == TerraWdioModelSnapshot.RestoreResult.UP_TO_DATE) return null;
+        }
+
+        var collectedData = collectData();
+        if (collectedData == null) return null;
+        try {
+            return TerraWdioModelSnapshot.serialize(collectedData.root(), collectedData.snapshotsDirectories());
+        } catch (IOException e) {
+            return null;
+        } finally {
+            collectedData.root().dispose();
+        }
+    }
+
+    /**
+     * Collects the specs and screenshots into a new root node, without modifying the current contents of this model.
+     * <p>
+     * If there is a single wdio root in the project, the spec nodes are added directly to the root node, otherwise a package
+     * node is created for each wdio root, and the specs of the wdio roots are collected concurrently into their package nodes.
+     *
+     * @return the collected data, or null if there is no wdio root in the project
+     */
+    @Nullable
+    private CollectedData collectData() {
+        var wdioRoots = projectWdioRoots(project);
+        if (wdioRoots.isEmpty()) return null;
+
+        var root = new TreeModelDataRoot(TerraBundle.toolWindow("root.node.name"), project);
+        if (wdioRoots.size() == 1) {
+            root.setWdioRoot(wdioRoots.getFirst());
+            return new CollectedData(root, collectSpecsAndScreenshots(root, wdioRoots.getFirst()));
+        }
+
+        var packageNodes = wdioRoots.stream().map(wdioRoot -> TerraWdioTreeNode.forPackage(packageName(wdioRoot), wdioRoot, project)).toList();
+        final Queue<VirtualFile> snapshotsFolders = new ConcurrentLinkedQueue<>();
+        boolean isCompleted = JobLauncher.getInstance().invokeConcurrentlyUnderProgress(packageNodes, ProgressManager.getInstance().getProgressIndicator(),
+            packageNode -> {
+                snapshotsFolders.addAll(collectSpecsAndScreenshots(packageNode, packageNode.getWdioRoot()));
+                return true;
+            });
+        if (!isCompleted) {
+            packageNodes.forEach(TreePackageNode::dispose);
+            throw new ProcessCanceledException();
+        }
+
+        root.getPackages().addAll(packageNodes);
+        return new CollectedData(root, List.copyOf(snapshotsFolders));
+    }
+
+    /**
+     * Collects the specs and screenshots of the argument wdio root into the provided container node.
+     * <p>
+     * The wdio root is traversed only once, collecting the spec files and the spec folders of all image types at the same time,
+     * using the spec folder collector of the Terra library the package of the wdio root depends on.
+     * See {@link SpecFolderCollector#visitWdioRoot(VirtualFile, SpecFolderCollector.Visitor)}.
+     *
+     * @return the {@code __snapshots__} folders found in the wdio root
+     */
+    private List<VirtualFile> collectSpecsAndScreenshots(SpecNodeContainer container, VirtualFile wdioRoot) {
+        var resources = new WdioResources(wdioRoot);
+        TerraResourceManager.forFile(project, wdioRoot).specFolderCollector().visitWdioRoot(wdioRoot, resources);
+        //The reference folders are processed first, so that spec nodes are created primarily in the order of reference spec folders
+        collectSpecsAndScreenshots(container, resources.specFolders(TerraWdioFolders.REFERENCE), resources.specFilesByIdentifier,
+            TerraWdioFolders.REFERENCE);
+        collectSpecsAndScreenshots(container, resources.specFolders(TerraWdioFolders.DIFF), resources.specFilesByIdentifier,
+            TerraWdioFolders.DIFF);
+        collectSpecsAndScreenshots(container, resources.specFolders(TerraWdioFolders.LATEST), resources.specFilesByIdentifier,
+            TerraWdioFolders.LATEST);
+
+        //Only the counts are calculated up front, the screenshot nodes are created when the spec nodes are expanded
+        for (var spec : container.getSpecs()) {
+            ProgressManager.checkCanceled();
+            spec.recount();
+        }
+        return resources.snapshotsFolders;
+    }
+
+    /**
+     * Returns the name of the package node for the argument wdio root: the path of the folder of the package.json
+     * nearest to the wdio root, relative to the project root, or the project's name if that is the project root.
+     */
+    private String packageName(VirtualFile wdioRoot) {
+        var packageJson = TerraResourceManager.findNearestPackageJson(wdioRoot, project);
+        String packagePath = packageJson != null ? TerraWdioFolders.getRelativePathToProjectDir(project, packageJson.getParent()) : null;
+        return packagePath != null ? packagePath : project.getName();
+    }
+
+    /**
+     * Replaces the current root node, disposes the previous one, and notifies the listeners that the whole tree has changed.
+     */
+    private void replaceData(@NotNull TreeModelDataRoot newData, @NotNull List<VirtualFile> newSnapshotsDirectories) {
+        if (rootDisposable != null) {
+            Disposer.dispose(rootDisposable);
+        }
+        rootDisposable = Disposer.newDisposable();
+        Disposer.register(rootDisposable, newData);
+        data = newData;
+        snapshotsDirectories = newSnapshotsDirectories;
+        fire(TreeModelListener::treeStructureChanged, new TreeModelEvent(this, new TreePath(newData)));
+    }
+
+    private static void refreshAsync(List<VirtualFile> snapshotsDirectories) {
+        if (!snapshotsDirectories.isEmpty()) {
+            VfsUtil.markDirtyAndRefresh(true, true, true, snapshotsDirectories.toArray(VirtualFile.EMPTY_ARRAY));
+        }
+    }
+
+    /**
+     * Applies the argument file system events directly to the affected spec and screenshot nodes, without rebuilding
+     * the whole model.
+     * <p>
+     * Only the creation, deletion, move, copy and rename of screenshot files are applied this way. Events of spec files
+     * and of non-empty directories (e.g. a spec folder being renamed or deleted) may affect the structure of many nodes
+     * at once, so for those the model has to be rebuilt via {@link #buildTree()}.
+     * <p>
+     * The listeners of this model are notified about the inserted, removed and changed nodes, so that only the affected rows
+     * of the tree are updated, and the expansion and selection state of the tree is kept.
+     * <p>
+     * If not all events could be applied, the model may be left partially updated, but that is fine since it is
+     * going to be rebuilt anyway.
+     *
+     * @param events the file system events to apply
+     * @return true if all events have been applied, false if the model has to be rebuilt
+     * @since 1.13.0
+     */
+    public boolean applyEvents(@NotNull List<? extends VFileEvent> events) {
+        //If the model is being loaded, the changes may or may not be included in it
+        if (data == null || data.isLoading()) return false;
+
+        for (var event : events) {
+            if (!applyEvent(event)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reconciles the spec and screenshot nodes affected by the argument paths with the current state of the file system,
+     * without rebuilding the whole model.
+     * <p>
+     * It is used when only the paths of the changed files are known, e.g. the ones recorded while the tool window was hidden
+     * (see {@link TerraWdioTreeUpdater#setDormant(boolean)}). For each path, the images located at that path are removed from
+     * their screenshot node, and if a screenshot file exists at that path, it is added again.
+     * <p>
+     * Just like {@link #applyEvents(List)}, only screenshot files are reconciled this way. Paths of directories and spec files
+     * require the model to be rebuilt.
+     *
+     * @param paths the paths of the changed files
+     * @return true if all paths have been reconciled, false if the model has to be rebuilt
+     * @since 1.13.0
+     */
+    public boolean reconcilePaths(@NotNull Collection<String> paths) {
+        if (data == null || data.isLoading()) return false;
+
+        for (String path : paths) {
+            if (!reconcilePath(path)) return false;
+        }
+        return true;
+    }
+
+    private boolean reconcilePath(String path) {
+        var wdioRoot = wdioRootOfPath(path, project);
+        if (wdioRoot == null || wdioRoot.getPath().equals(path)) return true;
+
+        String relativePath = FileUtil.getRelativePath(wdioRoot.getPath(), path, '/');
+        var file = relativePath != null ? wdioRoot.findFileByRelativePath(relativePath) : null;
+        if (file != null && file.isDirectory()) return false;
+
+        String name = PathUtil.getFileName(path);
+        if (!isInSnapshotsDirectory(path)) return !isSpecFile(name);
+
+        String specFolderPath = PathUtil.getParentPath(path);
+        if (!specFolderPath.endsWith("-spec")) return true;
+
+        removeFromScreenshotNode(wdioRoot, specFolderPath, name, screenshotNode -> screenshotNode.removeImagesAt(path));
+        return file == null || addImage(file);
+    }
+
+    private boolean applyEvent(VFileEvent event) {
+        if (event instanceof VFileCreateEvent createEvent) {
+            return addImage(createEvent.getFile());
+        }
+        if (event instanceof VFileCopyEvent copyEvent) {
+            return addImage(copyEvent.findCreatedFile());
+        }
+        if (event instanceof VFileDeleteEvent deleteEvent) {
+            return removeImage(deleteEvent.getFile(), deleteEvent.getPath());
+        }
+        if (event instanceof VFileMoveEvent moveEvent) {
+            return removeImage(moveEvent.getFile(), moveEvent.getOldPath()) && addImage(moveEvent.getFile());
+        }
+        if (event instanceof VFilePropertyChangeEvent propertyChangeEvent) {
+            //Other property changes, like the writable flag of a file, don't affect the model
+            return !propertyChangeEvent.isRename()
+                || removeImage(propertyChangeEvent.getFile(), propertyChangeEvent.getOldPath()) && addImage(propertyChangeEvent.getFile());
+        }
+        return false;
+    }
+
+    /**
+     * Adds the argument screenshot file to its spec and screenshot nodes, creating those nodes if they don't exist yet.
+     *
+     * @return true if the file has been added or the model is unaffected by it, false if the model has to be rebuilt
+     */
+    private boolean addImage(@Nullable VirtualFile file) {
+        //The file has been removed since, so there is nothing to add
+        if (file == null || !file.isValid()) return true;
+        var wdioRoot = wdioRootOf(file, project);
+        if (wdioRoot == null) return true;
+
+        if (file.isDirectory()) {
+            //A new, empty directory doesn't affect the displayed screenshots, only when files are added to it
+            return file.getChildren().length == 0;
+        }
+        if (!isInSnapshotsDirectory(file)) return !isSpecFile(file.getName());
+
+        var specFolder = file.getParent();
+        //Only the files located directly in spec folders are displayed in the tool window
+        if (specFolder == null || !specFolder.getName().endsWith("-spec")) return true;
+
+        String imageType = TerraResourceManager.forFile(project, wdioRoot).specFolderCollector().folderType().apply(specFolder);
+        if (imageType == null) return true;
+
+        VirtualFileToNodeAdder adder = switch (imageType) {
+            case TerraWdioFolders.REFERENCE -> AbstractTerraWdioTreeNode::addReference;
+            case TerraWdioFolders.DIFF -> (node, vf) -> asScreenshot(node).addDiff(vf);
+            case TerraWdioFolders.LATEST -> (node, vf) -> asScreenshot(node).addLatest(vf);
+            default -> null;
+        };
+        if (adder == null) return true;
+
+        //A new wdio root, that is not displayed yet
+        var container = data.findSpecContainer(wdioRoot);
+        if (container == null) return false;
+
+        String specId = specFolderIdentifier(specFolder, project);
+        var specNode = findSpecNode(container, specId).orElseGet(() -> {
+            var newSpecNode = createSpecNode(container, specId, findSpecFile(wdioRoot, specId));
+            fireNodeInserted(newSpecNode);
+            return newSpecNode;
+        });
+        specNode.addSpecFolder(specFolder, imageType);
+        //The file is going to be picked up when the screenshot nodes are loaded, only the counts have to be updated until then
+        if (!specNode.isLoaded()) {
+            specNode.recount();
+            nodeAndAncestorsChanged(specNode);
+            return true;
+        }
+
+        var screenshotNode = specNode.findScreenshotNodeByName(file.getName()).orElseGet(() -> {
+            var newScreenshotNode = TerraWdioTreeNode.forScreenshot(file.getName(), project);
+            specNode.insertScreenshotAlphabetically(newScreenshotNode);
+            fireNodeInserted(newScreenshotNode);
+            return newScreenshotNode;
+        });
+        //The same file may be reported multiple times, e.g. when a file is overwritten by deleting and recreating it
+        screenshotNode.removeImage(file);
+        adder.accept(screenshotNode, file);
+        nodeAndAncestorsChanged(screenshotNode);
+        return true;
+    }
+
+    /**
+     * Removes the argument screenshot file, that was located at the provided path, from its screenshot node.
+     * If the screenshot node doesn't have any more image, the node is removed as well.
+     *
+     * @return true if the file has been removed or the model is unaffected by it, false if the model has to be rebuilt
+     */
+    private boolean removeImage(@NotNull VirtualFile file, @NotNull String oldPath) {
+        var wdioRoot = wdioRootOfPath(oldPath, project);
+        if (wdioRoot == null || wdioRoot.getPath().equals(oldPath)) return true;
+
+        String name = PathUtil.getFileName(oldPath);
+        if (file.isDirectory()) return false;
+        if (!isInSnapshotsDirectory(oldPath)) return !isSpecFile(name);
+
+        String specFolderPath = PathUtil.getParentPath(oldPath);
+        if (!specFolderPath.endsWith("-spec")) return true;
+
+        removeFromScreenshotNode(wdioRoot, specFolderPath, name, screenshotNode -> screenshotNode.removeImage(file));
+        return true;
+    }
+
+    /**
+     * Removes images from the screenshot node with the argument name, in the spec node of the argument spec folder, via the provided remover.
+     * If the screenshot node doesn't have any more image, the node is removed as well.
+     */
+    private void removeFromScreenshotNode(VirtualFile wdioRoot, String specFolderPath, String name, Consumer<TreeScreenshotNode> imageRemover) {
+        var container = data.findSpecContainer(wdioRoot);
+        if (container == null) return;
+
+        findSpecNode(container, specFolderIdentifier(specFolderPath, project)).ifPresent(specNode -> {
+            if (!specNode.isLoaded()) {
+                specNode.recount();
+                nodeAndAncestorsChanged(specNode);
+                return;
+            }
+            specNode.findScreenshotNodeByName(name).ifPresent(screenshotNode -> {
+                imageRemover.accept(screenshotNode);
+                if (screenshotNode.hasAnyImage()) {
+                    nodeAndAncestorsChanged(screenshotNode);
+                } else {
+                    removeScreenshot(specNode, screenshotNode);
+                    screenshotNode.dispose();
+                }
+            });
+        });
+    }
+
+    private static boolean isSpecFile(String fileName) {
+        return fileName.matches(WDIO_SPEC_FILE_NAME_PATTERN);
+    }
+
+    private static boolean isInSnapshotsDirectory(String path) {
+        return path.contains("/" + TerraWdioFolders.SNAPSHOTS + "/");
+    }
+
+    /**
+     * Finds the spec node with the argument spec folder identifier in the provided root or package node.
+     */
+    protected Optional<TreeSpecNode> findSpecNode(SpecNodeContainer root, @NotNull String specFolderIdentifier) {
+        return Optional.ofNullable(root.findSpec(specFolderIdentifier));
+    }
+
+    /**
+     * Creates a spec node with the argument identifier and spec file, and adds it to the provided root or package node.
+     * <p>
+     * The screenshot nodes of the spec node are loaded from its spec folders on first access.
+     */
+    protected TreeSpecNode createSpecNode(SpecNodeContainer root, @NotNull String specFolderIdentifier, @Nullable VirtualFile specFile) {
+        var specNode = TerraWdioTreeNode.forSpec(specFolderIdentifier, project, screenshotLoader);
+        //Adds the spec file that belongs to the spec node. This is necessary for the "Navigate to Usage" screenshot action.
+        specNode.setSpecFile(specFile);
+        root.getSpecs().add(specNode);
+        return specNode;
+    }
+
+    /**
+     * Creates the screenshot nodes of the argument spec node from the files in its reference, diff and latest spec folders.
+     * Spec folders that have been deleted since they were added to the spec node are skipped.
+     */
+    private void loadScreenshots(@NotNull TreeSpecNode specNode) {
+        loadScreenshots(specNode, specNode.getReferences(), AbstractTerraWdioTreeNode::addReference);
+        loadScreenshots(specNode, specNode.getDiffFolders(), (node, vf) -> asScreenshot(node).addDiff(vf));
+        loadScreenshots(specNode, specNode.getLatestFolders(), (node, vf) -> asScreenshot(node).addLatest(vf));
+        //The results of the scans finished before the nodes were loaded
+        for (var screenshot : specNode.getScreenshots()) {
+            screenshot.updateVerdictSummary();
+            screenshot.updateMostSevereDiffAnalysis();
+        }
+    }
+
+    private void loadScreenshots(TreeSpecNode specNode, List<VirtualFile> specFolders, VirtualFileToNodeAdder virtualFileToNodeAdder) {
+        for (var folder : specFolders) {
+            if (folder != null && folder.isValid()) {
+                populateSpecNodeWithScreenshots(folder.getChildren(), specNode, virtualFileToNodeAdder);
+            }
+        }
+    }
+
+    private void populateSpecNodeWithScreenshots(@NotNull VirtualFile[] screenshots, TreeSpecNode specNode,
+                                                 VirtualFileToNodeAdder virtualFileToNodeAdder) {
         for (var screenshot : screenshots) {
-            if (existsAfterRefresh(screenshot)) {
+            if (screenshot.isValid()) {
                 specNode.findScreenshotNodeByName(screenshot.getName())
                     //If one or more screenshot node have already been added with a given name
                     .ifPresentOrElse(s -> virtualFileToNodeAdder.accept(s, screenshot),
@@ -111,14 +667,22 @@ public abstract class AbstractTerraWdioTreeModel implements TreeModel {
                             var newScreenshotNode = TerraWdioTreeNode.forScreenshot(screenshot.getName(), project);
                             virtualFileToNodeAdder.accept(newScreenshotNode, screenshot);
                             specNode.addScreenshot(newScreenshotNode);
-                            Disposer.register(specNode, newScreenshotNode);
                         });
             }
         }
     }
 
-    protected abstract void collectSpecsAndScreenshots(@NotNull List<VirtualFile> filesAndFoldersAnywhereInWdioRoot, Set<VirtualFile> specFiles,
-                                                       @NotNull String imageType, @NotNull VirtualFileToNodeAdder virtualFileToNodeAdder);
+    /**
+     * Adds the argument spec folders of the given image type to their spec nodes in the provided root or package node.
+     * The screenshot nodes are not created at this point, see {@link TreeSpecNode#addSpecFolder(VirtualFile, String)}.
+     *
+     * @param root                  the root or package node to add the spec nodes to
+     * @param specFolders           the spec folders of the given image type
+     * @param specFilesByIdentifier the spec files mapped to their spec file identifiers
+     * @param imageType             the image type of the spec folders
+     */
+    protected abstract void collectSpecsAndScreenshots(@NotNull SpecNodeContainer root, @NotNull List<VirtualFile> specFolders,
+                                                       @NotNull Map<String, VirtualFile> specFilesByIdentifier, @NotNull String imageType);
 
     // The methods below are responsible for building the actual tree model from the backing model data.
 
@@ -133,10 +697,247 @@ public abstract class AbstractTerraWdioTreeModel implements TreeModel {
 
     @Override
     public void addTreeModelListener(TreeModelListener l) {
+        listeners.add(TreeModelListener.class, l);
     }
 
     @Override
     public void removeTreeModelListener(TreeModelListener l) {
+        listeners.remove(TreeModelListener.class, l);
+    }
+
+    // The methods below notify the listeners, e.g. the tree UI, about the changes of the model. Must be called on the EDT.
+
+    /**
+     * Returns the path from the root node to the argument root, package, spec or screenshot node,
+     * or null if the node is not part of this model.
+     *
+     * @since 1.13.0
+     */
+    @Nullable
+    public TreePath pathOf(@NotNull Object node) {
+        if (data == null) return null;
+        if (node == data) return new TreePath(data);
+        if (node instanceof TreePackageNode packageNode) {
+            return data.getPackages().contains(packageNode) ? new TreePath(new Object[]{data, packageNode}) : null;
+        }
+        if (node instanceof TreeSpecNode specNode) {
+            for (var container : data.getSpecContainers()) {
+                if (container.findSpec(specNode.getDisplayName()) == specNode) {
+                    return container == data ? new TreePath(new Object[]{data, specNode}) : new TreePath(new Object[]{data, container, specNode});
+                }
+            }
+            return null;
+        }
+        if (node instanceof TreeScreenshotNode screenshotNode && screenshotNode.getParent() != null) {
+            var specPath = pathOf(screenshotNode.getParent());
+            return specPath != null ? specPath.pathByAddingChild(screenshotNode) : null;
+        }
+        return null;
+    }
+
+    /**
+     * Notifies the listeners that the argument node, and all its ancestors, have changed, e.g. the number of their screenshots
+     * or the unused state of the node, so that their rows are repainted.
+     *
+     * @since 1.13.0
+     */
+    public void nodeAndAncestorsChanged(@NotNull Object node) {
+        var path = pathOf(node);
+        while (path != null) {
+            fireNodeChanged(path);
+            path = path.getParentPath();
+        }
+    }
+
+    /**
+     * Notifies the listeners that the loaded screenshot nodes of the argument spec node, and the spec node itself, have changed.
+     *
+     * @since 1.13.0
+     */
+    public void screenshotsChanged(@NotNull TreeSpecNode specNode) {
+        var specPath = pathOf(specNode);
+        if (specPath == null) return;
+
+        if (specNode.isLoaded() && specNode.screenshotCount() > 0) {
+            var screenshots = specNode.getScreenshots();
+            var indices = new int[screenshots.size()];
+            Arrays.setAll(indices, i -> i);
+            fire(TreeModelListener::treeNodesChanged, new TreeModelEvent(this, specPath, indices, screenshots.toArray()));
+        }
+        fireNodeChanged(specPath);
+    }
+
+    /**
+     * Updates the verdict summaries of the loaded screenshot nodes from the results of the last verdict scan,
+     * so that they are not calculated each time the nodes are rendered. Must be called on the EDT.
+     *
+     * @since 1.13.0
+     */
+    public void updateVerdictSummaries() {
+        forEachLoadedScreenshot(TreeScreenshotNode::updateVerdictSummary);
+    }
+
+    /**
+     * Updates the most severe diff analyses of the loaded screenshot nodes from the results of the last diff image scan,
+     * so that they are not looked up each time the nodes are rendered. Must be called on the EDT.
+     *
+     * @since 1.13.0
+     */
+    public void updateDiffAnalyses() {
+        forEachLoadedScreenshot(TreeScreenshotNode::updateMostSevereDiffAnalysis);
+    }
+
+    private void forEachLoadedScreenshot(Consumer<TreeScreenshotNode> action) {
+        if (data == null) return;
+
+        for (var container : data.getSpecContainers()) {
+            for (var spec : container.getSpecs()) {
+                if (spec.isLoaded()) spec.getScreenshots().forEach(action);
+            }
+        }
+    }
+
+    /**
+     * Loads the screenshot nodes of the argument spec node, if they are not loaded yet, e.g. right before the spec node is expanded.
+     * <p>
+     * The number of screenshots reported for an unloaded spec node is calculated, or restored from a snapshot, without creating the
+     * screenshot nodes, so it may differ from the number of loaded ones, e.g. when files changed since the snapshot was saved.
+     * In that case the listeners are notified about the structure change of the spec node, so that they don't use the stale count.
+     *
+     * @since 1.13.0
+     */
+    public void ensureScreenshotsLoaded(@NotNull TreeSpecNode specNode) {
+        if (specNode.isLoaded()) return;
+
+        int unloadedCount = specNode.screenshotCount();
+        if (specNode.getScreenshots().size() != unloadedCount) {
+            nodeStructureChanged(specNode);
+        }
+    }
+
+    /**
+     * Notifies the listeners that the structure of the subtree of the argument node has changed, e.g. its child nodes have been reordered,
+     * or released and loaded again.
+     *
+     * @since 1.13.0
+     */
+    public void nodeStructureChanged(@NotNull Object node) {
+        var path = pathOf(node);
+        if (path != null) {
+            fire(TreeModelListener::treeStructureChanged, new TreeModelEvent(this, path));
+        }
+    }
+
+    /**
+     * Removes the argument screenshot node from the spec node, and notifies the listeners about the removal.
+     * The screenshot node is not disposed.
+     *
+     * @since 1.13.0
+     */
+    public void removeScreenshot(@NotNull TreeSpecNode specNode, @NotNull TreeScreenshotNode screenshotNode) {
+        var specPath = pathOf(specNode);
+        int index = specNode.getScreenshots().indexOf(screenshotNode);
+        if (index < 0) return;
+
+        specNode.removeScreenshot(screenshotNode);
+        if (specPath != null) {
+            fire(TreeModelListener::treeNodesRemoved, new TreeModelEvent(this, specPath, new int[]{index}, new Object[]{screenshotNode}));
+            nodeAndAncestorsChanged(specNode);
+        }
+    }
+
+    /**
+     * Removes the argument spec node from its root or package node, and notifies the listeners about the removal.
+     * The spec node is not disposed.
+     *
+     * @since 1.13.0
+     */
+    public void removeSpec(@NotNull TreeSpecNode specNode) {
+        var specPath = pathOf(specNode);
+        if (specPath == null) return;
+
+        var containerPath = specPath.getParentPath();
+        var specs = ((SpecNodeContainer) containerPath.getLastPathComponent()).getSpecs();
+        int index = specs.indexOf(specNode);
+        specs.remove(index);
+        fire(TreeModelListener::treeNodesRemoved, new TreeModelEvent(this, containerPath, new int[]{index}, new Object[]{specNode}));
+        nodeAndAncestorsChanged(containerPath.getLastPathComponent());
+    }
+
+    /**
+     * Notifies the listeners in the reverse order of their registration, just like {@link javax.swing.tree.DefaultTreeModel},
+     * so that the UI of the tree is updated before the tree itself handles the event.
+     */
+    private void fire(BiConsumer<TreeModelListener, TreeModelEvent> notifier, TreeModelEvent event) {
+        var treeModelListeners = listeners.getListeners(TreeModelListener.class);
+        for (int i = treeModelListeners.length - 1; i >= 0; i--) {
+            notifier.accept(treeModelListeners[i], event);
+        }
+    }
+
+    private void fireNodeInserted(@NotNull Object node) {
+        var path = pathOf(node);
+        if (path == null || path.getParentPath() == null) return;
+
+        var parentPath = path.getParentPath();
+        int index = getIndexOfChild(parentPath.getLastPathComponent(), node);
+        if (index >= 0) {
+            fire(TreeModelListener::treeNodesInserted, new TreeModelEvent(this, parentPath, new int[]{index}, new Object[]{node}));
+        }
+    }
+
+    private void fireNodeChanged(@NotNull TreePath path) {
+        var parentPath = path.getParentPath();
+        if (parentPath == null) {
+            //The children indices and children are null when the root has changed
+            fire(TreeModelListener::treeNodesChanged, new TreeModelEvent(this, path, null, null));
+            return;
+        }
+        var node = path.getLastPathComponent();
+        int index = getIndexOfChild(parentPath.getLastPathComponent(), node);
+        if (index >= 0) {
+            fire(TreeModelListener::treeNodesChanged, new TreeModelEvent(this, parentPath, new int[]{index}, new Object[]{node}));
+        }
+    }
+
+    private record CollectedData(@NotNull TreeModelDataRoot root, @NotNull List<VirtualFile> snapshotsDirectories) {
+    }
+
+    /**
+     * Stores the wdio resources found during the traversal of the wdio root.
+     */
+    private static final class WdioResources implements SpecFolderCollector.Visitor {
+        private final VirtualFile wdioRoot;
+        private final Map<String, List<VirtualFile>> specFoldersByImageType = new HashMap<>(4);
+        private final Map<String, VirtualFile> specFilesByIdentifier = new HashMap<>();
+        private final List<VirtualFile> snapshotsFolders = new ArrayList<>();
+
+        private WdioResources(VirtualFile wdioRoot) {
+            this.wdioRoot = wdioRoot;
+        }
+
+        @Override
+        public void visitSpecFolder(@NotNull String imageType, @NotNull VirtualFile specFolder) {
+            specFoldersByImageType.computeIfAbsent(imageType, type -> new ArrayList<>()).add(specFolder);
+        }
+
+        @Override
+        public void visitSpecFile(@NotNull VirtualFile specFile) {
+            String relativePath = VfsUtilCore.getRelativePath(specFile, wdioRoot);
+            //In case of multiple spec files with the same identifier but different extensions, the first one is kept
+            if (relativePath != null) {
+                specFilesByIdentifier.putIfAbsent(FileUtil.getNameWithoutExtension(relativePath), specFile);
+            }
+        }
+
+        @Override
+        public void visitSnapshotsFolder(@NotNull VirtualFile snapshotsFolder) {
+            snapshotsFolders.add(snapshotsFolder);
+        }
+
+        private List<VirtualFile> specFolders(String imageType) {
+            return specFoldersByImageType.getOrDefault(imageType, List.of());
+        }
     }
 
     @FunctionalInterface
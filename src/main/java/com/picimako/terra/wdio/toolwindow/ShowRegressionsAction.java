@@ -0,0 +1,117 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static com.picimako.terra.resources.TerraBundle.toolWindow;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.ui.SimpleListCellRenderer;
+import com.intellij.util.ui.tree.TreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+import com.picimako.terra.wdio.imagecompare.DiffImageAnalysis;
+import com.picimako.terra.wdio.imagecompare.DiffImageAnalysisService;
+import com.picimako.terra.wdio.imagecompare.RegressionSeverity;
+import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.TreeSpecNode;
+
+/**
+ * An action for the Terra wdio tool window for listing the screenshots that have diff images, ordered by the severity
+ * of their regressions, the most severe first.
+ * <p>
+ * The list is based on the diff image analyses cached by {@link DiffImageAnalysisService}, so diff images that haven't been analyzed
+ * yet are not listed. The list can be filtered by typing, e.g. by the name of a severity, or of a spec or screenshot, and choosing
+ * an entry selects its screenshot node in the tool window.
+ * <p>
+ * The order of the nodes in the tool window itself is kept alphabetical, since the incremental updates of the tree rely on it.
+ *
+ * @see TerraWdioToolWindowFactory
+ * @since 1.13.0
+ */
+final class ShowRegressionsAction extends DumbAwareAction {
+    private final TerraWdioTree tree;
+
+    ShowRegressionsAction(TerraWdioTree tree) {
+        super(toolWindow("show.regressions"), toolWindow("show.regressions.description"), AllIcons.Actions.Diff);
+        this.tree = tree;
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        var project = e.getProject();
+        if (project == null || !(tree.getModel().getRoot() instanceof TreeModelDataRoot root) || root.isLoading()) return;
+
+        var regressions = collectRegressions(project, root);
+        if (regressions.isEmpty()) {
+            JBPopupFactory.getInstance().createMessage(toolWindow("show.regressions.none")).showInCenterOf(tree);
+            return;
+        }
+
+        JBPopupFactory.getInstance().createPopupChooserBuilder(regressions)
+            .setTitle(toolWindow("show.regressions.title", regressions.size()))
+            .setRenderer(SimpleListCellRenderer.create("", Regression::presentableText))
+            .setNamerForFiltering(Regression::presentableText)
+            .setItemChosenCallback(this::select)
+            .createPopup()
+            .showInCenterOf(tree);
+    }
+
+    /**
+     * Collects the screenshots of the argument root node that have diff images with changed pixels, ordered by decreasing severity.
+     * <p>
+     * The screenshot nodes themselves are not loaded, the diff images are taken from the diff folders of the spec nodes.
+     */
+    static List<Regression> collectRegressions(@NotNull Project project, @NotNull TreeModelDataRoot root) {
+        var analysisService = DiffImageAnalysisService.getInstance(project);
+        var regressions = new ArrayList<Regression>();
+        for (var spec : root.getAllSpecs()) {
+            //The most severe analysis of each screenshot name, among the locales, browsers and viewports
+            var mostSevereByName = new LinkedHashMap<String, DiffImageAnalysis>();
+            for (var diffFolder : spec.getDiffFolders()) {
+                if (!diffFolder.isValid()) continue;
+
+                for (var diff : diffFolder.getChildren()) {
+                    var analysis = diff.isDirectory() ? null : analysisService.getAnalysis(diff);
+                    if (analysis != null && analysis.severity() != RegressionSeverity.NONE) {
+                        mostSevereByName.merge(diff.getName(), analysis,
+                            (current, other) -> other.mismatchPercentage() > current.mismatchPercentage() ? other : current);
+                    }
+                }
+            }
+            mostSevereByName.forEach((screenshotName, analysis) -> regressions.add(new Regression(spec, screenshotName, analysis)));
+        }
+        regressions.sort(Comparator.comparingDouble((Regression regression) -> regression.analysis().mismatchPercentage()).reversed());
+        return regressions;
+    }
+
+    private void select(Regression regression) {
+        regression.spec().findScreenshotNodeByName(regression.screenshotName())
+            .map(((TerraWdioTreeModel) tree.getModel())::pathOf)
+            .ifPresent(path -> TreeUtil.selectPath(tree, path));
+    }
+
+    /**
+     * A screenshot with changed pixels in at least one of its diff images.
+     *
+     * @param spec           the spec node the screenshot belongs to
+     * @param screenshotName the name of the screenshot
+     * @param analysis       the analysis of the most severe diff image of the screenshot
+     */
+    record Regression(@NotNull TreeSpecNode spec, @NotNull String screenshotName, @NotNull DiffImageAnalysis analysis) {
+
+        String presentableText() {
+            return toolWindow("show.regressions.entry", analysis.severity().getDisplayName(), spec.getDisplayName(), screenshotName,
+                String.format("%.2f", analysis.mismatchPercentage()), analysis.regions().size());
+        }
+    }
+}
@@ -2,76 +2,90 @@
 
 package com.picimako.terra.wdio.toolwindow;
 
+import static com.picimako.terra.wdio.TerraWdioFolders.isInSnapshotsDirectory;
 import static com.picimako.terra.wdio.TerraWdioFolders.isInWdioFiles;
+import static com.picimako.terra.wdio.TerraWdioPsiUtil.WDIO_SPEC_FILE_NAME_PATTERN;
 
 import java.util.List;
+import java.util.regex.Pattern;
 
-import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.newvfs.BulkFileListener;
 import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
 import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
 import org.jetbrains.annotations.NotNull;
 
 import com.picimako.terra.wdio.toolwindow.action.DeleteScreenshotsAction;
 import com.picimako.terra.wdio.toolwindow.action.RenameScreenshotsAction;
 import com.picimako.terra.wdio.toolwindow.action.ReplaceReferenceWithLatestAction;
-import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
 
 /**
  * Terra wdio specific implementation of {@link BulkFileListener}.
  * <p>
  * It listens to file system events of the current project, and handles file events, and in case a particular event
- * is initiated outside the Terra wdio tool window (and its actions), then the tool window's tree model is rebuilt.
+ * is initiated outside the Terra wdio tool window (and its actions), then the event is passed on to {@link TerraWdioTreeUpdater}
+ * to update the tool window's tree model.
  * <p>
  * This distinction of which events are handled based on their requestors is necessary, because each action registered to
  * the tool window handles these actions and the UI refresh by themselves, and doesn't have to rely on file system event listening.
  * <p>
- * Also, rebuilding the tree model is tied to precondition that the event should have happened within the test wdio folders.
+ * Also, updating the tree model is tied to precondition that the event should have happened within the test wdio folders.
+ * In case of moving files, it is enough if either the source or the target location is within the wdio folders.
  * <p>
  * See <a href="https://jetbrains.org/intellij/sdk/docs/basics/virtual_file_system.html">Intellij Dev Guide: Virtual File System</a>
  * for virtual file system related information.
  * <p>
- * See {@link TerraWdioScreenshotsPanel#TerraWdioScreenshotsPanel(Project)} for subscribing to the related topic.
+ * See {@link TerraWdioScreenshotsPanel#TerraWdioScreenshotsPanel(Project, com.intellij.openapi.Disposable)} for subscribing to the related topic.
  * <p>
- * TODO:
- * <b>Possible improvement options:</b>
- * <ul>
- *     <li>Update the tree only when the tool window is open.</li>
- *     <li>Additionally, update the tree only when the tool window is being opened. This of course needs handling of what if the tool
- *      window doesn't get closed. In that case it may need to be closed and opened manually, which is not ideal.</li>
- * </ul>
+ * Changes of the contents of screenshots and spec files don't affect the tree model, but they may change the verdicts of the latest
+ * screenshots, and the regressions of the diff images, so their paths are passed on to the updater to start the related scans,
+ * regardless of their requestors. See {@link TerraWdioTreeUpdater#queueContentChanges(java.util.Collection)}.
+ * <p>
+ * While the tool window is hidden, the events are only recorded by the updater, and the tree is updated when the tool window
+ * becomes visible again. See {@link TerraWdioTreeUpdater#setDormant(boolean)}.
  *
  * @since 0.1.0
  */
 public class TerraWdioExternalFileAndFolderChangeListener implements BulkFileListener {
+    private static final Pattern SPEC_FILE_NAME = Pattern.compile(WDIO_SPEC_FILE_NAME_PATTERN);
 
-    private final TerraWdioTree tree;
+    private final TerraWdioTreeUpdater updater;
     private final Project project;
 
-    public TerraWdioExternalFileAndFolderChangeListener(TerraWdioTree tree, Project project) {
-        this.tree = tree;
+    public TerraWdioExternalFileAndFolderChangeListener(TerraWdioTreeUpdater updater, Project project) {
+        this.updater = updater;
         this.project = project;
     }
 
     @Override
     public void after(@NotNull List<? extends VFileEvent> events) {
-        if (events.stream().anyMatch(this::isRequestedOutsideOfMenuActionsAndInsideWdioFolder)) {
-            ApplicationManager.getApplication().invokeLater(() -> {
-                ((TerraWdioTreeModel) tree.getModel()).buildTree();
-                //Updating the UI is necessary because in case of e.g. a Git bulk rollback/revert of files,
-                // the tool window got stuck, and display zeros for all stats, until the tool window was closed and reopened
-                tree.updateUI();
-            });
+        var relevantEvents = events.stream().filter(this::isRequestedOutsideOfMenuActionsAndInsideWdioFolder).toList();
+        if (!relevantEvents.isEmpty()) {
+            updater.queueEvents(relevantEvents);
+        }
+        var changedContentPaths = events.stream().filter(this::isContentChangeOfScreenshotOrSpecFile).map(VFileEvent::getPath).toList();
+        if (!changedContentPaths.isEmpty()) {
+            updater.queueContentChanges(changedContentPaths);
         }
     }
 
+    private boolean isContentChangeOfScreenshotOrSpecFile(VFileEvent event) {
+        if (!(event instanceof VFileContentChangeEvent)) return false;
+
+        var file = event.getFile();
+        return file != null
+            && (isInSnapshotsDirectory(file) || SPEC_FILE_NAME.matcher(file.getName()).matches())
+            && isInWdioFiles(file, project);
+    }
+
     private boolean isRequestedOutsideOfMenuActionsAndInsideWdioFolder(VFileEvent event) {
         Object requestor = event.getRequestor();
         return !(event instanceof VFileContentChangeEvent)
             && !(requestor instanceof DeleteScreenshotsAction)
             && !(requestor instanceof RenameScreenshotsAction)
             && !(requestor instanceof ReplaceReferenceWithLatestAction)
-            && isInWdioFiles(event.getFile(), project);
+            && (isInWdioFiles(event.getFile(), project)
+            || event instanceof VFileMoveEvent moveEvent && isInWdioFiles(moveEvent.getOldParent(), project));
     }
 }
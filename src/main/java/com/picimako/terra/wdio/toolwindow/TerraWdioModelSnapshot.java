@@ -0,0 +1,351 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static com.picimako.terra.wdio.TerraWdioFolders.projectWdioRoots;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.io.DataInputOutputUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.picimako.terra.resources.TerraBundle;
+import com.picimako.terra.wdio.TerraWdioFolders;
+import com.picimako.terra.wdio.toolwindow.node.SpecNodeContainer;
+import com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.TreeSpecNode;
+
+/**
+ * Persists the contents of the Terra wdio tool window's model to the project's system directory, so that after an IDE restart
+ * the tool window can be displayed right away, instead of waiting for all wdio roots to be traversed again.
+ * <p>
+ * The snapshot contains the spec nodes of each wdio root, with their spec files, spec folders and the counts of their screenshots,
+ * but not the screenshot nodes themselves, since those are loaded from the spec folders when the spec nodes are expanded.
+ * All paths are stored relative to their wdio roots.
+ * <p>
+ * <b>Validation</b>
+ * <p>
+ * Along with the contents, the last modification time of each directory that contains spec folders or spec files is stored,
+ * from the spec folders up to the wdio root. These directories change when spec folders or screenshots are added, removed or renamed,
+ * so when all of them are unchanged on restore, the snapshot is up-to-date. The stamps are taken before the contents are written,
+ * so a change happening in between results in an outdated snapshot, instead of a falsely up-to-date one.
+ * <p>
+ * A snapshot that was written for a different set of wdio roots, or by a different version of the format, is not restored.
+ *
+ * @since 1.13.0
+ */
+final class TerraWdioModelSnapshot {
+    private static final Logger LOG = Logger.getInstance(TerraWdioModelSnapshot.class);
+    private static final int VERSION = 1;
+    /**
+     * Stamp value for directories whose modification time cannot be determined. Such directories make the snapshot outdated.
+     */
+    private static final long NO_STAMP = -1;
+    private static final String[] IMAGE_TYPES = {TerraWdioFolders.REFERENCE, TerraWdioFolders.DIFF, TerraWdioFolders.LATEST};
+
+    /**
+     * The result of restoring a snapshot.
+     */
+    enum RestoreResult {
+        /**
+         * There is no snapshot, or it cannot be used for the current state of the project.
+         */
+        NOT_RESTORED,
+        /**
+         * The snapshot has been restored, but some of its directories have changed since, so the model has to be rebuilt.
+         */
+        OUTDATED,
+        /**
+         * The snapshot has been restored, and none of its directories have changed since.
+         */
+        UP_TO_DATE
+    }
+
+    /**
+     * The contents restored from a snapshot.
+     *
+     * @param root                 the root node with the restored spec nodes
+     * @param snapshotsDirectories the {@code __snapshots__} directories of the wdio roots
+     * @param result               whether the snapshot is up-to-date
+     */
+    record Restored(@NotNull TreeModelDataRoot root, @NotNull List<VirtualFile> snapshotsDirectories, @NotNull RestoreResult result) {
+    }
+
+    /**
+     * Creates a spec node with the argument identifier and spec file, and adds it to the provided root or package node.
+     */
+    @FunctionalInterface
+    interface SpecNodeFactory {
+        TreeSpecNode create(@NotNull SpecNodeContainer container, @NotNull String specFolderIdentifier, @Nullable VirtualFile specFile);
+    }
+
+    private TerraWdioModelSnapshot() {
+        //Utility class
+    }
+
+    /**
+     * Returns the location of the snapshot file of the argument project.
+     */
+    static Path snapshotFile(@NotNull Project project) {
+        return ProjectUtil.getProjectCachePath(project, "terra-wdio").resolve("tool-window-model.dat");
+    }
+
+    //Writing
+
+    /**
+     * Serializes the argument root node. Must be called on the EDT, or in a read action, so that the model is not modified meanwhile.
+     *
+     * @param root                 the root node to serialize
+     * @param snapshotsDirectories the {@code __snapshots__} directories of the wdio roots
+     * @return the serialized snapshot
+     */
+    static byte @NotNull [] serialize(@NotNull TreeModelDataRoot root, @NotNull List<VirtualFile> snapshotsDirectories) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(VERSION);
+            var containers = root.getSpecContainers();
+            DataInputOutputUtil.writeINT(out, containers.size());
+            for (var container : containers) {
+                var wdioRoot = container.getWdioRoot();
+                if (wdioRoot == null) throw new IOException("The wdio root of " + container.getDisplayName() + " is not known.");
+                writeContainer(out, container, wdioRoot, snapshotsDirectories);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeContainer(DataOutputStream out, SpecNodeContainer container, VirtualFile wdioRoot,
+                                       List<VirtualFile> snapshotsDirectories) throws IOException {
+        out.writeUTF(wdioRoot.getPath());
+        out.writeUTF(container.getDisplayName());
+
+        //The stamps are written first, see the class documentation
+        var directories = new LinkedHashSet<VirtualFile>();
+        for (var spec : container.getSpecs()) {
+            collectDirectories(spec.getSpecFile(), wdioRoot, directories);
+            for (var specFolder : spec.getReferences()) collectDirectories(specFolder, wdioRoot, directories);
+            for (var specFolder : spec.getDiffFolders()) collectDirectories(specFolder, wdioRoot, directories);
+            for (var specFolder : spec.getLatestFolders()) collectDirectories(specFolder, wdioRoot, directories);
+        }
+        DataInputOutputUtil.writeINT(out, directories.size());
+        for (var directory : directories) {
+            out.writeUTF(relativePath(directory, wdioRoot));
+            out.writeLong(stampOf(directory));
+        }
+
+        var ownSnapshotsDirectories = snapshotsDirectories.stream().filter(dir -> VfsUtilCore.isAncestor(wdioRoot, dir, true)).toList();
+        DataInputOutputUtil.writeINT(out, ownSnapshotsDirectories.size());
+        for (var snapshotsDirectory : ownSnapshotsDirectories) {
+            out.writeUTF(relativePath(snapshotsDirectory, wdioRoot));
+        }
+
+        DataInputOutputUtil.writeINT(out, container.getSpecs().size());
+        for (var spec : container.getSpecs()) {
+            out.writeUTF(spec.getDisplayName());
+            var specFile = spec.getSpecFile();
+            out.writeUTF(isValidFileIn(specFile, wdioRoot) ? relativePath(specFile, wdioRoot) : "");
+            DataInputOutputUtil.writeINT(out, spec.screenshotCount());
+            DataInputOutputUtil.writeINT(out, spec.getReferenceImageCount());
+            DataInputOutputUtil.writeINT(out, spec.getScreenshotsWithDiffCount());
+            DataInputOutputUtil.writeINT(out, spec.getScreenshotsWithLatestCount());
+            writeFolders(out, spec.getReferences(), wdioRoot);
+            writeFolders(out, spec.getDiffFolders(), wdioRoot);
+            writeFolders(out, spec.getLatestFolders(), wdioRoot);
+        }
+    }
+
+    /**
+     * Collects the parent directories of the argument spec folder or spec file, up to and including the wdio root.
+     */
+    private static void collectDirectories(@Nullable VirtualFile file, VirtualFile wdioRoot, Set<VirtualFile> directories) {
+        if (!isValidFileIn(file, wdioRoot)) return;
+
+        if (file.isDirectory()) directories.add(file);
+        for (var directory = file.getParent(); directory != null && directories.add(directory); directory = directory.getParent()) {
+            if (directory.equals(wdioRoot)) break;
+        }
+    }
+
+    private static void writeFolders(DataOutputStream out, List<VirtualFile> folders, VirtualFile wdioRoot) throws IOException {
+        var validFolders = folders.stream().filter(folder -> isValidFileIn(folder, wdioRoot)).toList();
+        DataInputOutputUtil.writeINT(out, validFolders.size());
+        for (var folder : validFolders) {
+            out.writeUTF(relativePath(folder, wdioRoot));
+        }
+    }
+
+    /**
+     * Writes the argument serialized snapshot to the given file, replacing the previous snapshot.
+     */
+    static void write(byte @NotNull [] snapshot, @NotNull Path snapshotFile) {
+        try {
+            Files.createDirectories(snapshotFile.getParent());
+            var tempFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            try (var out = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                out.write(snapshot);
+            }
+            Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOG.warn("Could not write the snapshot of the Terra wdio tool window to " + snapshotFile, e);
+        }
+    }
+
+    /**
+     * Deletes the argument snapshot file, e.g. when the model is known to be outdated.
+     */
+    static void delete(@NotNull Path snapshotFile) {
+        try {
+            Files.deleteIfExists(snapshotFile);
+        } catch (IOException e) {
+            LOG.warn("Could not delete the snapshot of the Terra wdio tool window at " + snapshotFile, e);
+        }
+    }
+
+    //Reading
+
+    /**
+     * Restores the contents of the tool window's model from the argument snapshot file. Must be called in a read action.
+     *
+     * @param project      the current project
+     * @param snapshotFile the snapshot file to read
+     * @param specFactory  creates the spec nodes
+     * @return the restored contents, or null if there is no snapshot, or it cannot be used for the current state of the project
+     */
+    @Nullable
+    static Restored read(@NotNull Project project, @NotNull Path snapshotFile, @NotNull SpecNodeFactory specFactory) {
+        var root = new TreeModelDataRoot(TerraBundle.toolWindow("root.node.name"), project);
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != VERSION) return null;
+
+            var wdioRoots = projectWdioRoots(project);
+            int containerCount = DataInputOutputUtil.readINT(in);
+            if (containerCount != wdioRoots.size()) return null;
+
+            boolean isUpToDate = true;
+            var snapshotsDirectories = new ArrayList<VirtualFile>();
+            for (var wdioRoot : wdioRoots) {
+                if (!wdioRoot.getPath().equals(in.readUTF())) {
+                    root.dispose();
+                    return null;
+                }
+                String containerName = in.readUTF();
+                SpecNodeContainer container;
+                if (containerCount == 1) {
+                    root.setWdioRoot(wdioRoot);
+                    container = root;
+                } else {
+                    var packageNode = TerraWdioTreeNode.forPackage(containerName, wdioRoot, project);
+                    root.getPackages().add(packageNode);
+                    container = packageNode;
+                }
+                isUpToDate &= readContainer(in, container, wdioRoot, snapshotsDirectories, specFactory);
+            }
+            return new Restored(root, snapshotsDirectories, isUpToDate ? RestoreResult.UP_TO_DATE : RestoreResult.OUTDATED);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            LOG.info("Could not read the snapshot of the Terra wdio tool window from " + snapshotFile, e);
+            root.dispose();
+            return null;
+        }
+    }
+
+    /**
+     * Reads the spec nodes of a wdio root into the argument container.
+     *
+     * @return true if none of the directories of the wdio root have changed since the snapshot was written
+     */
+    private static boolean readContainer(DataInputStream in, SpecNodeContainer container, VirtualFile wdioRoot,
+                                         List<VirtualFile> snapshotsDirectories, SpecNodeFactory specFactory) throws IOException {
+        boolean isUpToDate = true;
+        int directoryCount = DataInputOutputUtil.readINT(in);
+        for (int i = 0; i < directoryCount; i++) {
+            var directory = findFile(wdioRoot, in.readUTF());
+            long stamp = in.readLong();
+            if (isUpToDate && (directory == null || stamp == NO_STAMP || stamp != stampOf(directory))) {
+                isUpToDate = false;
+            }
+        }
+
+        int snapshotsDirectoryCount = DataInputOutputUtil.readINT(in);
+        for (int i = 0; i < snapshotsDirectoryCount; i++) {
+            var snapshotsDirectory = findFile(wdioRoot, in.readUTF());
+            if (snapshotsDirectory != null) snapshotsDirectories.add(snapshotsDirectory);
+        }
+
+        int specCount = DataInputOutputUtil.readINT(in);
+        for (int i = 0; i < specCount; i++) {
+            String specFolderIdentifier = in.readUTF();
+            String specFilePath = in.readUTF();
+            var spec = specFactory.create(container, specFolderIdentifier, specFilePath.isEmpty() ? null : findFile(wdioRoot, specFilePath));
+            int screenshotCount = DataInputOutputUtil.readINT(in);
+            int referenceImageCount = DataInputOutputUtil.readINT(in);
+            int screenshotsWithDiffCount = DataInputOutputUtil.readINT(in);
+            int screenshotsWithLatestCount = DataInputOutputUtil.readINT(in);
+            for (String imageType : IMAGE_TYPES) {
+                int folderCount = DataInputOutputUtil.readINT(in);
+                for (int j = 0; j < folderCount; j++) {
+                    var specFolder = findFile(wdioRoot, in.readUTF());
+                    if (specFolder != null) {
+                        spec.addSpecFolder(specFolder, imageType);
+                    } else {
+                        isUpToDate = false;
+                    }
+                }
+            }
+            spec.restoreCounts(screenshotCount, referenceImageCount, screenshotsWithDiffCount, screenshotsWithLatestCount);
+        }
+        return isUpToDate;
+    }
+
+    //Helpers
+
+    private static boolean isValidFileIn(@Nullable VirtualFile file, VirtualFile wdioRoot) {
+        return file != null && file.isValid() && VfsUtilCore.isAncestor(wdioRoot, file, true);
+    }
+
+    private static String relativePath(VirtualFile file, VirtualFile wdioRoot) {
+        return file.equals(wdioRoot) ? "" : VfsUtilCore.getRelativePath(file, wdioRoot, '/');
+    }
+
+    @Nullable
+    private static VirtualFile findFile(VirtualFile wdioRoot, String relativePath) {
+        var file = relativePath.isEmpty() ? wdioRoot : wdioRoot.findFileByRelativePath(relativePath);
+        return file != null && file.isValid() ? file : null;
+    }
+
+    /**
+     * Returns the last modification time of the argument directory on disk, or its timestamp in the VFS if it is not on the local disk.
+     * <p>
+     * The time on disk is used, since the VFS doesn't update the timestamps of directories when their children change.
+     */
+    private static long stampOf(VirtualFile directory) {
+        var nioPath = directory.getFileSystem().getNioPath(directory);
+        if (nioPath == null) return directory.getTimeStamp();
+        try {
+            return Files.getLastModifiedTime(nioPath).toMillis();
+        } catch (IOException e) {
+            return NO_STAMP;
+        }
+    }
+}
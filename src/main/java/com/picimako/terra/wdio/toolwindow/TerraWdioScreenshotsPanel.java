@@ -6,6 +6,7 @@ import java.awt.*;
 import java.util.Map;
 import javax.swing.*;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.actionSystem.ActionManager;
 import com.intellij.openapi.actionSystem.DefaultActionGroup;
 import com.intellij.openapi.project.Project;
@@ -39,11 +40,15 @@ public class TerraWdioScreenshotsPanel extends JPanel {
     private final transient Project project;
     @Getter
     private TerraWdioTree tree;
+    @Getter
+    private final transient TerraWdioTreeUpdater updater;
 
-    public TerraWdioScreenshotsPanel(Project project) {
+    public TerraWdioScreenshotsPanel(Project project, Disposable parentDisposable) {
         this.project = project;
         buildGUI();
-        project.getMessageBus().connect().subscribe(VirtualFileManager.VFS_CHANGES, new TerraWdioExternalFileAndFolderChangeListener(tree, project));
+        updater = new TerraWdioTreeUpdater(project, tree, parentDisposable);
+        project.getMessageBus().connect(updater).subscribe(VirtualFileManager.VFS_CHANGES, new TerraWdioExternalFileAndFolderChangeListener(updater, project));
+        updater.buildTree();
     }
 
     /**
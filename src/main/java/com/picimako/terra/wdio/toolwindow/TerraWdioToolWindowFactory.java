@@ -2,17 +2,18 @@
 
 package com.picimako.terra.wdio.toolwindow;
 
-import static com.picimako.terra.wdio.TerraResourceManager.isUsingTerra;
-
 import java.util.List;
 import javax.swing.*;
 
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.openapi.wm.ex.ToolWindowManagerListener;
 import org.jetbrains.annotations.NotNull;
 
+import com.picimako.terra.wdio.NoopResourceManager;
+import com.picimako.terra.wdio.TerraResourceManager;
 import com.picimako.terra.wdio.TerraWdioFolders;
 
 /**
@@ -21,26 +22,44 @@ import com.picimako.terra.wdio.TerraWdioFolders;
  * The tool window is enabled only when the following conditions are met:
  * <ul>
  *     <li>the project is not a default project</li>
- *     <li>one of the wdio test root folders is present in the project</li>
+ *     <li>one of the wdio test root folders is present in the project, either in the project root, or in a package of a monorepo,
+ *     and the package of that wdio root uses Terra</li>
  * </ul>
  * <p>
- * Since this class determines whether to display the tool window or not, when it is determined that it will be shown,
- * it also initializes {@link TerraWdioFolders} with the wdio test root path that will be used as the root path throughout
- * the entire lifecycle of this feature in a particular project.
+ * While the tool window is hidden, the file system changes are not applied to its contents, only recorded,
+ * and they are reconciled when the tool window becomes visible again (see {@link TerraWdioTreeUpdater#setDormant(boolean)}).
+ * <p>
+ * The wdio roots themselves are provided by {@link TerraWdioFolders#projectWdioRoots(Project)}
+ * throughout the entire lifecycle of this feature in a particular project, so that they are always up-to-date.
  *
  * @see TerraWdioScreenshotsPanel
  * @since 0.1.0
  */
 public class TerraWdioToolWindowFactory implements ToolWindowFactory {
+    /**
+     * The id of the tool window, as registered in the plugin.xml.
+     *
+     * @since 1.13.0
+     */
+    public static final String TOOL_WINDOW_ID = "Terra wdio";
 
     @Override
     public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
-        var screenshotsPanel = new TerraWdioScreenshotsPanel(project);
+        var screenshotsPanel = new TerraWdioScreenshotsPanel(project, toolWindow.getDisposable());
         addTab(toolWindow, screenshotsPanel);
         toolWindow.setTitleActions(List.of(
-            new FindUnusedScreenshotsAction(screenshotsPanel.getTree(), project),
+            new FindUnusedScreenshotsAction(screenshotsPanel.getTree()),
+            new ShowRegressionsAction(screenshotsPanel.getTree()),
             new ToggleStatisticsAction(() -> screenshotsPanel.getTree().updateUI())
         ));
+        project.getMessageBus().connect(toolWindow.getDisposable()).subscribe(ToolWindowManagerListener.TOPIC, new ToolWindowManagerListener() {
+            @Override
+            public void stateChanged(@NotNull ToolWindowManager toolWindowManager) {
+                if (!toolWindow.isDisposed()) {
+                    screenshotsPanel.getUpdater().setDormant(!toolWindow.isVisible());
+                }
+            }
+        });
     }
 
     private void addTab(ToolWindow toolWindow, JComponent component) {
@@ -51,16 +70,8 @@ public class TerraWdioToolWindowFactory implements ToolWindowFactory {
 
     @Override
     public boolean shouldBeAvailable(@NotNull Project project) {
-        if (!isUsingTerra(project)) return false;
-
-        boolean shouldBeAvailable = !project.isDefault();
-        if (shouldBeAvailable) {
-            VirtualFile wdioRoot = TerraWdioFolders.projectWdioRoot(project);
-            shouldBeAvailable = wdioRoot != null && wdioRoot.exists();
-            if (shouldBeAvailable) {
-                TerraWdioFolders.setWdioTestRootPath(wdioRoot.getPath().replace(project.getBasePath(), ""));
-            }
-        }
-        return shouldBeAvailable;
+        return !project.isDefault()
+            && TerraWdioFolders.projectWdioRoots(project).stream()
+            .anyMatch(wdioRoot -> wdioRoot.exists() && !(TerraResourceManager.forFile(project, wdioRoot) instanceof NoopResourceManager));
     }
 }
@@ -2,22 +2,22 @@
 
 package com.picimako.terra.wdio.toolwindow;
 
-import static com.picimako.terra.wdio.TerraWdioFolders.existsAfterRefresh;
-import static com.picimako.terra.wdio.TerraWdioFolders.projectWdioRoot;
 import static com.picimako.terra.wdio.TerraWdioFolders.specFolderIdentifier;
+import static com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode.asPackage;
 import static com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode.asSpec;
+import static com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode.isPackage;
+import static com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode.isScreenshot;
 import static com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode.isSpec;
 
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
+import com.intellij.openapi.progress.ProgressManager;
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Disposer;
-import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 
-import com.picimako.terra.wdio.TerraResourceManager;
+import com.picimako.terra.wdio.toolwindow.node.SpecNodeContainer;
 import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
 import com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode;
 import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
@@ -79,6 +79,18 @@ import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
  * </pre>
  * This model also supports when spec JS files are in single or multiple subfolders within the base test path.
  * They are collected in the same way into this model.
+ * <p>
+ * If there are multiple wdio roots in the project, e.g. each package of a monorepo has its own {@code tests/wdio} folder,
+ * the specs are grouped by packages:
+ * <pre>
+ * - Wdio Resources
+ *      - &lt;package path>             <- A package node for each wdio root.
+ *          - &lt;spec file name>
+ *              - &lt;screenshot_1>.png
+ *      - &lt;another package path>
+ *          - &lt;spec file name>
+ *              - &lt;screenshot_1>.png
+ * </pre>
  */
 public class TerraWdioTreeModel extends AbstractTerraWdioTreeModel {
 
@@ -87,43 +99,19 @@ public class TerraWdioTreeModel extends AbstractTerraWdioTreeModel {
     }
 
     @Override
-    protected void collectSpecsAndScreenshots(@NotNull List<VirtualFile> filesAndFoldersAnywhereInWdioRoot, Set<VirtualFile> specFiles,
-                                              @NotNull String imageType, @NotNull VirtualFileToNodeAdder virtualFileToNodeAdder) {
-        String wdioRootPath = projectWdioRoot(project).getPath();
+    protected void collectSpecsAndScreenshots(@NotNull SpecNodeContainer root, @NotNull List<VirtualFile> specFolders,
+                                              @NotNull Map<String, VirtualFile> specFilesByIdentifier, @NotNull String imageType) {
         //This will have duplicate folders by name, but they are different folders
-        TerraResourceManager.getInstance(project).specFolderCollector()
-            .collectSpecFoldersForTypeInside(imageType, filesAndFoldersAnywhereInWdioRoot)
-            .forEach(folder -> {
-                var screenshots = VfsUtil.getChildren(folder);
-                String folderIdentifier = specFolderIdentifier(folder, project);
-                data.getSpecs().stream()
-                    .filter(spec -> spec.getDisplayName().equals(folderIdentifier)) //to make sure that the UI tree will contain a single node for a given spec name
-                    .findFirst()
-                    .ifPresentOrElse(
-                        //If the given spec folder (specNode) has already been added
-                        specNode -> populateSpecNodeWithFolderAndScreenshots(folder, screenshots, specNode, virtualFileToNodeAdder, imageType),
-                        //If a given spec folder hasn't been added
-                        () -> doIfSpecFolderHasntBeenAdded(specFiles, imageType, virtualFileToNodeAdder, wdioRootPath, folder, screenshots, folderIdentifier));
-            });
-    }
-
-    private void doIfSpecFolderHasntBeenAdded(Set<VirtualFile> specFiles, @NotNull String imageType,
-                                              @NotNull VirtualFileToNodeAdder virtualFileToNodeAdder, String wdioRootPath,
-                                              VirtualFile folder, VirtualFile[] screenshots,
-                                              String folderIdentifier) {
-        if (existsAfterRefresh(folder)) {
-            var specNode = TerraWdioTreeNode.forSpec(folderIdentifier, project);
-            populateSpecNodeWithFolderAndScreenshots(folder, screenshots, specNode, virtualFileToNodeAdder, imageType);
-
-            //Adds the spec file that belongs to the spec node. This is necessary for the "Navigate to Usage" screenshot action.
-            specFiles.stream()
-                //This makes sure that in case of multiple spec files with the same name in different folders, the correct file is selected and added.
-                .filter(specFile -> specFile.getPath().substring(0, specFile.getPath().lastIndexOf(".")).equals(wdioRootPath + "/" + folderIdentifier))
-                .findFirst()
-                .ifPresent(specNode::setSpecFile);
-
-            data.getSpecs().add(specNode);
-            Disposer.register(data, specNode);
+        for (var folder : specFolders) {
+            ProgressManager.checkCanceled();
+            if (!folder.isValid()) continue;
+
+            String folderIdentifier = specFolderIdentifier(folder, project);
+            var specNode = findSpecNode(root, folderIdentifier) //to make sure that the UI tree will contain a single node for a given spec name
+                //If a given spec folder hasn't been added. The lookup by identifier makes sure that in case of multiple spec files
+                // with the same name in different folders, the correct file is selected and added.
+                .orElseGet(() -> createSpecNode(root, folderIdentifier, specFilesByIdentifier.get(folderIdentifier)));
+            specNode.addSpecFolder(folder, imageType);
         }
     }
 
@@ -133,7 +121,9 @@ public class TerraWdioTreeModel extends AbstractTerraWdioTreeModel {
     public Object getChild(Object parent, int index) {
         TerraWdioTreeNode child = null;
         if (parent instanceof TreeModelDataRoot) {
-            child = data.getSpecs().get(index);
+            child = data.hasPackages() ? data.getPackages().get(index) : data.getSpecs().get(index);
+        } else if (isPackage(parent)) {
+            child = asPackage(parent).getSpecs().get(index);
         } else if (isSpec(parent)) {
             child = asSpec(parent).getScreenshot(index);
         }
@@ -144,7 +134,9 @@ public class TerraWdioTreeModel extends AbstractTerraWdioTreeModel {
     public int getChildCount(Object parent) {
         int count = 0;
         if (parent instanceof TreeModelDataRoot) {
-            count = data.getSpecs().size();
+            count = data.hasPackages() ? data.getPackages().size() : data.getSpecs().size();
+        } else if (isPackage(parent)) {
+            count = asPackage(parent).getSpecs().size();
         } else if (isSpec(parent)) {
             count = asSpec(parent).screenshotCount();
         }
@@ -153,12 +145,7 @@ public class TerraWdioTreeModel extends AbstractTerraWdioTreeModel {
 
     @Override
     public boolean isLeaf(Object node) {
-        boolean isLeaf = data.getSpecs().isEmpty();
-        if (!(node instanceof TreeModelDataRoot)) {
-            int index = data.getSpecs().indexOf(node);
-            isLeaf = !isSpec(node) || (index != -1 && data.getSpecs().get(index).screenshotCount() == 0);
-        }
-        return isLeaf;
+        return isScreenshot(node) || getChildCount(node) == 0;
     }
 
     @Override
@@ -166,7 +153,9 @@ public class TerraWdioTreeModel extends AbstractTerraWdioTreeModel {
         int indexOfChild = 0;
         if (parent != null && child != null) {
             if (parent instanceof TreeModelDataRoot) {
-                indexOfChild = data.getSpecs().indexOf(child);
+                indexOfChild = data.hasPackages() ? data.getPackages().indexOf(child) : data.getSpecs().indexOf(child);
+            } else if (isPackage(parent)) {
+                indexOfChild = asPackage(parent).getSpecs().indexOf(child);
             } else if (isSpec(parent)) {
                 indexOfChild = asSpec(parent).getScreenshots().indexOf(child);
             }
@@ -0,0 +1,473 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.swing.tree.TreePath;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.LowMemoryWatcher;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.ui.tree.TreeUtil;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import com.picimako.terra.settings.TerraApplicationState;
+import com.picimako.terra.wdio.BackgroundExecution;
+import com.picimako.terra.wdio.imagecompare.DiffImageAnalysisService;
+import com.picimako.terra.wdio.imagecompare.ScreenshotVerdictService;
+import com.picimako.terra.wdio.toolwindow.node.SpecNodeContainer;
+import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.TreeSpecNode;
+
+/**
+ * Applies file system changes, reported by {@link TerraWdioExternalFileAndFolderChangeListener}, to the tree model of
+ * the Terra wdio tool window.
+ * <p>
+ * Events are not applied one by one as they arrive, but they are collected and merged within a configurable delay
+ * (see {@link TerraApplicationState#toolWindowUpdateDelayMillis}). This way a burst of events, e.g. a test run saving
+ * many latest and diff screenshots, or a VCS branch switch, results in a single update of the tree.
+ * <p>
+ * The collected events are applied incrementally to the affected nodes via {@link AbstractTerraWdioTreeModel#applyEvents(List)}.
+ * When that is not possible, the model is rebuilt from scratch, but only {@link #MAX_FULL_REBUILDS} times within
+ * {@link #FULL_REBUILD_WINDOW_MILLIS}. Rebuilds requested above that limit are postponed until the end of the time window,
+ * and are merged into a single rebuild.
+ * <p>
+ * After each change of the model, the unused screenshot markers are restored via
+ * {@link UnusedScreenshotsAnalyzer#restoreUnusedScreenshots(Project, TerraWdioTree)}.
+ * <p>
+ * <b>Dormant mode</b>
+ * <p>
+ * While the tool window is hidden (see {@link #setDormant(boolean)}), events are not applied to the model, only the paths
+ * of the changed files are recorded. Events queued before the tool window was hidden are recorded the same way, and the rebuilds,
+ * verdict checks and diff analyses that would happen meanwhile are postponed as well. When the tool window becomes visible again, the nodes of the recorded paths are reconciled
+ * with the file system via {@link AbstractTerraWdioTreeModel#reconcilePaths(java.util.Collection)}. If a directory is changed,
+ * or there are more than {@link #MAX_DIRTY_PATHS} changed paths, only the need for a full rebuild is recorded instead.
+ * <p>
+ * <b>Memory pressure</b>
+ * <p>
+ * When the IDE is low on memory (see {@link LowMemoryWatcher}), the screenshot nodes of the collapsed spec nodes are released,
+ * and they are loaded again when the spec nodes are expanded. See {@link TreeSpecNode#releaseScreenshots()}.
+ * <p>
+ * <b>Snapshot</b>
+ * <p>
+ * The initial contents of the model are restored from the snapshot saved in a previous session, when possible
+ * (see {@link TerraWdioModelSnapshot}). A new snapshot is saved after the changes of the model, and when the updater is disposed,
+ * e.g. when the project is closed. If there are changes not yet applied to the model, the snapshot is deleted instead,
+ * so that an outdated snapshot is not restored in the next session.
+ * <p>
+ * <b>Verdicts</b>
+ * <p>
+ * After the changes of the model, the latest screenshots are compared with their references in the background, and the screenshot
+ * nodes are badged with whether they are within their mismatch tolerances. See {@link ScreenshotVerdictService}. All latest screenshots
+ * are checked only when the model has been built or rebuilt, after incremental updates only the ones affected by the changed files are.
+ * <p>
+ * Similarly, the diff images are scanned for their changed regions, and the screenshot nodes are badged with the severity
+ * of their regressions. See {@link DiffImageAnalysisService}.
+ * <p>
+ * Changes of the contents of screenshots and spec files (see {@link #queueContentChanges(Collection)}) don't affect the model,
+ * so they only start these scans, e.g. when a test run overwrites the latest screenshots, or a mismatch tolerance is edited.
+ *
+ * @since 1.13.0
+ */
+public final class TerraWdioTreeUpdater implements Disposable {
+    static final int MAX_FULL_REBUILDS = 3;
+    static final long FULL_REBUILD_WINDOW_MILLIS = 30_000;
+    static final int MAX_DIRTY_PATHS = 10_000;
+    private static final String SAVE_SNAPSHOT_UPDATE = "Save snapshot";
+    private static final String CHECK_VERDICTS_UPDATE = "Check verdicts";
+    private static final String ANALYZE_DIFFS_UPDATE = "Analyze diffs";
+    private static final String RECONCILE_DIRTY_PATHS_UPDATE = "Reconcile dirty paths";
+    private static final String SCAN_CHANGED_CONTENTS_UPDATE = "Scan changed contents";
+
+    private final Project project;
+    private final TerraWdioTree tree;
+    private final MergingUpdateQueue queue;
+    private final List<VFileEvent> pendingEvents = new ArrayList<>();
+    //The paths changed while dormant. These and the two fields below are guarded by pendingEvents.
+    private final Set<String> dirtyPaths = new LinkedHashSet<>();
+    private boolean isRebuildRequiredOnWakeUp;
+    private boolean isDormant;
+    //The paths of the files whose contents have changed since the last scan. Guarded by pendingEvents.
+    private final Set<String> changedContentPaths = new LinkedHashSet<>();
+    //Accessed only on the EDT
+    private final Deque<Long> fullRebuildTimestamps = new ArrayDeque<>();
+    private boolean isFullRebuildPending;
+    //The paths changed since the last verdict check, or null if all latest screenshots have to be checked
+    @Nullable
+    private Set<String> verdictCheckPaths = new LinkedHashSet<>();
+    //Whether verdict checks or diff analyses have been requested while dormant
+    private boolean areScansPostponed;
+    private volatile boolean isDisposed;
+
+    public TerraWdioTreeUpdater(@NotNull Project project, @NotNull TerraWdioTree tree, @NotNull Disposable parentDisposable) {
+        this.project = project;
+        this.tree = tree;
+        queue = new MergingUpdateQueue("Terra wdio tool window updates", TerraApplicationState.getInstance().toolWindowUpdateDelayMillis,
+            true, null, this, null, true);
+        Disposer.register(parentDisposable, this);
+        LowMemoryWatcher.register(() -> ApplicationManager.getApplication().invokeLater(this::releaseCollapsedSpecs, project.getDisposed()), this);
+    }
+
+    /**
+     * Restores or builds the tree model in the background, for the initial display of the tool window.
+     */
+    public void buildTree() {
+        ((TerraWdioTreeModel) tree.getModel()).restoreSnapshotOrBuildInBackground(TerraWdioModelSnapshot.snapshotFile(project), this::onModelRebuilt);
+    }
+
+    /**
+     * Queues the argument events to be applied to the tree model when no further event arrives within the configured delay.
+     *
+     * @param events the file system events to apply
+     */
+    public void queueEvents(@NotNull List<? extends VFileEvent> events) {
+        synchronized (pendingEvents) {
+            if (isDormant) {
+                recordDirtyPaths(events);
+                return;
+            }
+            pendingEvents.addAll(events);
+        }
+        queue.setMergingTimeSpan(TerraApplicationState.getInstance().toolWindowUpdateDelayMillis);
+        queueUpdate();
+    }
+
+    /**
+     * Queues the argument paths of files whose contents have changed to be covered by the next verdict check and diff analysis.
+     * The model is not updated, since the contents of the files don't affect it.
+     *
+     * @param paths the paths of the screenshots and spec files whose contents have changed
+     */
+    public void queueContentChanges(@NotNull Collection<String> paths) {
+        synchronized (pendingEvents) {
+            changedContentPaths.addAll(paths);
+        }
+        queue.queue(Update.create(SCAN_CHANGED_CONTENTS_UPDATE, this::scanChangedContents));
+    }
+
+    private void scanChangedContents() {
+        List<String> paths;
+        synchronized (pendingEvents) {
+            paths = new ArrayList<>(changedContentPaths);
+            changedContentPaths.clear();
+        }
+        if (paths.isEmpty()) return;
+
+        addVerdictCheckPaths(paths);
+        queueScans();
+    }
+
+    /**
+     * Sets whether the tool window is hidden, in which case the changes are only recorded, and not applied to the model.
+     * <p>
+     * When the tool window becomes visible again, the recorded changes are reconciled with the model.
+     *
+     * @param dormant true if the tool window has been hidden, false if it has become visible
+     */
+    public void setDormant(boolean dormant) {
+        synchronized (pendingEvents) {
+            if (isDormant == dormant) return;
+            isDormant = dormant;
+        }
+        if (!dormant) {
+            queue.queue(Update.create(RECONCILE_DIRTY_PATHS_UPDATE, this::reconcileDirtyPaths));
+        }
+    }
+
+    private void recordDirtyPaths(List<? extends VFileEvent> events) {
+        if (isRebuildRequiredOnWakeUp) return;
+
+        for (var event : events) {
+            var file = event.getFile();
+            boolean isDirectory = event instanceof VFileCreateEvent createEvent ? createEvent.isDirectory() : file == null || file.isDirectory();
+            if (isDirectory) {
+                requireRebuildOnWakeUp();
+                return;
+            }
+            collectPaths(event, dirtyPaths);
+        }
+        if (dirtyPaths.size() > MAX_DIRTY_PATHS) {
+            requireRebuildOnWakeUp();
+        }
+    }
+
+    /**
+     * Adds the paths affected by the argument event to the provided collection: both the old and new paths in case of a move or rename.
+     */
+    private static void collectPaths(VFileEvent event, Collection<String> paths) {
+        switch (event) {
+            case VFileCopyEvent copyEvent -> paths.add(copyEvent.getNewParent().getPath() + "/" + copyEvent.getNewChildName());
+            case VFileMoveEvent moveEvent -> {
+                paths.add(moveEvent.getOldPath());
+                paths.add(moveEvent.getNewPath());
+            }
+            case VFilePropertyChangeEvent propertyChangeEvent -> {
+                if (propertyChangeEvent.isRename()) {
+                    paths.add(propertyChangeEvent.getOldPath());
+                    paths.add(propertyChangeEvent.getNewPath());
+                }
+            }
+            default -> paths.add(event.getPath());
+        }
+    }
+
+    private void requireRebuildOnWakeUp() {
+        isRebuildRequiredOnWakeUp = true;
+        //The paths are not needed anymore, since the rebuild reflects them
+        dirtyPaths.clear();
+    }
+
+    private void reconcileDirtyPaths() {
+        List<String> paths;
+        boolean isRebuildRequired;
+        synchronized (pendingEvents) {
+            paths = new ArrayList<>(dirtyPaths);
+            isRebuildRequired = isRebuildRequiredOnWakeUp;
+            dirtyPaths.clear();
+            isRebuildRequiredOnWakeUp = false;
+        }
+        if (paths.isEmpty() && !isRebuildRequired) {
+            if (areScansPostponed) queueScans();
+            return;
+        }
+
+        var model = (TerraWdioTreeModel) tree.getModel();
+        if (isFullRebuildPending || isRebuildRequired || !model.reconcilePaths(paths)) {
+            rebuildIfAllowed(model);
+        }
+        onModelChanged(paths);
+    }
+
+    private void queueUpdate() {
+        queue.queue(Update.create(this, this::applyPendingEvents));
+    }
+
+    private void applyPendingEvents() {
+        List<VFileEvent> events;
+        synchronized (pendingEvents) {
+            events = new ArrayList<>(pendingEvents);
+            pendingEvents.clear();
+            if (isDormant) {
+                //The tool window has been hidden since the events were queued, so they are reconciled when it becomes visible again
+                if (isFullRebuildPending) {
+                    isFullRebuildPending = false;
+                    requireRebuildOnWakeUp();
+                }
+                recordDirtyPaths(events);
+                return;
+            }
+        }
+
+        var model = (TerraWdioTreeModel) tree.getModel();
+        //If a full rebuild is already pending, the events will be reflected by that rebuild
+        if (isFullRebuildPending || !model.applyEvents(events)) {
+            rebuildIfAllowed(model);
+        }
+        var changedPaths = new ArrayList<String>(events.size());
+        events.forEach(event -> collectPaths(event, changedPaths));
+        onModelChanged(changedPaths);
+    }
+
+    private void onModelRebuilt() {
+        onModelChanged(null);
+    }
+
+    /**
+     * Updates the derived data after the model has changed.
+     *
+     * @param changedPaths the paths of the changed files, or null if the model has been built or rebuilt
+     */
+    private void onModelChanged(@Nullable Collection<String> changedPaths) {
+        addVerdictCheckPaths(changedPaths);
+        //The tree UI is updated by the events of the model, only the unused screenshot markers have to be restored
+        UnusedScreenshotsAnalyzer.restoreUnusedScreenshots(project, tree);
+        queue.queue(Update.create(SAVE_SNAPSHOT_UPDATE, () -> saveSnapshot(false)));
+        queueScans();
+    }
+
+    private void addVerdictCheckPaths(@Nullable Collection<String> changedPaths) {
+        if (changedPaths == null) {
+            verdictCheckPaths = null;
+        } else if (verdictCheckPaths != null) {
+            verdictCheckPaths.addAll(changedPaths);
+        }
+    }
+
+    private void queueScans() {
+        areScansPostponed = false;
+        queue.queue(Update.create(CHECK_VERDICTS_UPDATE, this::checkVerdicts));
+        queue.queue(Update.create(ANALYZE_DIFFS_UPDATE, this::analyzeDiffs));
+    }
+
+    /**
+     * Returns whether the scans should be postponed until the tool window becomes visible, and records that if so.
+     */
+    private boolean postponeScansIfDormant() {
+        synchronized (pendingEvents) {
+            if (!isDormant) return false;
+        }
+        areScansPostponed = true;
+        return true;
+    }
+
+    /**
+     * Compares the latest screenshots affected by the changes since the last check with their references in the background,
+     * and repaints the tree with the new verdicts.
+     */
+    private void checkVerdicts() {
+        //The changed paths are kept until the verdicts are checked
+        if (postponeScansIfDormant()) return;
+
+        var changedPaths = verdictCheckPaths;
+        verdictCheckPaths = new LinkedHashSet<>();
+        if (changedPaths == null || !changedPaths.isEmpty()) {
+            ScreenshotVerdictService.getInstance(project).scanInBackground(changedPaths, this::onVerdictsChecked);
+        }
+    }
+
+    /**
+     * Scans the diff images for their changed regions in the background, and repaints the tree with the new regression badges.
+     */
+    private void analyzeDiffs() {
+        if (postponeScansIfDormant()) return;
+
+        DiffImageAnalysisService.getInstance(project).scanInBackground(this::onDiffsAnalyzed);
+    }
+
+    private void onVerdictsChecked() {
+        if (isDisposed) return;
+
+        ((TerraWdioTreeModel) tree.getModel()).updateVerdictSummaries();
+        repaintBadges();
+    }
+
+    private void onDiffsAnalyzed() {
+        if (isDisposed) return;
+
+        ((TerraWdioTreeModel) tree.getModel()).updateDiffAnalyses();
+        repaintBadges();
+    }
+
+    private void repaintBadges() {
+        //The badges change the widths of the nodes, so the cached node sizes have to be recalculated
+        if (!isDisposed) TreeUtil.invalidateCacheAndRepaint(tree);
+    }
+
+    /**
+     * Saves the snapshot of the current contents of the model, or deletes the previous snapshot if there are changes
+     * not yet applied to the model. Must be called on the EDT.
+     *
+     * @param isSynchronous whether to write the snapshot on the current thread, instead of via {@link BackgroundExecution}
+     */
+    private void saveSnapshot(boolean isSynchronous) {
+        boolean isOutdated;
+        synchronized (pendingEvents) {
+            isOutdated = !pendingEvents.isEmpty() || !dirtyPaths.isEmpty() || isRebuildRequiredOnWakeUp;
+        }
+
+        Runnable write;
+        if (isOutdated || isFullRebuildPending) {
+            write = () -> TerraWdioModelSnapshot.delete(TerraWdioModelSnapshot.snapshotFile(project));
+        } else {
+            //The model is serialized on the EDT, so that it is not modified meanwhile, but the file is written in the background
+            var snapshot = ((TerraWdioTreeModel) tree.getModel()).serializeSnapshot();
+            if (snapshot == null) return;
+            write = () -> TerraWdioModelSnapshot.write(snapshot, TerraWdioModelSnapshot.snapshotFile(project));
+        }
+
+        if (isSynchronous) {
+            write.run();
+        } else {
+            BackgroundExecution.getInstance().execute(write);
+        }
+    }
+
+    /**
+     * Rebuilds the model, if the maximum number of rebuilds within the current time window hasn't been reached,
+     * otherwise it schedules the rebuild for when the oldest rebuild falls out of the time window.
+     */
+    private void rebuildIfAllowed(TerraWdioTreeModel model) {
+        long now = System.currentTimeMillis();
+        while (!fullRebuildTimestamps.isEmpty() && now - fullRebuildTimestamps.peekFirst() >= FULL_REBUILD_WINDOW_MILLIS) {
+            fullRebuildTimestamps.pollFirst();
+        }
+
+        if (fullRebuildTimestamps.size() < MAX_FULL_REBUILDS) {
+            fullRebuildTimestamps.addLast(now);
+            isFullRebuildPending = false;
+            model.buildTreeInBackground(this::onModelRebuilt);
+        } else if (!isFullRebuildPending) {
+            isFullRebuildPending = true;
+            long delay = FULL_REBUILD_WINDOW_MILLIS - (now - fullRebuildTimestamps.peekFirst());
+            AppExecutorUtil.getAppScheduledExecutorService().schedule(() -> {
+                if (!isDisposed) queueUpdate();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Releases the screenshot nodes of the spec nodes that are not expanded in the tree. Must be called on the EDT.
+     */
+    void releaseCollapsedSpecs() {
+        if (isDisposed || !(tree.getModel().getRoot() instanceof TreeModelDataRoot root) || root.isLoading()) return;
+
+        var rootPath = new TreePath(root);
+        if (root.hasPackages()) {
+            for (var packageNode : root.getPackages()) {
+                releaseCollapsedSpecs(rootPath.pathByAddingChild(packageNode), packageNode);
+            }
+        } else {
+            releaseCollapsedSpecs(rootPath, root);
+        }
+    }
+
+    private void releaseCollapsedSpecs(TreePath containerPath, SpecNodeContainer container) {
+        for (var spec : container.getSpecs()) {
+            if (spec.isLoaded() && !tree.isExpanded(containerPath.pathByAddingChild(spec))) {
+                spec.releaseScreenshots();
+                //The tree UI may still reference the released screenshot nodes from a previous expansion
+                ((TerraWdioTreeModel) tree.getModel()).nodeStructureChanged(spec);
+            }
+        }
+    }
+
+    /**
+     * Applies the queued events immediately, without waiting for the merging delay to pass.
+     */
+    @TestOnly
+    void flush() {
+        queue.flush();
+    }
+
+    @Override
+    public void dispose() {
+        if (!isDisposed && !project.isDisposed()) {
+            saveSnapshot(true);
+        }
+        isDisposed = true;
+        synchronized (pendingEvents) {
+            pendingEvents.clear();
+            dirtyPaths.clear();
+        }
+    }
+}
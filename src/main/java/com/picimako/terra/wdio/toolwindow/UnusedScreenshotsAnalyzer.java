@@ -0,0 +1,204 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static com.picimako.terra.resources.TerraBundle.toolWindow;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import com.picimako.terra.wdio.BackgroundExecution;
+import com.picimako.terra.wdio.screenshot.index.TerraScreenshotUsageIndex;
+import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.TreeSpecNode;
+
+/**
+ * Analyzes the project for unused screenshots, and marks them as unused in the Terra wdio tool window.
+ * <p>
+ * A screenshot can be referenced only by the spec file of its spec node, thus the spec files can be analyzed independently
+ * of each other:
+ * <ol>
+ *     <li>Screenshots of specs that don't have a spec file are unused.</li>
+ *     <li>For specs whose spec file hasn't changed since the last analysis, the screenshot names referenced in the spec file
+ *     are taken from {@link UnusedScreenshotsProjectService}, and the screenshots not referenced are marked as unused right away.</li>
+ *     <li>The rest of the spec files are processed concurrently. For each, the screenshot names referenced in the spec file
+ *     are retrieved from {@link TerraScreenshotUsageIndex}, and stored in {@link UnusedScreenshotsProjectService} for later analyses.
+ *     The screenshots of the spec that are not referenced are unused.</li>
+ * </ol>
+ * The results are stored in the spec nodes as the set of used screenshot names (see {@link TreeSpecNode#setUsedScreenshotNames(Set)}),
+ * so that the screenshot nodes of specs that are not loaded yet don't have to be loaded for the analysis. Screenshots added
+ * to a spec later are marked by the spec node itself, according to these names.
+ * <p>
+ * Only the specs whose used screenshot names have changed are updated, and only their nodes are reported as changed to the tree,
+ * so re-running the analysis when few or no spec files have changed is cheap. The markers of specs whose spec files are analyzed
+ * again are kept until the results of the new analysis arrive.
+ * <p>
+ * The concurrent part runs in a cancellable background task, and the unused screenshots are marked in the tool window in batches,
+ * as soon as they are found, so that the results of a long-running analysis become visible progressively.
+ * The task is executed via {@link BackgroundExecution}.
+ * <p>
+ * Once the analysis has been run in a project, it is also run after each change of the tool window's model, via
+ * {@link #restoreUnusedScreenshots(Project, TerraWdioTree)}, so that the unused markers are kept, and are updated according to
+ * the changed spec files and screenshots.
+ *
+ * @see FindUnusedScreenshotsAction
+ * @since 1.13.0
+ */
+final class UnusedScreenshotsAnalyzer {
+    private final Project project;
+    private final TerraWdioTree tree;
+    private final UnusedScreenshotsProjectService unusedScreenshotsService;
+    /**
+     * The used screenshot names of specs without a spec file. It is a single instance, so that these specs are not updated repeatedly.
+     */
+    private static final Set<String> NO_USED_SCREENSHOTS = Set.of();
+    private final Queue<AnalyzedSpec> analyzedSpecs = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isMarkingScheduled = new AtomicBoolean();
+
+    UnusedScreenshotsAnalyzer(@NotNull Project project, @NotNull TerraWdioTree tree) {
+        this.project = project;
+        this.tree = tree;
+        this.unusedScreenshotsService = UnusedScreenshotsProjectService.getInstance(project);
+    }
+
+    /**
+     * Marks the unused screenshots in the tool window, if the unused screenshot analysis has been run in the project before.
+     * <p>
+     * Screenshots of unchanged spec files are marked instantly, based on the results of previous analyses,
+     * only the changed spec files are analyzed again. Specs whose markers are already up-to-date are not touched. Must be called on the EDT.
+     *
+     * @param project the current project
+     * @param tree    the tree of the tool window
+     */
+    static void restoreUnusedScreenshots(@NotNull Project project, @NotNull TerraWdioTree tree) {
+        if (UnusedScreenshotsProjectService.getInstance(project).isAnalyzed) {
+            new UnusedScreenshotsAnalyzer(project, tree).analyze();
+        }
+    }
+
+    /**
+     * Starts the analysis. Must be called on the EDT.
+     */
+    void analyze() {
+        var model = (TerraWdioTreeModel) tree.getModel();
+        var root = (TreeModelDataRoot) model.getRoot();
+        if (root == null || root.isLoading()) return;
+
+        unusedScreenshotsService.isAnalyzed = true;
+        final var specsToAnalyze = new ArrayList<SpecToAnalyze>();
+        final var specKeys = new HashSet<String>();
+        for (var specContainer : root.getSpecContainers()) {
+            for (var spec : specContainer.getSpecs()) {
+                //Specs with the same identifier may be present in multiple wdio roots
+                String specKey = UnusedScreenshotsProjectService.specKey(specContainer.getWdioRoot(), spec.getDisplayName());
+                specKeys.add(specKey);
+                if (spec.screenshotCount() == 0) continue;
+
+                Set<String> usedScreenshotNames;
+                var specFile = spec.getSpecFile();
+                if (specFile == null || !specFile.isValid()) {
+                    //No spec file references the screenshots of this spec
+                    usedScreenshotNames = NO_USED_SCREENSHOTS;
+                } else {
+                    long specFileStamp = UnusedScreenshotsProjectService.stampOf(specFile);
+                    String managerType = UnusedScreenshotsProjectService.managerTypeOf(project, specFile);
+                    usedScreenshotNames = unusedScreenshotsService.getUsedScreenshotNames(specKey, specFileStamp, managerType);
+                    if (usedScreenshotNames == null) {
+                        specsToAnalyze.add(new SpecToAnalyze(specKey, specFile, specFileStamp, managerType, spec));
+                        continue;
+                    }
+                }
+                if (!spec.hasUsedScreenshotNames(usedScreenshotNames)) {
+                    spec.setUsedScreenshotNames(usedScreenshotNames);
+                    //This is so, that no extra interaction with the tool window is required (focus change, click, etc.) to have the UI updated.
+                    model.screenshotsChanged(spec);
+                }
+            }
+        }
+        unusedScreenshotsService.retainSpecs(specKeys);
+        if (specsToAnalyze.isEmpty()) return;
+
+        BackgroundExecution.getInstance().run(new Task.Backgroundable(project, toolWindow("find.unused.screenshots.progress"), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                findUnusedScreenshots(specsToAnalyze, indicator);
+            }
+
+            @Override
+            public void onFinished() {
+                //Marks the specs reported since the last scheduled marking, without waiting for the next one
+                markReportedSpecs();
+            }
+        });
+    }
+
+    private void findUnusedScreenshots(List<SpecToAnalyze> specsToAnalyze, ProgressIndicator indicator) {
+        indicator.setIndeterminate(false);
+        final var processedSpecCount = new AtomicInteger();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(specsToAnalyze, indicator, spec -> {
+            Set<String> usedScreenshotNames = DumbService.getInstance(project).runReadActionInSmartMode(() ->
+                new HashSet<>(TerraScreenshotUsageIndex.getScreenshotUsages(project, spec.specFile()).keySet()));
+            unusedScreenshotsService.putUsedScreenshotNames(spec.key(), spec.specFileStamp(), spec.managerType(), usedScreenshotNames);
+            report(new AnalyzedSpec(spec.specNode(), usedScreenshotNames));
+            indicator.setFraction((double) processedSpecCount.incrementAndGet() / specsToAnalyze.size());
+            return true;
+        });
+    }
+
+    /**
+     * Queues the argument analyzed spec to be marked, and schedules the marking on the EDT if it is not scheduled yet.
+     */
+    private void report(AnalyzedSpec analyzedSpec) {
+        analyzedSpecs.add(analyzedSpec);
+        if (isMarkingScheduled.compareAndSet(false, true)) {
+            ApplicationManager.getApplication().invokeLater(this::markReportedSpecs, project.getDisposed());
+        }
+    }
+
+    /**
+     * Marks the unused screenshots of all specs reported so far, so that the tool window can display them appropriately.
+     */
+    private void markReportedSpecs() {
+        isMarkingScheduled.set(false);
+        var model = (TerraWdioTreeModel) tree.getModel();
+        AnalyzedSpec analyzedSpec;
+        while ((analyzedSpec = analyzedSpecs.poll()) != null) {
+            analyzedSpec.specNode().setUsedScreenshotNames(analyzedSpec.usedScreenshotNames());
+            model.screenshotsChanged(analyzedSpec.specNode());
+        }
+    }
+
+    /**
+     * A spec whose spec file has to be analyzed.
+     *
+     * @param key            the key of the spec, see {@link UnusedScreenshotsProjectService#specKey(VirtualFile, String)}
+     * @param specFile       the spec file to analyze
+     * @param specFileStamp  the stamp of the spec file at the time the analysis started
+     * @param managerType    the type of the resource manager of the spec file at the time the analysis started
+     * @param specNode       the spec node
+     */
+    private record SpecToAnalyze(String key, VirtualFile specFile, long specFileStamp, String managerType, TreeSpecNode specNode) {
+    }
+
+    /**
+     * A spec whose spec file has been analyzed, along with the names of the screenshots referenced in the spec file.
+     */
+    private record AnalyzedSpec(TreeSpecNode specNode, Set<String> usedScreenshotNames) {
+    }
+}
@@ -0,0 +1,170 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.components.StoragePathMacros;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.xmlb.XmlSerializerUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import com.picimako.terra.wdio.TerraResourceManager;
+
+/**
+ * Stores the results of the unused screenshot analysis of the project, so that they are retained between rebuilds of the
+ * Terra wdio tool window, and IDE restarts.
+ * <p>
+ * For each spec, the names of the screenshots referenced in its spec file are stored, along with the stamp of the spec
+ * file they were collected from (see {@link #stampOf(VirtualFile)}), and the type of the resource manager the spec file
+ * was analyzed with (see {@link #managerTypeOf(Project, VirtualFile)}). The unused screenshots are derived from these names
+ * and the screenshots currently present in the tool window, so screenshots added after the analysis are also marked properly.
+ * The screenshots referenced in a spec file have to be collected again only when the spec file has changed since the last analysis,
+ * or its package has switched to a different Terra test library, which recognizes screenshot names differently.
+ * <p>
+ * The specs are identified by the paths of their wdio roots along with their spec identifiers (see {@link #specKey(VirtualFile, String)}),
+ * so that specs with the same identifier in different wdio roots don't share their results.
+ * <p>
+ * Since this is derived data, it is stored in the project's cache file, and not in the project configuration.
+ *
+ * @see UnusedScreenshotsAnalyzer
+ * @since 1.13.0
+ */
+@State(
+    name = "com.picimako.terra.wdio.toolwindow.UnusedScreenshotsProjectService",
+    storages = {@Storage(StoragePathMacros.CACHE_FILE)}
+)
+@Service(Service.Level.PROJECT)
+public final class UnusedScreenshotsProjectService implements PersistentStateComponent<UnusedScreenshotsProjectService> {
+    /**
+     * Stamp value for spec files whose current contents are not yet saved, so their analysis results are not stored.
+     */
+    static final long NO_STAMP = -1;
+
+    /**
+     * Whether the unused screenshot analysis has been run in the project. Until then, no screenshot is marked as unused.
+     */
+    public boolean isAnalyzed;
+    /**
+     * The screenshot names referenced in each spec, mapped to the keys of the specs, see {@link #specKey(VirtualFile, String)}.
+     */
+    public Map<String, SpecUsages> usagesBySpec = new ConcurrentHashMap<>();
+
+    public static UnusedScreenshotsProjectService getInstance(Project project) {
+        return project.getService(UnusedScreenshotsProjectService.class);
+    }
+
+    /**
+     * Returns the screenshot names referenced in the spec with the given key, if they were collected from the spec file
+     * with the given stamp, by the given type of resource manager, otherwise returns null.
+     */
+    @Nullable
+    Set<String> getUsedScreenshotNames(@NotNull String specKey, long specFileStamp, @NotNull String managerType) {
+        if (specFileStamp == NO_STAMP) return null;
+
+        var usages = usagesBySpec.get(specKey);
+        return usages != null && usages.specFileStamp == specFileStamp && managerType.equals(usages.managerType)
+            ? usages.usedScreenshotNames
+            : null;
+    }
+
+    /**
+     * Stores the screenshot names referenced in the spec with the given key, collected from the spec file with the given stamp,
+     * by the given type of resource manager.
+     */
+    void putUsedScreenshotNames(@NotNull String specKey, long specFileStamp, @NotNull String managerType, @NotNull Set<String> usedScreenshotNames) {
+        if (specFileStamp != NO_STAMP) {
+            usagesBySpec.put(specKey, new SpecUsages(specFileStamp, managerType, usedScreenshotNames));
+        }
+    }
+
+    /**
+     * Removes the stored usages of specs that are no longer present in the project.
+     *
+     * @param specKeys the keys of the specs present in the project
+     */
+    void retainSpecs(@NotNull Set<String> specKeys) {
+        usagesBySpec.keySet().retainAll(specKeys);
+    }
+
+    /**
+     * Returns the key the usages of a spec are stored by.
+     *
+     * @param wdioRoot       the wdio root the spec belongs to, or null if it is not known
+     * @param specIdentifier the spec identifier
+     */
+    static String specKey(@Nullable VirtualFile wdioRoot, @NotNull String specIdentifier) {
+        return wdioRoot != null ? wdioRoot.getPath() + "!" + specIdentifier : specIdentifier;
+    }
+
+    /**
+     * Returns the type of the resource manager that resolves the screenshot names in the argument spec file.
+     * <p>
+     * It changes when the Terra test library of the spec file's package changes, e.g. when switching from terra-toolkit to
+     * terra-functional-testing in its package.json, even though the spec file itself doesn't change.
+     */
+    static String managerTypeOf(@NotNull Project project, @NotNull VirtualFile specFile) {
+        return TerraResourceManager.forFile(project, specFile).getClass().getName();
+    }
+
+    /**
+     * Returns a value that changes whenever the argument spec file is modified, and which is retained between IDE restarts.
+     * <p>
+     * If the spec file has unsaved changes, {@link #NO_STAMP} is returned, since its usages may already differ from
+     * what the file on disk contains.
+     */
+    static long stampOf(@NotNull VirtualFile specFile) {
+        return FileDocumentManager.getInstance().isFileModified(specFile)
+            ? NO_STAMP
+            : 31 * specFile.getTimeStamp() + specFile.getLength();
+    }
+
+    @TestOnly
+    void clear() {
+        isAnalyzed = false;
+        usagesBySpec.clear();
+    }
+
+    @Override
+    public @Nullable UnusedScreenshotsProjectService getState() {
+        return this;
+    }
+
+    @Override
+    public void loadState(@NotNull UnusedScreenshotsProjectService state) {
+        XmlSerializerUtil.copyBean(state, this);
+        //The usages are updated from multiple threads during the analysis
+        usagesBySpec = new ConcurrentHashMap<>(usagesBySpec);
+    }
+
+    /**
+     * The screenshot names referenced in a spec file, the stamp of the spec file they were collected from,
+     * and the type of the resource manager they were collected by.
+     */
+    public static final class SpecUsages {
+        public long specFileStamp;
+        public String managerType;
+        public Set<String> usedScreenshotNames = new HashSet<>();
+
+        //Required for deserialization
+        public SpecUsages() {
+        }
+
+        SpecUsages(long specFileStamp, String managerType, Set<String> usedScreenshotNames) {
+            this.specFileStamp = specFileStamp;
+            this.managerType = managerType;
+            this.usedScreenshotNames = usedScreenshotNames;
+        }
+    }
+}
@@ -16,8 +16,8 @@ import org.jetbrains.annotations.Nullable;
 
 import com.picimako.terra.resources.TerraBundle;
 import com.picimako.terra.settings.TerraApplicationState;
+import com.picimako.terra.wdio.toolwindow.TerraWdioTreeModel;
 import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
-import com.picimako.terra.wdio.toolwindow.node.TreeSpecNode;
 
 /**
  * An action to delete screenshot files via the Terra wdio tool window.
@@ -64,11 +64,11 @@ public class DeleteScreenshotsAction extends AbstractTerraWdioToolWindowAction {
             //so that the changes are reflected in the tool window, otherwise show message dialog that deletion was not successful.
             if (erroredFilePaths.isEmpty()) {
                 var parentSpec = tree.getParentSpecOfSelected();
-                parentSpec.getScreenshots().remove(selectedScreenshotNode);
+                var model = (TerraWdioTreeModel) tree.getModel();
+                model.removeScreenshot(parentSpec, selectedScreenshotNode);
 
                 //If there is no screenshot node left under the parent spec node after the deletion, then remove the spec node as well. Fixes #19.
-                if (parentSpec.screenshotCount() == 0) removeSpecNode(parentSpec, tree);
-                else tree.updateUI();
+                if (parentSpec.screenshotCount() == 0) model.removeSpec(parentSpec);
             } else {
                 Messages.showWarningDialog(project,
                     TerraBundle.toolWindow("delete.could.not.delete.screenshots") + String.join("\n", erroredFilePaths),
@@ -77,25 +77,6 @@ public class DeleteScreenshotsAction extends AbstractTerraWdioToolWindowAction {
         }
     }
 
-    /**
-     * Removes the provided spec node from the tree.
-     * <p>
-     * Since with a simple {@link javax.swing.JTree#updateUI()} call, after the removal, the tree becomes collapsed,
-     * this method also restores the expansion state of the nodes in the tree from before the removal.
-     * <p>
-     * Although the saved state contains the not yet removed spec node as well, it doesn't affect the restoration.
-     *
-     * @param parentSpec the spec node to remove
-     * @param tree       the tree to remove from
-     */
-    private void removeSpecNode(TreeSpecNode parentSpec, TerraWdioTree tree) {
-        //Save the expansion state of nodes from before removing the spec node
-        var expandedNodes = tree.getAllExpandedNodes();
-        tree.getRoot().getSpecs().remove(parentSpec);
-        tree.updateUI();
-        tree.restoreExpansionStateFrom(expandedNodes);
-    }
-
     private boolean isUserSureToDeleteTheScreenshots(@Nullable Project project) {
         return !TerraApplicationState.getInstance().showConfirmationBeforeScreenshotDeletion
             || Messages.showYesNoDialog(project,
@@ -18,6 +18,7 @@ import com.intellij.util.SmartList;
 import org.jetbrains.annotations.Nullable;
 
 import com.picimako.terra.resources.TerraBundle;
+import com.picimako.terra.wdio.toolwindow.TerraWdioTreeModel;
 import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
 import com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode;
 import com.picimako.terra.wdio.toolwindow.node.TreeScreenshotNode;
@@ -101,11 +102,13 @@ public class RenameScreenshotsAction extends AbstractTerraWdioToolWindowAction {
             if (selectedScreenshotNode.getReferences().isEmpty()) {
                 //Since there is no actual file remained for the original screenshot node,
                 // it can be removed from the spec, and the one with the new name will be shown
-                parentSpec.getScreenshots().remove(selectedScreenshotNode);
+                parentSpec.removeScreenshot(selectedScreenshotNode);
             }
             //Reorder and update the UI even when just a portion of the screenshots could be renamed
             parentSpec.reorderScreenshotsAlphabeticallyByDisplayName();
-            tree.updateUI();
+            var model = (TerraWdioTreeModel) tree.getModel();
+            model.nodeStructureChanged(parentSpec);
+            model.nodeAndAncestorsChanged(parentSpec);
             if (!erroredFilePaths.isEmpty()) {
                 Messages.showWarningDialog(project,
                     TerraBundle.toolWindow("rename.could.not.rename.screenshots") + String.join("\n", erroredFilePaths),
@@ -18,8 +18,8 @@ import org.jetbrains.annotations.Nullable;
 
 import com.picimako.terra.resources.TerraBundle;
 import com.picimako.terra.wdio.TerraWdioFolders;
+import com.picimako.terra.wdio.toolwindow.TerraWdioTreeModel;
 import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
-import com.picimako.terra.wdio.toolwindow.node.TreeSpecNode;
 
 /**
  * An action to replace reference screenshot files with latest screenshots via the Terra wdio tool window.
@@ -79,11 +79,9 @@ public class ReplaceReferenceWithLatestAction extends AbstractTerraWdioToolWindo
                 }
             });
 
-            if (erroredFilePaths.isEmpty()) {
-                var parentSpec = (TreeSpecNode) tree.getSelectionPath().getParentPath().getLastPathComponent();
-                parentSpec.reorderScreenshotsAlphabeticallyByDisplayName();
-                tree.updateUI();
-            } else {
+            //The images of the screenshot have changed even if not all of them could be replaced
+            ((TerraWdioTreeModel) tree.getModel()).nodeAndAncestorsChanged(selectedScreenshotNode);
+            if (!erroredFilePaths.isEmpty()) {
                 Messages.showWarningDialog(project,
                     TerraBundle.toolWindow("replace.reference.could.not.replace.screenshots") + String.join("\n", erroredFilePaths),
                     TerraBundle.toolWindow("replace.reference.error.during.replacement"));
@@ -110,8 +108,8 @@ public class ReplaceReferenceWithLatestAction extends AbstractTerraWdioToolWindo
      * @return true if the relative path of the arguments match, false otherwise
      */
     private boolean relativePathEquals(String latestPath, String referencePath) {
-        return latestPath.substring(latestPath.lastIndexOf(TerraWdioFolders.latestPath()) + TerraWdioFolders.latestPath().length())
-            .equals(referencePath.substring(referencePath.lastIndexOf(TerraWdioFolders.referencePath()) + TerraWdioFolders.referencePath().length()));
+        return latestPath.substring(latestPath.lastIndexOf(TerraWdioFolders.LATEST_RELATIVE_PATH) + TerraWdioFolders.LATEST_RELATIVE_PATH.length())
+            .equals(referencePath.substring(referencePath.lastIndexOf(TerraWdioFolders.REFERENCE_RELATIVE_PATH) + TerraWdioFolders.REFERENCE_RELATIVE_PATH.length()));
     }
 
     /**
@@ -7,7 +7,7 @@ import java.util.Objects;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.util.SmartList;
+import com.intellij.util.containers.Interner;
 import lombok.Getter;
 import org.jetbrains.annotations.NotNull;
 
@@ -23,15 +23,21 @@ import org.jetbrains.annotations.NotNull;
  * <p>
  * Each node stores the name of the file or folder it references, and also the actual files or folders as {@link VirtualFile} instances
  * (called references in this context), so that the file system resources can be reached and manipulated easier.
+ * <p>
+ * Since a tool window may contain a node for each of hundreds of thousands of screenshots, nodes are kept compact: the files are
+ * stored by their ids (see {@link VirtualFileIdList}), and the display names are interned, because the same screenshot names are
+ * usually used in many spec files.
  */
 public abstract class AbstractTerraWdioTreeNode implements TerraWdioTreeNode {
+    private static final Interner<String> DISPLAY_NAMES = Interner.createWeakInterner();
+
     @Getter
-    protected final List<VirtualFile> references = new SmartList<>();
+    protected final List<VirtualFile> references = new VirtualFileIdList();
     protected final String displayName;
     protected final Project project;
 
     protected AbstractTerraWdioTreeNode(@NotNull String displayName, Project project) {
-        this.displayName = displayName;
+        this.displayName = DISPLAY_NAMES.intern(displayName);
         this.project = project;
     }
 
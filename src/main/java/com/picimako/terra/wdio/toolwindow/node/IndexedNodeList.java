@@ -0,0 +1,204 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow.node;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A list of tree nodes that, besides keeping the nodes in a stable order, also indexes them by their display names.
+ * <p>
+ * Since nodes are identified by their display names (see {@link AbstractTerraWdioTreeNode#equals(Object)}), this makes
+ * both finding a node by name ({@link #findByName(String)}), and finding the position of a node ({@link #indexOf(Object)}
+ * and {@link #contains(Object)}) constant time operations, instead of linear ones. These are used heavily when building
+ * the tree model, and when the tree is being rendered.
+ * <p>
+ * The positions of nodes are maintained as nodes are added and removed. When a node is inserted or removed in the middle of the list,
+ * e.g. when a screenshot is added to or removed from a loaded spec, only the positions of the nodes after it are shifted.
+ * Sorting the list, or replacing a node in it, invalidates the positions, and they are recalculated, in a single pass, upon the next lookup.
+ * <p>
+ * This list is not thread-safe, similarly to the {@link com.intellij.util.SmartList}s previously used in its place.
+ *
+ * @param <T> the type of nodes stored in this list
+ * @since 1.13.0
+ */
+public final class IndexedNodeList<T extends AbstractTerraWdioTreeNode> extends AbstractList<T> implements RandomAccess {
+    private final List<T> nodes = new ArrayList<>();
+    private final Map<String, T> nodesByName = new HashMap<>();
+    /**
+     * The positions of the nodes by their display names. Null, if it has to be recalculated.
+     */
+    @Nullable
+    private Map<String, Integer> positionsByName = new HashMap<>();
+
+    /**
+     * Returns the node with the argument display name, or null if there is no such node in this list.
+     */
+    @Nullable
+    public T findByName(@NotNull String displayName) {
+        return nodesByName.get(displayName);
+    }
+
+    @Override
+    public T get(int index) {
+        return nodes.get(index);
+    }
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public void add(int index, T node) {
+        nodes.add(index, node);
+        nodesByName.putIfAbsent(node.getDisplayName(), node);
+        if (positionsByName != null) {
+            shiftPositionsAfterInsertion(index);
+            //The inserted node may precede another node with the same name
+            Integer position = positionsByName.get(node.getDisplayName());
+            if (position == null || position > index) {
+                positionsByName.put(node.getDisplayName(), index);
+            }
+        }
+        modCount++;
+    }
+
+    @Override
+    public T set(int index, T node) {
+        T previous = nodes.set(index, node);
+        unindex(previous);
+        nodesByName.putIfAbsent(node.getDisplayName(), node);
+        positionsByName = null;
+        return previous;
+    }
+
+    @Override
+    public T remove(int index) {
+        T removed = nodes.remove(index);
+        if (positionsByName != null) {
+            unindex(removed, index);
+        } else {
+            unindex(removed);
+        }
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        nodes.clear();
+        nodesByName.clear();
+        positionsByName = new HashMap<>();
+        modCount++;
+    }
+
+    @Override
+    public void sort(Comparator<? super T> comparator) {
+        nodes.sort(comparator);
+        positionsByName = null;
+        modCount++;
+    }
+
+    @Override
+    public int indexOf(Object object) {
+        if (!(object instanceof AbstractTerraWdioTreeNode node)) return -1;
+
+        Integer position = positions().get(node.getDisplayName());
+        return position != null && nodes.get(position).equals(object) ? position : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object object) {
+        //Nodes with the same display name are equal, and there is always at most one of them in the tree
+        return indexOf(object);
+    }
+
+    @Override
+    public boolean contains(Object object) {
+        return indexOf(object) != -1;
+    }
+
+    private Map<String, Integer> positions() {
+        if (positionsByName == null) {
+            positionsByName = new HashMap<>(nodes.size());
+            for (int i = 0; i < nodes.size(); i++) {
+                positionsByName.putIfAbsent(nodes.get(i).getDisplayName(), i);
+            }
+        }
+        return positionsByName;
+    }
+
+    /**
+     * Increments the positions of the nodes after the one inserted at the argument index.
+     * <p>
+     * The nodes are iterated backwards, so that an already incremented position is not mistaken for the old position
+     * of a subsequent node with the same name.
+     */
+    private void shiftPositionsAfterInsertion(int index) {
+        for (int i = nodes.size() - 1; i > index; i--) {
+            String displayName = nodes.get(i).getDisplayName();
+            Integer position = positionsByName.get(displayName);
+            if (position != null && position == i - 1) {
+                positionsByName.put(displayName, i);
+            }
+        }
+    }
+
+    /**
+     * Removes the argument node, removed from the argument index, from the name and position indices, and shifts the positions
+     * of the nodes after it. If there is another node with the same name, it is indexed instead.
+     * <p>
+     * Unlike {@link #unindex(AbstractTerraWdioTreeNode)}, it looks for the other node with the same name only among the nodes whose
+     * positions have to be shifted anyway, since a preceding one is already known from the position index.
+     */
+    private void unindex(T removed, int index) {
+        String displayName = removed.getDisplayName();
+        Integer removedPosition = positionsByName.get(displayName);
+        T sameNamed = removedPosition != null && removedPosition < index ? nodes.get(removedPosition) : null;
+        if (removedPosition != null && removedPosition == index) {
+            positionsByName.remove(displayName);
+        }
+        for (int i = index; i < nodes.size(); i++) {
+            T node = nodes.get(i);
+            Integer position = positionsByName.get(node.getDisplayName());
+            if (position != null && position == i + 1) {
+                positionsByName.put(node.getDisplayName(), i);
+            } else if (sameNamed == null && displayName.equals(node.getDisplayName())) {
+                sameNamed = node;
+                positionsByName.put(displayName, i);
+            }
+        }
+        if (nodesByName.get(displayName) == removed) {
+            if (sameNamed != null) {
+                nodesByName.put(displayName, sameNamed);
+            } else {
+                nodesByName.remove(displayName);
+            }
+        }
+    }
+
+    /**
+     * Removes the argument node from the name index, and if there is another node with the same name, indexes that one instead.
+     */
+    private void unindex(T node) {
+        String displayName = node.getDisplayName();
+        if (nodesByName.get(displayName) == node) {
+            nodesByName.remove(displayName);
+            for (T remaining : nodes) {
+                if (displayName.equals(remaining.getDisplayName())) {
+                    nodesByName.put(displayName, remaining);
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow.node;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A node in the {@link TerraWdioTree} that contains the spec nodes of a single wdio root.
+ * <p>
+ * When the project has a single wdio root, the spec nodes are contained by the root node ({@link TreeModelDataRoot}),
+ * otherwise they are grouped under the package nodes ({@link TreePackageNode}) of their wdio roots.
+ *
+ * @since 1.13.0
+ */
+public interface SpecNodeContainer extends TerraWdioTreeNode {
+
+    /**
+     * Returns the spec nodes in this container.
+     */
+    IndexedNodeList<TreeSpecNode> getSpecs();
+
+    /**
+     * Returns the wdio root whose specs this container contains, or null if it is not known.
+     */
+    @Nullable
+    VirtualFile getWdioRoot();
+
+    /**
+     * Returns the spec node with the argument spec folder identifier, or null if there is no such node.
+     *
+     * @param specFolderIdentifier the identifier of the spec folder, see {@link com.picimako.terra.wdio.TerraWdioFolders#specFolderIdentifier(String, com.intellij.openapi.project.Project)}
+     */
+    @Nullable
+    default TreeSpecNode findSpec(@NotNull String specFolderIdentifier) {
+        return getSpecs().findByName(specFolderIdentifier);
+    }
+}
@@ -4,22 +4,36 @@ package com.picimako.terra.wdio.toolwindow.node;
 
 import static com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode.asScreenshot;
 import static com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode.asSpec;
+import static com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode.isPackage;
 import static com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode.isScreenshot;
 import static com.picimako.terra.wdio.toolwindow.node.TerraWdioTreeNode.isSpec;
 
 import java.awt.*;
-import java.util.Enumeration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
 import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
 
 import com.intellij.icons.AllIcons;
 import com.intellij.ide.util.treeView.NodeRenderer;
+import com.intellij.ui.SimpleTextAttributes;
 import com.intellij.util.PlatformIcons;
 import org.intellij.images.fileTypes.impl.ImageFileType;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import com.picimako.terra.resources.TerraBundle;
+import com.picimako.terra.wdio.imagecompare.DiffImageAnalysis;
+import com.picimako.terra.wdio.imagecompare.RegressionSeverity;
+import com.picimako.terra.wdio.imagecompare.ScreenshotVerdict;
 import com.picimako.terra.wdio.toolwindow.TerraWdioTreeModel;
 
 /**
@@ -41,6 +55,7 @@ public class TerraWdioTree extends JTree {
         setCellRenderer(new TerraWdioNodeRenderer());
         getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
         setExpandsSelectedPaths(true);
+        addTreeWillExpandListener(new SpecLoadingTreeWillExpandListener());
     }
 
     /**
@@ -59,28 +74,92 @@ public class TerraWdioTree extends JTree {
         return (TreeModelDataRoot) getModel().getRoot();
     }
 
+    @Override
+    protected TreeModelListener createTreeModelListener() {
+        return new RootReplacementAwareTreeModelHandler();
+    }
+
     /**
-     * Gets all expanded nodes of this tree, the expanded descendants of the root node.
+     * Returns the path in the current model that corresponds to the argument path of a previous root node, or null if any of
+     * the nodes in the path doesn't exist anymore. Nodes are matched by equality, i.e. by their display names.
      */
-    public Enumeration<TreePath> getAllExpandedNodes() {
-        return getExpandedDescendants(new TreePath(getRoot()));
+    @Nullable
+    private TreePath findCorrespondingPath(TreePath previousPath) {
+        var model = getModel();
+        var path = new TreePath(model.getRoot());
+        for (int i = 1; i < previousPath.getPathCount(); i++) {
+            int index = model.getIndexOfChild(path.getLastPathComponent(), previousPath.getPathComponent(i));
+            if (index < 0) return null;
+            path = path.pathByAddingChild(model.getChild(path.getLastPathComponent(), index));
+        }
+        return path;
     }
 
     /**
-     * Restores the expansion state of nodes to a previous state (the argument expanded nodes).
-     *
-     * @param expandedNodes the previous state of nodes
+     * Loads the screenshot nodes of spec nodes before they are expanded, so that the tree lays out the expanded spec node
+     * according to the number of its loaded screenshot nodes, instead of a calculated or restored count that may be stale.
      */
-    public void restoreExpansionStateFrom(Enumeration<TreePath> expandedNodes) {
-        while (expandedNodes.hasMoreElements()) {
-            expandPath(expandedNodes.nextElement());
+    private static final class SpecLoadingTreeWillExpandListener implements TreeWillExpandListener {
+
+        @Override
+        public void treeWillExpand(TreeExpansionEvent event) {
+            var node = event.getPath().getLastPathComponent();
+            if (isSpec(node) && ((JTree) event.getSource()).getModel() instanceof TerraWdioTreeModel model) {
+                model.ensureScreenshotsLoaded(asSpec(node));
+            }
+        }
+
+        @Override
+        public void treeWillCollapse(TreeExpansionEvent event) {
+        }
+    }
+
+    /**
+     * Keeps the expansion and selection state of the tree when the root node of the model is replaced, e.g. when the model is rebuilt.
+     * <p>
+     * By default, {@link JTree} collapses all nodes when the structure of the whole tree changes, so the previously expanded and selected
+     * paths are mapped to the corresponding nodes of the new root, and are expanded and selected again.
+     * Changes of other parts of the tree are reported via fine-grained events, which keep the state by themselves.
+     */
+    private final class RootReplacementAwareTreeModelHandler extends TreeModelHandler {
+
+        @Override
+        public void treeStructureChanged(TreeModelEvent e) {
+            if (e == null || e.getTreePath() == null || e.getTreePath().getPathCount() != 1) {
+                super.treeStructureChanged(e);
+                return;
+            }
+
+            //The new root is equal to the previous one, so the paths expanded under the previous root can be queried by it
+            var expandedPaths = new ArrayList<TreePath>();
+            var expanded = getExpandedDescendants(e.getTreePath());
+            if (expanded != null) {
+                while (expanded.hasMoreElements()) {
+                    expandedPaths.add(expanded.nextElement());
+                }
+            }
+            var selectedPaths = getSelectionPaths();
+
+            super.treeStructureChanged(e);
+
+            //Parents are expanded before their children, so that the paths are looked up in the order of their lengths
+            expandedPaths.sort(Comparator.comparingInt(TreePath::getPathCount));
+            for (var expandedPath : expandedPaths) {
+                var path = findCorrespondingPath(expandedPath);
+                if (path != null) expandPath(path);
+            }
+            if (selectedPaths != null) {
+                var paths = Arrays.stream(selectedPaths).map(TerraWdioTree.this::findCorrespondingPath).filter(Objects::nonNull).toArray(TreePath[]::new);
+                setSelectionPaths(paths);
+            }
         }
     }
 
     /**
      * Tree cell rendered that configures each entry in the tree with an icon (at the left) and the name of the node (at the right).
      * <p>
-     * The root node and specs are configured with a folder icon, while screenshots are customized with an image file icon.
+     * The root node and specs are configured with a folder icon, packages with a module icon, while screenshots are customized
+     * with an image file icon.
      */
     public static final class TerraWdioNodeRenderer extends NodeRenderer {
 
@@ -92,6 +171,12 @@ public class TerraWdioTree extends JTree {
          * Screenshot nodes are marked with a dedicated diff icon in case they have at least one diff image.
          * <p>
          * Spec nodes are also marked with the same diff icon when one of their underlying screenshots has at least one diff image.
+         * <p>
+         * Screenshot nodes with latest images are also given a badge showing whether their latest images are within the mismatch
+         * tolerance of their screenshot validations. See {@link TreeScreenshotNode#getVerdictSummary()}.
+         * <p>
+         * Screenshot nodes with analyzed diff images are also given a badge showing the severity of their most severe regression.
+         * See {@link TreeScreenshotNode#getMostSevereDiffAnalysis()}.
          */
         @Override
         public void customizeCellRenderer(@NotNull JTree tree, Object value, boolean selected, boolean expanded, boolean leaf, int row, boolean hasFocus) {
@@ -100,13 +185,34 @@ public class TerraWdioTree extends JTree {
             if (value instanceof TreeModelDataRoot) {
                 setIcon(PlatformIcons.FOLDER_ICON);
                 setFont(getFont().deriveFont(Font.PLAIN));
+            } else if (isPackage(value)) {
+                setIcon(AllIcons.Nodes.Module);
             } else if (isSpec(value)) {
-                setIcon(
-                    asSpec(value).getScreenshots().stream().anyMatch(TreeScreenshotNode::hasDiff),
-                    asSpec(value).getScreenshots().stream().anyMatch(TreeScreenshotNode::isUnused),
-                    PlatformIcons.FOLDER_ICON);
+                setIcon(asSpec(value).hasDiff(), asSpec(value).hasUnused(), PlatformIcons.FOLDER_ICON);
             } else if (isScreenshot(value)) {
                 setIcon(asScreenshot(value).hasDiff(), asScreenshot(value).isUnused(), ImageFileType.INSTANCE.getIcon());
+                appendVerdictBadge(asScreenshot(value).getVerdictSummary());
+                appendRegressionBadge(asScreenshot(value).getMostSevereDiffAnalysis());
+            }
+        }
+
+        private void appendRegressionBadge(@Nullable DiffImageAnalysis analysis) {
+            if (analysis == null || analysis.severity() == RegressionSeverity.NONE) return;
+
+            append("  " + TerraBundle.toolWindow("regression.badge", analysis.severity().getDisplayName(),
+                    String.format("%.2f", analysis.mismatchPercentage()), analysis.regions().size()),
+                analysis.severity().compareTo(RegressionSeverity.MAJOR) >= 0 ? SimpleTextAttributes.ERROR_ATTRIBUTES : SimpleTextAttributes.GRAYED_ATTRIBUTES);
+        }
+
+        private void appendVerdictBadge(@Nullable ScreenshotVerdict.Summary summary) {
+            if (summary == null) return;
+
+            if (summary.isPassed()) {
+                append("  " + TerraBundle.toolWindow("verdict.passed"), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            } else {
+                String mismatch = (summary.isMismatchLowerBound() ? ">" : "") + String.format("%.2f", summary.maxMismatchPercentage());
+                append("  " + TerraBundle.toolWindow("verdict.failed", summary.failedCount(), summary.totalCount(), mismatch),
+                    SimpleTextAttributes.ERROR_ATTRIBUTES);
             }
         }
 
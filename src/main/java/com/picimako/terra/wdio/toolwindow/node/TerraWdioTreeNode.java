@@ -4,12 +4,14 @@ package com.picimako.terra.wdio.toolwindow.node;
 
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * Represents a node in the {@link TerraWdioTree} which then is visualized within the Terra wdio tool window as a tree.
  *
  * @see TreeModelDataRoot
+ * @see TreePackageNode
  * @see TreeSpecNode
  * @see TreeScreenshotNode
  */
@@ -20,6 +22,18 @@ public interface TerraWdioTreeNode extends Disposable {
      */
     String getDisplayName();
 
+    /**
+     * Creates a TreePackageNode for a package with its own wdio root.
+     *
+     * @param displayName the displayName of the package
+     * @param wdioRoot    the wdio root of the package
+     * @return the new node
+     * @since 1.13.0
+     */
+    static TreePackageNode forPackage(@NotNull String displayName, @NotNull VirtualFile wdioRoot, Project project) {
+        return new TreePackageNode(displayName, wdioRoot, project);
+    }
+
     /**
      * Creates a TerraWdioTreeSpecNode configured as a spec file.
      *
@@ -30,6 +44,18 @@ public interface TerraWdioTreeNode extends Disposable {
         return new TreeSpecNode(displayName, project);
     }
 
+    /**
+     * Creates a TerraWdioTreeSpecNode configured as a spec file, whose screenshot nodes are loaded lazily via the argument loader.
+     *
+     * @param displayName      the displayName of the spec file
+     * @param screenshotLoader creates the screenshot nodes of the spec node on first access
+     * @return the new node
+     * @since 1.13.0
+     */
+    static TreeSpecNode forSpec(@NotNull String displayName, Project project, @NotNull TreeSpecNode.ScreenshotLoader screenshotLoader) {
+        return new TreeSpecNode(displayName, project, screenshotLoader);
+    }
+
     /**
      * Creates a TerraWdioTreeScreenshotNode configured as a screenshot.
      *
@@ -40,6 +66,28 @@ public interface TerraWdioTreeNode extends Disposable {
         return new TreeScreenshotNode(displayName, project);
     }
 
+    /**
+     * Gets whether the argument node corresponds to a package.
+     *
+     * @param node the node the check
+     * @return true if the node is a package, otherwise false
+     * @since 1.13.0
+     */
+    static boolean isPackage(Object node) {
+        return node instanceof TreePackageNode;
+    }
+
+    /**
+     * Returns the argument object as a {@link TreePackageNode}.
+     *
+     * @param node the object to cast
+     * @return the cast object
+     * @since 1.13.0
+     */
+    static TreePackageNode asPackage(Object node) {
+        return (TreePackageNode) node;
+    }
+
     /**
      * Gets whether the argument node corresponds to a spec.
      *
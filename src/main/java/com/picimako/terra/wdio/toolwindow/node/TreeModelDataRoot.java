@@ -2,13 +2,16 @@
 
 package com.picimako.terra.wdio.toolwindow.node;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import com.intellij.openapi.project.Project;
-import com.intellij.util.SmartList;
+import com.intellij.openapi.vfs.VirtualFile;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Setter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import com.picimako.terra.resources.TerraBundle;
 import com.picimako.terra.wdio.toolwindow.ScreenshotStatisticsProjectService;
@@ -22,29 +25,122 @@ import com.picimako.terra.wdio.toolwindow.ScreenshotStatisticsProjectService;
  * <p>
  * This node also displays the basic statistics about the overall, distinct number of specs and screenshot files in the project.
  * Both the spec and screenshot values handle singular and plural cases based on the count values.
+ * <p>
+ * If there are multiple wdio roots in the project, e.g. in case of a monorepo, the root contains a package node for
+ * each wdio root (see {@link #getPackages()}), and the spec nodes are contained by those package nodes, instead of the root.
  */
 @EqualsAndHashCode(callSuper = true)
-public class TreeModelDataRoot extends AbstractTerraWdioTreeNode {
+public class TreeModelDataRoot extends AbstractTerraWdioTreeNode implements SpecNodeContainer {
 
     @Getter
-    private final List<TreeSpecNode> specs = new SmartList<>();
+    private final IndexedNodeList<TreeSpecNode> specs = new IndexedNodeList<>();
+    /**
+     * The package nodes, in case there are multiple wdio roots in the project.
+     *
+     * @since 1.13.0
+     */
+    @Getter
+    private final IndexedNodeList<TreePackageNode> packages = new IndexedNodeList<>();
+    /**
+     * The wdio root whose specs are contained directly by this root, in case there is a single wdio root in the project.
+     *
+     * @since 1.13.0
+     */
+    @Getter
+    @Setter
+    @Nullable
+    @EqualsAndHashCode.Exclude
+    private VirtualFile wdioRoot;
+    /**
+     * Whether this root is a placeholder displayed while the actual contents of the tree are being collected.
+     */
+    @Getter
+    @Setter
+    @EqualsAndHashCode.Exclude
+    private boolean loading;
 
     public TreeModelDataRoot(@NotNull String displayName, Project project) {
         super(displayName, project);
     }
 
+    /**
+     * Returns the spec node with the argument spec folder identifier, or null if there is no such node.
+     *
+     * @param specFolderIdentifier the identifier of the spec folder, see {@link com.picimako.terra.wdio.TerraWdioFolders#specFolderIdentifier(String, Project)}
+     * @since 1.13.0
+     */
+    @Override
+    @Nullable
+    public TreeSpecNode findSpec(@NotNull String specFolderIdentifier) {
+        return specs.findByName(specFolderIdentifier);
+    }
+
+    /**
+     * Returns whether the spec nodes are grouped under package nodes, due to having multiple wdio roots in the project.
+     *
+     * @since 1.13.0
+     */
+    public boolean hasPackages() {
+        return !packages.isEmpty();
+    }
+
+    /**
+     * Returns the nodes containing the spec nodes: the package nodes if there are any, otherwise this root node.
+     *
+     * @since 1.13.0
+     */
+    public List<SpecNodeContainer> getSpecContainers() {
+        return hasPackages() ? List.copyOf(packages) : List.of(this);
+    }
+
+    /**
+     * Returns the node containing the spec nodes of the argument wdio root, or null if there is no such node,
+     * e.g. because the wdio root has been created since the contents of the tree were collected.
+     *
+     * @param wdioRoot the wdio root to find the container of
+     * @since 1.13.0
+     */
+    @Nullable
+    public SpecNodeContainer findSpecContainer(@NotNull VirtualFile wdioRoot) {
+        if (!hasPackages()) {
+            return this.wdioRoot == null || this.wdioRoot.equals(wdioRoot) ? this : null;
+        }
+        for (var packageNode : packages) {
+            if (packageNode.getWdioRoot().equals(wdioRoot)) return packageNode;
+        }
+        return null;
+    }
+
+    /**
+     * Returns all spec nodes in the tree, regardless of whether they are grouped under package nodes.
+     *
+     * @since 1.13.0
+     */
+    public List<TreeSpecNode> getAllSpecs() {
+        if (!hasPackages()) return specs;
+
+        var allSpecs = new ArrayList<TreeSpecNode>();
+        for (var packageNode : packages) {
+            allSpecs.addAll(packageNode.getSpecs());
+        }
+        return allSpecs;
+    }
+
     @Override
     public String toString() {
+        if (loading) return TerraBundle.toolWindow("root.node.loading");
+
         return ScreenshotStatisticsProjectService.getInstance(project).isShowStatistics
-            ? TerraBundle.toolWindow("root.node.name.with.stat", specs.size(), screenshotCount())
+            ? TerraBundle.toolWindow("root.node.name.with.stat", getAllSpecs().size(), screenshotCount())
             : displayName;
     }
 
     private int screenshotCount() {
-        return specs.stream()
-            .flatMap(spec -> spec.getScreenshots().stream())
-            .mapToInt(screenshot -> screenshot.getReferences().size())
-            .sum();
+        int count = 0;
+        for (var spec : getAllSpecs()) {
+            count += spec.getReferenceImageCount();
+        }
+        return count;
     }
 
     @Override
@@ -52,5 +148,7 @@ public class TreeModelDataRoot extends AbstractTerraWdioTreeNode {
         super.dispose();
         specs.forEach(TreeSpecNode::dispose);
         specs.clear();
+        packages.forEach(TreePackageNode::dispose);
+        packages.clear();
     }
 }
@@ -0,0 +1,45 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow.node;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import com.picimako.terra.wdio.toolwindow.ScreenshotStatisticsProjectService;
+
+/**
+ * Represents a package with its own wdio root, e.g. a package in a monorepo, in the tree displayed in the Terra wdio tool window.
+ * <p>
+ * Package nodes are displayed only when there are multiple wdio roots in the project. In that case the spec nodes
+ * of each wdio root are displayed under the package node of that wdio root, instead of directly under the root node.
+ *
+ * @since 1.13.0
+ */
+@Getter
+public class TreePackageNode extends AbstractTerraWdioTreeNode implements SpecNodeContainer {
+
+    private final IndexedNodeList<TreeSpecNode> specs = new IndexedNodeList<>();
+    @NotNull
+    private final VirtualFile wdioRoot;
+
+    public TreePackageNode(@NotNull String displayName, @NotNull VirtualFile wdioRoot, Project project) {
+        super(displayName, project);
+        this.wdioRoot = wdioRoot;
+    }
+
+    @Override
+    public String toString() {
+        return ScreenshotStatisticsProjectService.getInstance(project).isShowStatistics
+            ? specs.isEmpty() ? displayName : displayName + " (" + specs.size() + ")"
+            : displayName;
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        specs.forEach(TreeSpecNode::dispose);
+        specs.clear();
+    }
+}
@@ -6,26 +6,84 @@ import java.util.List;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.util.SmartList;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import com.picimako.terra.wdio.imagecompare.DiffImageAnalysis;
+import com.picimako.terra.wdio.imagecompare.DiffImageAnalysisService;
+import com.picimako.terra.wdio.imagecompare.ScreenshotVerdict;
+import com.picimako.terra.wdio.imagecompare.ScreenshotVerdictService;
 import com.picimako.terra.wdio.toolwindow.ScreenshotStatisticsProjectService;
 
 /**
  * Represents a screenshot node in the tree displayed in the Terra wido tool window.
+ * <p>
+ * Changes of the number of reference, diff and latest images, and of the unused state, are reported to the parent spec node,
+ * so that it can keep its aggregated counts up-to-date. See {@link TreeSpecNode#getReferenceImageCount()}.
  */
 @Getter
-public class TreeScreenshotNode extends AbstractTerraWdioTreeNode {
+public class TreeScreenshotNode extends AbstractTerraWdioTreeNode implements VirtualFileIdList.SizeListener {
 
-    protected final List<VirtualFile> diffs = new SmartList<>();
-    protected final List<VirtualFile> latests = new SmartList<>();
-    @Setter
+    protected final List<VirtualFile> diffs = new VirtualFileIdList();
+    protected final List<VirtualFile> latests = new VirtualFileIdList();
     protected boolean unused = false;
+    /**
+     * The spec node this node has been added to.
+     */
+    @Nullable
+    @Setter(AccessLevel.PACKAGE)
+    private TreeSpecNode parent;
+    /**
+     * The summary of the verdicts of the latest images of this node, as of the last verdict scan.
+     */
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    private ScreenshotVerdict.Summary verdictSummary;
+    /**
+     * The analysis of the most severe diff image of this node, as of the last diff image scan.
+     */
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    private DiffImageAnalysis mostSevereDiffAnalysis;
 
     public TreeScreenshotNode(@NotNull String displayName, Project project) {
         super(displayName, project);
+        ((VirtualFileIdList) references).setSizeListener(this);
+        ((VirtualFileIdList) diffs).setSizeListener(this);
+        ((VirtualFileIdList) latests).setSizeListener(this);
+    }
+
+    /**
+     * Sets whether this screenshot is unused, and updates the number of unused screenshots of the parent spec node.
+     */
+    public void setUnused(boolean unused) {
+        if (this.unused != unused && parent != null) {
+            parent.updateCounts(0, 0, 0, unused ? 1 : -1);
+        }
+        this.unused = unused;
+    }
+
+    @Override
+    public void sizeChanged(@NotNull VirtualFileIdList list, int oldSize, int newSize) {
+        if (parent == null) return;
+
+        if (list == references) {
+            parent.updateCounts(newSize - oldSize, 0, 0, 0);
+        } else if (list == diffs) {
+            parent.updateCounts(0, presenceChange(oldSize, newSize), 0, 0);
+        } else if (list == latests) {
+            parent.updateCounts(0, 0, presenceChange(oldSize, newSize), 0);
+        }
+    }
+
+    /**
+     * Returns 1 if the list has become non-empty, -1 if it has become empty, and 0 otherwise.
+     */
+    private static int presenceChange(int oldSize, int newSize) {
+        return (newSize > 0 ? 1 : 0) - (oldSize > 0 ? 1 : 0);
     }
 
     public void addDiff(VirtualFile virtualFile) {
@@ -36,6 +94,40 @@ public class TreeScreenshotNode extends AbstractTerraWdioTreeNode {
         latests.add(virtualFile);
     }
 
+    /**
+     * Removes the argument file from the reference, diff and latest images of this node.
+     *
+     * @param virtualFile the file to remove
+     */
+    public void removeImage(VirtualFile virtualFile) {
+        references.remove(virtualFile);
+        diffs.remove(virtualFile);
+        latests.remove(virtualFile);
+    }
+
+    /**
+     * Removes the reference, diff and latest images located at the argument path from this node.
+     * <p>
+     * Unlike {@link #removeImage(VirtualFile)}, it also removes images whose {@link VirtualFile} instances have been
+     * replaced since they were added, e.g. when a file was deleted and then recreated. Images that have been deleted,
+     * and thus cannot be resolved anymore, are removed as well.
+     *
+     * @param path the path of the images to remove
+     * @since 1.13.0
+     */
+    public void removeImagesAt(@NotNull String path) {
+        references.removeIf(file -> file == null || path.equals(file.getPath()));
+        diffs.removeIf(file -> file == null || path.equals(file.getPath()));
+        latests.removeIf(file -> file == null || path.equals(file.getPath()));
+    }
+
+    /**
+     * Gets whether this node has any reference, diff or latest image.
+     */
+    public boolean hasAnyImage() {
+        return !references.isEmpty() || !diffs.isEmpty() || !latests.isEmpty();
+    }
+
     /**
      * Gets whether this node has at least one latest image.
      */
@@ -50,6 +142,52 @@ public class TreeScreenshotNode extends AbstractTerraWdioTreeNode {
         return !diffs.isEmpty();
     }
 
+    /**
+     * Gets the summary of the pass/fail verdicts of the latest images of this node, or null if none of them has a verdict.
+     * <p>
+     * The summary is not calculated on each call, e.g. when the node is rendered, it is the one calculated by the last
+     * {@link #updateVerdictSummary()} call.
+     *
+     * @see ScreenshotVerdictService
+     * @since 1.13.0
+     */
+    @Nullable
+    public ScreenshotVerdict.Summary getVerdictSummary() {
+        return verdictSummary;
+    }
+
+    /**
+     * Calculates the summary of the verdicts of the latest images of this node from the results of the last verdict scan.
+     *
+     * @since 1.13.0
+     */
+    public void updateVerdictSummary() {
+        verdictSummary = hasLatest() ? ScreenshotVerdictService.getInstance(project).summarize(latests) : null;
+    }
+
+    /**
+     * Gets the analysis of the most severe diff image of this node, or null if none of them has been analyzed yet.
+     * <p>
+     * The analysis is not looked up on each call, e.g. when the node is rendered, it is the one found by the last
+     * {@link #updateMostSevereDiffAnalysis()} call.
+     *
+     * @see DiffImageAnalysisService
+     * @since 1.13.0
+     */
+    @Nullable
+    public DiffImageAnalysis getMostSevereDiffAnalysis() {
+        return mostSevereDiffAnalysis;
+    }
+
+    /**
+     * Finds the analysis of the most severe diff image of this node among the results of the last diff image scan.
+     *
+     * @since 1.13.0
+     */
+    public void updateMostSevereDiffAnalysis() {
+        mostSevereDiffAnalysis = hasDiff() ? DiffImageAnalysisService.getInstance(project).mostSevereOf(diffs) : null;
+    }
+
     @Override
     public String toString() {
         return ScreenshotStatisticsProjectService.getInstance(project).isShowStatistics
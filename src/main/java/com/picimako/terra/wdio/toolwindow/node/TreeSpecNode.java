@@ -4,17 +4,22 @@ package com.picimako.terra.wdio.toolwindow.node;
 
 import static java.util.Comparator.comparing;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.util.SmartList;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import com.picimako.terra.wdio.TerraWdioFolders;
 import com.picimako.terra.wdio.toolwindow.ScreenshotStatisticsProjectService;
 
 /**
@@ -22,20 +27,280 @@ import com.picimako.terra.wdio.toolwindow.ScreenshotStatisticsProjectService;
  * <p>
  * Each spec node knows about, and stores the screenshots (as nodes) that it contains.
  * <p>
+ * It also maintains aggregated counts of its screenshots, e.g. the number of screenshots that have diff images. These are
+ * updated incrementally as screenshot nodes are added and removed, and as the images of the screenshot nodes change,
+ * so that rendering a spec node doesn't require iterating over its screenshots.
+ * <p>
  * The number of underlying screenshots may be zero, because there might be cases when all tests within the corresponding
  * spec file are implemented without taking any screenshots.
+ * <p>
+ * <b>Lazy loading</b>
+ * <p>
+ * Spec nodes created with a {@link ScreenshotLoader} store only their spec folders of each image type, and the counts calculated
+ * from the names of the files in those folders (see {@link #recount()}), and they don't create their screenshot nodes until
+ * those are first accessed, e.g. when the spec node is expanded in the tool window. Loaded screenshot nodes can be released
+ * via {@link #releaseScreenshots()}, e.g. under memory pressure, and are loaded again on their next access.
+ * <p>
+ * Since screenshot nodes may be released, the unused state of the screenshots is stored in this node as well, as the set of
+ * screenshot names used by the spec file (see {@link #setUsedScreenshotNames(Set)}), and it is applied to the screenshot nodes
+ * when they are loaded.
  */
 @Getter
 public class TreeSpecNode extends AbstractTerraWdioTreeNode {
 
     //Gets all screenshot nodes stored in this spec node.
-    private final List<TreeScreenshotNode> screenshots = new SmartList<>();
+    @Getter(AccessLevel.NONE)
+    private final IndexedNodeList<TreeScreenshotNode> screenshots = new IndexedNodeList<>();
     @Nullable
     @Setter
     private VirtualFile specFile;
+    /**
+     * The diff spec folders of this spec. The reference spec folders are stored as the references of this node.
+     *
+     * @since 1.13.0
+     */
+    private final List<VirtualFile> diffFolders = new VirtualFileIdList();
+    /**
+     * The latest spec folders of this spec.
+     *
+     * @since 1.13.0
+     */
+    private final List<VirtualFile> latestFolders = new VirtualFileIdList();
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    private final ScreenshotLoader screenshotLoader;
+    /**
+     * Whether the screenshot nodes of this spec have been created.
+     *
+     * @since 1.13.0
+     */
+    private boolean loaded;
+    /**
+     * The names of the screenshots used by the spec file, or null if the usage of the screenshots hasn't been analyzed.
+     */
+    @Nullable
+    @Getter(AccessLevel.NONE)
+    private Set<String> usedScreenshotNames;
+    //The number of screenshots while the screenshot nodes are not loaded
+    @Getter(AccessLevel.NONE)
+    private int unloadedScreenshotCount;
+    /**
+     * The number of reference images of all screenshots in this spec.
+     *
+     * @since 1.13.0
+     */
+    private int referenceImageCount;
+    /**
+     * The number of screenshots in this spec that have at least one diff image.
+     *
+     * @since 1.13.0
+     */
+    private int screenshotsWithDiffCount;
+    /**
+     * The number of screenshots in this spec that have at least one latest image.
+     *
+     * @since 1.13.0
+     */
+    private int screenshotsWithLatestCount;
+    /**
+     * The number of screenshots in this spec that are marked as unused.
+     *
+     * @since 1.13.0
+     */
+    private int unusedScreenshotCount;
 
     public TreeSpecNode(@NotNull String displayName, Project project) {
+        this(displayName, project, null);
+    }
+
+    /**
+     * Creates a spec node, whose screenshot nodes are loaded via the argument loader on first access.
+     * If no loader is specified, the node is considered loaded, and its screenshot nodes have to be added to it explicitly.
+     *
+     * @since 1.13.0
+     */
+    public TreeSpecNode(@NotNull String displayName, Project project, @Nullable ScreenshotLoader screenshotLoader) {
         super(displayName, project);
+        this.screenshotLoader = screenshotLoader;
+        this.loaded = screenshotLoader == null;
+    }
+
+    /**
+     * Returns the screenshot nodes of this spec, loading them first if they are not loaded yet.
+     */
+    public List<TreeScreenshotNode> getScreenshots() {
+        ensureLoaded();
+        return screenshots;
+    }
+
+    /**
+     * Adds the argument spec folder of the given image type to this spec, if it is not added yet.
+     *
+     * @param specFolder the spec folder
+     * @param imageType  the image type of the folder, see {@link com.picimako.terra.wdio.TerraWdioFolders#REFERENCE} and the like
+     * @since 1.13.0
+     */
+    public void addSpecFolder(@NotNull VirtualFile specFolder, @NotNull String imageType) {
+        var folders = switch (imageType) {
+            case TerraWdioFolders.REFERENCE -> references;
+            case TerraWdioFolders.DIFF -> diffFolders;
+            case TerraWdioFolders.LATEST -> latestFolders;
+            default -> null;
+        };
+        if (folders != null && !folders.contains(specFolder)) {
+            folders.add(specFolder);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) return;
+
+        loaded = true;
+        //The counts are maintained by the screenshot nodes from now on
+        updateCounts(-referenceImageCount, -screenshotsWithDiffCount, -screenshotsWithLatestCount, -unusedScreenshotCount);
+        //The unused markers are set by attach() according to the used screenshot names
+        screenshotLoader.load(this);
+        reorderScreenshotsAlphabeticallyByDisplayName();
+    }
+
+    /**
+     * Releases the screenshot nodes of this spec, keeping only the counts, so that they are loaded again on their next access.
+     * It has no effect if this spec has no {@link ScreenshotLoader}.
+     *
+     * @since 1.13.0
+     */
+    public void releaseScreenshots() {
+        if (!loaded || screenshotLoader == null) return;
+
+        unloadedScreenshotCount = screenshots.size();
+        for (var screenshot : screenshots) {
+            //Detaching first, so that the counts are kept
+            screenshot.setParent(null);
+            screenshot.dispose();
+        }
+        screenshots.clear();
+        loaded = false;
+    }
+
+    /**
+     * Calculates the counts of this spec from the names of the files in its spec folders, without loading the screenshot nodes.
+     * <p>
+     * It has no effect if the screenshot nodes are loaded, since in that case the counts are maintained incrementally.
+     *
+     * @since 1.13.0
+     */
+    public void recount() {
+        if (loaded) return;
+
+        var screenshotNames = new HashSet<String>();
+        int referenceImages = 0;
+        for (var folder : references) {
+            for (var screenshot : childrenOf(folder)) {
+                screenshotNames.add(screenshot.getName());
+                referenceImages++;
+            }
+        }
+        referenceImageCount = referenceImages;
+        screenshotsWithDiffCount = collectScreenshotNames(diffFolders, screenshotNames);
+        screenshotsWithLatestCount = collectScreenshotNames(latestFolders, screenshotNames);
+        unloadedScreenshotCount = screenshotNames.size();
+        if (usedScreenshotNames != null) screenshotNames.removeAll(usedScreenshotNames);
+        unusedScreenshotCount = usedScreenshotNames != null ? screenshotNames.size() : 0;
+    }
+
+    /**
+     * Sets the counts of this spec to previously calculated values, e.g. the ones stored in a snapshot of the tool window model,
+     * without walking the spec folders.
+     * <p>
+     * The number of unused screenshots is not restored, since it depends on the usage analysis, not on the files. If the names of
+     * the used screenshots are already set, it is calculated from the names of the files in the spec folders, otherwise it is zero.
+     * <p>
+     * It has no effect if the screenshot nodes are loaded, since in that case the counts are maintained incrementally.
+     *
+     * @since 1.13.0
+     */
+    public void restoreCounts(int screenshotCount, int referenceImageCount, int screenshotsWithDiffCount, int screenshotsWithLatestCount) {
+        if (loaded) return;
+
+        unloadedScreenshotCount = screenshotCount;
+        this.referenceImageCount = referenceImageCount;
+        this.screenshotsWithDiffCount = screenshotsWithDiffCount;
+        this.screenshotsWithLatestCount = screenshotsWithLatestCount;
+        unusedScreenshotCount = usedScreenshotNames != null ? countUnusedScreenshots(usedScreenshotNames) : 0;
+    }
+
+    /**
+     * Returns the number of distinct screenshot names in the spec folders that are not among the argument used screenshot names.
+     */
+    private int countUnusedScreenshots(Set<String> usedScreenshotNames) {
+        var unusedScreenshotNames = new HashSet<String>();
+        for (var folders : List.of(references, diffFolders, latestFolders)) {
+            for (var folder : folders) {
+                for (var screenshot : childrenOf(folder)) {
+                    unusedScreenshotNames.add(screenshot.getName());
+                }
+            }
+        }
+        unusedScreenshotNames.removeAll(usedScreenshotNames);
+        return unusedScreenshotNames.size();
+    }
+
+    /**
+     * Adds the names of the files in the argument folders to the provided set of all screenshot names,
+     * and returns the number of distinct names in those folders.
+     */
+    private static int collectScreenshotNames(List<VirtualFile> folders, Set<String> allScreenshotNames) {
+        var screenshotNames = new HashSet<String>();
+        for (var folder : folders) {
+            for (var screenshot : childrenOf(folder)) {
+                screenshotNames.add(screenshot.getName());
+            }
+        }
+        allScreenshotNames.addAll(screenshotNames);
+        return screenshotNames.size();
+    }
+
+    /**
+     * Returns the valid files in the argument spec folder, or an empty array if the folder has been deleted.
+     */
+    static VirtualFile[] childrenOf(@Nullable VirtualFile folder) {
+        if (folder == null || !folder.isValid()) return VirtualFile.EMPTY_ARRAY;
+        var children = folder.getChildren();
+        for (var child : children) {
+            if (!child.isValid()) return Arrays.stream(children).filter(VirtualFile::isValid).toArray(VirtualFile[]::new);
+        }
+        return children;
+    }
+
+    /**
+     * Sets the names of the screenshots used by the spec file, and marks the rest of the screenshots as unused.
+     *
+     * @param usedScreenshotNames the names of the used screenshots, or null to mark all screenshots as used,
+     *                            e.g. to reset the results of a previous analysis
+     * @since 1.13.0
+     */
+    public void setUsedScreenshotNames(@Nullable Set<String> usedScreenshotNames) {
+        this.usedScreenshotNames = usedScreenshotNames;
+        if (loaded) {
+            for (var screenshot : screenshots) {
+                screenshot.setUnused(usedScreenshotNames != null && !usedScreenshotNames.contains(screenshot.getDisplayName()));
+            }
+        } else {
+            recount();
+        }
+    }
+
+    /**
+     * Returns whether the argument set is the one set as the names of the used screenshots of this spec.
+     * <p>
+     * Sets are compared by identity, so that specs whose usages haven't changed since they were last set, can be skipped
+     * by the unused screenshot analysis without comparing their contents.
+     *
+     * @param usedScreenshotNames the names of the used screenshots to check
+     * @since 1.13.0
+     */
+    public boolean hasUsedScreenshotNames(@Nullable Set<String> usedScreenshotNames) {
+        return this.usedScreenshotNames == usedScreenshotNames;
     }
 
     /**
@@ -44,7 +309,73 @@ public class TreeSpecNode extends AbstractTerraWdioTreeNode {
      * @param screenshot the node to add
      */
     public void addScreenshot(@NotNull TreeScreenshotNode screenshot) {
+        ensureLoaded();
         this.screenshots.add(screenshot);
+        attach(screenshot);
+    }
+
+    /**
+     * Adds a screenshot node to this spec node at the position that keeps the screenshots in alphabetical order
+     * by their display names.
+     *
+     * @param screenshot the node to add
+     * @see #reorderScreenshotsAlphabeticallyByDisplayName()
+     */
+    public void insertScreenshotAlphabetically(@NotNull TreeScreenshotNode screenshot) {
+        ensureLoaded();
+        int index = Collections.binarySearch(screenshots, screenshot, comparing(AbstractTerraWdioTreeNode::getDisplayName));
+        this.screenshots.add(index < 0 ? -index - 1 : index, screenshot);
+        attach(screenshot);
+    }
+
+    /**
+     * Removes the argument screenshot node from this spec node.
+     *
+     * @param screenshot the node to remove
+     */
+    public void removeScreenshot(@NotNull TreeScreenshotNode screenshot) {
+        if (this.screenshots.remove(screenshot)) {
+            screenshot.setParent(null);
+            updateCounts(-screenshot.getReferences().size(), screenshot.hasDiff() ? -1 : 0, screenshot.hasLatest() ? -1 : 0,
+                screenshot.isUnused() ? -1 : 0);
+        }
+    }
+
+    private void attach(TreeScreenshotNode screenshot) {
+        //Screenshots added after the usage analysis are marked according to its results.
+        // This happens before setting the parent, so that the unused count is updated only once, below.
+        if (usedScreenshotNames != null) screenshot.setUnused(!usedScreenshotNames.contains(screenshot.getDisplayName()));
+        screenshot.setParent(this);
+        updateCounts(screenshot.getReferences().size(), screenshot.hasDiff() ? 1 : 0, screenshot.hasLatest() ? 1 : 0,
+            screenshot.isUnused() ? 1 : 0);
+    }
+
+    /**
+     * Adds the argument deltas to the aggregated counts of this spec node.
+     */
+    void updateCounts(int referenceImages, int screenshotsWithDiff, int screenshotsWithLatest, int unusedScreenshots) {
+        referenceImageCount += referenceImages;
+        screenshotsWithDiffCount += screenshotsWithDiff;
+        screenshotsWithLatestCount += screenshotsWithLatest;
+        unusedScreenshotCount += unusedScreenshots;
+    }
+
+    /**
+     * Gets whether any of the screenshots in this spec has at least one diff image.
+     *
+     * @since 1.13.0
+     */
+    public boolean hasDiff() {
+        return screenshotsWithDiffCount > 0;
+    }
+
+    /**
+     * Gets whether any of the screenshots in this spec is marked as unused.
+     *
+     * @since 1.13.0
+     */
+    public boolean hasUnused() {
+        return unusedScreenshotCount > 0;
     }
 
     /**
@@ -54,7 +385,7 @@ public class TreeSpecNode extends AbstractTerraWdioTreeNode {
      * @return the nth screenshot node
      */
     public TreeScreenshotNode getScreenshot(int index) {
-        return screenshots.get(index);
+        return getScreenshots().get(index);
     }
 
     /**
@@ -66,9 +397,8 @@ public class TreeSpecNode extends AbstractTerraWdioTreeNode {
      * @return the node wrapped in Optional, otherwise empty Optional
      */
     public Optional<TreeScreenshotNode> findScreenshotNodeByName(@NotNull String name) {
-        return screenshots.stream()
-            .filter(node -> name.equals(node.getDisplayName()))
-            .findFirst();
+        ensureLoaded();
+        return Optional.ofNullable(screenshots.findByName(name));
     }
 
     /**
@@ -82,10 +412,10 @@ public class TreeSpecNode extends AbstractTerraWdioTreeNode {
     }
 
     /**
-     * Returns the number of underlying screenshot nodes.
+     * Returns the number of underlying screenshot nodes, without loading them.
      */
     public int screenshotCount() {
-        return screenshots.size();
+        return loaded ? screenshots.size() : unloadedScreenshotCount;
     }
 
     /**
@@ -98,7 +428,7 @@ public class TreeSpecNode extends AbstractTerraWdioTreeNode {
     @Override
     public String toString() {
         return ScreenshotStatisticsProjectService.getInstance(project).isShowStatistics
-            ? screenshots.isEmpty() ? displayName : displayName + " (" + screenshots.size() + ")"
+            ? screenshotCount() == 0 ? displayName : displayName + " (" + screenshotCount() + ")"
             : displayName;
     }
 
@@ -107,5 +437,23 @@ public class TreeSpecNode extends AbstractTerraWdioTreeNode {
         super.dispose();
         screenshots.forEach(TreeScreenshotNode::dispose);
         screenshots.clear();
+        diffFolders.clear();
+        latestFolders.clear();
+        unloadedScreenshotCount = 0;
+        updateCounts(-referenceImageCount, -screenshotsWithDiffCount, -screenshotsWithLatestCount, -unusedScreenshotCount);
+    }
+
+    /**
+     * Creates the screenshot nodes of a spec node from the files in its spec folders.
+     *
+     * @since 1.13.0
+     */
+    @FunctionalInterface
+    public interface ScreenshotLoader {
+
+        /**
+         * Adds the screenshot nodes to the argument spec node, based on its reference, diff and latest spec folders.
+         */
+        void load(@NotNull TreeSpecNode specNode);
     }
 }
@@ -0,0 +1,170 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow.node;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.VirtualFileWithId;
+import lombok.Setter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A compact, mutable list of {@link VirtualFile}s, used by the nodes of the Terra wdio tool window to store the files they reference.
+ * <p>
+ * Instead of the file instances, it stores the ids of the files in a primitive array, and resolves the files only when they are
+ * accessed, which happens only when an action is performed on a node. Counting the files, e.g. for the statistics displayed
+ * in the tool window, doesn't resolve them.
+ * <p>
+ * Files without an id, e.g. in-memory files, are stored as they are, in a separate array that is allocated only when such a file is added.
+ * <p>
+ * Files are compared by their ids, so a file that has been deleted since it was added can still be found and removed from the list.
+ * However, such files may be resolved as null by {@link #get(int)}.
+ * <p>
+ * Changes of the size of the list can be listened to via a {@link SizeListener}, so that the owner of the list can keep
+ * aggregated values up-to-date, even when the list is modified directly, and not via the owner.
+ *
+ * @since 1.13.0
+ */
+public final class VirtualFileIdList extends AbstractList<VirtualFile> implements RandomAccess {
+    private static final int[] EMPTY_IDS = new int[0];
+    /**
+     * Stored for files without an id. The ids of persistent files are positive.
+     */
+    private static final int NO_ID = 0;
+
+    private int[] ids = EMPTY_IDS;
+    //Has the same length as ids, and is allocated only when a file without an id is added
+    private VirtualFile @Nullable [] filesWithoutId;
+    private int size;
+    @Setter
+    @Nullable
+    private SizeListener sizeListener;
+
+    @Override
+    public VirtualFile get(int index) {
+        Objects.checkIndex(index, size);
+        return ids[index] == NO_ID ? filesWithoutId[index] : VirtualFileManager.getInstance().findFileById(ids[index]);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public VirtualFile set(int index, @NotNull VirtualFile file) {
+        var previous = get(index);
+        store(index, file);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, @NotNull VirtualFile file) {
+        if (index < 0 || index > size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        if (size == ids.length) grow();
+        System.arraycopy(ids, index, ids, index + 1, size - index);
+        if (filesWithoutId != null) System.arraycopy(filesWithoutId, index, filesWithoutId, index + 1, size - index);
+        store(index, file);
+        size++;
+        modCount++;
+        notifySizeChanged(size - 1);
+    }
+
+    @Override
+    public VirtualFile remove(int index) {
+        var removed = get(index);
+        int movedCount = size - index - 1;
+        System.arraycopy(ids, index + 1, ids, index, movedCount);
+        if (filesWithoutId != null) {
+            System.arraycopy(filesWithoutId, index + 1, filesWithoutId, index, movedCount);
+            filesWithoutId[size - 1] = null;
+        }
+        size--;
+        modCount++;
+        notifySizeChanged(size + 1);
+        return removed;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) return false;
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof VirtualFile file)) return -1;
+        int id = idOf(file);
+        for (int i = 0; i < size; i++) {
+            if (id != NO_ID ? ids[i] == id : ids[i] == NO_ID && file.equals(filesWithoutId[i])) return i;
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public void clear() {
+        int oldSize = size;
+        ids = EMPTY_IDS;
+        filesWithoutId = null;
+        size = 0;
+        modCount++;
+        if (oldSize != 0) notifySizeChanged(oldSize);
+    }
+
+    private void notifySizeChanged(int oldSize) {
+        if (sizeListener != null) sizeListener.sizeChanged(this, oldSize, size);
+    }
+
+    private void store(int index, VirtualFile file) {
+        int id = idOf(file);
+        ids[index] = id;
+        if (id == NO_ID) {
+            if (filesWithoutId == null) filesWithoutId = new VirtualFile[ids.length];
+            filesWithoutId[index] = file;
+        } else if (filesWithoutId != null) {
+            filesWithoutId[index] = null;
+        }
+    }
+
+    /**
+     * Most nodes reference only a few files, so the capacity starts from one.
+     */
+    private void grow() {
+        int newCapacity = ids.length == 0 ? 1 : ids.length * 2;
+        ids = Arrays.copyOf(ids, newCapacity);
+        if (filesWithoutId != null) filesWithoutId = Arrays.copyOf(filesWithoutId, newCapacity);
+    }
+
+    private static int idOf(VirtualFile file) {
+        return file instanceof VirtualFileWithId fileWithId ? fileWithId.getId() : NO_ID;
+    }
+
+    /**
+     * Listens to the changes of the size of a {@link VirtualFileIdList}.
+     */
+    @FunctionalInterface
+    public interface SizeListener {
+
+        /**
+         * Called after a file has been added to, or removed from the argument list, or the list has been cleared.
+         *
+         * @param list    the list whose size has changed
+         * @param oldSize the size of the list before the change
+         * @param newSize the size of the list after the change
+         */
+        void sizeChanged(@NotNull VirtualFileIdList list, int oldSize, int newSize);
+    }
+}
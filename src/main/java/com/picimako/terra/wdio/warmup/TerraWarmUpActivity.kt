@@ -0,0 +1,18 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+package com.picimako.terra.wdio.warmup
+
+import com.intellij.openapi.project.Project
+import com.intellij.openapi.startup.ProjectActivity
+
+/**
+ * Schedules the background warm-up of the Terra related data of a project after it is opened.
+ *
+ * @see TerraWarmUpService
+ * @since 1.13.0
+ */
+class TerraWarmUpActivity : ProjectActivity {
+
+    override suspend fun execute(project: Project) {
+        TerraWarmUpService.getInstance(project).scheduleWarmUp()
+    }
+}
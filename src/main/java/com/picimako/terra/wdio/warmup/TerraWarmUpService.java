@@ -0,0 +1,227 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.warmup;
+
+import static com.picimako.terra.wdio.TerraWdioFolders.projectWdioRoots;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.intellij.ide.PowerSaveMode;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.jetbrains.annotations.NotNull;
+
+import com.picimako.terra.resources.TerraBundle;
+import com.picimako.terra.settings.TerraApplicationState;
+import com.picimako.terra.wdio.BackgroundExecution;
+import com.picimako.terra.wdio.NoopResourceManager;
+import com.picimako.terra.wdio.TerraResourceManager;
+import com.picimako.terra.wdio.screenshot.TerraScreenshotCollector;
+import com.picimako.terra.wdio.screenshot.index.TerraScreenshotIndex;
+import com.picimako.terra.wdio.screenshot.index.TerraScreenshotUsageIndex;
+import com.picimako.terra.wdio.screenshot.inspection.GlobalTerraSelectorRetriever;
+import com.picimako.terra.wdio.toolwindow.TerraWdioToolWindowFactory;
+import com.picimako.terra.wdio.toolwindow.TerraWdioTreeModel;
+
+/**
+ * Prepares the cached Terra related data of the project in the background, after the project is opened and indexing has finished,
+ * so that the first highlighting of a spec file, and the first opening of the Terra wdio tool window, don't have to calculate them.
+ * <p>
+ * The warm-up consists of the following stages, each of them stopping the warm-up if there is nothing to prepare for the next ones:
+ * <ol>
+ *     <li>resolving the wdio roots of the project,</li>
+ *     <li>detecting the Terra test library used by the project and by the packages of the wdio roots,</li>
+ *     <li>bringing the screenshot indexes up-to-date, and initializing the screenshot collector,</li>
+ *     <li>parsing the global Terra selectors from the wdio config files nearest to the wdio roots,</li>
+ *     <li>saving a snapshot of the Terra wdio tool window's model, unless the tool window has already been opened.</li>
+ * </ol>
+ * <p>
+ * The warm-up runs in a cancellable background task, on a lowered thread priority, and in non-blocking read actions,
+ * so that it doesn't delay write actions. It can be disabled in the settings (see {@link TerraApplicationState#warmUpOnStartup}),
+ * it doesn't start in power save mode, and it is cancelled when power save mode is enabled.
+ * <p>
+ * The duration of each completed stage is recorded (see {@link #getStageTimings()}), and is logged when the warm-up finishes.
+ *
+ * @see TerraWarmUpActivity
+ * @since 1.13.0
+ */
+@Service(Service.Level.PROJECT)
+public final class TerraWarmUpService implements Disposable {
+    private static final Logger LOG = Logger.getInstance(TerraWarmUpService.class);
+
+    /**
+     * The stages of the warm-up, in the order of their execution.
+     */
+    public enum Stage {
+        WDIO_ROOTS,
+        TERRA_DETECTION,
+        SCREENSHOT_INDEXES,
+        GLOBAL_SELECTORS,
+        TOOL_WINDOW_MODEL
+    }
+
+    /**
+     * The duration of a completed stage of the warm-up.
+     */
+    public record StageTiming(@NotNull Stage stage, long durationMillis) {
+    }
+
+    private final Project project;
+    private final List<StageTiming> stageTimings = new CopyOnWriteArrayList<>();
+    private volatile ProgressIndicator indicator;
+
+    public TerraWarmUpService(Project project) {
+        this.project = project;
+        ApplicationManager.getApplication().getMessageBus().connect(this).subscribe(PowerSaveMode.TOPIC, new PowerSaveMode.Listener() {
+            @Override
+            public void powerSaveStateChanged() {
+                if (PowerSaveMode.isEnabled()) cancel();
+            }
+        });
+    }
+
+    /**
+     * Schedules the warm-up to start in the background when indexing has finished, if it is enabled.
+     */
+    public void scheduleWarmUp() {
+        if (isWarmUpEnabled()) {
+            DumbService.getInstance(project).runWhenSmart(this::warmUpInBackground);
+        }
+    }
+
+    private void warmUpInBackground() {
+        if (!isWarmUpEnabled() || project.isDisposed()) return;
+
+        boolean isToolWindowOpened = isToolWindowOpened();
+        BackgroundExecution.getInstance().run(new Task.Backgroundable(project, TerraBundle.message("terra.warm.up.progress"), true) {
+            @Override
+            public void run(@NotNull ProgressIndicator indicator) {
+                var thread = Thread.currentThread();
+                int priority = thread.getPriority();
+                thread.setPriority(Thread.MIN_PRIORITY);
+                try {
+                    warmUp(indicator, isToolWindowOpened);
+                } finally {
+                    thread.setPriority(priority);
+                }
+            }
+        });
+    }
+
+    /**
+     * Executes the stages of the warm-up. The stages are executed in read actions via {@link BackgroundExecution}, so it may be called
+     * on the EDT only if the background work is executed synchronously.
+     *
+     * @param indicator          the progress indicator of the warm-up
+     * @param isToolWindowOpened whether the Terra wdio tool window has already been opened, so its model doesn't have to be prepared
+     */
+    void warmUp(@NotNull ProgressIndicator indicator, boolean isToolWindowOpened) {
+        this.indicator = indicator;
+        stageTimings.clear();
+        try {
+            var wdioRoots = inReadAction(Stage.WDIO_ROOTS, indicator, () -> projectWdioRoots(project));
+            if (wdioRoots.isEmpty()) return;
+
+            var terraWdioRoots = inReadAction(Stage.TERRA_DETECTION, indicator, () -> {
+                TerraResourceManager.getInstance(project);
+                return wdioRoots.stream().filter(wdioRoot -> !(TerraResourceManager.forFile(project, wdioRoot) instanceof NoopResourceManager)).toList();
+            });
+            if (terraWdioRoots.isEmpty()) return;
+
+            inReadAction(Stage.SCREENSHOT_INDEXES, indicator, () -> {
+                TerraScreenshotCollector.getInstance(project);
+                var scope = GlobalSearchScope.projectScope(project);
+                FileBasedIndex.getInstance().ensureUpToDate(TerraScreenshotIndex.NAME, project, scope);
+                FileBasedIndex.getInstance().ensureUpToDate(TerraScreenshotUsageIndex.NAME, project, scope);
+                return true;
+            });
+
+            inReadAction(Stage.GLOBAL_SELECTORS, indicator, () -> {
+                var selectorRetriever = GlobalTerraSelectorRetriever.getInstance(project);
+                for (VirtualFile wdioRoot : terraWdioRoots) {
+                    indicator.checkCanceled();
+                    selectorRetriever.getSelector(wdioRoot);
+                }
+                return true;
+            });
+
+            if (!isToolWindowOpened) {
+                timed(Stage.TOOL_WINDOW_MODEL, indicator, () -> {
+                    new TerraWdioTreeModel(project).prepareSnapshot(indicator);
+                    return true;
+                });
+            }
+        } catch (ProcessCanceledException e) {
+            LOG.debug("The warm-up of project " + project.getName() + " has been cancelled after " + stageTimings);
+            throw e;
+        } finally {
+            this.indicator = null;
+        }
+        LOG.info("The warm-up of project " + project.getName() + " has finished: " + stageTimings);
+    }
+
+    private <T> T inReadAction(Stage stage, ProgressIndicator indicator, Supplier<T> computation) {
+        return timed(stage, indicator, () -> BackgroundExecution.getInstance()
+            .computeInReadAction(computation, action -> action.inSmartMode(project).expireWith(this), indicator));
+    }
+
+    /**
+     * Executes the argument stage, and records its duration, unless the warm-up is disabled or cancelled meanwhile.
+     */
+    private <T> T timed(Stage stage, ProgressIndicator indicator, Supplier<T> computation) {
+        if (!isWarmUpEnabled()) indicator.cancel();
+        indicator.checkCanceled();
+
+        long start = System.nanoTime();
+        T result = computation.get();
+        stageTimings.add(new StageTiming(stage, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        return result;
+    }
+
+    private static boolean isWarmUpEnabled() {
+        return TerraApplicationState.getInstance().warmUpOnStartup && !PowerSaveMode.isEnabled();
+    }
+
+    private boolean isToolWindowOpened() {
+        var toolWindow = ToolWindowManager.getInstance(project).getToolWindow(TerraWdioToolWindowFactory.TOOL_WINDOW_ID);
+        var contentManager = toolWindow != null ? toolWindow.getContentManagerIfCreated() : null;
+        return contentManager != null && contentManager.getContentCount() > 0;
+    }
+
+    /**
+     * Returns the durations of the stages completed by the last warm-up, in the order of their execution.
+     */
+    public List<StageTiming> getStageTimings() {
+        return List.copyOf(stageTimings);
+    }
+
+    private void cancel() {
+        var currentIndicator = indicator;
+        if (currentIndicator != null) {
+            currentIndicator.cancel();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        cancel();
+    }
+
+    public static TerraWarmUpService getInstance(Project project) {
+        return project.getService(TerraWarmUpService.class);
+    }
+}
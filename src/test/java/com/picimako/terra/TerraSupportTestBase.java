@@ -2,12 +2,19 @@
 
 package com.picimako.terra;
 
+import java.util.function.BooleanSupplier;
+
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.testFramework.LightProjectDescriptor;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.ServiceContainerUtil;
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
 
+import com.picimako.terra.wdio.BackgroundExecution;
+
 public abstract class TerraSupportTestBase extends BasePlatformTestCase {
 
     @Override
@@ -28,4 +35,19 @@ public abstract class TerraSupportTestBase extends BasePlatformTestCase {
     protected PsiFile findPsiFile(VirtualFile sourceFile) {
         return PsiManager.getInstance(getProject()).findFile(sourceFile);
     }
+
+    /**
+     * Executes the background work of the plugin asynchronously, as in the IDE, instead of synchronously, until the end of the test.
+     */
+    protected void executeInBackground() {
+        ServiceContainerUtil.replaceService(ApplicationManager.getApplication(), BackgroundExecution.class,
+            new BackgroundExecution.Asynchronous(), getTestRootDisposable());
+    }
+
+    /**
+     * Dispatches the events of the EDT until the argument condition is met, e.g. until a background task has finished.
+     */
+    protected static void waitUntil(BooleanSupplier condition) {
+        PlatformTestUtil.waitWithEventsDispatching("The background work has not finished in time.", condition, 10);
+    }
 }
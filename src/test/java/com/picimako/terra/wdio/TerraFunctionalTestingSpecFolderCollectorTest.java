@@ -5,6 +5,7 @@ package com.picimako.terra.wdio;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.testFramework.LightProjectDescriptor;
 
 import com.picimako.terra.TerraSupportTestBase;
@@ -33,6 +34,23 @@ public class TerraFunctionalTestingSpecFolderCollectorTest extends TerraSupportT
         assertThat(latests.getFirst().getPath()).isEqualTo("/src/tests/wdio/__snapshots__/latest/clinical-lowlight-theme/en/chrome_huge/CollectScreenshots-spec");
     }
 
+    public void testCollectSpecFoldersFromWdioRoot() {
+        copyFilesToProject(
+            "package.json",
+            "tests/wdio/__snapshots__/latest/clinical-lowlight-theme/en/chrome_huge/CollectScreenshots-spec/terra_screenshot.png",
+            "tests/wdio/__snapshots__/reference/clinical-lowlight-theme/en/chrome_medium/CollectScreenshots-spec/terra_screenshot.png",
+            "tests/wdio/__snapshots__/reference/terra-default-theme/en/chrome_huge/FindUnusedScreenshot-spec/terra_screenshot.png");
+
+        var references = TerraResourceManager.getInstance(getProject()).specFolderCollector()
+            .collectSpecFoldersForTypeInside("reference", TerraWdioFolders.projectWdioRoot(getProject()))
+            .map(VirtualFile::getPath)
+            .toList();
+
+        assertThat(references).containsExactlyInAnyOrder(
+            "/src/tests/wdio/__snapshots__/reference/clinical-lowlight-theme/en/chrome_medium/CollectScreenshots-spec",
+            "/src/tests/wdio/__snapshots__/reference/terra-default-theme/en/chrome_huge/FindUnusedScreenshot-spec");
+    }
+
     //To fix the test failure when copying package.json to the project
     @Override
     protected LightProjectDescriptor getProjectDescriptor() {
@@ -0,0 +1,66 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.vfs.VfsUtil;
+
+import com.picimako.terra.TerraSupportTestBase;
+import com.picimako.terra.wdio.screenshot.TerraCallModel;
+import com.picimako.terra.wdio.screenshot.index.TerraScreenshotUsageIndex;
+
+/**
+ * Unit test for {@link TerraResourceManager}.
+ */
+public class TerraResourceManagerTest extends TerraSupportTestBase {
+
+    private static final String SPEC_FILE_CONTENT = """
+        describe('terra screenshot', () => {
+            it('Test case', () => {
+                Terra.validates.screenshot('with name', { selector: '#selector' });
+            });
+        });""";
+
+    public void testResolvesLibraryFromPackageJsonOfSpecFile() {
+        myFixture.addFileToProject("packages/a/package.json", "{\"devDependencies\": {\"@cerner/terra-functional-testing\": \"^4.0.0\"}}");
+        var specFile = myFixture.addFileToProject("packages/a/tests/wdio/Usages-spec.js", SPEC_FILE_CONTENT);
+
+        assertThat(TerraResourceManager.isUsingTerra(getProject())).isFalse();
+        assertThat(TerraResourceManager.forFile(specFile)).isInstanceOf(TerraFunctionalTestingManager.class);
+        assertThat(TerraResourceManager.isUsingTerra(specFile)).isTrue();
+        assertThat(TerraResourceManager.isUsingTerraFunctionalTesting(specFile)).isTrue();
+        assertThat(TerraResourceManager.isUsingTerraToolkit(specFile)).isFalse();
+    }
+
+    public void testResolvesScreenshotNamesOfSpecFileInPackageOnlyUsingTerra() {
+        myFixture.addFileToProject("packages/a/package.json", "{\"devDependencies\": {\"@cerner/terra-functional-testing\": \"^4.0.0\"}}");
+        var specFile = myFixture.addFileToProject("packages/a/tests/wdio/Usages-spec.js", SPEC_FILE_CONTENT);
+
+        var calls = TerraCallModel.getInstance(specFile).getCalls();
+        assertThat(calls).hasSize(1);
+        String screenshotName = calls.getFirst().screenshotName();
+        assertThat(screenshotName).isNotEmpty();
+        assertThat(TerraScreenshotUsageIndex.getScreenshotUsages(getProject(), specFile.getVirtualFile()))
+            .containsOnlyKeys(screenshotName);
+        assertThat(TerraScreenshotUsageIndex.findUsageOffset(getProject(), specFile.getVirtualFile(), screenshotName))
+            .isEqualTo(SPEC_FILE_CONTENT.indexOf("'with name'"));
+    }
+
+    public void testChangesManagerModificationTrackerWhenTerraLibraryChanges() throws IOException {
+        var packageJson = myFixture.addFileToProject("package.json", "{\"devDependencies\": {\"terra-toolkit\": \"^6.0.0\"}}").getVirtualFile();
+        var tracker = TerraResourceManager.getManagerModificationTracker(getProject());
+        long modificationCount = tracker.getModificationCount();
+
+        assertThat(TerraResourceManager.getInstance(getProject())).isInstanceOf(TerraToolkitManager.class);
+        assertThat(tracker.getModificationCount()).isEqualTo(modificationCount);
+
+        WriteAction.runAndWait(() -> VfsUtil.saveText(packageJson, "{\"devDependencies\": {\"@cerner/terra-functional-testing\": \"^4.0.0\"}}"));
+
+        assertThat(tracker.getModificationCount()).isGreaterThan(modificationCount);
+        assertThat(TerraResourceManager.getInstance(getProject())).isInstanceOf(TerraFunctionalTestingManager.class);
+    }
+}
@@ -4,7 +4,11 @@ package com.picimako.terra.wdio;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+
 import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
 
 import com.picimako.terra.TerraToolkitTestCase;
 
@@ -32,4 +36,56 @@ public class TerraToolkitSpecFolderCollectorTest extends TerraToolkitTestCase {
         assertThat(diffs).hasSize(1);
         assertThat(diffs.getFirst().getPath()).isEqualTo("/src/tests/wdio/__snapshots__/diff/en/chrome_huge/some-spec");
     }
+
+    public void testVisitSpecFoldersOfAllImageTypesInSinglePass() {
+        copyFilesToProject(
+            "tests/wdio/__snapshots__/latest/en/chrome_huge/some-spec/testimage[default].png",
+            "tests/wdio/__snapshots__/diff/en/chrome_huge/some-spec/testimage[default].png",
+            "tests/wdio/__snapshots__/reference/en/chrome_huge/some-spec/testimage[default].png");
+        myFixture.addFileToProject("tests/wdio/some-spec.js", "");
+        myFixture.addFileToProject("tests/wdio/node_modules/module/__snapshots__/reference/en/chrome_huge/module-spec/image.png", "");
+        myFixture.addFileToProject("tests/wdio/node_modules/module/module-spec.js", "");
+        myFixture.addFileToProject("tests/wdio/fixtures/fixture-spec.js", "");
+
+        final var specFolders = new ArrayList<String>();
+        final var specFiles = new ArrayList<String>();
+        final var snapshotsFolders = new ArrayList<String>();
+        TerraResourceManager.getInstance(getProject()).specFolderCollector().visitWdioRoot(TerraWdioFolders.projectWdioRoot(getProject()),
+            new SpecFolderCollector.Visitor() {
+                @Override
+                public void visitSpecFolder(@NotNull String imageType, @NotNull VirtualFile specFolder) {
+                    specFolders.add(imageType + ":" + specFolder.getPath());
+                }
+
+                @Override
+                public void visitSpecFile(@NotNull VirtualFile specFile) {
+                    specFiles.add(specFile.getPath());
+                }
+
+                @Override
+                public void visitSnapshotsFolder(@NotNull VirtualFile snapshotsFolder) {
+                    snapshotsFolders.add(snapshotsFolder.getPath());
+                }
+            });
+
+        assertThat(specFolders).containsExactlyInAnyOrder(
+            "reference:/src/tests/wdio/__snapshots__/reference/en/chrome_huge/some-spec",
+            "diff:/src/tests/wdio/__snapshots__/diff/en/chrome_huge/some-spec",
+            "latest:/src/tests/wdio/__snapshots__/latest/en/chrome_huge/some-spec");
+        assertThat(specFiles).containsExactly("/src/tests/wdio/some-spec.js");
+        assertThat(snapshotsFolders).containsExactly("/src/tests/wdio/__snapshots__");
+    }
+
+    public void testCollectSpecFoldersFromWdioRoot() {
+        copyFilesToProject(
+            "tests/wdio/__snapshots__/latest/en/chrome_huge/some-spec/testimage[default].png",
+            "tests/wdio/__snapshots__/reference/en/chrome_huge/some-spec/testimage[default].png");
+
+        var latests = TerraResourceManager.getInstance(getProject()).specFolderCollector()
+            .collectSpecFoldersForTypeInside("latest", TerraWdioFolders.projectWdioRoot(getProject()))
+            .toList();
+
+        assertThat(latests).hasSize(1);
+        assertThat(latests.getFirst().getPath()).isEqualTo("/src/tests/wdio/__snapshots__/latest/en/chrome_huge/some-spec");
+    }
 }
@@ -5,8 +5,11 @@ package com.picimako.terra.wdio;
 import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
 
+import com.intellij.openapi.application.WriteAction;
 import com.intellij.openapi.project.ProjectUtil;
 import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -17,6 +20,8 @@ import com.intellij.psi.search.GlobalSearchScope;
 import org.assertj.core.api.SoftAssertions;
 
 import com.picimako.terra.TerraSupportTestBase;
+import com.picimako.terra.settings.RootPath;
+import com.picimako.terra.settings.TerraApplicationState;
 
 /**
  * Unit test for {@link TerraWdioFolders}.
@@ -38,10 +43,55 @@ public class TerraWdioFoldersTest extends TerraSupportTestBase {
         runAssertions(wdioRoot, "/tests/wdio");
     }
 
+    public void testReturnRecalculatedWdioRootWhenWdioRootPathsChange() {
+        copyFileToProject("tests/wdio/CollectScreenshots-spec.js");
+        myFixture.addFileToProject("test/wdio/Other-spec.js", "");
+        var settings = TerraApplicationState.getInstance();
+        var originalRootPaths = settings.wdioRootPaths;
+        try {
+            runAssertions(TerraWdioFolders.projectWdioRoot(getProject()), "/test/wdio");
+
+            settings.wdioRootPaths = List.of(new RootPath("tests/wdio"));
+
+            runAssertions(TerraWdioFolders.projectWdioRoot(getProject()), "/tests/wdio");
+        } finally {
+            settings.wdioRootPaths = originalRootPaths;
+        }
+    }
+
     public void testReturnNoRootDirWhenProjectWdioRootDoesntExist() {
         assertThat(TerraWdioFolders.projectWdioRoot(getProject())).isNull();
     }
 
+    // projectWdioRoots
+
+    public void testReturnWdioRootsOfPackages() {
+        copyFileToProject("tests/wdio/CollectScreenshots-spec.js");
+        myFixture.addFileToProject("packages/b/package.json", "{\"name\": \"b\"}");
+        myFixture.addFileToProject("packages/b/tests/wdio/B-spec.js", "");
+        myFixture.addFileToProject("packages/a/package.json", "{\"name\": \"a\"}");
+        myFixture.addFileToProject("packages/a/tests/wdio/A-spec.js", "");
+        myFixture.addFileToProject("packages/c/package.json", "{\"name\": \"c\"}");
+
+        assertThat(TerraWdioFolders.projectWdioRoots(getProject())).extracting(VirtualFile::getPath)
+            .containsExactly("/src/tests/wdio", "/src/packages/a/tests/wdio", "/src/packages/b/tests/wdio");
+        runAssertions(TerraWdioFolders.projectWdioRoot(getProject()), "/tests/wdio");
+    }
+
+    public void testReturnWdioRootOfFile() {
+        copyFileToProject("tests/wdio/CollectScreenshots-spec.js");
+        myFixture.addFileToProject("packages/a/package.json", "{\"name\": \"a\"}");
+        var screenshot = myFixture.addFileToProject("packages/a/tests/wdio/__snapshots__/reference/en/chrome_huge/a-spec/image.png", "");
+        var notInWdioRoot = myFixture.addFileToProject("packages/a/src/index.js", "");
+
+        assertThat(TerraWdioFolders.wdioRootOf(screenshot.getVirtualFile(), getProject()).getPath()).isEqualTo("/src/packages/a/tests/wdio");
+        assertThat(TerraWdioFolders.wdioRootOf(notInWdioRoot.getVirtualFile(), getProject())).isNull();
+        assertThat(TerraWdioFolders.wdioRootOfPath("/src/packages/a/tests/wdio/deleted-spec.js", getProject()).getPath()).isEqualTo("/src/packages/a/tests/wdio");
+        assertThat(TerraWdioFolders.specFolderIdentifier(screenshot.getVirtualFile().getParent(), getProject())).isEqualTo("a-spec");
+        assertThat(TerraWdioFolders.specFolderIdentifier("/src/packages/a/tests/wdio/nested/__snapshots__/reference/en/chrome_huge/b-spec", getProject()))
+            .isEqualTo("nested/b-spec");
+    }
+
     // getTestRoot
 
     public void testReturnTestRootDirectory() {
@@ -92,8 +142,6 @@ public class TerraWdioFoldersTest extends TerraSupportTestBase {
         copyFilesToProject(
             "tests/wdio/__snapshots__/latest/en/chrome_huge/some-spec/testimage[default].png",
             "tests/wdio/__snapshots__/diff/en/chrome_huge/some-spec/testimage[default].png");
-        var wdioRoot = TerraWdioFolders.projectWdioRoot(getProject());
-        TerraWdioFolders.setWdioTestRootPath(wdioRoot.getPath());
         var latest = FilenameIndex.getVirtualFilesByName("testimage[default].png", GlobalSearchScope.projectScope(getProject()))
             .stream()
             .filter(image -> image.getPath().endsWith("latest/en/chrome_huge/some-spec/testimage[default].png"))
@@ -105,14 +153,31 @@ public class TerraWdioFoldersTest extends TerraSupportTestBase {
         runAssertions(diffImage, "/diff/en/chrome_huge/some-spec/testimage[default].png");
     }
 
+    // referenceImageForLatest
+
+    public void testGetReferenceImageForLatestImage() {
+        copyFilesToProject(
+            "tests/wdio/__snapshots__/latest/en/chrome_huge/some-spec/testimage[default].png",
+            "tests/wdio/__snapshots__/reference/en/chrome_huge/some-spec/testimage[default].png");
+        var latest = myFixture.findFileInTempDir("tests/wdio/__snapshots__/latest/en/chrome_huge/some-spec/testimage[default].png");
+
+        var referenceImage = TerraWdioFolders.referenceImageForLatest(latest);
+
+        runAssertions(referenceImage, "/reference/en/chrome_huge/some-spec/testimage[default].png");
+    }
+
+    public void testGetNoReferenceImageForLatestImageWithoutReference() {
+        var latest = copyFileToProject("tests/wdio/__snapshots__/latest/en/chrome_huge/some-spec/testimage[default].png");
+
+        assertThat(TerraWdioFolders.referenceImageForLatest(latest)).isNull();
+    }
+
     // latestImageForReference
 
     public void testGetLatestImageForReferenceImage() {
         copyFilesToProject(
             "tests/wdio/__snapshots__/latest/en/chrome_huge/some-spec/testimage[default].png",
             "tests/wdio/__snapshots__/reference/en/chrome_huge/some-spec/testimage[default].png");
-        var wdioRoot = TerraWdioFolders.projectWdioRoot(getProject());
-        TerraWdioFolders.setWdioTestRootPath(wdioRoot.getPath());
         var latest = FilenameIndex.getVirtualFilesByName("testimage[default].png", GlobalSearchScope.projectScope(getProject()))
             .stream()
             .filter(image -> image.getPath().endsWith("reference/en/chrome_huge/some-spec/testimage[default].png"))
@@ -150,6 +215,15 @@ public class TerraWdioFoldersTest extends TerraSupportTestBase {
         assertThat(id).isEqualTo("nested/folder/some-spec");
     }
 
+    public void testSpecFolderIdentifierAfterRenamingFolder() throws IOException {
+        var parent = copyFileToProject("tests/wdio/nested/__snapshots__/reference/en/chrome_huge/some-spec/testimage[default].png").getParent();
+        assertThat(TerraWdioFolders.specFolderIdentifier(parent, getProject())).isEqualTo("nested/some-spec");
+
+        WriteAction.run(() -> parent.rename(this, "renamed-spec"));
+
+        assertThat(TerraWdioFolders.specFolderIdentifier(parent, getProject())).isEqualTo("nested/renamed-spec");
+    }
+
     // specFileIdentifier
 
     public void testSpecFileIdentifierFolderNoNestedFolder() {
@@ -0,0 +1,155 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.diff;
+import static com.picimako.terra.wdio.imagecompare.PngRowDecoderTest.toPng;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import com.picimako.terra.TerraToolkitTestCase;
+
+/**
+ * Unit test for {@link DiffImageAnalysisService}.
+ */
+public class DiffImageAnalysisServiceTest extends TerraToolkitTestCase {
+
+    private Path cacheFile;
+    private DiffImageAnalysisService service;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        cacheFile = FileUtil.createTempDirectory("terra-wdio", null, true).toPath().resolve("diff-image-analyses.dat");
+        service = newService();
+    }
+
+    public void testAnalyzesDiffImages() throws IOException {
+        var diff = addImage(diff("/en/chrome_huge/First-spec/terra_screenshot[default].png"), image(3));
+
+        service.scan(new EmptyProgressIndicator());
+
+        var analysis = service.getAnalysis(diff);
+        assertThat(analysis).isNotNull();
+        assertThat(analysis.highlightedPixelCount()).isEqualTo(3);
+        assertThat(analysis.mismatchPercentage()).isEqualTo(3.0);
+        assertThat(analysis.regions()).containsExactly(new DiffImageAnalysis.Region(0, 0, 3, 1));
+    }
+
+    public void testInvalidatesAnalysisWhenDiffImageChanges() throws IOException {
+        var diff = addImage(diff("/en/chrome_huge/First-spec/terra_screenshot[default].png"), image(3));
+        service.scan(new EmptyProgressIndicator());
+
+        setContent(diff, image(5));
+
+        assertThat(service.getAnalysis(diff)).isNull();
+
+        service.scan(new EmptyProgressIndicator());
+
+        assertThat(service.getAnalysis(diff).highlightedPixelCount()).isEqualTo(5);
+    }
+
+    public void testReusesAnalysisOfSameContent() throws IOException {
+        addImage(diff("/en/chrome_huge/First-spec/terra_screenshot[default].png"), image(3));
+        addImage(diff("/en/chrome_medium/First-spec/terra_screenshot[default].png"), image(3));
+        addImage(diff("/en/chrome_small/First-spec/terra_screenshot[default].png"), image(4));
+
+        service.scan(new EmptyProgressIndicator());
+
+        assertThat(service.cachedAnalysisCount()).isEqualTo(2);
+    }
+
+    public void testRestoresPersistedAnalyses() throws IOException {
+        var diff = addImage(diff("/en/chrome_huge/First-spec/terra_screenshot[default].png"), image(3));
+        service.scan(new EmptyProgressIndicator());
+        Disposer.dispose(service);
+
+        var restoredService = newService();
+        assertThat(restoredService.getAnalysis(diff)).isNull();
+
+        var analysis = restoredService.getOrAnalyzeAsync(diff).join();
+
+        assertThat(analysis.highlightedPixelCount()).isEqualTo(3);
+        assertThat(analysis.regions()).containsExactly(new DiffImageAnalysis.Region(0, 0, 3, 1));
+        assertThat(restoredService.cachedAnalysisCount()).isEqualTo(1);
+        assertThat(restoredService.getAnalysis(diff)).isEqualTo(analysis);
+    }
+
+    public void testIgnoresCacheFileOfOtherFormat() throws IOException {
+        Files.createDirectories(cacheFile.getParent());
+        Files.write(cacheFile, new byte[]{0, 0, 0, 0});
+        var diff = addImage(diff("/en/chrome_huge/First-spec/terra_screenshot[default].png"), image(3));
+
+        service.scan(new EmptyProgressIndicator());
+
+        assertThat(service.getAnalysis(diff).highlightedPixelCount()).isEqualTo(3);
+    }
+
+    public void testReturnsMostSevereAnalysis() throws IOException {
+        var moderate = addImage(diff("/en/chrome_huge/First-spec/terra_screenshot[default].png"), image(1));
+        var major = addImage(diff("/en/chrome_medium/First-spec/terra_screenshot[default].png"), image(8));
+        var notAnalyzed = myFixture.addFileToProject("not-a-diff.png", "").getVirtualFile();
+
+        service.scan(new EmptyProgressIndicator());
+
+        var mostSevere = service.mostSevereOf(List.of(moderate, major, notAnalyzed));
+        assertThat(mostSevere).isNotNull();
+        assertThat(mostSevere.highlightedPixelCount()).isEqualTo(8);
+        assertThat(mostSevere.severity()).isEqualTo(RegressionSeverity.MAJOR);
+        assertThat(service.mostSevereOf(List.of(notAnalyzed))).isNull();
+    }
+
+    public void testScansInBackground() throws IOException {
+        var diff = addImage(diff("/en/chrome_huge/First-spec/terra_screenshot[default].png"), image(3));
+        executeInBackground();
+
+        var isFinished = new AtomicBoolean();
+        service.scanInBackground(() -> isFinished.set(true));
+        waitUntil(isFinished::get);
+
+        assertThat(service.getAnalysis(diff).highlightedPixelCount()).isEqualTo(3);
+        assertThat(cacheFile).exists();
+    }
+
+    //Helpers
+
+    private DiffImageAnalysisService newService() {
+        var newService = new DiffImageAnalysisService(getProject(), cacheFile);
+        Disposer.register(getTestRootDisposable(), newService);
+        return newService;
+    }
+
+    private VirtualFile addImage(String path, BufferedImage image) throws IOException {
+        var file = myFixture.addFileToProject(path, "").getVirtualFile();
+        setContent(file, image);
+        return file;
+    }
+
+    private void setContent(VirtualFile file, BufferedImage image) throws IOException {
+        byte[] content = toPng(image);
+        WriteAction.runAndWait(() -> file.setBinaryContent(content));
+    }
+
+    /**
+     * Creates a 10x10 diff image with the argument number of pixels, out of 100, highlighted as changed, in its first row.
+     */
+    private static BufferedImage image(int highlightedPixelCount) {
+        var image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < highlightedPixelCount; i++) {
+            image.setRGB(i, 0, 0xFF00FF);
+        }
+        return image;
+    }
+}
@@ -0,0 +1,132 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import static com.picimako.terra.wdio.imagecompare.PngRowDecoderTest.toPng;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+/**
+ * Unit test for {@link DiffImageAnalyzer}.
+ */
+public class DiffImageAnalyzerTest extends BasePlatformTestCase {
+
+    private static final Color HIGHLIGHT = new Color(255, 0, 255);
+
+    public void testHighlightedPixels() {
+        assertThat(DiffImageAnalyzer.isHighlighted(0xFFFF00FF)).isTrue();
+        //Blended with the changed pixel, as for the 'movement' error type of Resemble.js
+        assertThat(DiffImageAnalyzer.isHighlighted(0xFFC000A0)).isTrue();
+        assertThat(DiffImageAnalyzer.isHighlighted(0x40FF00FF)).isFalse();
+        assertThat(DiffImageAnalyzer.isHighlighted(0xFFFFFFFF)).isFalse();
+        assertThat(DiffImageAnalyzer.isHighlighted(0xFF808080)).isFalse();
+        assertThat(DiffImageAnalyzer.isHighlighted(0xFFFF0000)).isFalse();
+    }
+
+    public void testImageWithoutHighlightedPixels() throws IOException {
+        var analysis = analyze(image(200, 100));
+
+        assertThat(analysis.width()).isEqualTo(200);
+        assertThat(analysis.height()).isEqualTo(100);
+        assertThat(analysis.highlightedPixelCount()).isZero();
+        assertThat(analysis.regions()).isEmpty();
+        assertThat(analysis.severity()).isEqualTo(RegressionSeverity.NONE);
+    }
+
+    public void testSingleRegion() throws IOException {
+        var image = image(200, 100);
+        highlight(image, 10, 20, 30, 5);
+
+        var analysis = analyze(image);
+
+        assertThat(analysis.highlightedPixelCount()).isEqualTo(150);
+        assertThat(analysis.mismatchPercentage()).isEqualTo(0.75);
+        assertThat(analysis.severity()).isEqualTo(RegressionSeverity.MODERATE);
+        assertThat(analysis.regions()).containsExactly(new DiffImageAnalysis.Region(10, 20, 30, 5));
+    }
+
+    public void testMergesNearbyChangesIntoOneRegion() throws IOException {
+        var image = image(200, 100);
+        highlight(image, 10, 10, 2, 2);
+        highlight(image, 20, 18, 2, 2);
+        //In a diagonally adjacent cell
+        highlight(image, 33, 33, 1, 1);
+
+        var analysis = analyze(image);
+
+        assertThat(analysis.regions()).containsExactly(new DiffImageAnalysis.Region(10, 10, 24, 24));
+    }
+
+    public void testSeparatesDistantChanges() throws IOException {
+        var image = image(400, 300);
+        highlight(image, 300, 10, 20, 20);
+        highlight(image, 10, 10, 20, 20);
+        highlight(image, 100, 200, 50, 10);
+
+        var analysis = analyze(image);
+
+        assertThat(analysis.regions()).containsExactly(
+            new DiffImageAnalysis.Region(10, 10, 20, 20),
+            new DiffImageAnalysis.Region(300, 10, 20, 20),
+            new DiffImageAnalysis.Region(100, 200, 50, 10));
+    }
+
+    public void testMergesRegionsConnectedOnlyViaLaterRows() throws IOException {
+        var image = image(200, 200);
+        //A U shape, whose two arms are connected only by its bottom
+        highlight(image, 10, 10, 5, 100);
+        highlight(image, 100, 10, 5, 100);
+        highlight(image, 10, 105, 95, 5);
+
+        var analysis = analyze(image);
+
+        assertThat(analysis.regions()).containsExactly(new DiffImageAnalysis.Region(10, 10, 95, 100));
+    }
+
+    public void testKeepsLargestRegionsAboveMaximum() throws IOException {
+        int columnCount = 20;
+        var image = image(columnCount * 3 * DiffImageAnalyzer.CELL_SIZE, 15 * 3 * DiffImageAnalyzer.CELL_SIZE);
+        //300 isolated single pixels, plus a large region
+        for (int i = 0; i < 300; i++) {
+            image.setRGB((i % columnCount) * 3 * DiffImageAnalyzer.CELL_SIZE, (i / columnCount) * 3 * DiffImageAnalyzer.CELL_SIZE, HIGHLIGHT.getRGB());
+        }
+        highlight(image, 1, 1, 10, 10);
+
+        var analysis = analyze(image);
+
+        assertThat(analysis.regions()).hasSize(DiffImageAnalyzer.MAX_REGIONS);
+        assertThat(analysis.regions()).contains(new DiffImageAnalysis.Region(0, 0, 11, 11));
+        assertThat(analysis.highlightedPixelCount()).isEqualTo(300 + 100);
+    }
+
+    //Helpers
+
+    private static DiffImageAnalysis analyze(BufferedImage image) throws IOException {
+        return DiffImageAnalyzer.analyze(new ByteArrayInputStream(toPng(image)));
+    }
+
+    /**
+     * Creates a faded, gray image, similar to the unchanged parts of diff images.
+     */
+    private static BufferedImage image(int width, int height) {
+        var image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        var graphics = image.createGraphics();
+        graphics.setColor(new Color(220, 220, 220));
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+
+    private static void highlight(BufferedImage image, int x, int y, int width, int height) {
+        var graphics = image.createGraphics();
+        graphics.setColor(HIGHLIGHT);
+        graphics.fillRect(x, y, width, height);
+        graphics.dispose();
+    }
+}
@@ -0,0 +1,165 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+import java.awt.*;
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link PngRowDecoder}.
+ */
+public class PngRowDecoderTest {
+
+    @Test
+    public void shouldDecodeTruecolorWithAlpha() throws IOException {
+        assertDecodedAsImageIO(randomImage(BufferedImage.TYPE_INT_ARGB, 1));
+    }
+
+    @Test
+    public void shouldDecodeTruecolor() throws IOException {
+        assertDecodedAsImageIO(randomImage(BufferedImage.TYPE_INT_RGB, 2));
+    }
+
+    @Test
+    public void shouldDecodeFilteredImage() throws IOException {
+        var image = new BufferedImage(300, 200, BufferedImage.TYPE_INT_ARGB);
+        var graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.RED, 300, 200, new Color(0, 0, 255, 128)));
+        graphics.fillRect(0, 0, 300, 200);
+        graphics.setColor(Color.GREEN);
+        graphics.drawString("Terra", 20, 50);
+        graphics.dispose();
+
+        assertDecodedAsImageIO(image);
+    }
+
+    @Test
+    public void shouldDecodeIndexed() throws IOException {
+        assertDecodedAsImageIO(randomImage(BufferedImage.TYPE_BYTE_INDEXED, 3));
+    }
+
+    @Test
+    public void shouldDecodeIndexedWithTransparencyAndLowBitDepth() throws IOException {
+        var random = new Random(4);
+        byte[] reds = new byte[16];
+        byte[] greens = new byte[16];
+        byte[] blues = new byte[16];
+        byte[] alphas = new byte[16];
+        random.nextBytes(reds);
+        random.nextBytes(greens);
+        random.nextBytes(blues);
+        random.nextBytes(alphas);
+        var image = new BufferedImage(37, 23, BufferedImage.TYPE_BYTE_BINARY, new IndexColorModel(4, 16, reds, greens, blues, alphas));
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.getRaster().setSample(x, y, 0, random.nextInt(16));
+            }
+        }
+
+        assertDecodedAsImageIO(image);
+    }
+
+    @Test
+    public void shouldDecodeBinary() throws IOException {
+        assertDecodedAsImageIO(randomImage(BufferedImage.TYPE_BYTE_BINARY, 5));
+    }
+
+    @Test
+    public void shouldDecodeGrayscaleWithoutColorSpaceConversion() throws IOException {
+        var image = randomImage(BufferedImage.TYPE_BYTE_GRAY, 6);
+
+        assertDecoded(image, (x, y) -> {
+            int gray = image.getRaster().getSample(x, y, 0);
+            return 0xFF000000 | gray << 16 | gray << 8 | gray;
+        });
+    }
+
+    @Test
+    public void shouldDecode16BitGrayscale() throws IOException {
+        var image = randomImage(BufferedImage.TYPE_USHORT_GRAY, 7);
+
+        assertDecoded(image, (x, y) -> {
+            int gray = image.getRaster().getSample(x, y, 0) >>> 8;
+            return 0xFF000000 | gray << 16 | gray << 8 | gray;
+        });
+    }
+
+    @Test
+    public void shouldFallBackToImageIOForNonPngImages() throws IOException {
+        var out = new ByteArrayOutputStream();
+        ImageIO.write(randomImage(BufferedImage.TYPE_INT_RGB, 8), "bmp", out);
+
+        try (var decoder = RowDecoder.open(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(decoder).isInstanceOf(BufferedImageRowDecoder.class);
+        }
+    }
+
+    @Test
+    public void shouldFailReadingPastTheLastRow() throws IOException {
+        try (var decoder = RowDecoder.open(new ByteArrayInputStream(toPng(randomImage(BufferedImage.TYPE_INT_RGB, 9))))) {
+            int[] row = new int[decoder.width()];
+            for (int y = 0; y < decoder.height(); y++) {
+                decoder.readRow(row, 0);
+            }
+
+            assertThatIOException().isThrownBy(() -> decoder.readRow(row, 0));
+        }
+    }
+
+    //Helpers
+
+    private interface ExpectedPixels {
+        int argb(int x, int y);
+    }
+
+    private static void assertDecodedAsImageIO(BufferedImage image) throws IOException {
+        var expected = ImageIO.read(new ByteArrayInputStream(toPng(image)));
+        assertThat(expected.getColorModel().getColorSpace().getType()).isNotEqualTo(ColorSpace.TYPE_GRAY);
+        assertDecoded(image, expected::getRGB);
+    }
+
+    private static void assertDecoded(BufferedImage image, ExpectedPixels expected) throws IOException {
+        try (var decoder = RowDecoder.open(new ByteArrayInputStream(toPng(image)))) {
+            assertThat(decoder).isInstanceOf(PngRowDecoder.class);
+            assertThat(decoder.width()).isEqualTo(image.getWidth());
+            assertThat(decoder.height()).isEqualTo(image.getHeight());
+
+            int[] row = new int[decoder.width() + 1];
+            for (int y = 0; y < decoder.height(); y++) {
+                decoder.readRow(row, 1);
+                for (int x = 0; x < decoder.width(); x++) {
+                    assertThat(row[x + 1]).as("pixel at [%d, %d]", x, y).isEqualTo(expected.argb(x, y));
+                }
+            }
+        }
+    }
+
+    private static BufferedImage randomImage(int type, long seed) {
+        var image = new BufferedImage(37, 23, type);
+        var random = new Random(seed);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    static byte[] toPng(BufferedImage image) throws IOException {
+        var out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
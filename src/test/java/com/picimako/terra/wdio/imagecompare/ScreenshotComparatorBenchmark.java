@@ -0,0 +1,110 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import static com.picimako.terra.wdio.imagecompare.PngRowDecoderTest.toPng;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.imageio.ImageIO;
+
+/**
+ * Compares the time and memory needs of {@link ScreenshotComparator} with decoding both images fully via {@link ImageIO}
+ * and comparing them via {@link BufferedImage#getRGB(int, int)}, for a 1080p screenshot and a 10.000 pixels tall full-page screenshot.
+ * <p>
+ * This is not a unit test, it is meant to be run manually via its {@code main} method, preferably with a fixed heap size,
+ * e.g. {@code -Xms2g -Xmx2g}.
+ */
+public final class ScreenshotComparatorBenchmark {
+    private static final int WARM_UP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            var comparator = new ScreenshotComparator(executor, parallelism);
+            benchmark(comparator, 1920, 1080);
+            benchmark(comparator, 1920, 10_000);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void benchmark(ScreenshotComparator comparator, int width, int height) throws IOException {
+        byte[] reference = toPng(screenshot(width, height, false));
+        byte[] latest = toPng(screenshot(width, height, true));
+        var exitEarly = new ScreenshotComparator.Options(0, 0, false);
+
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            compareViaImageIO(reference, latest);
+            comparator.compare(new ByteArrayInputStream(reference), new ByteArrayInputStream(latest), ScreenshotComparator.Options.DEFAULT);
+            comparator.compare(new ByteArrayInputStream(reference), new ByteArrayInputStream(latest), exitEarly);
+        }
+
+        System.out.printf("%dx%d screenshots, %d threads%n", width, height, Runtime.getRuntime().availableProcessors());
+        measure("ImageIO, full decode", () -> compareViaImageIO(reference, latest));
+        measure("ScreenshotComparator, with diff mask", () ->
+            comparator.compare(new ByteArrayInputStream(reference), new ByteArrayInputStream(latest), ScreenshotComparator.Options.DEFAULT).mismatchedPixelCount());
+        measure("ScreenshotComparator, exit at first mismatch", () ->
+            comparator.compare(new ByteArrayInputStream(reference), new ByteArrayInputStream(latest), exitEarly).mismatchedPixelCount());
+    }
+
+    private static void measure(String name, Comparison comparison) throws IOException {
+        var runtime = Runtime.getRuntime();
+        long mismatchedPixelCount = 0;
+        long usedMemory = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            System.gc();
+            mismatchedPixelCount = comparison.run();
+            usedMemory = Math.max(usedMemory, runtime.totalMemory() - runtime.freeMemory());
+        }
+        System.out.printf("  %-45s %8.1f ms/op, %6d MB heap in use, %d mismatched pixels%n",
+            name, (System.nanoTime() - start) / 1_000_000.0 / MEASURED_ITERATIONS, usedMemory / (1024 * 1024), mismatchedPixelCount);
+    }
+
+    private static long compareViaImageIO(byte[] reference, byte[] latest) throws IOException {
+        var referenceImage = ImageIO.read(new ByteArrayInputStream(reference));
+        var latestImage = ImageIO.read(new ByteArrayInputStream(latest));
+        long mismatchedPixelCount = 0;
+        for (int y = 0; y < referenceImage.getHeight(); y++) {
+            for (int x = 0; x < referenceImage.getWidth(); x++) {
+                if (referenceImage.getRGB(x, y) != latestImage.getRGB(x, y)) mismatchedPixelCount++;
+            }
+        }
+        return mismatchedPixelCount;
+    }
+
+    /**
+     * Creates a screenshot-like image, with a gradient background and lines of text, optionally with a changed area in its middle.
+     */
+    private static BufferedImage screenshot(int width, int height, boolean isChanged) {
+        var image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        var graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.WHITE, width, height, Color.LIGHT_GRAY));
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.DARK_GRAY);
+        for (int y = 20; y < height; y += 40) {
+            graphics.drawString("Terra screenshot line " + y, 20, y);
+        }
+        if (isChanged) {
+            graphics.setColor(Color.RED);
+            graphics.fillRect(width / 2, height / 2, 100, 30);
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    private interface Comparison {
+        long run() throws IOException;
+    }
+
+    private ScreenshotComparatorBenchmark() {
+        //Benchmark class
+    }
+}
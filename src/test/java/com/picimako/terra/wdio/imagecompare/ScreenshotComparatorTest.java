@@ -0,0 +1,124 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import static com.picimako.terra.wdio.imagecompare.PngRowDecoderTest.toPng;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import com.intellij.testFramework.BinaryLightVirtualFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+/**
+ * Unit test for {@link ScreenshotComparator}.
+ */
+public class ScreenshotComparatorTest extends BasePlatformTestCase {
+
+    private final ScreenshotComparator comparator = new ScreenshotComparator(ForkJoinPool.commonPool(), 4);
+
+    public void testIdenticalImages() throws IOException {
+        var comparison = compare(image(300, 200), image(300, 200), ScreenshotComparator.Options.DEFAULT);
+
+        assertThat(comparison.isMatching()).isTrue();
+        assertThat(comparison.mismatchPercentage()).isZero();
+        assertThat(comparison.isStoppedEarly()).isFalse();
+    }
+
+    public void testIdenticalScreenshotFiles() throws IOException {
+        var reference = new BinaryLightVirtualFile("screenshot[default].png", toPng(image(300, 200)));
+        var latest = new BinaryLightVirtualFile("screenshot[default].png", toPng(image(300, 200)));
+
+        assertThat(comparator.compare(reference, latest, ScreenshotComparator.Options.DEFAULT).isMatching()).isTrue();
+    }
+
+    public void testMismatchingPixels() throws IOException {
+        var latest = image(300, 200);
+        latest.setRGB(10, 10, 0xFF123456);
+        latest.setRGB(150, 100, 0xFFABCDEF);
+        latest.setRGB(299, 199, 0xFF654321);
+
+        var comparison = compare(image(300, 200), latest, ScreenshotComparator.Options.DEFAULT);
+
+        assertThat(comparison.mismatchedPixelCount()).isEqualTo(3);
+        assertThat(comparison.mismatchPercentage()).isEqualTo(3 * 100.0 / (300 * 200));
+        var diffMask = comparison.diffMask();
+        assertThat(diffMask).isNotNull();
+        assertThat(diffMask.isSet(10, 10)).isTrue();
+        assertThat(diffMask.isSet(150, 100)).isTrue();
+        assertThat(diffMask.isSet(299, 199)).isTrue();
+        assertThat(diffMask.isSet(11, 10)).isFalse();
+
+        var maskImage = diffMask.toImage(Color.RED);
+        assertThat(maskImage.getRGB(10, 10)).isEqualTo(0xFFFF0000);
+        assertThat(maskImage.getRGB(11, 10) >>> 24).isZero();
+    }
+
+    public void testMismatchingPixelsWithinColorTolerance() throws IOException {
+        var latest = image(300, 200);
+        int pixel = latest.getRGB(10, 10);
+        int blue = pixel & 0xFF;
+        latest.setRGB(10, 10, pixel & 0xFFFFFF00 | (blue >= 3 ? blue - 3 : blue + 3));
+
+        assertThat(compare(image(300, 200), latest, new ScreenshotComparator.Options(3, 100, false)).isMatching()).isTrue();
+        assertThat(compare(image(300, 200), latest, new ScreenshotComparator.Options(2, 100, false)).mismatchedPixelCount()).isEqualTo(1);
+    }
+
+    public void testImagesOfDifferentSizes() throws IOException {
+        var comparison = compare(image(300, 200), image(300, 250), ScreenshotComparator.Options.DEFAULT);
+
+        assertThat(comparison.width()).isEqualTo(300);
+        assertThat(comparison.height()).isEqualTo(250);
+        assertThat(comparison.mismatchedPixelCount()).isEqualTo(300 * 50);
+        assertThat(comparison.mismatchPercentage()).isEqualTo(20.0);
+        assertThat(comparison.diffMask().isSet(0, 199)).isFalse();
+        assertThat(comparison.diffMask().isSet(0, 200)).isTrue();
+    }
+
+    public void testStopsEarlyAboveThreshold() throws IOException {
+        var latest = image(300, 2000);
+        var graphics = latest.createGraphics();
+        graphics.setColor(Color.RED);
+        graphics.fillRect(0, 0, 300, 2000);
+        graphics.dispose();
+
+        var comparison = compare(image(300, 2000), latest, new ScreenshotComparator.Options(0, 1, false));
+
+        assertThat(comparison.isStoppedEarly()).isTrue();
+        assertThat(comparison.mismatchPercentage()).isGreaterThan(1).isLessThan(100);
+        assertThat(comparison.diffMask()).isNull();
+    }
+
+    public void testDoesntStopEarlyBelowThreshold() throws IOException {
+        var latest = image(300, 2000);
+        latest.setRGB(0, 1999, 0xFF000000);
+
+        var comparison = compare(image(300, 2000), latest, new ScreenshotComparator.Options(0, 1, false));
+
+        assertThat(comparison.isStoppedEarly()).isFalse();
+        assertThat(comparison.mismatchedPixelCount()).isEqualTo(1);
+    }
+
+    //Helpers
+
+    private ScreenshotComparison compare(BufferedImage reference, BufferedImage latest, ScreenshotComparator.Options options) throws IOException {
+        return comparator.compare(new ByteArrayInputStream(toPng(reference)), new ByteArrayInputStream(toPng(latest)), options);
+    }
+
+    private static BufferedImage image(int width, int height) {
+        var image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        var graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.WHITE, width, height, Color.LIGHT_GRAY));
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.DARK_GRAY);
+        for (int y = 20; y < height; y += 40) {
+            graphics.drawString("Terra screenshot " + y, 20, y);
+        }
+        graphics.dispose();
+        return image;
+    }
+}
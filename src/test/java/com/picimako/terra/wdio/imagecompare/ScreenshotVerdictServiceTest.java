@@ -0,0 +1,229 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagecompare;
+
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.latest;
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
+import static com.picimako.terra.wdio.imagecompare.PngRowDecoderTest.toPng;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import com.picimako.terra.TerraToolkitTestCase;
+
+/**
+ * Unit test for {@link ScreenshotVerdictService}.
+ */
+public class ScreenshotVerdictServiceTest extends TerraToolkitTestCase {
+
+    private ScreenshotVerdictService service;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        service = ScreenshotVerdictService.getInstance(getProject());
+        myFixture.addFileToProject("tests/wdio/First-spec.js",
+            """
+                describe('terra screenshot', () => {
+                    it('Test case', () => {
+                        Terra.validates.screenshot('tolerant', { misMatchTolerance: 5 });
+                        Terra.validates.screenshot('strict');
+                    });
+                });""");
+    }
+
+    public void testPassesIdenticalScreenshots() throws IOException {
+        addImage(reference("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        var latest = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+
+        service.scan(new EmptyProgressIndicator());
+
+        var verdict = service.getVerdict(latest);
+        assertThat(verdict).isNotNull();
+        assertThat(verdict.isPassed()).isTrue();
+        assertThat(verdict.mismatchPercentage()).isZero();
+        assertThat(verdict.mismatchTolerance()).isEqualTo(ScreenshotVerdictService.DEFAULT_MISMATCH_TOLERANCE);
+    }
+
+    public void testFailsScreenshotAboveDefaultTolerance() throws IOException {
+        addImage(reference("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        var latest = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(3));
+
+        service.scan(new EmptyProgressIndicator());
+
+        var verdict = service.getVerdict(latest);
+        assertThat(verdict).isNotNull();
+        assertThat(verdict.isPassed()).isFalse();
+        assertThat(verdict.isMismatchLowerBound()).isTrue();
+    }
+
+    public void testPassesScreenshotWithinToleranceOfValidationCall() throws IOException {
+        addImage(reference("/en/chrome_huge/First-spec/terra_screenshot[tolerant].png"), image(0));
+        var latest = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[tolerant].png"), image(3));
+
+        service.scan(new EmptyProgressIndicator());
+
+        var verdict = service.getVerdict(latest);
+        assertThat(verdict).isNotNull();
+        assertThat(verdict.isPassed()).isTrue();
+        assertThat(verdict.mismatchPercentage()).isEqualTo(3.0);
+        assertThat(verdict.mismatchTolerance()).isEqualTo(5.0);
+    }
+
+    public void testFailsScreenshotAboveToleranceOfValidationCall() throws IOException {
+        addImage(reference("/en/chrome_huge/First-spec/terra_screenshot[tolerant].png"), image(0));
+        var latest = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[tolerant].png"), image(6));
+
+        service.scan(new EmptyProgressIndicator());
+
+        assertThat(service.getVerdict(latest).isPassed()).isFalse();
+    }
+
+    public void testHasNoVerdictForLatestWithoutReference() throws IOException {
+        var latest = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+
+        service.scan(new EmptyProgressIndicator());
+
+        assertThat(service.getVerdict(latest)).isNull();
+    }
+
+    public void testInvalidatesVerdictWhenLatestChanges() throws IOException {
+        addImage(reference("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        var latest = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        service.scan(new EmptyProgressIndicator());
+
+        setContent(latest, image(3));
+
+        assertThat(service.getVerdict(latest)).isNull();
+
+        service.scan(new EmptyProgressIndicator());
+
+        assertThat(service.getVerdict(latest).isPassed()).isFalse();
+    }
+
+    public void testSummarizesVerdicts() throws IOException {
+        addImage(reference("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        addImage(reference("/en/chrome_medium/First-spec/terra_screenshot[strict].png"), image(0));
+        var passing = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        var failing = addImage(latest("/en/chrome_medium/First-spec/terra_screenshot[strict].png"), image(3));
+        var withoutReference = addImage(latest("/en/chrome_small/First-spec/terra_screenshot[strict].png"), image(3));
+
+        service.scan(new EmptyProgressIndicator());
+
+        var summary = service.summarize(List.of(passing, failing, withoutReference));
+        assertThat(summary).isNotNull();
+        assertThat(summary.passedCount()).isEqualTo(1);
+        assertThat(summary.failedCount()).isEqualTo(1);
+        assertThat(summary.isPassed()).isFalse();
+        assertThat(summary.maxMismatchPercentage()).isGreaterThan(ScreenshotVerdictService.DEFAULT_MISMATCH_TOLERANCE);
+        assertThat(service.summarize(List.of(withoutReference))).isNull();
+    }
+
+    public void testScansOnlyLatestScreenshotsOfChangedSpecs() throws IOException {
+        addImage(reference("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        addImage(reference("/en/chrome_huge/Second-spec/terra_screenshot[strict].png"), image(0));
+        var changed = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        var unchanged = addImage(latest("/en/chrome_huge/Second-spec/terra_screenshot[strict].png"), image(0));
+
+        service.scan(scopeOf(changed.getPath()), new EmptyProgressIndicator());
+
+        assertThat(service.getVerdict(changed)).isNotNull();
+        assertThat(service.getVerdict(unchanged)).isNull();
+    }
+
+    public void testScansLatestScreenshotsOfChangedSpecFile() throws IOException {
+        addImage(reference("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        var latest = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        var specFile = myFixture.findFileInTempDir("tests/wdio/First-spec.js");
+
+        service.scan(scopeOf(specFile.getPath()), new EmptyProgressIndicator());
+
+        assertThat(service.getVerdict(latest)).isNotNull();
+    }
+
+    public void testScansAllSpecsOfChangedSnapshotsFolder() throws IOException {
+        addImage(reference("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        addImage(reference("/en/chrome_huge/Second-spec/terra_screenshot[strict].png"), image(0));
+        var first = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        var second = addImage(latest("/en/chrome_huge/Second-spec/terra_screenshot[strict].png"), image(0));
+
+        service.scan(scopeOf(first.getParent().getParent().getPath()), new EmptyProgressIndicator());
+
+        assertThat(service.getVerdict(first)).isNotNull();
+        assertThat(service.getVerdict(second)).isNotNull();
+    }
+
+    public void testScansNothingForUnrelatedChanges() throws IOException {
+        addImage(reference("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        var latest = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        var unrelated = myFixture.addFileToProject("tests/wdio/helpers.js", "").getVirtualFile();
+
+        service.scan(scopeOf(unrelated.getPath()), new EmptyProgressIndicator());
+
+        assertThat(service.getVerdict(latest)).isNull();
+    }
+
+    public void testScansInBackground() throws IOException {
+        addImage(reference("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        var latest = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(3));
+        executeInBackground();
+
+        var isFinished = new AtomicBoolean();
+        service.scanInBackground(() -> isFinished.set(true));
+        waitUntil(isFinished::get);
+
+        assertThat(service.getVerdict(latest).isPassed()).isFalse();
+    }
+
+    public void testScansChangedSpecsInBackground() throws IOException {
+        addImage(reference("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        addImage(reference("/en/chrome_huge/Second-spec/terra_screenshot[strict].png"), image(0));
+        var changed = addImage(latest("/en/chrome_huge/First-spec/terra_screenshot[strict].png"), image(0));
+        var unchanged = addImage(latest("/en/chrome_huge/Second-spec/terra_screenshot[strict].png"), image(0));
+        executeInBackground();
+
+        var isFinished = new AtomicBoolean();
+        service.scanInBackground(List.of(changed.getPath()), () -> isFinished.set(true));
+        waitUntil(isFinished::get);
+
+        assertThat(service.getVerdict(changed).isPassed()).isTrue();
+        assertThat(service.getVerdict(unchanged)).isNull();
+    }
+
+    //Helpers
+
+    private static ScreenshotVerdictService.ScanScope scopeOf(String changedPath) {
+        var scope = new ScreenshotVerdictService.ScanScope();
+        scope.add(changedPath);
+        return scope;
+    }
+
+    private VirtualFile addImage(String path, BufferedImage image) throws IOException {
+        var file = myFixture.addFileToProject(path, "").getVirtualFile();
+        setContent(file, image);
+        return file;
+    }
+
+    private void setContent(VirtualFile file, BufferedImage image) throws IOException {
+        byte[] content = toPng(image);
+        WriteAction.runAndWait(() -> file.setBinaryContent(content));
+    }
+
+    /**
+     * Creates a 10x10 image with the argument number of pixels, out of 100, different from the other images.
+     */
+    private static BufferedImage image(int changedPixelCount) {
+        var image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < changedPixelCount; i++) {
+            image.setRGB(i, 0, 0xFF0000);
+        }
+        return image;
+    }
+}
@@ -0,0 +1,123 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagepreview;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import javax.imageio.ImageIO;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+/**
+ * Unit test for {@link ImageEditorCache}.
+ */
+public class ImageEditorCacheTest extends BasePlatformTestCase {
+
+    private static final long BUDGET_BYTES = 3 * 10 * 10 * 4;
+
+    private ImageEditorCache cache;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        cache = new ImageEditorCache(getProject(), () -> BUDGET_BYTES);
+        Disposer.register(getTestRootDisposable(), cache);
+    }
+
+    public void testEstimatesDecodedSizeOfImage() throws IOException {
+        var file = addImage("image.png", 20, 10);
+
+        assertThat(ImageEditorCache.decodedSizeOf(file)).isEqualTo(20 * 10 * 4);
+    }
+
+    public void testFallsBackToFileSizeForNonImageFile() {
+        var file = myFixture.addFileToProject("not-an-image.png", "content").getVirtualFile();
+
+        assertThat(ImageEditorCache.decodedSizeOf(file)).isEqualTo(file.getLength());
+    }
+
+    public void testReusesReleasedEditor() throws IOException {
+        var file = addImage("image.png", 10, 10);
+        var editor = cache.acquireEditorFor(file);
+        cache.releaseEditor(editor);
+
+        var reused = cache.acquireEditorFor(file);
+
+        assertThat(reused).isSameAs(editor);
+        assertThat(reused.isDisposed()).isFalse();
+        assertThat(cache.getStatistics()).isEqualTo(new ImageEditorCache.Statistics(1, 1, 0, 0, 1, 10 * 10 * 4));
+    }
+
+    public void testCreatesNewEditorForFileWhoseEditorIsInUse() throws IOException {
+        var file = addImage("image.png", 10, 10);
+        var editor = cache.acquireEditorFor(file);
+
+        var other = cache.acquireEditorFor(file);
+
+        assertThat(other).isNotSameAs(editor);
+        assertThat(cache.getStatistics().missCount()).isEqualTo(2);
+        assertThat(cache.getStatistics().inUseCount()).isEqualTo(2);
+    }
+
+    public void testDisposesReleasedEditorIfFileHasIdleEditor() throws IOException {
+        var file = addImage("image.png", 10, 10);
+        var editor = cache.acquireEditorFor(file);
+        var other = cache.acquireEditorFor(file);
+
+        cache.releaseEditor(editor);
+        cache.releaseEditor(other);
+
+        assertThat(editor.isDisposed()).isFalse();
+        assertThat(other.isDisposed()).isTrue();
+        assertThat(cache.getStatistics().idleEditorCount()).isEqualTo(1);
+        assertThat(cache.getStatistics().usedBytes()).isEqualTo(10 * 10 * 4);
+    }
+
+    public void testEvictsLeastRecentlyReleasedEditorsAboveBudget() throws IOException {
+        var first = cache.acquireEditorFor(addImage("first.png", 10, 10));
+        var second = cache.acquireEditorFor(addImage("second.png", 10, 10));
+        var third = cache.acquireEditorFor(addImage("third.png", 10, 10));
+        cache.releaseEditor(second);
+        cache.releaseEditor(first);
+        cache.releaseEditor(third);
+
+        var fourth = cache.acquireEditorFor(addImage("fourth.png", 10, 10));
+
+        assertThat(second.isDisposed()).isTrue();
+        assertThat(first.isDisposed()).isFalse();
+        assertThat(third.isDisposed()).isFalse();
+        assertThat(fourth.isDisposed()).isFalse();
+        assertThat(cache.getStatistics()).isEqualTo(new ImageEditorCache.Statistics(0, 4, 1, 2, 1, BUDGET_BYTES));
+    }
+
+    public void testDoesNotEvictEditorsInUse() throws IOException {
+        var first = cache.acquireEditorFor(addImage("first.png", 10, 10));
+        var second = cache.acquireEditorFor(addImage("second.png", 20, 20));
+
+        assertThat(first.isDisposed()).isFalse();
+        assertThat(second.isDisposed()).isFalse();
+        assertThat(cache.getStatistics().usedBytes()).isGreaterThan(BUDGET_BYTES);
+
+        cache.releaseEditor(second);
+
+        assertThat(second.isDisposed()).isTrue();
+        assertThat(cache.getStatistics().evictionCount()).isEqualTo(1);
+        assertThat(cache.getStatistics().usedBytes()).isEqualTo(10 * 10 * 4);
+    }
+
+    //Helpers
+
+    private VirtualFile addImage(String path, int width, int height) throws IOException {
+        var file = myFixture.addFileToProject(path, "").getVirtualFile();
+        var out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        WriteAction.runAndWait(() -> file.setBinaryContent(out.toByteArray()));
+        return file;
+    }
+}
@@ -8,7 +8,6 @@ import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.picimako.terra.TerraToolkitTestCase;
-import com.picimako.terra.wdio.TerraWdioFolders;
 
 /**
  * Unit test for {@link ReferenceToLatestScreenshotsPreview}.
@@ -31,8 +30,6 @@ public class ReferenceToLatestScreenshotsPreviewTest extends TerraToolkitTestCas
             diff("/en/chrome_huge/ScreenshotPreview-spec/screenshot_preview[2].png"),
             diff("/en/chrome_medium/ScreenshotPreview-spec/screenshot_preview[1].png"));
 
-        TerraWdioFolders.setWdioTestRootPath("tests/wdio");
-
         var preview = new ReferenceToLatestScreenshotsPreview(getProject(), vf);
         var screenshotDiffs = preview.getScreenshotDiffs();
 
@@ -53,8 +50,6 @@ public class ReferenceToLatestScreenshotsPreviewTest extends TerraToolkitTestCas
             latest("/en/chrome_huge/ScreenshotPreview-spec/screenshot_preview[1].png"),
             latest("/en/chrome_medium/ScreenshotPreview-spec/screenshot_preview[1].png"));
 
-        TerraWdioFolders.setWdioTestRootPath("tests/wdio");
-
         var preview = new ReferenceToLatestScreenshotsPreview(getProject(), vf);
         var screenshotDiffs = preview.getScreenshotDiffs();
 
@@ -22,4 +22,15 @@ public class ReferenceToLatestScreenshotsUIProviderTest {
         ReferenceToLatestScreenshotsUIProvider provider = new ReferenceToLatestScreenshotsUIProvider(project);
         assertThat(provider.getContent(new ScreenshotDiff(original))).isNull();
     }
+
+    @Test
+    public void shouldHaveContentOnlyForDiffWithLatestImage() {
+        Project project = mock(Project.class);
+        VirtualFile original = mock(VirtualFile.class);
+        VirtualFile latest = mock(VirtualFile.class);
+
+        ReferenceToLatestScreenshotsUIProvider provider = new ReferenceToLatestScreenshotsUIProvider(project);
+        assertThat(provider.hasContentFor(new ScreenshotDiff(original))).isFalse();
+        assertThat(provider.hasContentFor(new ScreenshotDiff(original, latest))).isTrue();
+    }
 }
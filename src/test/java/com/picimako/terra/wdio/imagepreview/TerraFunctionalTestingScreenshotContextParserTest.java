@@ -6,6 +6,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import org.junit.Test;
 
+import com.picimako.terra.wdio.ScreenshotContext;
 import com.picimako.terra.wdio.TerraFunctionalTestingScreenshotContextParser;
 
 /**
@@ -24,4 +25,10 @@ public class TerraFunctionalTestingScreenshotContextParserTest {
         String path = "/home/project/tests/wdio/nested/__snapshots__/diff/terra-theme/en/chrome_enormous/some-spec/a_screenshot.png";
         assertThat(TerraFunctionalTestingScreenshotContextParser.INSTANCE.parse(path)).isEqualTo("terra-theme / en / chrome / enormous");
     }
+
+    @Test
+    public void shouldReturnScreenshotContext() {
+        String path = "/home/project/tests/wdio/__snapshots__/diff/terra-theme/en/chrome_enormous/some-spec/a_screenshot.png";
+        assertThat(TerraFunctionalTestingScreenshotContextParser.INSTANCE.parseContext(path)).isEqualTo(new ScreenshotContext("terra-theme", "en", "chrome", "enormous"));
+    }
 }
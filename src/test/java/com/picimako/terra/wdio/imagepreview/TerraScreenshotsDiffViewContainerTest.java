@@ -0,0 +1,112 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.imagepreview;
+
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.swing.*;
+
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.util.ui.UIUtil;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import com.picimako.terra.TerraToolkitTestCase;
+
+/**
+ * Unit test for the virtualization and filtering of the diff views in {@link TerraScreenshotsDiffViewContainer}.
+ */
+public class TerraScreenshotsDiffViewContainerTest extends TerraToolkitTestCase {
+    private static final int DIFFS_PER_LOCALE = 10;
+
+    private final List<ScreenshotDiff> enDiffs = new ArrayList<>();
+    private final List<ScreenshotDiff> frDiffs = new ArrayList<>();
+    private RecordingUIContentProvider uiProvider;
+    private TerraScreenshotsDiffViewContainer container;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        for (int i = 0; i < DIFFS_PER_LOCALE; i++) {
+            enDiffs.add(new ScreenshotDiff(myFixture.addFileToProject(reference("/en/chrome_huge/Container-spec/shot_" + i + "[default].png"), "").getVirtualFile()));
+            frDiffs.add(new ScreenshotDiff(myFixture.addFileToProject(reference("/fr/chrome_huge/Container-spec/shot_" + i + "[default].png"), "").getVirtualFile()));
+        }
+        var diffs = new ArrayList<>(enDiffs);
+        diffs.addAll(frDiffs);
+        uiProvider = new RecordingUIContentProvider();
+        container = new TerraScreenshotsDiffViewContainer(diffs, uiProvider, getProject());
+        container.setSize(500, 1000);
+        layoutRecursively(container);
+    }
+
+    public void testRealizesOnlyVisibleAndOffscreenRows() {
+        //The first row fills the viewport, the second one is right below it, and the third one is the offscreen row
+        assertThat(uiProvider.realized).containsExactlyElementsOf(enDiffs.subList(0, 3));
+        assertThat(uiProvider.released).isEmpty();
+    }
+
+    public void testReleasesRowsScrolledOutOfView() {
+        var viewport = viewport();
+        int rowHeight = viewport.getExtentSize().height;
+
+        viewport.setViewPosition(new Point(0, 5 * rowHeight));
+
+        //The rows 5 and 6 are visible, the rows 4 and 7 are the offscreen ones
+        assertThat(uiProvider.realized).containsExactlyElementsOf(enDiffs.subList(4, 8));
+        assertThat(uiProvider.released).containsExactlyElementsOf(enDiffs.subList(0, 3));
+    }
+
+    public void testReleasesRowsHiddenByFilter() {
+        var localeFilter = UIUtil.findComponentOfType(container, ComboBox.class);
+
+        localeFilter.setSelectedItem("fr");
+
+        assertThat(uiProvider.realized).containsExactlyElementsOf(frDiffs.subList(0, 3));
+        assertThat(uiProvider.released).containsExactlyElementsOf(enDiffs.subList(0, 3));
+    }
+
+    //Helpers
+
+    private JViewport viewport() {
+        return UIUtil.findComponentOfType(container, JViewport.class);
+    }
+
+    private static void layoutRecursively(Component component) {
+        component.doLayout();
+        if (component instanceof Container parent) {
+            for (var child : parent.getComponents()) {
+                layoutRecursively(child);
+            }
+        }
+    }
+
+    /**
+     * Records the diffs whose contents are currently provided, and the diffs whose contents have been released, in order.
+     */
+    private static final class RecordingUIContentProvider implements ScreenshotDiffUIContentProvider {
+        private final Set<ScreenshotDiff> realized = new LinkedHashSet<>();
+        private final List<ScreenshotDiff> released = new ArrayList<>();
+
+        @Override
+        public @Nullable Component getContent(@NotNull ScreenshotDiff screenshotDiff) {
+            realized.add(screenshotDiff);
+            return new JLabel();
+        }
+
+        @Override
+        public void releaseContentOf(@NotNull ScreenshotDiff screenshotDiff) {
+            realized.remove(screenshotDiff);
+            released.add(screenshotDiff);
+        }
+
+        @Override
+        public void dispose() {
+        }
+    }
+}
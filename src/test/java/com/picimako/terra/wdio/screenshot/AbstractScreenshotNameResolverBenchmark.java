@@ -0,0 +1,54 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.screenshot;
+
+import static com.picimako.terra.wdio.screenshot.AbstractScreenshotNameResolverTest.corpus;
+import static com.picimako.terra.wdio.screenshot.AbstractScreenshotNameResolverTest.regexNormalize;
+import static com.picimako.terra.wdio.screenshot.AbstractScreenshotNameResolverTest.regexParseTestId;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Compares the time needs of the single-pass {@link AbstractScreenshotNameResolver#normalize(String)} and
+ * {@link AbstractScreenshotNameResolver#parseTestId(String)} with the regular expression based implementations they replaced,
+ * on the corpus of {@link AbstractScreenshotNameResolverTest}.
+ * <p>
+ * This is not a unit test, it is meant to be run manually via its {@code main} method.
+ */
+public final class AbstractScreenshotNameResolverBenchmark {
+    private static final int ITERATIONS = 50;
+
+    public static void main(String[] args) {
+        var resolver = new TerraFunctionalTestingScreenshotNameResolver();
+        var names = corpus();
+        UnaryOperator<String> singlePass = name -> resolver.normalize(resolver.parseTestId(name));
+        UnaryOperator<String> regex = name -> regexNormalize(regexParseTestId(name));
+        //Warm-up
+        measureNanos(names, singlePass);
+        measureNanos(names, regex);
+
+        long singlePassNanos = measureNanos(names, singlePass);
+        long regexNanos = measureNanos(names, regex);
+        System.out.printf("%,d names x %d: single pass %.1f ms, regex %.1f ms%n",
+            names.size(), ITERATIONS, singlePassNanos / 1_000_000.0, regexNanos / 1_000_000.0);
+    }
+
+    private static long measureNanos(List<String> names, UnaryOperator<String> resolution) {
+        long start = System.nanoTime();
+        long totalLength = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (String name : names) {
+                totalLength += resolution.apply(name).length();
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        //Keeps the results used
+        if (totalLength < 0) throw new IllegalStateException();
+        return nanos;
+    }
+
+    private AbstractScreenshotNameResolverBenchmark() {
+        //Benchmark class
+    }
+}
@@ -0,0 +1,94 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.screenshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+
+import org.junit.Test;
+
+/**
+ * Unit test for {@link AbstractScreenshotNameResolver}.
+ * <p>
+ * Verifies that the single-pass {@link AbstractScreenshotNameResolver#normalize(String)} and
+ * {@link AbstractScreenshotNameResolver#parseTestId(String)} produce the same results as the regular expression based
+ * implementations they replaced, on a corpus of real and randomly generated screenshot names.
+ *
+ * @see AbstractScreenshotNameResolverBenchmark
+ */
+public class AbstractScreenshotNameResolverTest {
+    private static final List<String> REAL_NAMES = List.of(
+        "default", "terra screenshot", "  terra? screenshot<>  ", "terra- screenshot--", "with-_-replaced-_-characters_-",
+        "with/ |replaced*.:characters+\"", "this is the [partialid]", "this is [default]", "i am [single]", "i am [not ) single]",
+        "this is the [test ) id]", "[test id]", "outer describe", "matches something else again", "test 2", "Terra.describeViewports",
+        "with name", "fromlatest", "fromdiff", "non-default", "a.b.c", "tab\tand\nnew line", "multiple   spaces", " . + ",
+        "[]", "[]]", "[[nested]]", "[a) [b]", "[a]) [b]", "no closing [bracket", "closing ] only", "(parenthesised) [id]",
+        "[first] and [second]", "", " ", "[", "]", ")", "\u000B\f\r");
+    private static final String RANDOM_NAME_CHARACTERS = "ab Z09_-.+?<>/|*:\"[]()\t\n\u000B\f\r";
+    private static final int RANDOM_NAME_COUNT = 20_000;
+
+    private final AbstractScreenshotNameResolver resolver = new TerraFunctionalTestingScreenshotNameResolver();
+
+    @Test
+    public void producesSameNormalizedNamesAsRegexImplementation() {
+        var names = corpus();
+        assertSoftly(s -> {
+            for (String name : names) {
+                s.assertThat(resolver.normalize(name)).as("normalize(\"%s\")", name).isEqualTo(regexNormalize(name));
+            }
+        });
+    }
+
+    @Test
+    public void producesSameTestIdsAsRegexImplementation() {
+        var names = corpus();
+        assertSoftly(s -> {
+            for (String name : names) {
+                s.assertThat(resolver.parseTestId(name)).as("parseTestId(\"%s\")", name).isEqualTo(regexParseTestId(name));
+            }
+        });
+    }
+
+    @Test
+    public void returnsSameInstanceIfThereIsNothingToNormalize() {
+        String name = "terra_screenshot[default]";
+        assertThat(resolver.normalize(name)).isSameAs(name);
+    }
+
+    //Helper methods
+
+    static List<String> corpus() {
+        var names = new ArrayList<>(REAL_NAMES);
+        var random = new Random(42);
+        for (int i = 0; i < RANDOM_NAME_COUNT; i++) {
+            var name = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                name.append(RANDOM_NAME_CHARACTERS.charAt(random.nextInt(RANDOM_NAME_CHARACTERS.length())));
+            }
+            names.add(name.toString());
+        }
+        return names;
+    }
+
+    /**
+     * The regular expression based implementation of {@link AbstractScreenshotNameResolver#normalize(String)}.
+     */
+    static String regexNormalize(String text) {
+        return text.replaceAll(AbstractScreenshotNameResolver.DELIMITERS_TO_REPLACE, "_")
+            .replaceAll(AbstractScreenshotNameResolver.CHARACTERS_TO_REPLACE, "-");
+    }
+
+    /**
+     * The regular expression based implementation of {@link AbstractScreenshotNameResolver#parseTestId(String)}.
+     */
+    static String regexParseTestId(String partialName) {
+        Matcher testIdMatcher = AbstractScreenshotNameResolver.TEST_ID_PATTERN.matcher(partialName);
+        return testIdMatcher.find() ? testIdMatcher.group("testId") : partialName;
+    }
+}
@@ -0,0 +1,95 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.screenshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.intellij.lang.javascript.psi.JSExpressionStatement;
+import com.intellij.lang.javascript.psi.JSProperty;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiDocumentManager;
+
+import com.picimako.terra.TerraToolkitTestCase;
+import com.picimako.terra.wdio.screenshot.TerraCallModel.Kind;
+import com.picimako.terra.wdio.screenshot.TerraCallModel.TerraCall;
+
+/**
+ * Unit test for {@link TerraCallModel}.
+ */
+public class TerraCallModelTest extends TerraToolkitTestCase {
+
+    public void testCollectsTerraValidationCalls() {
+        myFixture.configureByText("CallModel-spec.js",
+            """
+                Terra.validates.screenshot('top level');
+                describe('terra screenshot', () => {
+                    it('Test case', () => {
+                        Terra.validates.element('with name', { selector: '#selector', misMatchTolerance: 0.5 });
+                        Terra.validates.screenshot();
+                        Terra.validates.accessibility({ rules: [] });
+                        browser.element('#selector');
+                    });
+                    Terra.it.matchesScreenshot('[test id]');
+                });""");
+
+        var calls = TerraCallModel.getInstance(myFixture.getFile()).getCalls();
+
+        assertThat(calls).extracting(TerraCall::methodName).containsExactly(
+            "Terra.validates.screenshot", "Terra.validates.element", "Terra.validates.screenshot", "Terra.validates.accessibility", "Terra.it.matchesScreenshot");
+        assertThat(calls).extracting(TerraCall::kind).containsExactly(Kind.SCREENSHOT, Kind.ELEMENT, Kind.SCREENSHOT, Kind.ACCESSIBILITY, Kind.SCREENSHOT);
+        assertThat(calls).extracting(TerraCall::isTopLevel).containsExactly(true, false, false, false, false);
+        assertThat(calls).extracting(TerraCall::isTerraIt).containsExactly(false, false, false, false, true);
+        assertThat(calls).extracting(TerraCall::screenshotName)
+            .containsExactly("", "terra_screenshot[with_name].png", "terra_screenshot[default].png", "", "terra_screenshot[test_id].png");
+    }
+
+    public void testProvidesCallProperties() {
+        myFixture.configureByText("CallModel-spec.js",
+            """
+                describe('terra screenshot', () => {
+                    Terra.validates.element('with name', { selector: '#selector', misMatchTolerance: 0.5 });
+                });""");
+
+        var call = TerraCallModel.getInstance(myFixture.getFile()).getCalls().getFirst();
+
+        assertThat(call.nameArgument().getStringValue()).isEqualTo("with name");
+        assertThat(call.properties()).extracting(JSProperty::getName).containsExactly("selector", "misMatchTolerance");
+        assertThat(call.findProperty("mismatchTolerance", "misMatchTolerance").getName()).isEqualTo("misMatchTolerance");
+        assertThat(call.findProperty("viewports")).isNull();
+        assertThat(call.describeBlock().getMethodExpression().getText()).isEqualTo("describe");
+    }
+
+    public void testFindsCallByExpressionStatement() {
+        myFixture.configureByText("CallModel-spec.js",
+            """
+                describe('terra screenshot', () => {
+                    Terra.validates.element('with name');
+                    browser.url('/');
+                });""");
+
+        var model = TerraCallModel.getInstance(myFixture.getFile());
+        var call = model.getCalls().getFirst();
+
+        assertThat(model.findCall(call.expression())).isSameAs(call);
+        assertThat(model.findCall((JSExpressionStatement) call.expression().getParent())).isSameAs(call);
+    }
+
+    public void testRecalculatesModelAfterModification() {
+        myFixture.configureByText("CallModel-spec.js",
+            """
+                describe('terra screenshot', () => {
+                    Terra.validates.element('with name');
+                });""");
+        var model = TerraCallModel.getInstance(myFixture.getFile());
+        assertThat(TerraCallModel.getInstance(myFixture.getFile())).isSameAs(model);
+
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+            myFixture.getEditor().getDocument().insertString(0, "Terra.validates.screenshot('new');\n");
+            PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+        });
+
+        var recalculatedModel = TerraCallModel.getInstance(myFixture.getFile());
+        assertThat(recalculatedModel).isNotSameAs(model);
+        assertThat(recalculatedModel.getCalls()).hasSize(2);
+    }
+}
@@ -60,6 +60,18 @@ public class TerraFunctionalTestingScreenshotNameResolverTest extends BasePlatfo
         assertThat(new TerraFunctionalTestingScreenshotNameResolver().resolveDefaultName(element)).isNull();
     }
 
+    //resolveWithFallbackUncached
+
+    public void testResolveNameUncached() {
+        JSLiteralExpression element = configureFileForJSLiteralExpression(
+            "Terra.validates.element('terra screenshot<caret>', { selector: '#selector' });");
+        assertThat(new TerraFunctionalTestingScreenshotNameResolver().resolveWithFallbackUncached(element, null)).isEqualTo("terra_screenshot.png");
+    }
+
+    public void testResolveMissingNameAsEmptyStringUncached() {
+        assertThat(new TerraFunctionalTestingScreenshotNameResolver().resolveWithFallbackUncached(null, null)).isEmpty();
+    }
+
     //Helper methods
 
     private JSLiteralExpression configureFileForJSLiteralExpression(String text) {
@@ -162,6 +162,30 @@ public class TerraToolkitScreenshotNameResolverTest extends BasePlatformTestCase
         assertThat(new TerraToolkitScreenshotNameResolver().resolveWithFallback(null, element)).isEqualTo("terra_screenshot[default].png");
     }
 
+    //resolveWithFallbackUncached
+
+    public void testResolveByLiteralNoFallbackUncached() {
+        var element = configureFileForJSLiteralExpression(
+            """
+                describe('outer describe', () => {
+                    describe('terra screenshot', () => {
+                        Terra.it.matchesScreenshot('with name<caret>', { selector: '#selector' });
+                    });
+                });""");
+        assertThat(new TerraToolkitScreenshotNameResolver().resolveWithFallbackUncached(element, null)).isEqualTo("terra_screenshot[with_name].png");
+    }
+
+    public void testResolveByMethodExpressionFallbackUncached() {
+        var element = configureFileForJSExpression(
+            """
+                describe('outer describe', () => {
+                    describe('terra screenshot', () => {
+                        Terra.it.matchesScreen<caret>shot({ selector: '#selector' });
+                    });
+                });""");
+        assertThat(new TerraToolkitScreenshotNameResolver().resolveWithFallbackUncached(null, element)).isEqualTo("terra_screenshot[default].png");
+    }
+
     //Helper methods
 
     private JSExpression configureFileForJSExpression(String text) {
@@ -0,0 +1,78 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.screenshot.index;
+
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.diff;
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.latest;
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
+import static com.picimako.terra.wdio.TerraWdioFolders.DIFF;
+import static com.picimako.terra.wdio.TerraWdioFolders.LATEST;
+import static com.picimako.terra.wdio.TerraWdioFolders.REFERENCE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.intellij.openapi.vfs.VirtualFile;
+
+import com.picimako.terra.TerraToolkitTestCase;
+
+/**
+ * Unit test for {@link TerraScreenshotIndex}.
+ */
+public class TerraScreenshotIndexTest extends TerraToolkitTestCase {
+
+    @Override
+    protected String getTestDataPath() {
+        return "testdata/terra/projectroot";
+    }
+
+    public void testFindsReferenceScreenshotsForSpecAndName() {
+        copyScreenshots();
+
+        var screenshots = TerraScreenshotIndex.findScreenshots(getProject(), snapshotsDirectory(), "CollectScreenshots-spec", "terra_screenshot[collect].png", REFERENCE);
+
+        assertThat(screenshots).hasSize(2);
+        assertThat(screenshots).allMatch(file -> file.getPath().contains("__snapshots__/reference"));
+    }
+
+    public void testFindsLatestScreenshotsForSpecAndName() {
+        copyScreenshots();
+
+        var screenshots = TerraScreenshotIndex.findScreenshots(getProject(), snapshotsDirectory(), "CollectScreenshots-spec", "terra_screenshot[collect].png", LATEST);
+
+        assertThat(screenshots).hasSize(1);
+        assertThat(screenshots.get(0).getPath()).contains("__snapshots__/latest/en/chrome_huge/CollectScreenshots-spec");
+    }
+
+    public void testFindsNoScreenshotForNonMatchingSpec() {
+        copyScreenshots();
+
+        assertThat(TerraScreenshotIndex.findScreenshots(getProject(), snapshotsDirectory(), "NonExistent-spec", "terra_screenshot[collect].png", REFERENCE)).isEmpty();
+    }
+
+    public void testFindsNoScreenshotForNonMatchingName() {
+        copyScreenshots();
+
+        assertThat(TerraScreenshotIndex.findScreenshots(getProject(), snapshotsDirectory(), "CollectScreenshots-spec", "terra_screenshot[nonexistent].png", REFERENCE)).isEmpty();
+    }
+
+    public void testDeterminesImageType() {
+        assertThat(TerraScreenshotIndex.imageTypeOf(copyFileToProject(reference("/en/chrome_huge/CollectScreenshots-spec/terra_screenshot[collect].png")))).isEqualTo(REFERENCE);
+        assertThat(TerraScreenshotIndex.imageTypeOf(copyFileToProject(latest("/en/chrome_huge/CollectScreenshots-spec/terra_screenshot[collect].png")))).isEqualTo(LATEST);
+        assertThat(TerraScreenshotIndex.imageTypeOf(copyFileToProject(diff("/en/chrome_huge/FindUnusedScreenshot-spec/used[fromdiff].png")))).isEqualTo(DIFF);
+        assertThat(TerraScreenshotIndex.imageTypeOf(copyFileToProject("tests/wdio/CollectScreenshots-spec.js"))).isNull();
+    }
+
+    //Helper methods
+
+    private VirtualFile snapshotsDirectory() {
+        return myFixture.findFileInTempDir("tests/wdio/__snapshots__");
+    }
+
+    private void copyScreenshots() {
+        copyFilesToProject(
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/terra_screenshot[collect].png"),
+            reference("/en/chrome_huge/CollectScreenshots-spec/terra_screenshot[collect].png"),
+            reference("/en/chrome_huge/CollectScreenshots-spec/terra_screenshot[default].png"),
+            reference("/en/chrome_medium/CollectScreenshots-spec/terra_screenshot[collect].png"),
+            latest("/en/chrome_huge/CollectScreenshots-spec/terra_screenshot[collect].png"));
+    }
+}
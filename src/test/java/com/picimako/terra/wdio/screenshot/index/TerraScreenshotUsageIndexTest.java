@@ -0,0 +1,53 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.screenshot.index;
+
+import static java.util.Map.entry;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.picimako.terra.TerraToolkitTestCase;
+
+/**
+ * Unit test for {@link TerraScreenshotUsageIndex}.
+ */
+public class TerraScreenshotUsageIndexTest extends TerraToolkitTestCase {
+
+    private static final String SPEC_FILE_CONTENT = """
+        describe('terra screenshot', () => {
+            it('Test case', () => {
+                Terra.validates.screenshot({ selector: '#selector' });
+                Terra.validates.element('with name', { selector: '#selector' });
+                Terra.validates.element('with name', { selector: '#other-selector' });
+                Terra.validates.accessibility();
+            });
+        });""";
+
+    public void testIndexesScreenshotUsagesWithOffsets() {
+        var specFile = myFixture.configureByText("Usages-spec.js", SPEC_FILE_CONTENT);
+
+        var usages = TerraScreenshotUsageIndex.getScreenshotUsages(getProject(), specFile.getVirtualFile());
+
+        assertThat(usages).containsOnly(
+            entry("terra_screenshot[default].png", SPEC_FILE_CONTENT.indexOf("Terra.validates.screenshot")),
+            entry("terra_screenshot[with_name].png", SPEC_FILE_CONTENT.indexOf("'with name'")));
+    }
+
+    public void testFindsUsageOffset() {
+        var specFile = myFixture.configureByText("Usages-spec.js", SPEC_FILE_CONTENT);
+
+        assertThat(TerraScreenshotUsageIndex.findUsageOffset(getProject(), specFile.getVirtualFile(), "terra_screenshot[with_name].png"))
+            .isEqualTo(SPEC_FILE_CONTENT.indexOf("'with name'"));
+    }
+
+    public void testFindsNoUsageOffsetForNotReferencedScreenshot() {
+        var specFile = myFixture.configureByText("Usages-spec.js", SPEC_FILE_CONTENT);
+
+        assertThat(TerraScreenshotUsageIndex.findUsageOffset(getProject(), specFile.getVirtualFile(), "terra_screenshot[not_referenced].png")).isNull();
+    }
+
+    public void testDoesntIndexNonSpecFile() {
+        var file = myFixture.configureByText("Usages.js", SPEC_FILE_CONTENT);
+
+        assertThat(TerraScreenshotUsageIndex.getScreenshotUsages(getProject(), file.getVirtualFile())).isEmpty();
+    }
+}
@@ -0,0 +1,65 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.screenshot.inspection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.vfs.VfsUtil;
+
+import com.picimako.terra.TerraToolkitTestCase;
+
+/**
+ * Unit test for {@link GlobalTerraSelectorRetriever}.
+ */
+public class GlobalTerraSelectorRetrieverTest extends TerraToolkitTestCase {
+
+    public void testRetrievesSelectorFromNearestConfig() {
+        myFixture.addFileToProject("wdio.conf.js", "exports.config = { terra: { selector: '#root' } };");
+        myFixture.addFileToProject("packages/a/wdio.conf.ts", "export const config = { terra: { selector: '#package-root' } };");
+        var rootSpec = myFixture.addFileToProject("tests/wdio/Root-spec.js", "");
+        var packageSpec = myFixture.addFileToProject("packages/a/tests/wdio/Package-spec.js", "");
+        var otherPackageSpec = myFixture.addFileToProject("packages/b/tests/wdio/Other-spec.js", "");
+
+        var retriever = GlobalTerraSelectorRetriever.getInstance(getProject());
+
+        assertThat(retriever.getSelector(rootSpec)).isEqualTo("#root");
+        assertThat(retriever.getSelector(packageSpec)).isEqualTo("#package-root");
+        assertThat(retriever.getSelector(otherPackageSpec)).isEqualTo("#root");
+        assertThat(retriever.findNearestConfig(packageSpec).getName()).isEqualTo("wdio.conf.ts");
+    }
+
+    public void testReturnsNullForNoConfig() {
+        var spec = myFixture.addFileToProject("tests/wdio/NoConfig-spec.js", "");
+
+        var retriever = GlobalTerraSelectorRetriever.getInstance(getProject());
+
+        assertThat(retriever.findNearestConfig(spec)).isNull();
+        assertThat(retriever.getSelector(spec)).isNull();
+    }
+
+    public void testRebindsSpecToNewlyCreatedConfig() {
+        myFixture.addFileToProject("wdio.conf.js", "exports.config = { terra: { selector: '#root' } };");
+        var spec = myFixture.addFileToProject("packages/a/tests/wdio/Package-spec.js", "");
+        var retriever = GlobalTerraSelectorRetriever.getInstance(getProject());
+        assertThat(retriever.getSelector(spec)).isEqualTo("#root");
+
+        myFixture.addFileToProject("packages/a/wdio.conf.js", "exports.config = { terra: { selector: '#package-root' } };");
+
+        assertThat(retriever.getSelector(spec)).isEqualTo("#package-root");
+    }
+
+    public void testRecalculatesSelectorAfterConfigModification() throws IOException {
+        var config = myFixture.addFileToProject("wdio.conf.js", "exports.config = { terra: { selector: '#root' } };");
+        var spec = myFixture.addFileToProject("tests/wdio/Root-spec.js", "");
+        var retriever = GlobalTerraSelectorRetriever.getInstance(getProject());
+        assertThat(retriever.getSelector(spec)).isEqualTo("#root");
+
+        WriteAction.runAndWait(() ->
+            VfsUtil.saveText(config.getVirtualFile(), "exports.config = { terra: { selector: '#modified-root' } };"));
+
+        assertThat(retriever.getSelector(spec)).isEqualTo("#modified-root");
+    }
+}
@@ -8,9 +8,16 @@ import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Map;
+import java.util.Set;
+import javax.swing.event.TreeModelEvent;
 
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.vfs.VfsUtil;
 import com.intellij.testFramework.TestActionEvent;
+import com.intellij.util.ui.tree.TreeModelAdapter;
 
 import com.picimako.terra.TerraToolkitTestCase;
 import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
@@ -28,6 +35,21 @@ public class FindUnusedScreenshotsActionTest extends TerraToolkitTestCase {
         return "testdata/terra/projectroot";
     }
 
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        UnusedScreenshotsProjectService.getInstance(getProject()).clear();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        try {
+            UnusedScreenshotsProjectService.getInstance(getProject()).clear();
+        } finally {
+            super.tearDown();
+        }
+    }
+
     public void testMarksScreenshotsUnused() {
         copyFilesToProject(
             reference("/en/chrome_huge/FindUnusedScreenshot-spec/used[default].png"),
@@ -42,7 +64,7 @@ public class FindUnusedScreenshotsActionTest extends TerraToolkitTestCase {
 
         TerraWdioTreeModel treeModel = new TerraWdioTreeModel(getProject());
         TerraWdioTree tree = new TerraWdioTree(treeModel);
-        var action = new FindUnusedScreenshotsAction(tree, getProject());
+        var action = new FindUnusedScreenshotsAction(tree);
 
         TreeSpecNode relatedFindUnusedScreenshotSpec = ((TreeModelDataRoot) treeModel.getRoot()).getSpecs().getFirst();
         assertThat(relatedFindUnusedScreenshotSpec.getScreenshots().stream().noneMatch(TreeScreenshotNode::isUnused)).isTrue();
@@ -63,6 +85,23 @@ public class FindUnusedScreenshotsActionTest extends TerraToolkitTestCase {
                 s.assertThat(relatedFindUnusedScreenshotSpec.findScreenshotNodeByName(name).get().isUnused()).isEqualTo(unused)));
     }
 
+    public void testMarksScreenshotsUnusedInBackground() {
+        copyFilesToProject(
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/used[default].png"),
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/unused[default].png"),
+            "tests/wdio/FindUnusedScreenshot-spec.js"
+        );
+        TerraWdioTree tree = new TerraWdioTree(new TerraWdioTreeModel(getProject()));
+        executeInBackground();
+
+        new FindUnusedScreenshotsAction(tree).actionPerformed(TestActionEvent.createTestEvent());
+        TreeSpecNode spec = tree.getRoot().getSpecs().getFirst();
+        waitUntil(spec::hasUnused);
+
+        assertThat(spec.findScreenshotNodeByName("used[default].png").get().isUnused()).isFalse();
+        assertThat(spec.findScreenshotNodeByName("unused[default].png").get().isUnused()).isTrue();
+    }
+
     public void testUnrelatedIsUnused() {
         copyFilesToProject(
             reference("/en/chrome_huge/CollectScreenshots-spec/terra_screenshot[collect].png"),
@@ -72,7 +111,7 @@ public class FindUnusedScreenshotsActionTest extends TerraToolkitTestCase {
 
         TerraWdioTreeModel treeModel = new TerraWdioTreeModel(getProject());
         TerraWdioTree tree = new TerraWdioTree(treeModel);
-        var action = new FindUnusedScreenshotsAction(tree, getProject());
+        var action = new FindUnusedScreenshotsAction(tree);
 
         TreeSpecNode nonRelatedSomeSpec = ((TreeModelDataRoot) treeModel.getRoot()).getSpecs().getFirst();
         assertThat(nonRelatedSomeSpec.getScreenshots().stream().noneMatch(TreeScreenshotNode::isUnused)).isTrue();
@@ -83,4 +122,114 @@ public class FindUnusedScreenshotsActionTest extends TerraToolkitTestCase {
         //Although FindUnusedScreenshot-spec has a validation for terra_screenshot[collect].png, it doesn't have an image for this spec
         assertThat(nonRelatedSomeSpec.findScreenshotNodeByName("terra_screenshot[collect].png").get().isUnused()).isTrue();
     }
+
+    public void testDoesntRestoreUnusedScreenshotsBeforeAnalysis() {
+        copyFilesToProject(
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/used[default].png"),
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/unused[default].png"),
+            "tests/wdio/FindUnusedScreenshot-spec.js"
+        );
+
+        TerraWdioTree tree = new TerraWdioTree(new TerraWdioTreeModel(getProject()));
+        UnusedScreenshotsAnalyzer.restoreUnusedScreenshots(getProject(), tree);
+
+        assertThat(tree.getRoot().getSpecs().getFirst().getScreenshots().stream().noneMatch(TreeScreenshotNode::isUnused)).isTrue();
+    }
+
+    public void testRestoresUnusedScreenshotsFromPreviousAnalysis() {
+        copyFilesToProject(
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/used[default].png"),
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/unused[default].png"),
+            "tests/wdio/FindUnusedScreenshot-spec.js"
+        );
+        TerraWdioTree tree = new TerraWdioTree(new TerraWdioTreeModel(getProject()));
+        new FindUnusedScreenshotsAction(tree).actionPerformed(TestActionEvent.createTestEvent());
+        assertThat(UnusedScreenshotsProjectService.getInstance(getProject()).usagesBySpec)
+            .containsOnlyKeys(UnusedScreenshotsProjectService.specKey(tree.getRoot().getWdioRoot(), "FindUnusedScreenshot-spec"));
+
+        TerraWdioTree rebuiltTree = new TerraWdioTree(new TerraWdioTreeModel(getProject()));
+        UnusedScreenshotsAnalyzer.restoreUnusedScreenshots(getProject(), rebuiltTree);
+
+        TreeSpecNode spec = rebuiltTree.getRoot().getSpecs().getFirst();
+        assertThat(spec.findScreenshotNodeByName("used[default].png").get().isUnused()).isFalse();
+        assertThat(spec.findScreenshotNodeByName("unused[default].png").get().isUnused()).isTrue();
+    }
+
+    public void testReanalyzesSpecFileAnalyzedWithDifferentResourceManager() {
+        copyFilesToProject(
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/used[default].png"),
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/unused[default].png"),
+            "tests/wdio/FindUnusedScreenshot-spec.js"
+        );
+        TerraWdioTree tree = new TerraWdioTree(new TerraWdioTreeModel(getProject()));
+        var specFile = myFixture.findFileInTempDir("tests/wdio/FindUnusedScreenshot-spec.js");
+        //Stores usages as if they were collected while the package used a different Terra test library
+        var service = UnusedScreenshotsProjectService.getInstance(getProject());
+        service.isAnalyzed = true;
+        service.putUsedScreenshotNames(UnusedScreenshotsProjectService.specKey(tree.getRoot().getWdioRoot(), "FindUnusedScreenshot-spec"),
+            UnusedScreenshotsProjectService.stampOf(specFile), "OtherResourceManager", Set.of("unused[default].png"));
+
+        UnusedScreenshotsAnalyzer.restoreUnusedScreenshots(getProject(), tree);
+
+        TreeSpecNode spec = tree.getRoot().getSpecs().getFirst();
+        assertThat(spec.findScreenshotNodeByName("used[default].png").get().isUnused()).isFalse();
+        assertThat(spec.findScreenshotNodeByName("unused[default].png").get().isUnused()).isTrue();
+    }
+
+    public void testReanalyzesChangedSpecFile() throws IOException {
+        copyFilesToProject(
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/used[default].png"),
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/unused[default].png"),
+            "tests/wdio/FindUnusedScreenshot-spec.js"
+        );
+        TerraWdioTree tree = new TerraWdioTree(new TerraWdioTreeModel(getProject()));
+        new FindUnusedScreenshotsAction(tree).actionPerformed(TestActionEvent.createTestEvent());
+
+        var specFile = myFixture.findFileInTempDir("tests/wdio/FindUnusedScreenshot-spec.js");
+        WriteAction.run(() -> VfsUtil.saveText(specFile, """
+            describe('unused', () => {
+                Terra.it.matchesScreenshot({ selector: '#selector' });
+            });"""));
+        UnusedScreenshotsAnalyzer.restoreUnusedScreenshots(getProject(), tree);
+
+        TreeSpecNode spec = tree.getRoot().getSpecs().getFirst();
+        assertThat(spec.findScreenshotNodeByName("used[default].png").get().isUnused()).isTrue();
+        assertThat(spec.findScreenshotNodeByName("unused[default].png").get().isUnused()).isFalse();
+    }
+
+    public void testDoesntUpdateSpecsWithUnchangedSpecFiles() {
+        copyFilesToProject(
+            reference("/en/chrome_huge/CollectScreenshots-spec/terra_screenshot[collect].png"),
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/used[default].png"),
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/unused[default].png"),
+            "tests/wdio/FindUnusedScreenshot-spec.js"
+        );
+        var treeModel = new TerraWdioTreeModel(getProject());
+        TerraWdioTree tree = new TerraWdioTree(treeModel);
+        new FindUnusedScreenshotsAction(tree).actionPerformed(TestActionEvent.createTestEvent());
+
+        var events = new ArrayList<TreeModelEvent>();
+        treeModel.addTreeModelListener(TreeModelAdapter.create((event, type) -> events.add(event)));
+        UnusedScreenshotsAnalyzer.restoreUnusedScreenshots(getProject(), tree);
+
+        assertThat(events).isEmpty();
+        assertThat(tree.getRoot().getSpecs()).allMatch(TreeSpecNode::hasUnused);
+    }
+
+    public void testMarksScreenshotAddedAfterAnalysis() {
+        copyFilesToProject(
+            reference("/en/chrome_huge/FindUnusedScreenshot-spec/used[default].png"),
+            "tests/wdio/FindUnusedScreenshot-spec.js"
+        );
+        TerraWdioTree tree = new TerraWdioTree(new TerraWdioTreeModel(getProject()));
+        new FindUnusedScreenshotsAction(tree).actionPerformed(TestActionEvent.createTestEvent());
+
+        TreeSpecNode spec = tree.getRoot().getSpecs().getFirst();
+        assertThat(spec.hasUnused()).isFalse();
+        var addedScreenshot = new TreeScreenshotNode("unused[default].png", getProject());
+        spec.addScreenshot(addedScreenshot);
+
+        assertThat(addedScreenshot.isUnused()).isTrue();
+        assertThat(spec.hasUnused()).isTrue();
+    }
 }
@@ -0,0 +1,108 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static java.util.Comparator.comparing;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import com.picimako.terra.wdio.toolwindow.node.AbstractTerraWdioTreeNode;
+import com.picimako.terra.wdio.toolwindow.node.IndexedNodeList;
+import com.picimako.terra.wdio.toolwindow.node.TreeScreenshotNode;
+
+/**
+ * Unit test for {@link IndexedNodeList}.
+ */
+public class IndexedNodeListTest extends BasePlatformTestCase {
+
+    private IndexedNodeList<TreeScreenshotNode> nodes;
+    private TreeScreenshotNode first;
+    private TreeScreenshotNode second;
+    private TreeScreenshotNode third;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        nodes = new IndexedNodeList<>();
+        first = new TreeScreenshotNode("c", getProject());
+        second = new TreeScreenshotNode("a", getProject());
+        third = new TreeScreenshotNode("b", getProject());
+        nodes.add(first);
+        nodes.add(second);
+        nodes.add(third);
+    }
+
+    public void testFindsNodeByName() {
+        assertThat(nodes.findByName("a")).isSameAs(second);
+        assertThat(nodes.findByName("d")).isNull();
+    }
+
+    public void testReturnsIndexOfAppendedNodes() {
+        assertThat(nodes.indexOf(first)).isZero();
+        assertThat(nodes.indexOf(second)).isOne();
+        assertThat(nodes.indexOf(third)).isEqualTo(2);
+        assertThat(nodes.indexOf(new TreeScreenshotNode("d", getProject()))).isEqualTo(-1);
+        assertThat(nodes.indexOf("a")).isEqualTo(-1);
+    }
+
+    public void testReturnsIndexAfterInsertion() {
+        var inserted = new TreeScreenshotNode("d", getProject());
+        nodes.add(1, inserted);
+
+        assertThat(nodes).containsExactly(first, inserted, second, third);
+        assertThat(nodes.indexOf(inserted)).isOne();
+        assertThat(nodes.indexOf(third)).isEqualTo(3);
+    }
+
+    public void testReturnsIndicesAfterMultipleInsertions() {
+        var fourth = new TreeScreenshotNode("d", getProject());
+        var fifth = new TreeScreenshotNode("e", getProject());
+        var sixth = new TreeScreenshotNode("f", getProject());
+        nodes.add(1, fourth);
+        nodes.add(0, fifth);
+        nodes.add(5, sixth);
+
+        assertThat(nodes).containsExactly(fifth, first, fourth, second, third, sixth);
+        for (int i = 0; i < nodes.size(); i++) {
+            assertThat(nodes.indexOf(nodes.get(i))).isEqualTo(i);
+        }
+    }
+
+    public void testReturnsIndexOfNodeWithSameNameAfterRemoval() {
+        var sameNamed = new TreeScreenshotNode("a", getProject());
+        nodes.add(sameNamed);
+
+        nodes.remove(1);
+
+        assertThat(nodes).extracting(AbstractTerraWdioTreeNode::getDisplayName).containsExactly("c", "b", "a");
+        assertThat(nodes.findByName("a")).isSameAs(sameNamed);
+        assertThat(nodes.indexOf(sameNamed)).isEqualTo(2);
+        assertThat(nodes.indexOf(third)).isOne();
+    }
+
+    public void testReturnsIndexAfterRemoval() {
+        nodes.remove(second);
+
+        assertThat(nodes).containsExactly(first, third);
+        assertThat(nodes.findByName("a")).isNull();
+        assertThat(nodes.contains(second)).isFalse();
+        assertThat(nodes.indexOf(third)).isOne();
+    }
+
+    public void testReturnsIndexAfterSorting() {
+        nodes.sort(comparing(AbstractTerraWdioTreeNode::getDisplayName));
+
+        assertThat(nodes).containsExactly(second, third, first);
+        assertThat(nodes.indexOf(first)).isEqualTo(2);
+        assertThat(nodes.indexOf(second)).isZero();
+    }
+
+    public void testClearsNodes() {
+        nodes.clear();
+
+        assertThat(nodes).isEmpty();
+        assertThat(nodes.findByName("a")).isNull();
+        assertThat(nodes.indexOf(first)).isEqualTo(-1);
+    }
+}
@@ -2,6 +2,7 @@
 
 package com.picimako.terra.wdio.toolwindow;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -16,6 +17,7 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
 import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
 import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -27,7 +29,6 @@ import com.picimako.terra.wdio.TerraWdioFolders;
 import com.picimako.terra.wdio.toolwindow.action.DeleteScreenshotsAction;
 import com.picimako.terra.wdio.toolwindow.action.RenameScreenshotsAction;
 import com.picimako.terra.wdio.toolwindow.action.ReplaceReferenceWithLatestAction;
-import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
 
 /**
  * Unit test for {@link TerraWdioExternalFileAndFolderChangeListener}.
@@ -37,16 +38,13 @@ public class TerraWdioExternalFileAndFolderChangeListenerTest {
 
     private TerraWdioExternalFileAndFolderChangeListener listener;
     @Mock
-    private TerraWdioTree tree;
+    private TerraWdioTreeUpdater updater;
     @Mock
     private Project project;
-    @Mock
-    private TerraWdioTreeModel model;
 
     @Before
     public void setup() {
-        when(tree.getModel()).thenReturn(model);
-        listener = new TerraWdioExternalFileAndFolderChangeListener(tree, project);
+        listener = new TerraWdioExternalFileAndFolderChangeListener(updater, project);
     }
 
     @Test
@@ -55,8 +53,7 @@ public class TerraWdioExternalFileAndFolderChangeListenerTest {
 
         listener.after(events);
 
-        verify(model, never()).buildTree();
-        verify(tree, never()).updateUI();
+        verify(updater, never()).queueEvents(any());
     }
 
     @Test
@@ -86,8 +83,7 @@ public class TerraWdioExternalFileAndFolderChangeListenerTest {
             util.when(() -> TerraWdioFolders.isInWdioFiles(file, project)).thenReturn(false);
             listener.after(events);
 
-            verify(model, never()).buildTree();
-            verify(tree, never()).updateUI();
+            verify(updater, never()).queueEvents(any());
         }
     }
 
@@ -103,8 +99,94 @@ public class TerraWdioExternalFileAndFolderChangeListenerTest {
             util.when(() -> TerraWdioFolders.isInWdioFiles(file, project)).thenReturn(true);
             listener.after(events);
 
-            verify(model, times(1)).buildTree();
-            verify(tree, times(1)).updateUI();
+            verify(updater, times(1)).queueEvents(events);
+        }
+    }
+
+    @Test
+    public void shouldUpdateTreeForFileMovedOutOfWdioTestFiles() {
+        VFileMoveEvent event = mock(VFileMoveEvent.class);
+        VirtualFile file = mock(VirtualFile.class);
+        VirtualFile oldParent = mock(VirtualFile.class);
+        when(event.getRequestor()).thenReturn(null);
+        when(event.getFile()).thenReturn(file);
+        when(event.getOldParent()).thenReturn(oldParent);
+        List<? extends VFileEvent> events = List.of(event);
+
+        try (var util = Mockito.mockStatic(TerraWdioFolders.class)) {
+            util.when(() -> TerraWdioFolders.isInWdioFiles(file, project)).thenReturn(false);
+            util.when(() -> TerraWdioFolders.isInWdioFiles(oldParent, project)).thenReturn(true);
+            listener.after(events);
+
+            verify(updater, times(1)).queueEvents(events);
+        }
+    }
+
+    @Test
+    public void shouldUpdateTreeOnlyWithRelevantEvents() {
+        VFileDeleteEvent event = mock(VFileDeleteEvent.class);
+        VirtualFile file = mock(VirtualFile.class);
+        when(event.getRequestor()).thenReturn(null);
+        when(event.getFile()).thenReturn(file);
+        VFileContentChangeEvent contentChangeEvent = mock(VFileContentChangeEvent.class);
+        List<? extends VFileEvent> events = List.of(contentChangeEvent, event);
+
+        try (var util = Mockito.mockStatic(TerraWdioFolders.class)) {
+            util.when(() -> TerraWdioFolders.isInWdioFiles(file, project)).thenReturn(true);
+            listener.after(events);
+
+            verify(updater, times(1)).queueEvents(List.of(event));
+        }
+    }
+
+    @Test
+    public void shouldScanForContentChangeOfScreenshot() {
+        VFileContentChangeEvent event = mock(VFileContentChangeEvent.class);
+        VirtualFile file = mock(VirtualFile.class);
+        when(event.getFile()).thenReturn(file);
+        when(event.getPath()).thenReturn("/tests/wdio/__snapshots__/latest/en/chrome_huge/some-spec/screenshot[default].png");
+        List<? extends VFileEvent> events = List.of(event);
+
+        try (var util = Mockito.mockStatic(TerraWdioFolders.class)) {
+            util.when(() -> TerraWdioFolders.isInSnapshotsDirectory(file)).thenReturn(true);
+            util.when(() -> TerraWdioFolders.isInWdioFiles(file, project)).thenReturn(true);
+            listener.after(events);
+
+            verify(updater, never()).queueEvents(any());
+            verify(updater, times(1)).queueContentChanges(List.of("/tests/wdio/__snapshots__/latest/en/chrome_huge/some-spec/screenshot[default].png"));
+        }
+    }
+
+    @Test
+    public void shouldScanForContentChangeOfSpecFile() {
+        VFileContentChangeEvent event = mock(VFileContentChangeEvent.class);
+        VirtualFile file = mock(VirtualFile.class);
+        when(event.getFile()).thenReturn(file);
+        when(file.getName()).thenReturn("some-spec.js");
+        when(event.getPath()).thenReturn("/tests/wdio/some-spec.js");
+        List<? extends VFileEvent> events = List.of(event);
+
+        try (var util = Mockito.mockStatic(TerraWdioFolders.class)) {
+            util.when(() -> TerraWdioFolders.isInWdioFiles(file, project)).thenReturn(true);
+            listener.after(events);
+
+            verify(updater, never()).queueEvents(any());
+            verify(updater, times(1)).queueContentChanges(List.of("/tests/wdio/some-spec.js"));
+        }
+    }
+
+    @Test
+    public void shouldNotScanForContentChangeOfOtherFile() {
+        VFileContentChangeEvent event = mock(VFileContentChangeEvent.class);
+        VirtualFile file = mock(VirtualFile.class);
+        when(event.getFile()).thenReturn(file);
+        when(file.getName()).thenReturn("helpers.js");
+        List<? extends VFileEvent> events = List.of(event);
+
+        try (var util = Mockito.mockStatic(TerraWdioFolders.class)) {
+            listener.after(events);
+
+            verify(updater, never()).queueContentChanges(any());
         }
     }
 
@@ -115,7 +197,6 @@ public class TerraWdioExternalFileAndFolderChangeListenerTest {
 
         listener.after(events);
 
-        verify(model, never()).buildTree();
-        verify(tree, never()).updateUI();
+        verify(updater, never()).queueEvents(any());
     }
 }
@@ -0,0 +1,104 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.diff;
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.latest;
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.util.io.FileUtil;
+
+import com.picimako.terra.TerraToolkitTestCase;
+import com.picimako.terra.wdio.toolwindow.node.AbstractTerraWdioTreeNode;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.TreeSpecNode;
+
+/**
+ * Unit test for {@link TerraWdioModelSnapshot}.
+ */
+public class TerraWdioModelSnapshotTest extends TerraToolkitTestCase {
+
+    private TerraWdioTreeModel model;
+    private Path snapshotFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addFileToProject("tests/wdio/First-spec.js", "");
+        myFixture.addFileToProject(reference("/en/chrome_huge/First-spec/a[default].png"), "");
+        myFixture.addFileToProject(reference("/en/chrome_medium/First-spec/a[default].png"), "");
+        myFixture.addFileToProject(reference("/en/chrome_huge/First-spec/b[default].png"), "");
+        myFixture.addFileToProject(diff("/en/chrome_huge/First-spec/a[default].png"), "");
+        myFixture.addFileToProject(latest("/en/chrome_huge/First-spec/c[default].png"), "");
+        myFixture.addFileToProject(reference("/en/chrome_huge/Second-spec/d[default].png"), "");
+        model = new TerraWdioTreeModel(getProject());
+        snapshotFile = FileUtil.createTempFile("terra-wdio", ".dat", true).toPath();
+    }
+
+    public void testRestoresSpecsAndCountsWithoutLoadingScreenshots() {
+        TerraWdioModelSnapshot.write(model.serializeSnapshot(), snapshotFile);
+
+        var restored = TerraWdioModelSnapshot.read(getProject(), snapshotFile, model::createSpecNode);
+
+        assertThat(restored).isNotNull();
+        assertThat(restored.result()).isEqualTo(TerraWdioModelSnapshot.RestoreResult.UP_TO_DATE);
+        var specs = restored.root().getSpecs();
+        assertThat(specs).extracting(AbstractTerraWdioTreeNode::getDisplayName).containsExactly("First-spec", "Second-spec");
+        var first = specs.getFirst();
+        assertThat(first.isLoaded()).isFalse();
+        assertThat(first.getSpecFile()).isEqualTo(spec(0).getSpecFile());
+        assertThat(first.getReferences()).containsExactlyElementsOf(spec(0).getReferences());
+        assertThat(first.getDiffFolders()).containsExactlyElementsOf(spec(0).getDiffFolders());
+        assertThat(first.getLatestFolders()).containsExactlyElementsOf(spec(0).getLatestFolders());
+        assertThat(first.screenshotCount()).isEqualTo(3);
+        assertThat(first.getReferenceImageCount()).isEqualTo(3);
+        assertThat(first.getScreenshotsWithDiffCount()).isEqualTo(1);
+        assertThat(first.getScreenshotsWithLatestCount()).isEqualTo(1);
+        assertThat(specs.get(1).getSpecFile()).isNull();
+    }
+
+    public void testLoadsScreenshotsOfRestoredSpecs() {
+        TerraWdioModelSnapshot.write(model.serializeSnapshot(), snapshotFile);
+
+        var restored = TerraWdioModelSnapshot.read(getProject(), snapshotFile, model::createSpecNode);
+
+        assertThat(restored.root().getSpecs().getFirst().getScreenshots()).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("a[default].png", "b[default].png", "c[default].png");
+    }
+
+    public void testRestoresOutdatedSnapshotWhenSpecFolderIsDeleted() throws IOException {
+        TerraWdioModelSnapshot.write(model.serializeSnapshot(), snapshotFile);
+        var specFolder = spec(0).getLatestFolders().getFirst();
+        WriteAction.run(() -> specFolder.delete(this));
+
+        var restored = TerraWdioModelSnapshot.read(getProject(), snapshotFile, model::createSpecNode);
+
+        assertThat(restored).isNotNull();
+        assertThat(restored.result()).isEqualTo(TerraWdioModelSnapshot.RestoreResult.OUTDATED);
+        assertThat(restored.root().getSpecs().getFirst().getLatestFolders()).isEmpty();
+    }
+
+    public void testDoesNotRestoreSnapshotOfDifferentVersion() throws IOException {
+        Files.write(snapshotFile, new byte[]{0, 0, 0, 0});
+
+        assertThat(TerraWdioModelSnapshot.read(getProject(), snapshotFile, model::createSpecNode)).isNull();
+    }
+
+    public void testDoesNotRestoreMissingSnapshot() {
+        TerraWdioModelSnapshot.delete(snapshotFile);
+
+        assertThat(TerraWdioModelSnapshot.read(getProject(), snapshotFile, model::createSpecNode)).isNull();
+    }
+
+    //Helper methods
+
+    private TreeSpecNode spec(int index) {
+        return ((TreeModelDataRoot) model.getRoot()).getSpecs().get(index);
+    }
+}
@@ -9,7 +9,6 @@ import com.intellij.testFramework.LightProjectDescriptor;
 import com.picimako.terra.TerraSupportTestBase;
 import com.picimako.terra.wdio.TerraResourceManager;
 import com.picimako.terra.wdio.TerraToolkitManager;
-import com.picimako.terra.wdio.TerraWdioFolders;
 
 /**
  * Unit test for {@link TerraWdioToolWindowFactory}.
@@ -25,12 +24,19 @@ public class TerraWdioToolWindowFactoryTest extends TerraSupportTestBase {
         assertThat(new TerraWdioToolWindowFactory().shouldBeAvailable(getProject())).isFalse();
     }
 
-    public void testAvailableAndShouldConfigureWdioTestRootPath() {
+    public void testAvailableForWdioRoot() {
         TerraResourceManager.getInstance(getProject(), TerraToolkitManager.class);
         copyFileToProject("tests/wdio/CollectScreenshots-spec.js");
 
         assertThat(new TerraWdioToolWindowFactory().shouldBeAvailable(getProject())).isTrue();
-        assertThat(TerraWdioFolders.getWdioTestRootPath()).isEqualTo("/src/tests/wdio");
+    }
+
+    public void testAvailableForWdioRootOfPackageUsingTerra() {
+        myFixture.addFileToProject("packages/a/package.json",
+            "{\"name\": \"a\", \"devDependencies\": {\"@cerner/terra-functional-testing\": \"^4.0.0\"}}");
+        myFixture.addFileToProject("packages/a/tests/wdio/A-spec.js", "");
+
+        assertThat(new TerraWdioToolWindowFactory().shouldBeAvailable(getProject())).isTrue();
     }
 
     @Override
@@ -0,0 +1,137 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.ThrowableRunnable;
+import org.jetbrains.annotations.NotNull;
+
+import com.picimako.terra.TerraToolkitTestCase;
+import com.picimako.terra.wdio.toolwindow.node.AbstractTerraWdioTreeNode;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.TreeSpecNode;
+
+/**
+ * Unit test for {@link AbstractTerraWdioTreeModel#applyEvents(List)}.
+ */
+public class TerraWdioTreeModelApplyEventsTest extends TerraToolkitTestCase {
+
+    private static final String SPEC_FOLDER = "/en/chrome_huge/FindUnusedScreenshot-spec";
+
+    private TerraWdioTreeModel model;
+
+    @Override
+    protected String getTestDataPath() {
+        return "testdata/terra/projectroot";
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        copyFilesToProject(
+            reference(SPEC_FOLDER + "/used[default].png"),
+            reference(SPEC_FOLDER + "/unused[default].png"),
+            "tests/wdio/FindUnusedScreenshot-spec.js");
+        model = new TerraWdioTreeModel(getProject());
+    }
+
+    public void testAddsCreatedScreenshotInAlphabeticalOrder() throws IOException {
+        var specFolder = findFile(reference(SPEC_FOLDER));
+        var events = captureEvents(() -> specFolder.createChildData(this, "new[default].png"));
+
+        assertThat(model.applyEvents(events)).isTrue();
+        assertThat(spec().getScreenshots()).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("new[default].png", "unused[default].png", "used[default].png");
+        assertThat(spec().findScreenshotNodeByName("new[default].png").get().getReferences())
+            .containsExactly(specFolder.findChild("new[default].png"));
+    }
+
+    public void testAddsCreatedLatestScreenshotToExistingScreenshotNode() throws IOException {
+        var latestSpecFolder = WriteAction.compute(() ->
+            VfsUtil.createDirectoryIfMissing(findFile("tests/wdio/__snapshots__"), "latest" + SPEC_FOLDER));
+        var events = captureEvents(() -> latestSpecFolder.createChildData(this, "used[default].png"));
+
+        assertThat(model.applyEvents(events)).isTrue();
+        var screenshot = spec().findScreenshotNodeByName("used[default].png").get();
+        assertThat(screenshot.getLatests()).containsExactly(latestSpecFolder.findChild("used[default].png"));
+        assertThat(screenshot.getReferences()).hasSize(1);
+    }
+
+    public void testRemovesScreenshotNodeWhenItsLastImageIsDeleted() throws IOException {
+        var screenshot = findFile(reference(SPEC_FOLDER + "/unused[default].png"));
+        var events = captureEvents(() -> screenshot.delete(this));
+
+        assertThat(model.applyEvents(events)).isTrue();
+        assertThat(spec().getScreenshots()).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("used[default].png");
+    }
+
+    public void testMovesRenamedScreenshotToNodeWithNewName() throws IOException {
+        var screenshot = findFile(reference(SPEC_FOLDER + "/unused[default].png"));
+        var events = captureEvents(() -> screenshot.rename(this, "renamed[default].png"));
+
+        assertThat(model.applyEvents(events)).isTrue();
+        assertThat(spec().getScreenshots()).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("renamed[default].png", "used[default].png");
+        assertThat(spec().findScreenshotNodeByName("renamed[default].png").get().getReferences()).containsExactly(screenshot);
+    }
+
+    public void testRequiresRebuildForDeletedDirectory() throws IOException {
+        var specFolder = findFile(reference(SPEC_FOLDER));
+        var events = captureEvents(() -> specFolder.delete(this));
+
+        assertThat(model.applyEvents(events)).isFalse();
+    }
+
+    public void testRequiresRebuildWhileLoading() throws IOException {
+        var specFolder = findFile(reference(SPEC_FOLDER));
+        var events = captureEvents(() -> specFolder.createChildData(this, "new[default].png"));
+        ((TreeModelDataRoot) model.getRoot()).setLoading(true);
+
+        assertThat(model.applyEvents(events)).isFalse();
+    }
+
+    public void testRequiresRebuildForCreatedSpecFile() throws IOException {
+        var wdioFolder = findFile("tests/wdio");
+        var events = captureEvents(() -> wdioFolder.createChildData(this, "New-spec.js"));
+
+        assertThat(model.applyEvents(events)).isFalse();
+    }
+
+    //Helper methods
+
+    private TreeSpecNode spec() {
+        return ((TreeModelDataRoot) model.getRoot()).getSpecs().getFirst();
+    }
+
+    private VirtualFile findFile(String path) {
+        return myFixture.findFileInTempDir(path);
+    }
+
+    private List<VFileEvent> captureEvents(ThrowableRunnable<IOException> action) throws IOException {
+        final var capturedEvents = new ArrayList<VFileEvent>();
+        var connection = ApplicationManager.getApplication().getMessageBus().connect(getTestRootDisposable());
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                capturedEvents.addAll(events);
+            }
+        });
+        WriteAction.run(action);
+        connection.disconnect();
+        return capturedEvents;
+    }
+}
@@ -0,0 +1,82 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.intellij.openapi.util.io.FileUtil;
+
+import com.picimako.terra.TerraToolkitTestCase;
+import com.picimako.terra.wdio.toolwindow.node.AbstractTerraWdioTreeNode;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+
+/**
+ * Tests building and restoring the contents of {@link TerraWdioTreeModel} in background tasks.
+ */
+public class TerraWdioTreeModelBackgroundTest extends TerraToolkitTestCase {
+
+    private Path snapshotFile;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addFileToProject("tests/wdio/First-spec.js", "");
+        myFixture.addFileToProject(reference("/en/chrome_huge/First-spec/a[default].png"), "");
+        myFixture.addFileToProject(reference("/en/chrome_huge/First-spec/b[default].png"), "");
+        myFixture.addFileToProject(reference("/en/chrome_huge/Second-spec/c[default].png"), "");
+        snapshotFile = FileUtil.createTempFile("terra-wdio", ".dat", true).toPath();
+    }
+
+    public void testBuildsTreeInBackground() {
+        executeInBackground();
+        var model = new TerraWdioTreeModel(getProject());
+        assertThat(root(model).isLoading()).isTrue();
+
+        var replacedCount = new AtomicInteger();
+        model.buildTreeInBackground(replacedCount::incrementAndGet);
+        waitUntil(() -> replacedCount.get() == 1);
+
+        assertThat(root(model).isLoading()).isFalse();
+        assertThat(root(model).getSpecs()).extracting(AbstractTerraWdioTreeNode::getDisplayName).containsExactly("First-spec", "Second-spec");
+        assertThat(root(model).getSpecs().getFirst().getScreenshots()).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("a[default].png", "b[default].png");
+    }
+
+    public void testRestoresSnapshotInBackground() {
+        TerraWdioModelSnapshot.write(new TerraWdioTreeModel(getProject()).serializeSnapshot(), snapshotFile);
+        executeInBackground();
+        var model = new TerraWdioTreeModel(getProject());
+
+        var replacedCount = new AtomicInteger();
+        model.restoreSnapshotOrBuildInBackground(snapshotFile, replacedCount::incrementAndGet);
+        waitUntil(() -> replacedCount.get() == 1);
+
+        assertThat(root(model).isLoading()).isFalse();
+        assertThat(root(model).getSpecs()).extracting(AbstractTerraWdioTreeNode::getDisplayName).containsExactly("First-spec", "Second-spec");
+        //The snapshot is up-to-date, so the restored contents are kept, without building them again
+        assertThat(root(model).getSpecs().getFirst().isLoaded()).isFalse();
+    }
+
+    public void testBuildsTreeInBackgroundWithoutSnapshot() {
+        TerraWdioModelSnapshot.delete(snapshotFile);
+        executeInBackground();
+        var model = new TerraWdioTreeModel(getProject());
+
+        var replacedCount = new AtomicInteger();
+        model.restoreSnapshotOrBuildInBackground(snapshotFile, replacedCount::incrementAndGet);
+        waitUntil(() -> replacedCount.get() == 1);
+
+        assertThat(root(model).isLoading()).isFalse();
+        assertThat(root(model).getSpecs()).extracting(AbstractTerraWdioTreeNode::getDisplayName).containsExactly("First-spec", "Second-spec");
+    }
+
+    //Helpers
+
+    private static TreeModelDataRoot root(TerraWdioTreeModel model) {
+        return (TreeModelDataRoot) model.getRoot();
+    }
+}
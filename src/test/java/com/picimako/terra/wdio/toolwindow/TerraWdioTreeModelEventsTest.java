@@ -0,0 +1,129 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreePath;
+
+import com.picimako.terra.TerraToolkitTestCase;
+import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.TreeSpecNode;
+
+/**
+ * Unit test for the tree model events fired by {@link AbstractTerraWdioTreeModel}.
+ */
+public class TerraWdioTreeModelEventsTest extends TerraToolkitTestCase {
+
+    private TerraWdioTreeModel model;
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addFileToProject("tests/wdio/First-spec.js", "");
+        myFixture.addFileToProject("tests/wdio/Second-spec.js", "");
+        myFixture.addFileToProject(reference("/en/chrome_huge/First-spec/a[default].png"), "");
+        myFixture.addFileToProject(reference("/en/chrome_huge/First-spec/c[default].png"), "");
+        myFixture.addFileToProject(reference("/en/chrome_huge/Second-spec/b[default].png"), "");
+        model = new TerraWdioTreeModel(getProject());
+        model.addTreeModelListener(new RecordingListener());
+    }
+
+    public void testFiresInsertedEventForAddedScreenshotOfLoadedSpec() {
+        spec(0).getScreenshots();
+        var added = myFixture.addFileToProject(reference("/en/chrome_huge/First-spec/b[default].png"), "").getVirtualFile();
+
+        model.reconcilePaths(List.of(added.getPath()));
+
+        assertThat(events).containsExactly(
+            "inserted [Wdio Resources, First-spec] [1]",
+            "changed [Wdio Resources, First-spec] [1]",
+            "changed [Wdio Resources] [0]",
+            "changed [Wdio Resources] null");
+    }
+
+    public void testFiresChangedEventForAddedScreenshotOfUnloadedSpec() {
+        var added = myFixture.addFileToProject(reference("/en/chrome_huge/First-spec/b[default].png"), "").getVirtualFile();
+
+        model.reconcilePaths(List.of(added.getPath()));
+
+        //Both the removal and the addition of the reconciled path update the counts of the spec
+        assertThat(spec(0).isLoaded()).isFalse();
+        assertThat(events).containsExactly(
+            "changed [Wdio Resources] [0]",
+            "changed [Wdio Resources] null",
+            "changed [Wdio Resources] [0]",
+            "changed [Wdio Resources] null");
+    }
+
+    public void testFiresRemovedEventsForRemovedScreenshotAndSpec() {
+        var spec = spec(1);
+        var screenshot = spec.getScreenshot(0);
+
+        model.removeScreenshot(spec, screenshot);
+        model.removeSpec(spec);
+
+        assertThat(events).containsExactly(
+            "removed [Wdio Resources, Second-spec] [0]",
+            "changed [Wdio Resources] [1]",
+            "changed [Wdio Resources] null",
+            "removed [Wdio Resources] [1]",
+            "changed [Wdio Resources] null");
+        assertThat(((TreeModelDataRoot) model.getRoot()).getSpecs()).containsExactly(spec(0));
+    }
+
+    public void testKeepsExpansionAndSelectionWhenRebuilt() {
+        var tree = new TerraWdioTree(model);
+        var specPath = new TreePath(new Object[]{model.getRoot(), spec(1)});
+        tree.expandPath(specPath);
+        tree.setSelectionPath(specPath.pathByAddingChild(spec(1).getScreenshot(0)));
+
+        model.buildTree();
+
+        var rebuiltSpecPath = new TreePath(new Object[]{model.getRoot(), spec(1)});
+        assertThat(tree.isExpanded(rebuiltSpecPath)).isTrue();
+        assertThat(tree.getSelectionPath().getLastPathComponent()).isSameAs(spec(1).getScreenshot(0));
+        assertThat(events).containsExactly("structure changed [Wdio Resources] null");
+    }
+
+    //Helper methods
+
+    private TreeSpecNode spec(int index) {
+        return ((TreeModelDataRoot) model.getRoot()).getSpecs().get(index);
+    }
+
+    private final class RecordingListener implements TreeModelListener {
+
+        @Override
+        public void treeNodesChanged(TreeModelEvent e) {
+            record("changed", e);
+        }
+
+        @Override
+        public void treeNodesInserted(TreeModelEvent e) {
+            record("inserted", e);
+        }
+
+        @Override
+        public void treeNodesRemoved(TreeModelEvent e) {
+            record("removed", e);
+        }
+
+        @Override
+        public void treeStructureChanged(TreeModelEvent e) {
+            record("structure changed", e);
+        }
+
+        private void record(String type, TreeModelEvent e) {
+            events.add(type + " " + List.of(e.getPath()).stream().map(node -> node instanceof TreeSpecNode spec ? spec.getDisplayName() : "Wdio Resources").toList()
+                + " " + (e.getChildIndices() != null ? List.of(e.getChildIndices()[0]) : null));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.diff;
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.latest;
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.tree.TreePath;
+
+import com.intellij.util.ui.tree.TreeModelAdapter;
+
+import com.picimako.terra.TerraToolkitTestCase;
+import com.picimako.terra.wdio.toolwindow.node.AbstractTerraWdioTreeNode;
+import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.TreeScreenshotNode;
+import com.picimako.terra.wdio.toolwindow.node.TreeSpecNode;
+
+/**
+ * Unit test for the lazy loading of the screenshot nodes of {@link TreeSpecNode}s built by {@link TerraWdioTreeModel}.
+ */
+public class TerraWdioTreeModelLazyLoadingTest extends TerraToolkitTestCase {
+
+    private TerraWdioTreeModel model;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addFileToProject("tests/wdio/Lazy-spec.js", "");
+        myFixture.addFileToProject(reference("/en/chrome_huge/Lazy-spec/first[default].png"), "");
+        myFixture.addFileToProject(reference("/en/chrome_medium/Lazy-spec/first[default].png"), "");
+        myFixture.addFileToProject(reference("/en/chrome_huge/Lazy-spec/second[default].png"), "");
+        myFixture.addFileToProject(diff("/en/chrome_huge/Lazy-spec/first[default].png"), "");
+        myFixture.addFileToProject(latest("/en/chrome_huge/Lazy-spec/first[default].png"), "");
+        myFixture.addFileToProject(latest("/en/chrome_huge/Lazy-spec/third[default].png"), "");
+        model = new TerraWdioTreeModel(getProject());
+    }
+
+    public void testCalculatesCountsWithoutLoadingScreenshots() {
+        var spec = spec();
+
+        assertThat(spec.isLoaded()).isFalse();
+        assertThat(model.getChildCount(spec)).isEqualTo(3);
+        assertThat(spec.getReferences()).hasSize(2);
+        assertThat(spec.getDiffFolders()).hasSize(1);
+        assertThat(spec.getLatestFolders()).hasSize(1);
+        assertCounts(spec);
+        assertThat(spec.isLoaded()).isFalse();
+    }
+
+    public void testLoadsScreenshotsOnFirstAccess() {
+        var spec = spec();
+
+        var screenshot = (TreeScreenshotNode) model.getChild(spec, 0);
+
+        assertThat(spec.isLoaded()).isTrue();
+        assertThat(spec.getScreenshots()).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("first[default].png", "second[default].png", "third[default].png");
+        assertThat(screenshot.getReferences()).hasSize(2);
+        assertThat(screenshot.getDiffs()).hasSize(1);
+        assertThat(screenshot.getLatests()).hasSize(1);
+        assertCounts(spec);
+    }
+
+    public void testReleasesAndReloadsScreenshots() {
+        var spec = spec();
+        spec.getScreenshots();
+
+        spec.releaseScreenshots();
+
+        assertThat(spec.isLoaded()).isFalse();
+        assertCounts(spec);
+        assertThat(spec.getScreenshots()).hasSize(3);
+        assertCounts(spec);
+    }
+
+    public void testKeepsUnusedStateOfReleasedScreenshots() {
+        var spec = spec();
+        spec.setUsedScreenshotNames(Set.of("first[default].png"));
+
+        assertThat(spec.getUnusedScreenshotCount()).isEqualTo(2);
+
+        spec.getScreenshots();
+        spec.releaseScreenshots();
+        spec.releaseScreenshots();
+
+        assertThat(spec.getUnusedScreenshotCount()).isEqualTo(2);
+        assertThat(spec.getScreenshots()).filteredOn(TreeScreenshotNode::isUnused).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("second[default].png", "third[default].png");
+        assertThat(spec.getUnusedScreenshotCount()).isEqualTo(2);
+    }
+
+    public void testKeepsUnusedCountOfSpecWithRestoredCounts() {
+        var spec = spec();
+        spec.setUsedScreenshotNames(Set.of("first[default].png"));
+
+        spec.restoreCounts(3, spec.getReferenceImageCount(), spec.getScreenshotsWithDiffCount(), spec.getScreenshotsWithLatestCount());
+
+        assertThat(spec.isLoaded()).isFalse();
+        assertThat(spec.getUnusedScreenshotCount()).isEqualTo(2);
+        assertThat(spec.hasUnused()).isTrue();
+    }
+
+    public void testUpdatesCountsOfUnloadedSpecForChangedScreenshot() {
+        var added = myFixture.addFileToProject(diff("/en/chrome_huge/Lazy-spec/second[default].png"), "").getVirtualFile();
+
+        assertThat(model.reconcilePaths(List.of(added.getPath()))).isTrue();
+
+        var spec = spec();
+        assertThat(spec.isLoaded()).isFalse();
+        assertThat(spec.getScreenshotsWithDiffCount()).isEqualTo(2);
+        assertThat(spec.findScreenshotNodeByName("second[default].png").get().getDiffs()).containsExactly(added);
+    }
+
+    public void testReleasesScreenshotsOfCollapsedSpecs() {
+        var tree = new TerraWdioTree(model);
+        var updater = new TerraWdioTreeUpdater(getProject(), tree, getTestRootDisposable());
+        var spec = spec();
+        spec.getScreenshots();
+
+        tree.expandPath(new TreePath(new Object[]{model.getRoot(), spec}));
+        updater.releaseCollapsedSpecs();
+
+        assertThat(spec.isLoaded()).isTrue();
+
+        tree.collapsePath(new TreePath(new Object[]{model.getRoot(), spec}));
+        updater.releaseCollapsedSpecs();
+
+        assertThat(spec.isLoaded()).isFalse();
+        assertCounts(spec);
+    }
+
+    public void testLoadsSpecWithStaleRestoredCountBeforeExpansion() {
+        var tree = new TerraWdioTree(model);
+        var spec = spec();
+        var specPath = new TreePath(new Object[]{model.getRoot(), spec});
+        spec.restoreCounts(5, spec.getReferenceImageCount(), spec.getScreenshotsWithDiffCount(), spec.getScreenshotsWithLatestCount());
+        var structureChangedPaths = new ArrayList<TreePath>();
+        model.addTreeModelListener(new TreeModelAdapter() {
+            @Override
+            public void treeStructureChanged(TreeModelEvent event) {
+                structureChangedPaths.add(event.getTreePath());
+            }
+        });
+
+        assertThat(model.getChildCount(spec)).isEqualTo(5);
+
+        tree.expandPath(specPath);
+
+        assertThat(spec.isLoaded()).isTrue();
+        assertThat(structureChangedPaths).containsExactly(specPath);
+        assertThat(tree.isExpanded(specPath)).isTrue();
+        assertThat(model.getChildCount(spec)).isEqualTo(3);
+        assertThat(tree.getRowCount()).isEqualTo(5);
+        assertThat(tree.getPathForRow(4).getLastPathComponent()).isSameAs(spec.getScreenshot(2));
+    }
+
+    //Helper methods
+
+    private TreeSpecNode spec() {
+        return ((TreeModelDataRoot) model.getRoot()).getSpecs().getFirst();
+    }
+
+    private static void assertCounts(TreeSpecNode spec) {
+        assertThat(spec.screenshotCount()).isEqualTo(3);
+        assertThat(spec.getReferenceImageCount()).isEqualTo(3);
+        assertThat(spec.getScreenshotsWithDiffCount()).isEqualTo(1);
+        assertThat(spec.getScreenshotsWithLatestCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,78 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+
+import com.picimako.terra.wdio.TerraWdioFolders;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.VirtualFileIdList;
+
+/**
+ * Tests the structures that keep the memory footprint of the contents of {@link TerraWdioTreeModel} low.
+ * <p>
+ * Each screenshot has a reference and a latest image. The image files themselves are shared by the spec nodes.
+ */
+public class TerraWdioTreeModelMemoryTest extends BasePlatformTestCase {
+    private static final int SPEC_COUNT = 100;
+    private static final int SCREENSHOTS_PER_SPEC = 10;
+
+    private TreeModelDataRoot root;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        var screenshots = new VirtualFile[SCREENSHOTS_PER_SPEC];
+        for (int i = 0; i < SCREENSHOTS_PER_SPEC; i++) {
+            screenshots[i] = myFixture.addFileToProject("tests/wdio/__snapshots__/reference/en/chrome_huge/memory-spec/screenshot_" + i + "[default].png", "")
+                .getVirtualFile();
+        }
+        var specFolder = screenshots[0].getParent();
+        var model = new TerraWdioTreeModel(getProject());
+
+        root = new TreeModelDataRoot("Wdio Resources", getProject());
+        Disposer.register(getTestRootDisposable(), root);
+        for (int spec = 0; spec < SPEC_COUNT; spec++) {
+            var specNode = model.createSpecNode(root, "nested/spec_" + spec + "-spec", null);
+            specNode.addSpecFolder(specFolder, TerraWdioFolders.REFERENCE);
+            specNode.addSpecFolder(specFolder, TerraWdioFolders.LATEST);
+            specNode.recount();
+        }
+    }
+
+    public void testCreatesNoScreenshotNodesUntilSpecIsLoaded() {
+        for (var spec : root.getSpecs()) {
+            assertThat(spec.isLoaded()).isFalse();
+            assertThat(spec.screenshotCount()).isEqualTo(SCREENSHOTS_PER_SPEC);
+            assertThat(spec.getReferenceImageCount()).isEqualTo(SCREENSHOTS_PER_SPEC);
+            assertThat(spec.getScreenshotsWithLatestCount()).isEqualTo(SCREENSHOTS_PER_SPEC);
+        }
+    }
+
+    public void testLoadsScreenshotNodesOfAccessedSpecOnly() {
+        var loadedSpec = root.getSpecs().getFirst();
+
+        assertThat(loadedSpec.getScreenshots()).hasSize(SCREENSHOTS_PER_SPEC);
+
+        assertThat(loadedSpec.isLoaded()).isTrue();
+        assertThat(root.getSpecs()).filteredOn(spec -> spec != loadedSpec).noneMatch(spec -> spec.isLoaded());
+    }
+
+    public void testStoresFilesByIdAndSharesDisplayNamesOfLoadedScreenshots() {
+        var firstSpec = root.getSpecs().get(0);
+        var secondSpec = root.getSpecs().get(1);
+
+        for (int i = 0; i < SCREENSHOTS_PER_SPEC; i++) {
+            var screenshot = firstSpec.getScreenshot(i);
+            assertThat(screenshot.getReferences()).isInstanceOf(VirtualFileIdList.class).hasSize(1);
+            assertThat(screenshot.getLatests()).isInstanceOf(VirtualFileIdList.class).hasSize(1);
+            assertThat(screenshot.getReferences().getFirst()).isNotNull();
+            //The same interned name instance in all specs
+            assertThat(screenshot.getDisplayName()).isSameAs(secondSpec.getScreenshot(i).getDisplayName());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.picimako.terra.TerraToolkitTestCase;
+import com.picimako.terra.wdio.toolwindow.node.AbstractTerraWdioTreeNode;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.TreePackageNode;
+
+/**
+ * Unit test for building a {@link TerraWdioTreeModel} for a monorepo with multiple wdio roots.
+ */
+public class TerraWdioTreeModelMonorepoTest extends TerraToolkitTestCase {
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addFileToProject("packages/a/package.json", "{\"name\": \"a\"}");
+        myFixture.addFileToProject("packages/a/tests/wdio/A-spec.js", "");
+        myFixture.addFileToProject("packages/a/tests/wdio/__snapshots__/reference/en/chrome_huge/A-spec/image[default].png", "");
+        myFixture.addFileToProject("packages/b/package.json", "{\"name\": \"b\"}");
+        myFixture.addFileToProject("packages/b/tests/wdio/B-spec.js", "");
+        myFixture.addFileToProject("packages/b/tests/wdio/__snapshots__/reference/en/chrome_huge/B-spec/image[default].png", "");
+        myFixture.addFileToProject("packages/b/tests/wdio/__snapshots__/reference/en/chrome_huge/B-spec/other[default].png", "");
+    }
+
+    public void testGroupsSpecsByPackages() {
+        var model = new TerraWdioTreeModel(getProject());
+        var root = (TreeModelDataRoot) model.getRoot();
+
+        assertThat(root.hasPackages()).isTrue();
+        assertThat(root.getPackages()).extracting(AbstractTerraWdioTreeNode::getDisplayName).containsExactly("packages/a", "packages/b");
+        assertThat(root.getAllSpecs()).extracting(AbstractTerraWdioTreeNode::getDisplayName).containsExactly("A-spec", "B-spec");
+        assertThat(root.getPackages().get(1).getSpecs().getFirst().getScreenshots()).hasSize(2);
+        assertThat(root.getPackages().get(1).getSpecs().getFirst().getSpecFile().getPath()).isEqualTo("/src/packages/b/tests/wdio/B-spec.js");
+    }
+
+    public void testProvidesPackageNodesAsChildrenOfRoot() {
+        var model = new TerraWdioTreeModel(getProject());
+        var root = model.getRoot();
+
+        assertThat(model.getChildCount(root)).isEqualTo(2);
+        var packageNode = (TreePackageNode) model.getChild(root, 1);
+        assertThat(model.getIndexOfChild(root, packageNode)).isEqualTo(1);
+        assertThat(model.getChildCount(packageNode)).isEqualTo(1);
+        assertThat(model.getChild(packageNode, 0).toString()).startsWith("B-spec");
+        assertThat(model.isLeaf(packageNode)).isFalse();
+    }
+}
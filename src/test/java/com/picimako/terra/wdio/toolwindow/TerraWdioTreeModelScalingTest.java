@@ -0,0 +1,127 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static java.util.Comparator.comparing;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.fixtures.BasePlatformTestCase;
+import org.jetbrains.annotations.NotNull;
+
+import com.picimako.terra.wdio.TerraWdioFolders;
+import com.picimako.terra.wdio.toolwindow.node.AbstractTerraWdioTreeNode;
+import com.picimako.terra.wdio.toolwindow.node.IndexedNodeList;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.TreeScreenshotNode;
+
+/**
+ * Tests that building the contents of {@link TerraWdioTreeModel}, and looking up its nodes the way the tree UI does,
+ * doesn't depend on the number of nodes per lookup.
+ * <p>
+ * Instead of measuring time, the node comparisons performed by the lookups are counted, so that the results are deterministic.
+ */
+public class TerraWdioTreeModelScalingTest extends BasePlatformTestCase {
+    private static final int VIEWPORTS_PER_SPEC = 3;
+    private static final int SCREENSHOTS_PER_SPEC_FOLDER = 10;
+
+    public void testLooksUpNodesWithSingleComparisonRegardlessOfListSize() {
+        assertThat(comparisonsPerLookup(100)).isEqualTo(1);
+        assertThat(comparisonsPerLookup(10_000)).isEqualTo(1);
+    }
+
+    public void testBuildsModelOfManyScreenshots() throws IOException {
+        int specCount = 100;
+        var model = new TerraWdioTreeModel(getProject());
+        var root = new TreeModelDataRoot("Wdio Resources", getProject());
+        try {
+            for (var specFolder : createSpecFolders(specCount)) {
+                var specNode = model.findSpecNode(root, specFolder.identifier())
+                    .orElseGet(() -> model.createSpecNode(root, specFolder.identifier(), null));
+                specNode.addSpecFolder(specFolder.folder(), TerraWdioFolders.REFERENCE);
+            }
+
+            assertThat(root.getSpecs()).hasSize(specCount);
+            for (var spec : root.getSpecs()) {
+                assertThat(root.getSpecs().indexOf(spec)).isNotNegative();
+                //Loads the screenshot nodes from the spec folders
+                assertThat(spec.getScreenshots()).hasSize(SCREENSHOTS_PER_SPEC_FOLDER);
+                for (var screenshot : spec.getScreenshots()) {
+                    assertThat(spec.getScreenshots().indexOf(screenshot)).isNotNegative();
+                    assertThat(screenshot.getReferences()).hasSize(VIEWPORTS_PER_SPEC);
+                }
+            }
+        } finally {
+            Disposer.dispose(root);
+        }
+    }
+
+    //Helpers
+
+    /**
+     * Looks up each node of a sorted list of the argument size, and returns the average number of node comparisons per lookup.
+     */
+    private long comparisonsPerLookup(int nodeCount) {
+        var counter = new long[1];
+        var nodes = new IndexedNodeList<CountingNode>();
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(new CountingNode("screenshot_" + i + "[default].png", getProject(), counter));
+        }
+        //Invalidates the positions, as inserting screenshots does during incremental updates
+        nodes.sort(comparing(AbstractTerraWdioTreeNode::getDisplayName).reversed());
+
+        for (var node : nodes) {
+            assertThat(nodes.indexOf(node)).isNotNegative();
+        }
+        return counter[0] / nodeCount;
+    }
+
+    private List<SpecFolder> createSpecFolders(int specCount) throws IOException {
+        var specFolders = new ArrayList<SpecFolder>(specCount * VIEWPORTS_PER_SPEC);
+        for (int viewport = 0; viewport < VIEWPORTS_PER_SPEC; viewport++) {
+            for (int spec = 0; spec < specCount; spec++) {
+                var folder = myFixture.getTempDirFixture().findOrCreateDir("reference/en/chrome_" + viewport + "/spec_" + spec + "-spec");
+                WriteAction.run(() -> {
+                    for (int screenshot = 0; screenshot < SCREENSHOTS_PER_SPEC_FOLDER; screenshot++) {
+                        folder.createChildData(this, "screenshot_" + screenshot + "[default].png");
+                    }
+                });
+                specFolders.add(new SpecFolder("nested/spec_" + spec + "-spec", folder));
+            }
+        }
+        return specFolders;
+    }
+
+    private record SpecFolder(String identifier, VirtualFile folder) {
+    }
+
+    /**
+     * A screenshot node that counts how many times it is compared with another object.
+     */
+    private static final class CountingNode extends TreeScreenshotNode {
+        private final long[] counter;
+
+        CountingNode(@NotNull String displayName, Project project, long[] counter) {
+            super(displayName, project);
+            this.counter = counter;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            counter[0]++;
+            return super.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return super.hashCode();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.toolwindow;
+
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.diff;
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.latest;
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.progress.impl.CoreProgressManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.util.ThrowableRunnable;
+import org.jetbrains.annotations.NotNull;
+
+import com.picimako.terra.TerraToolkitTestCase;
+import com.picimako.terra.wdio.imagecompare.ScreenshotVerdictService;
+import com.picimako.terra.wdio.toolwindow.node.AbstractTerraWdioTreeNode;
+import com.picimako.terra.wdio.toolwindow.node.TerraWdioTree;
+import com.picimako.terra.wdio.toolwindow.node.TreeModelDataRoot;
+import com.picimako.terra.wdio.toolwindow.node.TreeSpecNode;
+
+/**
+ * Unit test for {@link TerraWdioTreeUpdater}, including its dormant mode, and for {@link AbstractTerraWdioTreeModel#reconcilePaths(java.util.Collection)}.
+ */
+public class TerraWdioTreeUpdaterTest extends TerraToolkitTestCase {
+
+    private static final String SPEC_FOLDER = "/en/chrome_huge/FindUnusedScreenshot-spec";
+
+    private TerraWdioTreeModel model;
+    private TerraWdioTreeUpdater updater;
+
+    @Override
+    protected String getTestDataPath() {
+        return "testdata/terra/projectroot";
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        copyFilesToProject(
+            reference(SPEC_FOLDER + "/used[default].png"),
+            reference(SPEC_FOLDER + "/unused[default].png"),
+            "tests/wdio/FindUnusedScreenshot-spec.js");
+        model = new TerraWdioTreeModel(getProject());
+        updater = new TerraWdioTreeUpdater(getProject(), new TerraWdioTree(model), getTestRootDisposable());
+    }
+
+    public void testRecordsChangesWhileDormantAndReconcilesThemWhenVisible() throws IOException {
+        var specFolder = findFile(reference(SPEC_FOLDER));
+        updater.setDormant(true);
+
+        updater.queueEvents(captureEvents(() -> specFolder.createChildData(this, "new[default].png")));
+        updater.queueEvents(captureEvents(() -> specFolder.findChild("unused[default].png").delete(this)));
+        updater.flush();
+
+        assertThat(spec().getScreenshots()).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("unused[default].png", "used[default].png");
+
+        updater.setDormant(false);
+        updater.flush();
+
+        assertThat(spec().getScreenshots()).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("new[default].png", "used[default].png");
+        assertThat(spec().findScreenshotNodeByName("new[default].png").get().getReferences())
+            .containsExactly(specFolder.findChild("new[default].png"));
+    }
+
+    public void testDoesntApplyEventsQueuedBeforeBecomingDormantUntilVisible() throws IOException {
+        var specFolder = findFile(reference(SPEC_FOLDER));
+
+        updater.queueEvents(captureEvents(() -> specFolder.createChildData(this, "new[default].png")));
+        updater.setDormant(true);
+        updater.flush();
+
+        assertThat(spec().getScreenshots()).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("unused[default].png", "used[default].png");
+
+        updater.setDormant(false);
+        updater.flush();
+
+        assertThat(spec().getScreenshots()).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("new[default].png", "unused[default].png", "used[default].png");
+    }
+
+    public void testSavesSnapshotInBackground() throws IOException {
+        var snapshotFile = TerraWdioModelSnapshot.snapshotFile(getProject());
+        TerraWdioModelSnapshot.delete(snapshotFile);
+        var specFolder = findFile(reference(SPEC_FOLDER));
+        executeInBackground();
+
+        updater.queueEvents(captureEvents(() -> specFolder.createChildData(this, "new[default].png")));
+        //The first flush applies the events, the second one saves the snapshot of the updated model
+        updater.flush();
+        updater.flush();
+        //The verdict checks and diff analyses started by the change have to finish as well
+        waitUntil(() -> Files.exists(snapshotFile) && CoreProgressManager.getCurrentIndicators().isEmpty());
+
+        var restored = TerraWdioModelSnapshot.read(getProject(), snapshotFile, model::createSpecNode);
+        assertThat(restored).isNotNull();
+        assertThat(restored.root().getSpecs().getFirst().screenshotCount()).isEqualTo(3);
+    }
+
+    public void testChecksVerdictOfOverwrittenLatestScreenshot() throws IOException {
+        setContent(findFile(reference(SPEC_FOLDER + "/used[default].png")), image(0));
+        var latest = myFixture.addFileToProject(latest(SPEC_FOLDER + "/used[default].png"), "").getVirtualFile();
+        setContent(latest, image(0));
+        var verdicts = ScreenshotVerdictService.getInstance(getProject());
+        verdicts.scanInBackground(() -> { });
+        assertThat(verdicts.getVerdict(latest).isPassed()).isTrue();
+
+        //A test run overwrites the latest screenshot at the same path
+        new TerraWdioExternalFileAndFolderChangeListener(updater, getProject()).after(captureEvents(() -> latest.setBinaryContent(toPng(image(3)))));
+        assertThat(verdicts.getVerdict(latest)).isNull();
+        //The first flush queues the verdict check, the second one runs it
+        updater.flush();
+        updater.flush();
+
+        assertThat(verdicts.getVerdict(latest).isPassed()).isFalse();
+        assertThat(spec().getScreenshots()).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("unused[default].png", "used[default].png");
+    }
+
+    public void testUpdatesVerdictSummaryOfScreenshotWhenVerdictCheckFinishes() throws IOException {
+        setContent(findFile(reference(SPEC_FOLDER + "/used[default].png")), image(0));
+        var latest = myFixture.addFileToProject(latest(SPEC_FOLDER + "/used[default].png"), "").getVirtualFile();
+        setContent(latest, image(3));
+        model = new TerraWdioTreeModel(getProject());
+        updater = new TerraWdioTreeUpdater(getProject(), new TerraWdioTree(model), getTestRootDisposable());
+        var screenshot = spec().findScreenshotNodeByName("used[default].png").get();
+
+        assertThat(screenshot.getVerdictSummary()).isNull();
+
+        updater.queueContentChanges(List.of(latest.getPath()));
+        //The first flush queues the verdict check, the second one runs it
+        updater.flush();
+        updater.flush();
+
+        assertThat(screenshot.getVerdictSummary().failedCount()).isEqualTo(1);
+
+        //The summary is not recalculated until the next verdict check finishes
+        setContent(latest, image(0));
+        assertThat(screenshot.getVerdictSummary().failedCount()).isEqualTo(1);
+    }
+
+    public void testUpdatesDiffAnalysisOfScreenshotWhenDiffAnalysisFinishes() throws IOException {
+        var diff = myFixture.addFileToProject(diff(SPEC_FOLDER + "/used[default].png"), "").getVirtualFile();
+        setContent(diff, image(3));
+        model = new TerraWdioTreeModel(getProject());
+        updater = new TerraWdioTreeUpdater(getProject(), new TerraWdioTree(model), getTestRootDisposable());
+        var screenshot = spec().findScreenshotNodeByName("used[default].png").get();
+
+        assertThat(screenshot.getMostSevereDiffAnalysis()).isNull();
+
+        updater.queueContentChanges(List.of(diff.getPath()));
+        //The first flush queues the diff analysis, the second one runs it
+        updater.flush();
+        updater.flush();
+
+        assertThat(screenshot.getMostSevereDiffAnalysis().regions()).hasSize(1);
+    }
+
+    public void testReconcilesRenamedScreenshot() throws IOException {
+        var screenshot = findFile(reference(SPEC_FOLDER + "/unused[default].png"));
+        String oldPath = screenshot.getPath();
+        WriteAction.run(() -> screenshot.rename(this, "renamed[default].png"));
+
+        assertThat(model.reconcilePaths(List.of(oldPath, screenshot.getPath()))).isTrue();
+        assertThat(spec().getScreenshots()).extracting(AbstractTerraWdioTreeNode::getDisplayName)
+            .containsExactly("renamed[default].png", "used[default].png");
+    }
+
+    public void testReconcilesRecreatedScreenshot() throws IOException {
+        var specFolder = findFile(reference(SPEC_FOLDER));
+        String path = specFolder.findChild("used[default].png").getPath();
+        var recreated = WriteAction.compute(() -> {
+            specFolder.findChild("used[default].png").delete(this);
+            return specFolder.createChildData(this, "used[default].png");
+        });
+
+        assertThat(model.reconcilePaths(List.of(path))).isTrue();
+        assertThat(spec().findScreenshotNodeByName("used[default].png").get().getReferences()).containsExactly(recreated);
+    }
+
+    public void testRequiresRebuildForReconciledDirectory() {
+        var specFolder = findFile(reference(SPEC_FOLDER));
+
+        assertThat(model.reconcilePaths(List.of(specFolder.getPath()))).isFalse();
+    }
+
+    //Helper methods
+
+    private TreeSpecNode spec() {
+        return ((TreeModelDataRoot) model.getRoot()).getSpecs().getFirst();
+    }
+
+    private VirtualFile findFile(String path) {
+        return myFixture.findFileInTempDir(path);
+    }
+
+    private static void setContent(VirtualFile file, BufferedImage image) throws IOException {
+        byte[] content = toPng(image);
+        WriteAction.runAndWait(() -> file.setBinaryContent(content));
+    }
+
+    private static byte[] toPng(BufferedImage image) throws IOException {
+        var out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Creates a 10x10 image with the argument number of pixels, out of 100, differing from a blank image, in its first row.
+     */
+    private static BufferedImage image(int differingPixelCount) {
+        var image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < differingPixelCount; i++) {
+            image.setRGB(i, 0, 0xFF00FF);
+        }
+        return image;
+    }
+
+    private List<VFileEvent> captureEvents(ThrowableRunnable<IOException> action) throws IOException {
+        final var capturedEvents = new ArrayList<VFileEvent>();
+        var connection = ApplicationManager.getApplication().getMessageBus().connect(getTestRootDisposable());
+        connection.subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                capturedEvents.addAll(events);
+            }
+        });
+        WriteAction.run(action);
+        connection.disconnect();
+        return capturedEvents;
+    }
+}
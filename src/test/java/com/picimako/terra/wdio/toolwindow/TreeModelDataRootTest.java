@@ -32,6 +32,12 @@ public class TreeModelDataRootTest extends BasePlatformTestCase {
         assertThat(root).hasToString("Screenshots");
     }
 
+    public void testReturnLoadingTextAsToStringForLoadingRoot() {
+        root.setLoading(true);
+
+        assertThat(root).hasToString("Loading wdio resources...");
+    }
+
     public void testReturnToStringWithSingularSpecSingularScreenshotStat() {
         TreeSpecNode spec = new TreeSpecNode("spec", getProject());
         TreeScreenshotNode screenshot = new TreeScreenshotNode("screenshot", getProject());
@@ -3,7 +3,9 @@
 package com.picimako.terra.wdio.toolwindow;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.testFramework.fixtures.BasePlatformTestCase;
 
 import com.picimako.terra.wdio.toolwindow.node.TreeScreenshotNode;
@@ -76,6 +78,52 @@ public class TreeSpecNodeTest extends BasePlatformTestCase {
         assertThat(specNode.getScreenshots()).containsExactly(screenshotNode2, screenshotNode1);
     }
 
+    //Aggregated counts
+
+    public void testMaintainsAggregatedCountsWhenScreenshotsChange() {
+        var reference = mock(VirtualFile.class);
+        screenshotNode1.addReference(reference);
+        screenshotNode1.addReference(mock(VirtualFile.class));
+        screenshotNode1.addDiff(mock(VirtualFile.class));
+        screenshotNode2.addLatest(mock(VirtualFile.class));
+        screenshotNode2.setUnused(true);
+
+        assertThat(specNode.getReferenceImageCount()).isEqualTo(2);
+        assertThat(specNode.getScreenshotsWithDiffCount()).isEqualTo(1);
+        assertThat(specNode.getScreenshotsWithLatestCount()).isEqualTo(1);
+        assertThat(specNode.getUnusedScreenshotCount()).isEqualTo(1);
+        assertThat(specNode.hasDiff()).isTrue();
+        assertThat(specNode.hasUnused()).isTrue();
+
+        screenshotNode1.getReferences().remove(reference);
+        screenshotNode1.getDiffs().clear();
+        screenshotNode2.setUnused(false);
+
+        assertThat(specNode.getReferenceImageCount()).isEqualTo(1);
+        assertThat(specNode.hasDiff()).isFalse();
+        assertThat(specNode.hasUnused()).isFalse();
+    }
+
+    public void testMaintainsAggregatedCountsWhenScreenshotsAreAddedAndRemoved() {
+        var screenshotNode3 = new TreeScreenshotNode("screenshot node 3", getProject());
+        screenshotNode3.addReference(mock(VirtualFile.class));
+        screenshotNode3.addDiff(mock(VirtualFile.class));
+        screenshotNode3.setUnused(true);
+
+        specNode.insertScreenshotAlphabetically(screenshotNode3);
+
+        assertThat(specNode.getReferenceImageCount()).isEqualTo(1);
+        assertThat(specNode.getScreenshotsWithDiffCount()).isEqualTo(1);
+        assertThat(specNode.getUnusedScreenshotCount()).isEqualTo(1);
+
+        specNode.removeScreenshot(screenshotNode3);
+        screenshotNode3.addDiff(mock(VirtualFile.class));
+
+        assertThat(specNode.getReferenceImageCount()).isZero();
+        assertThat(specNode.getScreenshotsWithDiffCount()).isZero();
+        assertThat(specNode.getUnusedScreenshotCount()).isZero();
+    }
+
     //toString
 
     public void testReturnToStringWithoutScreenshotCount() {
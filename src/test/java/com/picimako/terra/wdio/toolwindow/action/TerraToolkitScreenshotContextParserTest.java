@@ -6,6 +6,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import org.junit.Test;
 
+import com.picimako.terra.wdio.ScreenshotContext;
 import com.picimako.terra.wdio.TerraToolkitScreenshotContextParser;
 
 /**
@@ -24,4 +25,10 @@ public class TerraToolkitScreenshotContextParserTest {
         String path = "/home/project/tests/wdio/nested/__snapshots__/diff/en/chrome_enormous/some-spec/a_screenshot.png";
         assertThat(TerraToolkitScreenshotContextParser.INSTANCE.parse(path)).isEqualTo("en / chrome / enormous");
     }
+
+    @Test
+    public void shouldReturnScreenshotContext() {
+        String path = "/home/project/tests/wdio/__snapshots__/diff/en/chrome_enormous/some-spec/a_screenshot.png";
+        assertThat(TerraToolkitScreenshotContextParser.INSTANCE.parseContext(path)).isEqualTo(new ScreenshotContext(null, "en", "chrome", "enormous"));
+    }
 }
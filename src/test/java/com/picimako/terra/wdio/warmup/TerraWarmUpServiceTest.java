@@ -0,0 +1,91 @@
+//Copyright 2026 Tamás Balog. Use of this source code is governed by the Apache 2.0 license that can be found in the LICENSE file.
+
+package com.picimako.terra.wdio.warmup;
+
+import static com.picimako.terra.wdio.ScreenshotTypeHelper.reference;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.intellij.ide.PowerSaveMode;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+
+import com.picimako.terra.TerraToolkitTestCase;
+import com.picimako.terra.settings.TerraApplicationState;
+
+/**
+ * Unit test for {@link TerraWarmUpService}.
+ */
+public class TerraWarmUpServiceTest extends TerraToolkitTestCase {
+
+    public void testExecutesAllStages() {
+        addWdioFiles();
+
+        warmUp(false);
+
+        assertThat(service().getStageTimings()).extracting(TerraWarmUpService.StageTiming::stage).containsExactly(
+            TerraWarmUpService.Stage.WDIO_ROOTS,
+            TerraWarmUpService.Stage.TERRA_DETECTION,
+            TerraWarmUpService.Stage.SCREENSHOT_INDEXES,
+            TerraWarmUpService.Stage.GLOBAL_SELECTORS,
+            TerraWarmUpService.Stage.TOOL_WINDOW_MODEL);
+        assertThat(service().getStageTimings()).allSatisfy(timing -> assertThat(timing.durationMillis()).isNotNegative());
+    }
+
+    public void testDoesNotPrepareToolWindowModelIfToolWindowIsOpened() {
+        addWdioFiles();
+
+        warmUp(true);
+
+        assertThat(service().getStageTimings()).extracting(TerraWarmUpService.StageTiming::stage)
+            .doesNotContain(TerraWarmUpService.Stage.TOOL_WINDOW_MODEL)
+            .hasSize(4);
+    }
+
+    public void testStopsWithoutWdioRoots() {
+        myFixture.addFileToProject("src/component.js", "");
+
+        warmUp(false);
+
+        assertThat(service().getStageTimings()).extracting(TerraWarmUpService.StageTiming::stage)
+            .containsExactly(TerraWarmUpService.Stage.WDIO_ROOTS);
+    }
+
+    public void testIsCancelledWhenDisabled() {
+        addWdioFiles();
+        var settings = TerraApplicationState.getInstance();
+        settings.warmUpOnStartup = false;
+        try {
+            assertThatThrownBy(() -> warmUp(false)).isInstanceOf(ProcessCanceledException.class);
+            assertThat(service().getStageTimings()).isEmpty();
+        } finally {
+            settings.warmUpOnStartup = true;
+        }
+    }
+
+    public void testIsCancelledInPowerSaveMode() {
+        addWdioFiles();
+        PowerSaveMode.setEnabled(true);
+        try {
+            assertThatThrownBy(() -> warmUp(false)).isInstanceOf(ProcessCanceledException.class);
+            assertThat(service().getStageTimings()).isEmpty();
+        } finally {
+            PowerSaveMode.setEnabled(false);
+        }
+    }
+
+    //Helper methods
+
+    private void addWdioFiles() {
+        myFixture.addFileToProject("tests/wdio/Warm-up-spec.js", "");
+        myFixture.addFileToProject(reference("/en/chrome_huge/Warm-up-spec/screenshot[default].png"), "");
+    }
+
+    private void warmUp(boolean isToolWindowOpened) {
+        service().warmUp(new EmptyProgressIndicator(), isToolWindowOpened);
+    }
+
+    private TerraWarmUpService service() {
+        return TerraWarmUpService.getInstance(getProject());
+    }
+}